@@ -21,8 +21,15 @@ package org.sonar.ce;
 
 import org.sonar.core.platform.Module;
 import org.sonar.db.purge.period.DefaultPeriodCleaner;
+import org.sonar.server.computation.dbcleaner.HousekeepingQueue;
+import org.sonar.server.computation.dbcleaner.HousekeepingScheduler;
 import org.sonar.server.computation.dbcleaner.IndexPurgeListener;
 import org.sonar.server.computation.dbcleaner.ProjectCleaner;
+import org.sonar.server.computation.monitoring.CeHousekeepingMBeanImpl;
+import org.sonar.server.computation.monitoring.CeWebhooksMBeanImpl;
+import org.sonar.server.computation.task.projectanalysis.webhook.WebhookCallerImpl;
+import org.sonar.server.computation.task.projectanalysis.webhook.WebhookDeliveryQueue;
+import org.sonar.server.computation.task.projectanalysis.webhook.WebhookDeliveryStorage;
 
 /**
  * Globally available components in CE for tasks to use.
@@ -33,6 +40,17 @@ public class CeTaskCommonsModule extends Module {
     add(
       DefaultPeriodCleaner.class,
       ProjectCleaner.class,
-      IndexPurgeListener.class);
+      IndexPurgeListener.class,
+
+      // background purge of historical data
+      HousekeepingQueue.class,
+      HousekeepingScheduler.class,
+      CeHousekeepingMBeanImpl.class,
+
+      // background delivery of webhooks
+      WebhookCallerImpl.class,
+      WebhookDeliveryStorage.class,
+      WebhookDeliveryQueue.class,
+      CeWebhooksMBeanImpl.class);
   }
 }
@@ -20,28 +20,41 @@
 package org.sonar.ce.container;
 
 import java.io.File;
+import java.util.Collection;
 import org.apache.commons.io.FileUtils;
 import org.sonar.server.platform.ServerFileSystem;
+import org.sonar.server.plugins.ExplodedPluginCache;
 import org.sonar.api.utils.ZipUtils;
 import org.sonar.core.platform.ExplodedPlugin;
 import org.sonar.core.platform.PluginInfo;
 import org.sonar.core.platform.PluginJarExploder;
 
 /**
- * Explodes the plugin JARs of extensions/plugins/ into a temporary directory
- * dedicated to compute engine.
+ * Loads the plugin JARs of extensions/plugins/ from {@link ExplodedPluginCache}, which is populated by web server. When
+ * the cache can't be used, the JARs are exploded into a temporary directory dedicated to compute engine.
  */
 public class CePluginJarExploder extends PluginJarExploder {
 
   private static final String TEMP_RELATIVE_PATH = "ce-exploded-plugins";
   private final ServerFileSystem fs;
+  private final ExplodedPluginCache cache;
 
-  public CePluginJarExploder(ServerFileSystem fs) {
+  public CePluginJarExploder(ServerFileSystem fs, ExplodedPluginCache cache) {
     this.fs = fs;
+    this.cache = cache;
+  }
+
+  @Override
+  public void prepare(Collection<PluginInfo> infos) {
+    cache.populate(infos);
   }
 
   @Override
   public ExplodedPlugin explode(PluginInfo pluginInfo) {
+    return cache.get(pluginInfo).orElseGet(() -> explodeInTempDir(pluginInfo));
+  }
+
+  private ExplodedPlugin explodeInTempDir(PluginInfo pluginInfo) {
     File tempDir = new File(fs.getTempDir(), TEMP_RELATIVE_PATH);
     File toDir = new File(tempDir, pluginInfo.getKey());
     try {
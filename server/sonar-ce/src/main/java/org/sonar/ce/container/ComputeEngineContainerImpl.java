@@ -62,6 +62,7 @@ import org.sonar.db.DaoModule;
 import org.sonar.db.DatabaseChecker;
 import org.sonar.db.DbClient;
 import org.sonar.db.DefaultDatabase;
+import org.sonar.db.ReadReplicaConsistency;
 import org.sonar.db.purge.PurgeProfiler;
 import org.sonar.process.Props;
 import org.sonar.process.logging.LogbackHelper;
@@ -118,6 +119,7 @@ import org.sonar.server.platform.cluster.ClusterImpl;
 import org.sonar.server.platform.cluster.ClusterProperties;
 import org.sonar.server.platform.db.migration.MigrationConfigurationModule;
 import org.sonar.server.platform.db.migration.version.DatabaseVersion;
+import org.sonar.server.plugins.ExplodedPluginCache;
 import org.sonar.server.plugins.InstalledPluginReferentialFactory;
 import org.sonar.server.plugins.ServerExtensionInstaller;
 import org.sonar.server.plugins.privileged.PrivilegedPluginsBootstraper;
@@ -236,6 +238,7 @@ public class ComputeEngineContainerImpl implements ComputeEngineContainer {
       DaoModule.class,
       ReadOnlyPropertiesDao.class,
       DbClient.class,
+      ReadReplicaConsistency.class,
 
       // Elasticsearch
       EsSearchModule.class,
@@ -268,6 +271,7 @@ public class ComputeEngineContainerImpl implements ComputeEngineContainer {
       // plugins
       PluginClassloaderFactory.class,
       CePluginJarExploder.class,
+      ExplodedPluginCache.class,
       PluginLoader.class,
       CePluginRepository.class,
       InstalledPluginReferentialFactory.class,
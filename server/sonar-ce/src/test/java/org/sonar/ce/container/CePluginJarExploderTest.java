@@ -21,15 +21,25 @@ package org.sonar.ce.container;
 
 import java.io.File;
 import java.io.IOException;
+import java.util.List;
+import java.util.Optional;
+import org.junit.Before;
 import org.junit.Rule;
 import org.junit.Test;
 import org.junit.rules.TemporaryFolder;
 import org.sonar.server.platform.ServerFileSystem;
 import org.sonar.core.platform.ExplodedPlugin;
 import org.sonar.core.platform.PluginInfo;
+import org.sonar.server.plugins.ExplodedPluginCache;
 
 import static org.apache.commons.io.FileUtils.sizeOfDirectory;
+import static java.util.Collections.emptyList;
+import static java.util.Collections.singletonList;
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
 
 public class CePluginJarExploderTest {
 
@@ -37,7 +47,34 @@ public class CePluginJarExploderTest {
   public TemporaryFolder temp = new TemporaryFolder();
 
   DumbFileSystem fs = new DumbFileSystem(temp);
-  CePluginJarExploder underTest = new CePluginJarExploder(fs);
+  ExplodedPluginCache cache = mock(ExplodedPluginCache.class);
+  CePluginJarExploder underTest = new CePluginJarExploder(fs, cache);
+
+  @Before
+  public void setUp() {
+    when(cache.get(any(PluginInfo.class))).thenReturn(Optional.empty());
+  }
+
+  @Test
+  public void prepare_populates_cache() {
+    List<PluginInfo> infos = singletonList(PluginInfo.create(plugin1Jar()));
+
+    underTest.prepare(infos);
+
+    verify(cache).populate(infos);
+  }
+
+  @Test
+  public void load_plugin_from_cache_if_available() {
+    PluginInfo info = PluginInfo.create(plugin1Jar());
+    ExplodedPlugin cached = new ExplodedPlugin("test", plugin1Jar(), emptyList());
+    when(cache.get(info)).thenReturn(Optional.of(cached));
+
+    ExplodedPlugin exploded = underTest.explode(info);
+
+    assertThat(exploded).isSameAs(cached);
+    assertThat(new File(fs.getTempDir(), "ce-exploded-plugins")).doesNotExist();
+  }
 
   @Test
   public void explode_jar_to_temp_directory() throws Exception {
@@ -19,6 +19,7 @@
  */
 package org.sonar.db;
 
+import javax.annotation.CheckForNull;
 import javax.sql.DataSource;
 import org.picocontainer.Startable;
 import org.sonar.db.dialect.Dialect;
@@ -32,6 +33,13 @@ public interface Database extends Startable {
    */
   DataSource getDataSource();
 
+  /**
+   * Returns the datasource of the read replica of the database, or null if no read replica is configured
+   * or if start() is not executed. Connections of this datasource are read-only.
+   */
+  @CheckForNull
+  DataSource getReadReplicaDataSource();
+
   /**
    * @return the dialect or null if start() has not been executed
    */
@@ -26,6 +26,8 @@ import java.sql.SQLException;
 import java.util.List;
 import java.util.Map;
 import java.util.Properties;
+import javax.annotation.CheckForNull;
+import javax.annotation.Nullable;
 import javax.sql.DataSource;
 import org.apache.commons.dbcp.BasicDataSource;
 import org.apache.commons.dbcp.BasicDataSourceFactory;
@@ -55,12 +57,15 @@ public class DefaultDatabase implements Database {
   private static final String SONAR_JDBC = "sonar.jdbc.";
   private static final String SONAR_JDBC_DIALECT = "sonar.jdbc.dialect";
   private static final String SONAR_JDBC_URL = "sonar.jdbc.url";
+  private static final String SONAR_JDBC_READ_REPLICA = "sonar.jdbc.readReplica.";
 
   private final LogbackHelper logbackHelper;
   private final Settings settings;
   private ProfiledDataSource datasource;
+  private ProfiledDataSource readReplicaDatasource;
   private Dialect dialect;
   private Properties properties;
+  private Properties readReplicaProperties;
 
   public DefaultDatabase(LogbackHelper logbackHelper, Settings settings) {
     this.logbackHelper = logbackHelper;
@@ -72,7 +77,11 @@ public class DefaultDatabase implements Database {
     try {
       initSettings();
       initDataSource();
-      checkConnection();
+      checkConnection(datasource, "Can not connect to database. Please check connectivity and settings (see the properties prefixed by 'sonar.jdbc.').");
+      if (readReplicaDatasource != null) {
+        checkConnection(readReplicaDatasource,
+          "Can not connect to read replica database. Please check connectivity and settings (see the properties prefixed by 'sonar.jdbc.readReplica.').");
+      }
 
     } catch (Exception e) {
       throw new IllegalStateException("Fail to connect to database", e);
@@ -83,29 +92,76 @@ public class DefaultDatabase implements Database {
   void initSettings() {
     properties = new Properties();
     completeProperties(settings, properties, SONAR_JDBC);
+    Properties readReplicaOverrides = extractReadReplicaProperties(properties);
     completeDefaultProperty(properties, DatabaseProperties.PROP_URL, DEFAULT_URL);
     doCompleteProperties(properties);
 
     dialect = DialectUtils.find(properties.getProperty(SONAR_JDBC_DIALECT), properties.getProperty(SONAR_JDBC_URL));
     properties.setProperty(DatabaseProperties.PROP_DRIVER, dialect.getDefaultDriverClassName());
+    readReplicaProperties = initReadReplicaProperties(readReplicaOverrides);
+  }
+
+  /**
+   * Removes the properties prefixed by "sonar.jdbc.readReplica." from the specified properties and returns
+   * them with the prefix "sonar.jdbc."
+   */
+  private static Properties extractReadReplicaProperties(Properties properties) {
+    Properties result = new Properties();
+    for (String key : properties.stringPropertyNames()) {
+      if (key.startsWith(SONAR_JDBC_READ_REPLICA)) {
+        result.setProperty(SONAR_JDBC + StringUtils.removeStart(key, SONAR_JDBC_READ_REPLICA), (String) properties.remove(key));
+      }
+    }
+    return result;
+  }
+
+  /**
+   * The read replica is enabled when its URL is defined. Other settings are the ones of the primary database,
+   * unless they are overridden by the properties prefixed by "sonar.jdbc.readReplica.".
+   */
+  @CheckForNull
+  private Properties initReadReplicaProperties(Properties readReplicaOverrides) {
+    String url = readReplicaOverrides.getProperty(SONAR_JDBC_URL);
+    if (StringUtils.isBlank(url)) {
+      return null;
+    }
+    Dialect readReplicaDialect = DialectUtils.find(null, url);
+    if (!readReplicaDialect.getId().equals(dialect.getId())) {
+      throw new IllegalStateException(format("Read replica must be a %s database, as the primary database. Got %s with URL %s",
+        dialect.getId(), readReplicaDialect.getId(), url));
+    }
+    Properties result = new Properties();
+    result.putAll(properties);
+    result.putAll(readReplicaOverrides);
+    result.setProperty("sonar.jdbc.defaultReadOnly", "true");
+    return result;
   }
 
   private void initDataSource() throws Exception {
     // but it's correctly caught by start()
     LOG.info("Create JDBC data source for {}", properties.getProperty(DatabaseProperties.PROP_URL, DEFAULT_URL));
-    BasicDataSource basicDataSource = (BasicDataSource) BasicDataSourceFactory.createDataSource(extractCommonsDbcpProperties(properties));
-    datasource = new ProfiledDataSource(basicDataSource, NullConnectionInterceptor.INSTANCE);
-    datasource.setConnectionInitSqls(dialect.getConnectionInitStatements());
-    datasource.setValidationQuery(dialect.getValidationQuery());
-    enableSqlLogging(datasource, logbackHelper.getLoggerLevel("sql") == Level.TRACE);
+    datasource = createDataSource(properties);
+    if (readReplicaProperties != null) {
+      LOG.info("Create JDBC data source for read replica {}", readReplicaProperties.getProperty(SONAR_JDBC_URL));
+      readReplicaDatasource = createDataSource(readReplicaProperties);
+    }
   }
 
-  private void checkConnection() {
+  private ProfiledDataSource createDataSource(Properties dataSourceProperties) throws Exception {
+    BasicDataSource basicDataSource = (BasicDataSource) BasicDataSourceFactory.createDataSource(extractCommonsDbcpProperties(dataSourceProperties));
+    ProfiledDataSource result = new ProfiledDataSource(basicDataSource, NullConnectionInterceptor.INSTANCE);
+    result.setConnectionInitSqls(dialect.getConnectionInitStatements());
+    result.setValidationQuery(dialect.getValidationQuery());
+    enableSqlLogging(result, logbackHelper.getLoggerLevel("sql") == Level.TRACE);
+    return result;
+  }
+
+  private static void checkConnection(DataSource dataSource, String errorMessage) {
     Connection connection = null;
     try {
-      connection = datasource.getConnection();
+      connection = dataSource.getConnection();
     } catch (SQLException e) {
-      throw new IllegalStateException("Can not connect to database. Please check connectivity and settings (see the properties prefixed by 'sonar.jdbc.').", e);
+      throw new IllegalStateException(errorMessage, e);
     } finally {
       DbUtils.closeQuietly(connection);
     }
@@ -113,9 +169,14 @@ public class DefaultDatabase implements Database {
 
   @Override
   public void stop() {
-    if (datasource != null) {
+    close(readReplicaDatasource);
+    close(datasource);
+  }
+
+  private static void close(@Nullable ProfiledDataSource dataSource) {
+    if (dataSource != null) {
       try {
-        datasource.close();
+        dataSource.close();
       } catch (SQLException e) {
         throw new IllegalStateException("Fail to stop JDBC connection pool", e);
       }
@@ -132,13 +193,27 @@ public class DefaultDatabase implements Database {
     return datasource;
   }
 
+  @Override
+  @CheckForNull
+  public final DataSource getReadReplicaDataSource() {
+    return readReplicaDatasource;
+  }
+
   public final Properties getProperties() {
     return properties;
   }
 
+  @CheckForNull
+  public final Properties getReadReplicaProperties() {
+    return readReplicaProperties;
+  }
+
   @Override
   public void enableSqlLogging(boolean enable) {
     enableSqlLogging(datasource, enable);
+    if (readReplicaDatasource != null) {
+      enableSqlLogging(readReplicaDatasource, enable);
+    }
   }
 
   private static void enableSqlLogging(ProfiledDataSource ds, boolean enable) {
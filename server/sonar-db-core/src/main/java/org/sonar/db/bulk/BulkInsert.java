@@ -0,0 +1,193 @@
+/*
+ * SonarQube
+ * Copyright (C) 2009-2017 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.db.bulk;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.util.List;
+import java.util.stream.Collectors;
+import javax.annotation.Nullable;
+import org.sonar.db.dialect.Dialect;
+import org.sonar.db.dialect.MySql;
+import org.sonar.db.dialect.PostgreSql;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static java.lang.String.format;
+import static java.util.Arrays.asList;
+import static java.util.Collections.unmodifiableList;
+
+/**
+ * Insertion of a large number of rows into a table, using the fastest mechanism supported by the database:
+ * <ul>
+ *   <li>PostgreSQL: {@code COPY ... FROM STDIN}, or multi-row {@code INSERT} if the driver API is not reachable</li>
+ *   <li>MySQL: multi-row {@code INSERT}</li>
+ *   <li>others: JDBC batch of single-row {@code INSERT}. Note that Oracle driver natively binds batches as arrays.</li>
+ * </ul>
+ * Rows are sent to the database by chunks, in the transaction of the given connection. Commit is
+ * the responsibility of the caller. Values must be {@code null}, {@link String}, {@link Integer}, {@link Long},
+ * {@link Double}, {@link Boolean} or {@code byte[]}.
+ */
+public abstract class BulkInsert implements AutoCloseable {
+
+  static final int DEFAULT_ROWS_PER_FLUSH = 1_000;
+
+  protected final Connection connection;
+  protected final String table;
+  protected final List<Column> columns;
+  private long count = 0L;
+
+  protected BulkInsert(Connection connection, String table, List<Column> columns) {
+    checkArgument(!columns.isEmpty(), "At least one column is required");
+    this.connection = connection;
+    this.table = table;
+    this.columns = unmodifiableList(columns);
+  }
+
+  public static BulkInsert create(Dialect dialect, Connection connection, String table, Column... columns) {
+    List<Column> columnList = asList(columns);
+    try {
+      switch (dialect.getId()) {
+        case PostgreSql.ID:
+          if (PostgreSqlCopyBulkInsert.isSupported(connection)) {
+            return new PostgreSqlCopyBulkInsert(connection, table, columnList, DEFAULT_ROWS_PER_FLUSH);
+          }
+          return new MultiValuesBulkInsert(connection, table, columnList, DEFAULT_ROWS_PER_FLUSH);
+        case MySql.ID:
+          return new MultiValuesBulkInsert(connection, table, columnList, DEFAULT_ROWS_PER_FLUSH);
+        default:
+          return new JdbcBatchBulkInsert(connection, table, columnList, DEFAULT_ROWS_PER_FLUSH);
+      }
+    } catch (SQLException e) {
+      throw new IllegalStateException(format("Fail to prepare bulk insert into table %s", table), e);
+    }
+  }
+
+  /**
+   * Adds a row. Values must be in the same order as the columns.
+   */
+  public BulkInsert add(Object... values) {
+    checkArgument(values.length == columns.size(), "Expected %s values but got %s", columns.size(), values.length);
+    try {
+      doAdd(values);
+    } catch (SQLException e) {
+      throw new IllegalStateException(format("Fail to insert into table %s", table), e);
+    }
+    count++;
+    return this;
+  }
+
+  /**
+   * Number of rows added since creation
+   */
+  public long getCount() {
+    return count;
+  }
+
+  /**
+   * Sends the pending rows to the database
+   */
+  public void flush() {
+    try {
+      doFlush();
+    } catch (SQLException e) {
+      throw new IllegalStateException(format("Fail to insert into table %s", table), e);
+    }
+  }
+
+  /**
+   * Sends the pending rows to the database and releases JDBC resources. The connection is not closed.
+   */
+  @Override
+  public void close() {
+    try {
+      doFlush();
+    } catch (SQLException e) {
+      throw new IllegalStateException(format("Fail to insert into table %s", table), e);
+    } finally {
+      release();
+    }
+  }
+
+  protected abstract void doAdd(Object[] values) throws SQLException;
+
+  protected abstract void doFlush() throws SQLException;
+
+  protected abstract void release();
+
+  protected String columnNames() {
+    return columns.stream().map(Column::getName).collect(Collectors.joining(","));
+  }
+
+  protected void setParameter(PreparedStatement stmt, int index, Column column, @Nullable Object value) throws SQLException {
+    if (value == null) {
+      stmt.setNull(index, column.getSqlType());
+    } else if (value instanceof byte[]) {
+      stmt.setBytes(index, (byte[]) value);
+    } else if (value instanceof Boolean) {
+      stmt.setBoolean(index, (Boolean) value);
+    } else {
+      stmt.setObject(index, value, column.getSqlType());
+    }
+  }
+
+  public static final class Column {
+    private final String name;
+    private final int sqlType;
+
+    private Column(String name, int sqlType) {
+      this.name = name;
+      this.sqlType = sqlType;
+    }
+
+    public static Column varchar(String name) {
+      return new Column(name, Types.VARCHAR);
+    }
+
+    public static Column integer(String name) {
+      return new Column(name, Types.INTEGER);
+    }
+
+    public static Column bigint(String name) {
+      return new Column(name, Types.BIGINT);
+    }
+
+    public static Column doublePrecision(String name) {
+      return new Column(name, Types.DOUBLE);
+    }
+
+    public static Column bool(String name) {
+      return new Column(name, Types.BOOLEAN);
+    }
+
+    public static Column blob(String name) {
+      return new Column(name, Types.BINARY);
+    }
+
+    public String getName() {
+      return name;
+    }
+
+    public int getSqlType() {
+      return sqlType;
+    }
+  }
+}
@@ -0,0 +1,68 @@
+/*
+ * SonarQube
+ * Copyright (C) 2009-2017 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.db.bulk;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.List;
+import org.sonar.db.DatabaseUtils;
+
+/**
+ * Standard JDBC batch of single-row inserts
+ */
+class JdbcBatchBulkInsert extends BulkInsert {
+
+  private final int rowsPerFlush;
+  private final PreparedStatement stmt;
+  private int pendingRows = 0;
+
+  JdbcBatchBulkInsert(Connection connection, String table, List<Column> columns, int rowsPerFlush) throws SQLException {
+    super(connection, table, columns);
+    this.rowsPerFlush = rowsPerFlush;
+    this.stmt = connection.prepareStatement(MultiValuesBulkInsert.insertSql(table, columnNames(), columns.size(), 1));
+  }
+
+  @Override
+  protected void doAdd(Object[] values) throws SQLException {
+    for (int i = 0; i < values.length; i++) {
+      setParameter(stmt, i + 1, columns.get(i), values[i]);
+    }
+    stmt.addBatch();
+    pendingRows++;
+    if (pendingRows >= rowsPerFlush) {
+      doFlush();
+    }
+  }
+
+  @Override
+  protected void doFlush() throws SQLException {
+    if (pendingRows > 0) {
+      stmt.executeBatch();
+      stmt.clearBatch();
+      pendingRows = 0;
+    }
+  }
+
+  @Override
+  protected void release() {
+    DatabaseUtils.closeQuietly(stmt);
+  }
+}
@@ -0,0 +1,104 @@
+/*
+ * SonarQube
+ * Copyright (C) 2009-2017 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.db.bulk;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import javax.annotation.CheckForNull;
+import org.sonar.db.DatabaseUtils;
+
+/**
+ * Inserts many rows per statement with {@code INSERT INTO t (c1, c2) VALUES (?, ?), (?, ?), ...}
+ */
+class MultiValuesBulkInsert extends BulkInsert {
+
+  /**
+   * Lower than the max number of bind parameters of a statement on PostgreSQL (32767) and MySQL (65535)
+   */
+  private static final int MAX_PARAMETERS_PER_STATEMENT = 30_000;
+
+  private final int rowsPerStatement;
+  private final List<Object[]> pendingRows;
+  @CheckForNull
+  private PreparedStatement fullStatement;
+
+  MultiValuesBulkInsert(Connection connection, String table, List<Column> columns, int rowsPerFlush) {
+    super(connection, table, columns);
+    this.rowsPerStatement = Math.max(1, Math.min(rowsPerFlush, MAX_PARAMETERS_PER_STATEMENT / columns.size()));
+    this.pendingRows = new ArrayList<>(rowsPerStatement);
+  }
+
+  static String insertSql(String table, String columnNames, int columnCount, int rowCount) {
+    StringBuilder row = new StringBuilder("(");
+    for (int i = 0; i < columnCount; i++) {
+      row.append(i == 0 ? "?" : ",?");
+    }
+    row.append(")");
+    StringBuilder sql = new StringBuilder("INSERT INTO ").append(table).append(" (").append(columnNames).append(") VALUES ");
+    for (int i = 0; i < rowCount; i++) {
+      if (i > 0) {
+        sql.append(',');
+      }
+      sql.append(row);
+    }
+    return sql.toString();
+  }
+
+  @Override
+  protected void doAdd(Object[] values) throws SQLException {
+    pendingRows.add(values);
+    if (pendingRows.size() >= rowsPerStatement) {
+      if (fullStatement == null) {
+        fullStatement = connection.prepareStatement(insertSql(table, columnNames(), columns.size(), rowsPerStatement));
+      }
+      execute(fullStatement);
+    }
+  }
+
+  @Override
+  protected void doFlush() throws SQLException {
+    if (!pendingRows.isEmpty()) {
+      try (PreparedStatement stmt = connection.prepareStatement(insertSql(table, columnNames(), columns.size(), pendingRows.size()))) {
+        execute(stmt);
+      }
+    }
+  }
+
+  private void execute(PreparedStatement stmt) throws SQLException {
+    int parameterIndex = 1;
+    for (Object[] row : pendingRows) {
+      for (int i = 0; i < row.length; i++) {
+        setParameter(stmt, parameterIndex, columns.get(i), row[i]);
+        parameterIndex++;
+      }
+    }
+    stmt.executeUpdate();
+    pendingRows.clear();
+  }
+
+  @Override
+  protected void release() {
+    DatabaseUtils.closeQuietly(fullStatement);
+    pendingRows.clear();
+  }
+}
@@ -0,0 +1,85 @@
+/*
+ * SonarQube
+ * Copyright (C) 2009-2017 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.db.bulk;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.List;
+import org.postgresql.PGConnection;
+import org.postgresql.copy.CopyManager;
+
+/**
+ * Streams rows with {@code COPY ... FROM STDIN} in CSV format, through the API of the PostgreSQL JDBC driver.
+ * Rows are encoded by {@link PostgreSqlCsvEncoder}.
+ * This class must be loaded only when PostgreSQL is used, as the driver is not available otherwise.
+ */
+class PostgreSqlCopyBulkInsert extends BulkInsert {
+
+  private final int rowsPerFlush;
+  private final CopyManager copyManager;
+  private final String copySql;
+  private final StringBuilder buffer = new StringBuilder();
+  private int pendingRows = 0;
+
+  PostgreSqlCopyBulkInsert(Connection connection, String table, List<Column> columns, int rowsPerFlush) throws SQLException {
+    super(connection, table, columns);
+    this.rowsPerFlush = rowsPerFlush;
+    this.copyManager = connection.unwrap(PGConnection.class).getCopyAPI();
+    this.copySql = "COPY " + table + " (" + columnNames() + ") FROM STDIN WITH CSV";
+  }
+
+  static boolean isSupported(Connection connection) {
+    try {
+      return connection.isWrapperFor(PGConnection.class);
+    } catch (SQLException | LinkageError e) {
+      return false;
+    }
+  }
+
+  @Override
+  protected void doAdd(Object[] values) throws SQLException {
+    PostgreSqlCsvEncoder.appendRow(buffer, values);
+    pendingRows++;
+    if (pendingRows >= rowsPerFlush) {
+      doFlush();
+    }
+  }
+
+  @Override
+  protected void doFlush() throws SQLException {
+    if (pendingRows == 0) {
+      return;
+    }
+    try {
+      copyManager.copyIn(copySql, new StringReader(buffer.toString()));
+    } catch (IOException e) {
+      throw new SQLException("Fail to copy rows into table " + table, e);
+    }
+    buffer.setLength(0);
+    pendingRows = 0;
+  }
+
+  @Override
+  protected void release() {
+    buffer.setLength(0);
+  }
+}
@@ -0,0 +1,100 @@
+/*
+ * SonarQube
+ * Copyright (C) 2009-2017 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.db.bulk;
+
+import javax.annotation.Nullable;
+
+/**
+ * Encodes rows in the CSV format of {@code COPY ... FROM STDIN WITH CSV}. See
+ * https://www.postgresql.org/docs/current/static/sql-copy.html
+ * <ul>
+ *   <li>NULL is an unquoted empty string, so strings are always quoted, including empty strings</li>
+ *   <li>double quotes of strings are escaped by doubling them</li>
+ *   <li>{@code byte[]} is encoded in the hex format of bytea, for example {@code \x0aff}</li>
+ *   <li>special values of doubles are encoded as {@code NaN}, {@code Infinity} and {@code -Infinity}</li>
+ * </ul>
+ * This class does not depend on the PostgreSQL driver.
+ */
+final class PostgreSqlCsvEncoder {
+
+  private static final char[] HEX_DIGITS = "0123456789abcdef".toCharArray();
+
+  private PostgreSqlCsvEncoder() {
+    // only static methods
+  }
+
+  /**
+   * Appends the row, including the trailing line break, to the buffer
+   */
+  static void appendRow(StringBuilder buffer, Object[] values) {
+    for (int i = 0; i < values.length; i++) {
+      if (i > 0) {
+        buffer.append(',');
+      }
+      appendValue(buffer, values[i]);
+    }
+    buffer.append('\n');
+  }
+
+  private static void appendValue(StringBuilder buffer, @Nullable Object value) {
+    if (value == null) {
+      return;
+    }
+    if (value instanceof String) {
+      appendString(buffer, (String) value);
+    } else if (value instanceof byte[]) {
+      // hex format of bytea, see https://www.postgresql.org/docs/current/static/datatype-binary.html
+      buffer.append("\\x");
+      for (byte b : (byte[]) value) {
+        buffer.append(HEX_DIGITS[(b >> 4) & 0xF]).append(HEX_DIGITS[b & 0xF]);
+      }
+    } else if (value instanceof Double || value instanceof Float) {
+      appendFloatingPoint(buffer, ((Number) value).doubleValue());
+    } else if (value instanceof Number || value instanceof Boolean) {
+      buffer.append(value);
+    } else {
+      throw new IllegalArgumentException("Unsupported type of value: " + value.getClass());
+    }
+  }
+
+  private static void appendString(StringBuilder buffer, String s) {
+    buffer.append('"');
+    for (int i = 0; i < s.length(); i++) {
+      char c = s.charAt(i);
+      if (c == '"') {
+        buffer.append('"');
+      }
+      buffer.append(c);
+    }
+    buffer.append('"');
+  }
+
+  private static void appendFloatingPoint(StringBuilder buffer, double d) {
+    if (Double.isNaN(d)) {
+      buffer.append("NaN");
+    } else if (d == Double.POSITIVE_INFINITY) {
+      buffer.append("Infinity");
+    } else if (d == Double.NEGATIVE_INFINITY) {
+      buffer.append("-Infinity");
+    } else {
+      buffer.append(d);
+    }
+  }
+}
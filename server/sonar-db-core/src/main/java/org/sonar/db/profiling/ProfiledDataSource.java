@@ -320,12 +320,23 @@ public class ProfiledDataSource extends BasicDataSource {
 
   @Override
   public Connection getConnection() throws SQLException {
-    return connectionInterceptor.getConnection(delegate);
+    return currentInterceptor().getConnection(delegate);
   }
 
   @Override
   public Connection getConnection(String login, String password) throws SQLException {
-    return connectionInterceptor.getConnection(this, login, password);
+    return currentInterceptor().getConnection(this, login, password);
+  }
+
+  /**
+   * Statements must be intercepted when the current thread records {@link SqlStatistics}, even if
+   * SQL logs are disabled.
+   */
+  private ConnectionInterceptor currentInterceptor() {
+    if (SqlStatistics.isRecording()) {
+      return ProfiledConnectionInterceptor.INSTANCE;
+    }
+    return connectionInterceptor;
   }
 
   @Override
@@ -40,10 +40,12 @@ class ProfilingPreparedStatementHandler implements InvocationHandler {
   public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
     if (method.getName().startsWith("execute")) {
       Profiler profiler = Profiler.create(ProfiledDataSource.SQL_LOGGER).start();
+      long start = System.nanoTime();
       Object result = null;
       try {
         result = InvocationUtils.invokeQuietly(statement, method, args);
       } finally {
+        SqlStatistics.record(System.nanoTime() - start);
         profiler.addContext("sql", SqlLogFormatter.formatSql(sql));
         if (sqlParams.length > 0) {
           profiler.addContext("params", SqlLogFormatter.formatParams(sqlParams));
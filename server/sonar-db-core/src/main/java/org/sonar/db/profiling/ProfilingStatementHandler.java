@@ -36,10 +36,12 @@ class ProfilingStatementHandler implements InvocationHandler {
   public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
     if (method.getName().startsWith("execute")) {
       Profiler profiler = Profiler.create(ProfiledDataSource.SQL_LOGGER).start();
+      long start = System.nanoTime();
       Object result = null;
       try {
         result = InvocationUtils.invokeQuietly(statement, method, args);
       } finally {
+        SqlStatistics.record(System.nanoTime() - start);
         String sql = (String) args[0];
         profiler.addContext("sql", SqlLogFormatter.formatSql(sql));
         profiler.stopTrace("");
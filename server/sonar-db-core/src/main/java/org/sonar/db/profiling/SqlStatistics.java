@@ -0,0 +1,85 @@
+/*
+ * SonarQube
+ * Copyright (C) 2009-2017 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.db.profiling;
+
+import java.util.concurrent.TimeUnit;
+import javax.annotation.CheckForNull;
+
+/**
+ * Count and duration of the SQL statements executed by the current thread while recording is enabled.
+ * <p>
+ * Statements are intercepted by the proxies of {@link ProfiledConnectionInterceptor}. When the SQL logs
+ * are disabled, {@link ProfiledDataSource} still returns these proxies to the threads which are recording,
+ * so that statistics are available whatever the log level.
+ * </p>
+ */
+public final class SqlStatistics {
+
+  private static final ThreadLocal<SqlStatistics> CURRENT = new ThreadLocal<>();
+
+  private long statementCount = 0L;
+  private long durationNanos = 0L;
+
+  private SqlStatistics() {
+    // use startRecording()
+  }
+
+  /**
+   * Starts recording the statements executed by the current thread. Statistics of a previous recording
+   * of the thread, if any, are discarded.
+   */
+  public static SqlStatistics startRecording() {
+    SqlStatistics statistics = new SqlStatistics();
+    CURRENT.set(statistics);
+    return statistics;
+  }
+
+  public static void stopRecording() {
+    CURRENT.remove();
+  }
+
+  /**
+   * Statistics of the current thread, or {@code null} if it is not recording.
+   */
+  @CheckForNull
+  public static SqlStatistics current() {
+    return CURRENT.get();
+  }
+
+  static boolean isRecording() {
+    return CURRENT.get() != null;
+  }
+
+  static void record(long durationNanos) {
+    SqlStatistics statistics = CURRENT.get();
+    if (statistics != null) {
+      statistics.statementCount++;
+      statistics.durationNanos += durationNanos;
+    }
+  }
+
+  public long getStatementCount() {
+    return statementCount;
+  }
+
+  public long getDurationMs() {
+    return TimeUnit.NANOSECONDS.toMillis(durationNanos);
+  }
+}
@@ -21,7 +21,9 @@ package org.sonar.db;
 
 import java.util.Properties;
 import org.apache.commons.dbcp.BasicDataSource;
+import org.junit.Rule;
 import org.junit.Test;
+import org.junit.rules.ExpectedException;
 import org.sonar.api.config.Settings;
 import org.sonar.api.config.MapSettings;
 import org.sonar.db.dialect.PostgreSql;
@@ -31,6 +33,9 @@ import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.Mockito.mock;
 
 public class DefaultDatabaseTest {
+  @Rule
+  public ExpectedException expectedException = ExpectedException.none();
+
   private LogbackHelper logbackHelper = mock(LogbackHelper.class);
 
   @Test
@@ -113,4 +118,72 @@ public class DefaultDatabaseTest {
 
     assertThat(database.getProperties().getProperty("sonar.jdbc.driverClassName")).isEqualTo("org.postgresql.Driver");
   }
+
+  @Test
+  public void read_replica_is_disabled_by_default() {
+    DefaultDatabase db = new DefaultDatabase(logbackHelper, new MapSettings());
+    db.initSettings();
+
+    assertThat(db.getReadReplicaProperties()).isNull();
+    assertThat(db.getReadReplicaDataSource()).isNull();
+  }
+
+  @Test
+  public void read_replica_inherits_properties_of_primary_database() {
+    Settings settings = new MapSettings();
+    settings.setProperty("sonar.jdbc.url", "jdbc:postgresql://primary/sonar");
+    settings.setProperty("sonar.jdbc.username", "me");
+    settings.setProperty("sonar.jdbc.maxActive", "5");
+    settings.setProperty("sonar.jdbc.readReplica.url", "jdbc:postgresql://replica/sonar");
+    settings.setProperty("sonar.jdbc.readReplica.maxActive", "10");
+
+    DefaultDatabase db = new DefaultDatabase(logbackHelper, settings);
+    db.initSettings();
+
+    Properties props = db.getProperties();
+    assertThat(props.getProperty("sonar.jdbc.url")).isEqualTo("jdbc:postgresql://primary/sonar");
+    assertThat(props.getProperty("sonar.jdbc.maxActive")).isEqualTo("5");
+    assertThat(props.getProperty("sonar.jdbc.readReplica.url")).isNull();
+    assertThat(props.getProperty("sonar.jdbc.readReplica.maxActive")).isNull();
+    Properties readReplicaProps = db.getReadReplicaProperties();
+    assertThat(readReplicaProps.getProperty("sonar.jdbc.url")).isEqualTo("jdbc:postgresql://replica/sonar");
+    assertThat(readReplicaProps.getProperty("sonar.jdbc.username")).isEqualTo("me");
+    assertThat(readReplicaProps.getProperty("sonar.jdbc.maxActive")).isEqualTo("10");
+    assertThat(readReplicaProps.getProperty("sonar.jdbc.driverClassName")).isEqualTo("org.postgresql.Driver");
+    assertThat(readReplicaProps.getProperty("sonar.jdbc.defaultReadOnly")).isEqualTo("true");
+  }
+
+  @Test
+  public void fail_if_read_replica_is_not_of_same_vendor_as_primary_database() {
+    Settings settings = new MapSettings();
+    settings.setProperty("sonar.jdbc.url", "jdbc:postgresql://primary/sonar");
+    settings.setProperty("sonar.jdbc.readReplica.url", "jdbc:h2:tcp://replica/sonar");
+
+    DefaultDatabase db = new DefaultDatabase(logbackHelper, settings);
+
+    expectedException.expect(IllegalStateException.class);
+    expectedException.expectMessage("Read replica must be a postgresql database, as the primary database. Got h2 with URL jdbc:h2:tcp://replica/sonar");
+
+    db.initSettings();
+  }
+
+  @Test
+  public void start_and_stop_read_replica() {
+    Settings settings = new MapSettings();
+    settings.setProperty("sonar.jdbc.url", "jdbc:h2:mem:sonar_primary");
+    settings.setProperty("sonar.jdbc.username", "sonar");
+    settings.setProperty("sonar.jdbc.password", "sonar");
+    settings.setProperty("sonar.jdbc.readReplica.url", "jdbc:h2:mem:sonar_replica");
+    settings.setProperty("sonar.jdbc.readReplica.maxActive", "3");
+
+    DefaultDatabase db = new DefaultDatabase(logbackHelper, settings);
+    db.start();
+    db.stop();
+
+    BasicDataSource readReplicaDataSource = (BasicDataSource) db.getReadReplicaDataSource();
+    assertThat(readReplicaDataSource.getUrl()).isEqualTo("jdbc:h2:mem:sonar_replica");
+    assertThat(readReplicaDataSource.getMaxActive()).isEqualTo(3);
+    assertThat(readReplicaDataSource.getDefaultReadOnly()).isTrue();
+    assertThat(readReplicaDataSource.isClosed()).isTrue();
+  }
 }
@@ -106,6 +106,11 @@ public class H2Database implements Database {
     return datasource;
   }
 
+  @Override
+  public DataSource getReadReplicaDataSource() {
+    return null;
+  }
+
   public Dialect getDialect() {
     return new H2();
   }
@@ -0,0 +1,127 @@
+/*
+ * SonarQube
+ * Copyright (C) 2009-2017 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.db.bulk;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.Map;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+import org.sonar.db.CoreDbTester;
+import org.sonar.db.dialect.H2;
+
+import static java.util.Arrays.asList;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.sonar.db.bulk.BulkInsert.Column.bigint;
+import static org.sonar.db.bulk.BulkInsert.Column.bool;
+import static org.sonar.db.bulk.BulkInsert.Column.varchar;
+
+public class BulkInsertTest {
+
+  private static final List<BulkInsert.Column> COLUMNS = asList(varchar("name"), bigint("file_size"), bool("enabled"));
+
+  @Rule
+  public CoreDbTester db = CoreDbTester.createForSchema(BulkInsertTest.class, "schema.sql");
+  @Rule
+  public ExpectedException expectedException = ExpectedException.none();
+
+  @Test
+  public void create_uses_jdbc_batch_on_h2() throws SQLException {
+    try (Connection connection = db.openConnection();
+      BulkInsert underTest = BulkInsert.create(new H2(), connection, "bulk_rows", COLUMNS.toArray(new BulkInsert.Column[0]))) {
+      assertThat(underTest).isInstanceOf(JdbcBatchBulkInsert.class);
+    }
+  }
+
+  @Test
+  public void jdbc_batch_inserts_rows_in_several_flushes() throws SQLException {
+    try (Connection connection = db.openConnection()) {
+      connection.setAutoCommit(false);
+      try (BulkInsert underTest = new JdbcBatchBulkInsert(connection, "bulk_rows", COLUMNS, 2)) {
+        insertRows(underTest, 5);
+        assertThat(underTest.getCount()).isEqualTo(5);
+      }
+      connection.commit();
+    }
+
+    verifyRows(5);
+  }
+
+  @Test
+  public void multi_values_inserts_rows_in_several_flushes() throws SQLException {
+    try (Connection connection = db.openConnection()) {
+      connection.setAutoCommit(false);
+      try (BulkInsert underTest = new MultiValuesBulkInsert(connection, "bulk_rows", COLUMNS, 2)) {
+        insertRows(underTest, 5);
+        assertThat(underTest.getCount()).isEqualTo(5);
+      }
+      connection.commit();
+    }
+
+    verifyRows(5);
+  }
+
+  @Test
+  public void close_without_rows_does_nothing() throws SQLException {
+    try (Connection connection = db.openConnection()) {
+      new MultiValuesBulkInsert(connection, "bulk_rows", COLUMNS, 2).close();
+      new JdbcBatchBulkInsert(connection, "bulk_rows", COLUMNS, 2).close();
+    }
+
+    assertThat(db.countRowsOfTable("bulk_rows")).isEqualTo(0);
+  }
+
+  @Test
+  public void fail_if_number_of_values_does_not_match_columns() throws SQLException {
+    try (Connection connection = db.openConnection();
+      BulkInsert underTest = new JdbcBatchBulkInsert(connection, "bulk_rows", COLUMNS, 2)) {
+      expectedException.expect(IllegalArgumentException.class);
+      expectedException.expectMessage("Expected 3 values but got 1");
+
+      underTest.add("foo");
+    }
+  }
+
+  @Test
+  public void insertSql_generates_multi_values_statement() {
+    assertThat(MultiValuesBulkInsert.insertSql("bulk_rows", "name,file_size", 2, 3))
+      .isEqualTo("INSERT INTO bulk_rows (name,file_size) VALUES (?,?),(?,?),(?,?)");
+  }
+
+  private static void insertRows(BulkInsert bulkInsert, int count) {
+    for (int i = 0; i < count; i++) {
+      // null values are supported
+      bulkInsert.add(i == 0 ? null : ("name" + i), (long) i, i % 2 == 0);
+    }
+  }
+
+  private void verifyRows(int count) {
+    List<Map<String, Object>> rows = db.select("select name as \"name\", file_size as \"size\", enabled as \"enabled\" from bulk_rows order by file_size");
+    assertThat(rows).hasSize(count);
+    assertThat(rows.get(0).get("name")).isNull();
+    for (int i = 1; i < count; i++) {
+      assertThat(rows.get(i).get("name")).isEqualTo("name" + i);
+      assertThat(rows.get(i).get("size")).isEqualTo((long) i);
+      assertThat(rows.get(i).get("enabled")).isEqualTo(i % 2 == 0);
+    }
+  }
+}
@@ -0,0 +1,120 @@
+/*
+ * SonarQube
+ * Copyright (C) 2009-2017 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.db.bulk;
+
+import java.io.Reader;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.List;
+import org.apache.commons.io.IOUtils;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+import org.postgresql.PGConnection;
+import org.postgresql.copy.CopyManager;
+import org.sonar.db.dialect.PostgreSql;
+
+import static java.util.Arrays.asList;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.sonar.db.bulk.BulkInsert.Column.bigint;
+import static org.sonar.db.bulk.BulkInsert.Column.varchar;
+
+public class PostgreSqlCopyBulkInsertTest {
+
+  private static final List<BulkInsert.Column> COLUMNS = asList(varchar("name"), bigint("file_size"));
+
+  private Connection connection = mock(Connection.class);
+  private CopyManager copyManager = mock(CopyManager.class);
+
+  @Test
+  public void is_supported_if_connection_wraps_driver_connection() throws SQLException {
+    when(connection.isWrapperFor(PGConnection.class)).thenReturn(true);
+
+    assertThat(PostgreSqlCopyBulkInsert.isSupported(connection)).isTrue();
+  }
+
+  @Test
+  public void is_not_supported_if_connection_does_not_wrap_driver_connection() throws SQLException {
+    when(connection.isWrapperFor(PGConnection.class)).thenReturn(false);
+
+    assertThat(PostgreSqlCopyBulkInsert.isSupported(connection)).isFalse();
+  }
+
+  @Test
+  public void is_not_supported_if_connection_can_not_be_unwrapped() throws SQLException {
+    when(connection.isWrapperFor(PGConnection.class)).thenThrow(new SQLException("not supported"));
+
+    assertThat(PostgreSqlCopyBulkInsert.isSupported(connection)).isFalse();
+  }
+
+  @Test
+  public void is_not_supported_if_driver_classes_are_not_available() throws SQLException {
+    when(connection.isWrapperFor(PGConnection.class)).thenThrow(new NoClassDefFoundError("org/postgresql/PGConnection"));
+
+    assertThat(PostgreSqlCopyBulkInsert.isSupported(connection)).isFalse();
+  }
+
+  @Test
+  public void create_falls_back_to_multi_values_insert_if_copy_is_not_supported() throws SQLException {
+    when(connection.isWrapperFor(PGConnection.class)).thenReturn(false);
+
+    assertThat(BulkInsert.create(new PostgreSql(), connection, "bulk_rows", COLUMNS.toArray(new BulkInsert.Column[0])))
+      .isInstanceOf(MultiValuesBulkInsert.class);
+  }
+
+  @Test
+  public void create_uses_copy_if_supported() throws SQLException {
+    mockDriverConnection();
+
+    assertThat(BulkInsert.create(new PostgreSql(), connection, "bulk_rows", COLUMNS.toArray(new BulkInsert.Column[0])))
+      .isInstanceOf(PostgreSqlCopyBulkInsert.class);
+  }
+
+  @Test
+  public void copy_rows_in_several_flushes() throws Exception {
+    mockDriverConnection();
+
+    try (BulkInsert underTest = new PostgreSqlCopyBulkInsert(connection, "bulk_rows", COLUMNS, 2)) {
+      underTest.add("foo", 1L);
+      verify(copyManager, never()).copyIn(any(String.class), any(Reader.class));
+
+      underTest.add(null, 2L);
+      underTest.add("", 3L);
+    }
+
+    ArgumentCaptor<Reader> readers = ArgumentCaptor.forClass(Reader.class);
+    verify(copyManager, times(2)).copyIn(eq("COPY bulk_rows (name,file_size) FROM STDIN WITH CSV"), readers.capture());
+    assertThat(IOUtils.toString(readers.getAllValues().get(0))).isEqualTo("\"foo\",1\n,2\n");
+    assertThat(IOUtils.toString(readers.getAllValues().get(1))).isEqualTo("\"\",3\n");
+  }
+
+  private void mockDriverConnection() throws SQLException {
+    PGConnection pgConnection = mock(PGConnection.class);
+    when(pgConnection.getCopyAPI()).thenReturn(copyManager);
+    when(connection.isWrapperFor(PGConnection.class)).thenReturn(true);
+    when(connection.unwrap(PGConnection.class)).thenReturn(pgConnection);
+  }
+}
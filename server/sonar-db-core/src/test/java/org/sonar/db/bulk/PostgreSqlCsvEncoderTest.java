@@ -0,0 +1,88 @@
+/*
+ * SonarQube
+ * Copyright (C) 2009-2017 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.db.bulk;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class PostgreSqlCsvEncoderTest {
+
+  @Rule
+  public ExpectedException expectedException = ExpectedException.none();
+
+  @Test
+  public void strings_are_always_quoted() {
+    assertThat(encode("foo", "with,comma", "with\nline break")).isEqualTo("\"foo\",\"with,comma\",\"with\nline break\"\n");
+  }
+
+  @Test
+  public void double_quotes_of_strings_are_escaped() {
+    assertThat(encode("say \"hello\"", "\"")).isEqualTo("\"say \"\"hello\"\"\",\"\"\"\"\n");
+  }
+
+  @Test
+  public void null_is_unquoted_empty_value_and_empty_string_is_quoted() {
+    assertThat(encode(null, "", null)).isEqualTo(",\"\",\n");
+  }
+
+  @Test
+  public void bytes_are_encoded_in_hex_format_of_bytea() {
+    assertThat(encode(new byte[] {0, 10, (byte) 0xff, 0x7f})).isEqualTo("\\x000aff7f\n");
+    assertThat(encode((Object) new byte[0])).isEqualTo("\\x\n");
+  }
+
+  @Test
+  public void numbers_and_booleans_are_not_quoted() {
+    assertThat(encode(42, -3L, 1.5d, true, false)).isEqualTo("42,-3,1.5,true,false\n");
+  }
+
+  @Test
+  public void special_values_of_doubles_are_supported() {
+    assertThat(encode(Double.NaN, Double.POSITIVE_INFINITY, Double.NEGATIVE_INFINITY)).isEqualTo("NaN,Infinity,-Infinity\n");
+    assertThat(encode(Float.NaN, Float.NEGATIVE_INFINITY)).isEqualTo("NaN,-Infinity\n");
+  }
+
+  @Test
+  public void rows_are_appended_to_buffer() {
+    StringBuilder buffer = new StringBuilder();
+
+    PostgreSqlCsvEncoder.appendRow(buffer, new Object[] {"a", 1});
+    PostgreSqlCsvEncoder.appendRow(buffer, new Object[] {"b", 2});
+
+    assertThat(buffer.toString()).isEqualTo("\"a\",1\n\"b\",2\n");
+  }
+
+  @Test
+  public void fail_if_type_is_not_supported() {
+    expectedException.expect(IllegalArgumentException.class);
+    expectedException.expectMessage("Unsupported type of value: class java.lang.Object");
+
+    encode(new Object());
+  }
+
+  private static String encode(Object... values) {
+    StringBuilder buffer = new StringBuilder();
+    PostgreSqlCsvEncoder.appendRow(buffer, values);
+    return buffer.toString();
+  }
+}
@@ -28,6 +28,7 @@ import java.sql.PreparedStatement;
 import java.sql.Statement;
 import java.sql.Timestamp;
 import org.apache.commons.dbcp.BasicDataSource;
+import org.junit.After;
 import org.junit.Rule;
 import org.junit.Test;
 import org.sonar.api.utils.log.LogTester;
@@ -44,6 +45,11 @@ public class ProfiledDataSourceTest {
 
   BasicDataSource originDataSource = mock(BasicDataSource.class);
 
+  @After
+  public void tearDown() {
+    SqlStatistics.stopRecording();
+  }
+
   @Test
   public void execute_and_log_statement() throws Exception {
     logTester.setLevel(LoggerLevel.TRACE);
@@ -132,6 +138,36 @@ public class ProfiledDataSourceTest {
       .doesNotContain("params=");
   }
 
+  @Test
+  public void record_statistics_of_statements_even_if_sql_logs_are_disabled() throws Exception {
+    Connection connection = mock(Connection.class);
+    when(originDataSource.getConnection()).thenReturn(connection);
+    Statement stmt = mock(Statement.class);
+    when(connection.createStatement()).thenReturn(stmt);
+    PreparedStatement preparedStatement = mock(PreparedStatement.class);
+    when(connection.prepareStatement("select from dual")).thenReturn(preparedStatement);
+
+    ProfiledDataSource underTest = new ProfiledDataSource(originDataSource, NullConnectionInterceptor.INSTANCE);
+    SqlStatistics statistics = SqlStatistics.startRecording();
+    underTest.getConnection().createStatement().execute("select from dual");
+    underTest.getConnection().prepareStatement("select from dual").executeQuery();
+
+    assertThat(SqlStatistics.current()).isSameAs(statistics);
+    assertThat(statistics.getStatementCount()).isEqualTo(2);
+    assertThat(logTester.logs(LoggerLevel.TRACE)).isEmpty();
+  }
+
+  @Test
+  public void do_not_intercept_statements_if_sql_logs_are_disabled_and_thread_is_not_recording() throws Exception {
+    Connection connection = mock(Connection.class);
+    when(originDataSource.getConnection()).thenReturn(connection);
+
+    ProfiledDataSource underTest = new ProfiledDataSource(originDataSource, NullConnectionInterceptor.INSTANCE);
+
+    assertThat(underTest.getConnection()).isSameAs(connection);
+    assertThat(SqlStatistics.current()).isNull();
+  }
+
   @Test
   public void delegate_to_underlying_data_source() throws Exception {
     ProfiledDataSource proxy = new ProfiledDataSource(originDataSource, ProfiledConnectionInterceptor.INSTANCE);
@@ -0,0 +1,6 @@
+CREATE TABLE "BULK_ROWS" (
+  "ID" INTEGER NOT NULL GENERATED BY DEFAULT AS IDENTITY (START WITH 1, INCREMENT BY 1),
+  "NAME" VARCHAR(200),
+  "FILE_SIZE" BIGINT,
+  "ENABLED" BOOLEAN
+);
@@ -0,0 +1,59 @@
+/*
+ * SonarQube
+ * Copyright (C) 2009-2017 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.db;
+
+import java.util.function.Function;
+import org.sonar.db.bulk.BulkInsert;
+import org.sonar.db.dialect.Dialect;
+import org.sonar.db.dialect.DialectUtils;
+
+/**
+ * Inserts DTOs with {@link BulkInsert}, in the transaction of a {@link DbSession}. It's much faster
+ * than MyBatis batch inserts for large volumes of rows, but generated ids are not returned.
+ * <p>
+ * Statements batched by the session are flushed at creation. Rows are sent by chunks while being added, and
+ * remaining rows are sent by {@link #close()}. As for batch sessions, commit is the responsibility of the caller.
+ */
+public class BulkInserter<T> implements AutoCloseable {
+
+  private final BulkInsert bulkInsert;
+  private final Function<T, Object[]> toRow;
+
+  public BulkInserter(DbSession session, String table, Function<T, Object[]> toRow, BulkInsert.Column... columns) {
+    Dialect dialect = DialectUtils.find(session.getConfiguration().getDatabaseId(), null);
+    session.flushStatements();
+    this.bulkInsert = BulkInsert.create(dialect, session.getConnection(), table, columns);
+    this.toRow = toRow;
+  }
+
+  public BulkInserter<T> add(T dto) {
+    bulkInsert.add(toRow.apply(dto));
+    return this;
+  }
+
+  public long getCount() {
+    return bulkInsert.getCount();
+  }
+
+  @Override
+  public void close() {
+    bulkInsert.close();
+  }
+}
@@ -21,6 +21,7 @@ package org.sonar.db;
 
 import java.util.IdentityHashMap;
 import java.util.Map;
+import javax.annotation.Nullable;
 import org.sonar.db.ce.CeActivityDao;
 import org.sonar.db.ce.CeQueueDao;
 import org.sonar.db.ce.CeScannerContextDao;
@@ -71,6 +72,7 @@ public class DbClient {
 
   private final Database database;
   private final MyBatis myBatis;
+  private final ReadReplicaConsistency readReplicaConsistency;
   private final SchemaMigrationDao schemaMigrationDao;
   private final AuthorizationDao authorizationDao;
   private final OrganizationDao organizationDao;
@@ -117,9 +119,10 @@ public class DbClient {
   private final UserPermissionDao userPermissionDao;
   private final WebhookDeliveryDao webhookDeliveryDao;
 
-  public DbClient(Database database, MyBatis myBatis, Dao... daos) {
+  public DbClient(Database database, MyBatis myBatis, ReadReplicaConsistency readReplicaConsistency, Dao... daos) {
     this.database = database;
     this.myBatis = myBatis;
+    this.readReplicaConsistency = readReplicaConsistency;
 
     Map<Class, Dao> map = new IdentityHashMap<>();
     for (Dao dao : daos) {
@@ -176,6 +179,24 @@ public class DbClient {
     return myBatis.openSession(batch);
   }
 
+  /**
+   * Opens a session which must be used only to read data, see {@link MyBatis#openReadOnlySession()}.
+   * The primary database is used instead of the read replica when the specified client, usually the login
+   * of the current user, recently wrote data.
+   *
+   * @see ReadReplicaConsistency
+   */
+  public DbSession openReadOnlySession(@Nullable String clientKey) {
+    if (readReplicaConsistency.canReadFromReplica(clientKey)) {
+      return myBatis.openReadOnlySession();
+    }
+    return myBatis.openSession(false);
+  }
+
+  public ReadReplicaConsistency getReadReplicaConsistency() {
+    return readReplicaConsistency;
+  }
+
   public Database getDatabase() {
     return database;
   }
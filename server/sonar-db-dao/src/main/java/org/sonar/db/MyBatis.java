@@ -23,12 +23,14 @@ import com.google.common.annotations.VisibleForTesting;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import javax.sql.DataSource;
 import org.apache.ibatis.logging.LogFactory;
 import org.apache.ibatis.session.ExecutorType;
 import org.apache.ibatis.session.SqlSession;
 import org.apache.ibatis.session.SqlSessionFactory;
 import org.apache.ibatis.session.SqlSessionFactoryBuilder;
 import org.sonar.api.Startable;
+import org.sonar.api.utils.log.Loggers;
 import org.sonar.db.ce.CeActivityMapper;
 import org.sonar.db.ce.CeQueueMapper;
 import org.sonar.db.ce.CeScannerContextMapper;
@@ -255,6 +257,25 @@ public class MyBatis implements Startable {
     return new DbSession(session);
   }
 
+  /**
+   * Opens a session which must be used only to read data. It is connected to the read replica of the database
+   * when one is configured and reachable, otherwise to the primary database.
+   *
+   * @see Database#getReadReplicaDataSource()
+   */
+  public DbSession openReadOnlySession() {
+    DataSource readReplica = database.getReadReplicaDataSource();
+    if (readReplica != null) {
+      try {
+        SqlSession session = sessionFactory.openSession(ExecutorType.REUSE, readReplica.getConnection());
+        return new DbSession(session);
+      } catch (SQLException e) {
+        Loggers.get(MyBatis.class).warn("Fail to connect to read replica, primary database is used instead: {}", e.getMessage());
+      }
+    }
+    return openSession(false);
+  }
+
   /**
    * Create a PreparedStatement for SELECT requests with scrolling of results
    */
@@ -0,0 +1,68 @@
+/*
+ * SonarQube
+ * Copyright (C) 2009-2017 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.db;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import javax.annotation.Nullable;
+import org.sonar.api.config.Settings;
+import org.sonar.api.utils.System2;
+
+/**
+ * Guards the reads from the read replica of the database against replication lag. A client, usually a user,
+ * which recently wrote data reads from the primary database during a short window, so that it reads its own
+ * writes. The duration of this window is defined by the property {@link #WINDOW_PROPERTY}.
+ */
+public class ReadReplicaConsistency {
+
+  public static final String WINDOW_PROPERTY = "sonar.jdbc.readReplica.consistencyWindowMs";
+  static final long DEFAULT_WINDOW_MS = 5_000L;
+
+  private final System2 system2;
+  private final long windowMs;
+  private final Map<String, Long> lastWriteByClient = new ConcurrentHashMap<>();
+
+  public ReadReplicaConsistency(Settings settings, System2 system2) {
+    this.system2 = system2;
+    this.windowMs = settings.hasKey(WINDOW_PROPERTY) ? Math.max(0L, settings.getLong(WINDOW_PROPERTY)) : DEFAULT_WINDOW_MS;
+  }
+
+  /**
+   * Records that the specified client has written data to the primary database.
+   */
+  public void recordWrite(String clientKey) {
+    long now = system2.now();
+    lastWriteByClient.put(clientKey, now);
+    // writes older than the window are not relevant anymore
+    lastWriteByClient.values().removeIf(writtenAt -> now - writtenAt >= windowMs);
+  }
+
+  /**
+   * Whether the specified client can read from the read replica, ie. it did not write data during the window.
+   * Anonymous clients ({@code null} key) can always read from the read replica.
+   */
+  public boolean canReadFromReplica(@Nullable String clientKey) {
+    if (clientKey == null) {
+      return true;
+    }
+    Long writtenAt = lastWriteByClient.get(clientKey);
+    return writtenAt == null || system2.now() - writtenAt >= windowMs;
+  }
+}
@@ -51,7 +51,18 @@ public class CeActivityDto {
   private long updatedAt;
   private Long executionTimeMs;
   /**
-   * The error message of the activity. Shall be non null only when status is FAILED. When status is FAILED, can be null
+   * Resources consumed by the processing of the task. Values are null for activities created before they were
+   * measured. CPU time and allocated bytes are also null when the JVM does not support their measurement.
+   */
+  private Long cpuTimeMs;
+  private Long allocatedBytes;
+  private Long dbStatementCount;
+  private Long dbTimeMs;
+  private Long tempDiskBytes;
+  private Long reportSizeBytes;
+  /**
+   * The error message of the activity. Shall be non null only when status is FAILED, or when status is CANCELED because
+   * the task has been superseded by a more recent one. When status is FAILED, can be null
    * (eg. for activity created before the column has been introduced).
    * <p>
    * This property is populated when inserting <strong>AND when reading</strong>
@@ -205,6 +216,72 @@ public class CeActivityDto {
     return this;
   }
 
+  @CheckForNull
+  public Long getCpuTimeMs() {
+    return cpuTimeMs;
+  }
+
+  public CeActivityDto setCpuTimeMs(@Nullable Long l) {
+    checkArgument(l == null || l >= 0, "CPU time must be positive: %s", l);
+    this.cpuTimeMs = l;
+    return this;
+  }
+
+  @CheckForNull
+  public Long getAllocatedBytes() {
+    return allocatedBytes;
+  }
+
+  public CeActivityDto setAllocatedBytes(@Nullable Long l) {
+    checkArgument(l == null || l >= 0, "Allocated bytes must be positive: %s", l);
+    this.allocatedBytes = l;
+    return this;
+  }
+
+  @CheckForNull
+  public Long getDbStatementCount() {
+    return dbStatementCount;
+  }
+
+  public CeActivityDto setDbStatementCount(@Nullable Long l) {
+    checkArgument(l == null || l >= 0, "DB statement count must be positive: %s", l);
+    this.dbStatementCount = l;
+    return this;
+  }
+
+  @CheckForNull
+  public Long getDbTimeMs() {
+    return dbTimeMs;
+  }
+
+  public CeActivityDto setDbTimeMs(@Nullable Long l) {
+    checkArgument(l == null || l >= 0, "DB time must be positive: %s", l);
+    this.dbTimeMs = l;
+    return this;
+  }
+
+  @CheckForNull
+  public Long getTempDiskBytes() {
+    return tempDiskBytes;
+  }
+
+  public CeActivityDto setTempDiskBytes(@Nullable Long l) {
+    checkArgument(l == null || l >= 0, "Temp disk bytes must be positive: %s", l);
+    this.tempDiskBytes = l;
+    return this;
+  }
+
+  @CheckForNull
+  public Long getReportSizeBytes() {
+    return reportSizeBytes;
+  }
+
+  public CeActivityDto setReportSizeBytes(@Nullable Long l) {
+    checkArgument(l == null || l >= 0, "Report size must be positive: %s", l);
+    this.reportSizeBytes = l;
+    return this;
+  }
+
   @CheckForNull
   public String getAnalysisUuid() {
     return analysisUuid;
@@ -272,6 +349,12 @@ public class CeActivityDto {
       .add("createdAt", createdAt)
       .add("updatedAt", updatedAt)
       .add("executionTimeMs", executionTimeMs)
+      .add("cpuTimeMs", cpuTimeMs)
+      .add("allocatedBytes", allocatedBytes)
+      .add("dbStatementCount", dbStatementCount)
+      .add("dbTimeMs", dbTimeMs)
+      .add("tempDiskBytes", tempDiskBytes)
+      .add("reportSizeBytes", reportSizeBytes)
       .add("errorMessage", errorMessage)
       .add("errorStacktrace", errorStacktrace)
       .add("hasScannerContext", hasScannerContext)
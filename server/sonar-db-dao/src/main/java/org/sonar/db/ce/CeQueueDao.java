@@ -109,16 +109,31 @@ public class CeQueueDao implements Dao {
   }
 
   public Optional<CeQueueDto> peek(DbSession session) {
-    List<String> taskUuids = mapper(session).selectEligibleForPeek(ONE_ROW_LIMIT);
-    if (taskUuids.isEmpty()) {
+    List<CeQueueDto> eligibles = mapper(session).selectEligibleForPeek(ONE_ROW_LIMIT);
+    if (eligibles.isEmpty()) {
       return Optional.absent();
     }
 
-    String taskUuid = taskUuids.get(0);
+    String taskUuid = eligibles.get(0).getUuid();
     return tryToPeek(session, taskUuid);
   }
 
-  private Optional<CeQueueDto> tryToPeek(DbSession session, String taskUuid) {
+  /**
+   * Pending tasks which can be peeked, ordered by descending priority then by ascending date of submission. Tasks
+   * without priority are considered as {@link CeQueueDto.Priority#NORMAL}. A task is eligible if no task of its
+   * component is in progress and if it is the oldest pending task of its component.
+   *
+   * @param limit maximum number of returned tasks
+   */
+  public List<CeQueueDto> selectEligibleForPeek(DbSession session, int limit) {
+    return mapper(session).selectEligibleForPeek(new RowBounds(0, limit));
+  }
+
+  /**
+   * Changes the status of the specified task from {@link CeQueueDto.Status#PENDING} to {@link CeQueueDto.Status#IN_PROGRESS}.
+   * Does not return anything if the task does not exist or is not pending anymore.
+   */
+  public Optional<CeQueueDto> tryToPeek(DbSession session, String taskUuid) {
     int touchedRows = mapper(session).updateIfStatus(taskUuid, IN_PROGRESS, system2.now(), system2.now(), PENDING);
     if (touchedRows != 1) {
       return Optional.absent();
@@ -31,11 +31,19 @@ public class CeQueueDto {
     PENDING, IN_PROGRESS
   }
 
+  /**
+   * Priority class of a task, from the lowest to the highest. Tasks without priority are considered as {@link #NORMAL}.
+   */
+  public enum Priority {
+    LOW, NORMAL, HIGH
+  }
+
   private String uuid;
   private String taskType;
   private String componentUuid;
   private Status status;
   private String submitterLogin;
+  private Priority priority;
   private Long startedAt;
   private long createdAt;
   private long updatedAt;
@@ -91,6 +99,16 @@ public class CeQueueDto {
     return this;
   }
 
+  @CheckForNull
+  public Priority getPriority() {
+    return priority;
+  }
+
+  public CeQueueDto setPriority(@Nullable Priority p) {
+    this.priority = p;
+    return this;
+  }
+
   @CheckForNull
   public Long getStartedAt() {
     return startedAt;
@@ -127,6 +145,7 @@ public class CeQueueDto {
       .add("componentUuid", componentUuid)
       .add("status", status)
       .add("submitterLogin", submitterLogin)
+      .add("priority", priority)
       .add("startedAt", startedAt)
       .add("createdAt", createdAt)
       .add("updatedAt", updatedAt)
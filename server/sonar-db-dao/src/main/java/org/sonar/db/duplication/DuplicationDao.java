@@ -22,10 +22,15 @@ package org.sonar.db.duplication;
 import java.util.Collection;
 import java.util.List;
 import javax.annotation.Nullable;
+import org.apache.ibatis.session.ResultHandler;
+import org.sonar.db.BulkInserter;
 import org.sonar.db.Dao;
 import org.sonar.db.DbSession;
 
 import static org.sonar.db.DatabaseUtils.executeLargeInputs;
+import static org.sonar.db.DatabaseUtils.toUniqueAndSortedPartitions;
+import static org.sonar.db.bulk.BulkInsert.Column.integer;
+import static org.sonar.db.bulk.BulkInsert.Column.varchar;
 
 public class DuplicationDao implements Dao {
 
@@ -38,6 +43,26 @@ public class DuplicationDao implements Dao {
       partition -> session.getMapper(DuplicationMapper.class).selectCandidates(analysisUuid, language, partition));
   }
 
+  /**
+   * Same as {@link #selectCandidates(DbSession, String, String, Collection)}, except that candidates are not loaded
+   * in memory but sent to the handler as soon as they are read. Stopping the {@link org.apache.ibatis.session.ResultContext}
+   * stops the loading of all the remaining candidates.
+   */
+  public void scrollCandidates(DbSession session, @Nullable String analysisUuid, String language, Collection<String> hashes, ResultHandler handler) {
+    DuplicationMapper mapper = session.getMapper(DuplicationMapper.class);
+    boolean[] stopped = {false};
+    ResultHandler stoppableHandler = context -> {
+      handler.handleResult(context);
+      stopped[0] = context.isStopped();
+    };
+    for (List<String> partition : toUniqueAndSortedPartitions(hashes)) {
+      mapper.scrollCandidates(analysisUuid, language, partition, stoppableHandler);
+      if (stopped[0]) {
+        return;
+      }
+    }
+  }
+
   /**
    * Insert rows in the table DUPLICATIONS_INDEX.
    * Note that generated ids are not returned.
@@ -46,4 +71,13 @@ public class DuplicationDao implements Dao {
     session.getMapper(DuplicationMapper.class).batchInsert(dto);
   }
 
+  /**
+   * Fast insertion of a large number of rows in the table DUPLICATIONS_INDEX. See {@link BulkInserter}.
+   */
+  public BulkInserter<DuplicationUnitDto> newBulkInserter(DbSession session) {
+    return new BulkInserter<>(session, "duplications_index",
+      dto -> new Object[] {dto.getAnalysisUuid(), dto.getComponentUuid(), dto.getHash(), dto.getIndexInFile(), dto.getStartLine(), dto.getEndLine()},
+      varchar("analysis_uuid"), varchar("component_uuid"), varchar("hash"), integer("index_in_file"), integer("start_line"), integer("end_line"));
+  }
+
 }
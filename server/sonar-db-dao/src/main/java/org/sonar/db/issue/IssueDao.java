@@ -28,12 +28,20 @@ import java.util.Map;
 import java.util.Set;
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
+import org.apache.ibatis.session.ResultHandler;
+import org.sonar.db.BulkInserter;
 import org.sonar.db.Dao;
 import org.sonar.db.DbSession;
 import org.sonar.db.RowNotFoundException;
 
 import static com.google.common.collect.FluentIterable.from;
 import static org.sonar.db.DatabaseUtils.executeLargeInputs;
+import static org.sonar.db.bulk.BulkInsert.Column.bigint;
+import static org.sonar.db.bulk.BulkInsert.Column.blob;
+import static org.sonar.db.bulk.BulkInsert.Column.bool;
+import static org.sonar.db.bulk.BulkInsert.Column.doublePrecision;
+import static org.sonar.db.bulk.BulkInsert.Column.integer;
+import static org.sonar.db.bulk.BulkInsert.Column.varchar;
 
 public class IssueDao implements Dao {
 
@@ -90,6 +98,30 @@ public class IssueDao implements Dao {
     return mapper(session).selectComponentUuidsOfOpenIssuesForProjectUuid(projectUuid);
   }
 
+  /**
+   * Scrolls the non-closed issues of all the components of a project, ordered by component uuid.
+   */
+  public void scrollNonClosedByProjectUuid(DbSession session, String projectUuid, ResultHandler handler) {
+    mapper(session).scrollNonClosedByProjectUuid(projectUuid, handler);
+  }
+
+  /**
+   * Fast insertion of a large number of issues. See {@link BulkInserter}.
+   */
+  public BulkInserter<IssueDto> newBulkInserter(DbSession session) {
+    return new BulkInserter<>(session, "issues",
+      dto -> new Object[] {dto.getKee(), dto.getRuleId(), dto.getSeverity(), dto.isManualSeverity(),
+        dto.getMessage(), dto.getLine(), dto.getLocations(), dto.getGap(), dto.getEffort(), dto.getStatus(), dto.getTagsString(),
+        dto.getResolution(), dto.getChecksum(), dto.getAssignee(), dto.getAuthorLogin(), dto.getIssueAttributes(), dto.getIssueCreationTime(),
+        dto.getIssueUpdateTime(), dto.getIssueCloseTime(), dto.getCreatedAt(), dto.getUpdatedAt(), dto.getComponentUuid(), dto.getProjectUuid(),
+        dto.getType()},
+      varchar("kee"), integer("rule_id"), varchar("severity"), bool("manual_severity"),
+      varchar("message"), integer("line"), blob("locations"), doublePrecision("gap"), bigint("effort"), varchar("status"), varchar("tags"),
+      varchar("resolution"), varchar("checksum"), varchar("assignee"), varchar("author_login"), varchar("issue_attributes"), bigint("issue_creation_date"),
+      bigint("issue_update_date"), bigint("issue_close_date"), bigint("created_at"), bigint("updated_at"), varchar("component_uuid"), varchar("project_uuid"),
+      integer("issue_type"));
+  }
+
   public void insert(DbSession session, IssueDto dto) {
     mapper(session).insert(dto);
   }
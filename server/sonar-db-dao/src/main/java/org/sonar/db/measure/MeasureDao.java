@@ -25,11 +25,16 @@ import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import org.apache.ibatis.session.ResultHandler;
+import org.sonar.db.BulkInserter;
 import org.sonar.db.Dao;
 import org.sonar.db.DbSession;
 import org.sonar.db.component.ComponentDto;
 
 import static java.util.Collections.emptyList;
+import static org.sonar.db.bulk.BulkInsert.Column.blob;
+import static org.sonar.db.bulk.BulkInsert.Column.doublePrecision;
+import static org.sonar.db.bulk.BulkInsert.Column.integer;
+import static org.sonar.db.bulk.BulkInsert.Column.varchar;
 import static org.sonar.db.DatabaseUtils.executeLargeInputs;
 import static org.sonar.db.DatabaseUtils.executeLargeInputsWithoutOutput;
 
@@ -142,6 +147,18 @@ public class MeasureDao implements Dao {
       ids -> mapper(dbSession).selectProjectMeasuresOfDeveloper(developerId, metricIds));
   }
 
+  /**
+   * Fast insertion of a large number of measures. See {@link BulkInserter}.
+   */
+  public BulkInserter<MeasureDto> newBulkInserter(DbSession session) {
+    return new BulkInserter<>(session, "project_measures",
+      dto -> new Object[] {dto.getValue(), dto.getMetricId(), dto.getComponentUuid(), dto.getAnalysisUuid(), dto.getTextValue(),
+        dto.getAlertStatus(), dto.getAlertText(), dto.getDescription(), dto.getDeveloperId(), dto.getVariation(), dto.getDataValue()},
+      doublePrecision("value"), integer("metric_id"), varchar("component_uuid"), varchar("analysis_uuid"), varchar("text_value"),
+      varchar("alert_status"), varchar("alert_text"), varchar("description"), integer("person_id"), doublePrecision("variation_value_1"),
+      blob("measure_data"));
+  }
+
   public void insert(DbSession session, MeasureDto measureDto) {
     mapper(session).insert(measureDto);
   }
@@ -45,6 +45,7 @@ import static org.sonar.db.DatabaseUtils.executeLargeInputs;
 public class PurgeDao implements Dao {
   private static final Logger LOG = Loggers.get(PurgeDao.class);
   private static final String[] UNPROCESSED_STATUS = new String[] {"U"};
+  private static final String[] PROCESSED_STATUS = new String[] {"P"};
 
   private final ComponentDao componentDao;
   private final System2 system2;
@@ -55,14 +56,32 @@ public class PurgeDao implements Dao {
   }
 
   public void purge(DbSession session, PurgeConfiguration conf, PurgeListener listener, PurgeProfiler profiler) {
-    PurgeMapper mapper = session.getMapper(PurgeMapper.class);
-    PurgeCommands commands = new PurgeCommands(session, mapper, profiler);
+    purgeLeftovers(session, conf, listener, profiler);
+    purgeHistory(session, conf, listener, profiler, PurgeThrottler.NONE);
+  }
+
+  /**
+   * Deletes what is left over by the latest analysis: aborted analyses and data of the components disabled
+   * by {@link PurgeConfiguration#getDisabledComponentUuids()}. Amount of work does not depend on project history.
+   */
+  public void purgeLeftovers(DbSession session, PurgeConfiguration conf, PurgeListener listener, PurgeProfiler profiler) {
+    PurgeCommands commands = new PurgeCommands(session, mapper(session), profiler);
+    deleteAbortedAnalyses(conf.rootProjectIdUuid().getUuid(), commands);
+    purgeDisabledComponents(session, conf, listener);
+  }
+
+  /**
+   * Deletes the historical data which are no longer needed: measures of components without history,
+   * wasted measures of past analyses and old closed issues. Only processed analyses are purged, so this method
+   * is safe to be called while an analysis of the same project is being processed.
+   */
+  public void purgeHistory(DbSession session, PurgeConfiguration conf, PurgeListener listener, PurgeProfiler profiler, PurgeThrottler throttler) {
+    PurgeMapper mapper = mapper(session);
+    PurgeCommands commands = new PurgeCommands(session, mapper, profiler, throttler);
     String rootUuid = conf.rootProjectIdUuid().getUuid();
-    deleteAbortedAnalyses(rootUuid, commands);
     deleteDataOfComponentsWithoutHistoricalData(session, rootUuid, conf.scopesWithoutHistoricalData(), commands);
     purgeAnalyses(commands, rootUuid);
-    purgeDisabledComponents(session, conf, listener);
-    deleteOldClosedIssues(conf, mapper, listener);
+    deleteOldClosedIssues(conf, mapper, listener, throttler);
   }
 
   private static void purgeAnalyses(PurgeCommands commands, String rootUuid) {
@@ -70,19 +89,22 @@ public class PurgeDao implements Dao {
       new PurgeSnapshotQuery()
         .setComponentUuid(rootUuid)
         .setIslast(false)
+        .setStatus(PROCESSED_STATUS)
         .setNotPurged(true));
     commands.purgeAnalyses(analysisUuids);
   }
 
-  private static void deleteOldClosedIssues(PurgeConfiguration conf, PurgeMapper mapper, PurgeListener listener) {
+  private static void deleteOldClosedIssues(PurgeConfiguration conf, PurgeMapper mapper, PurgeListener listener, PurgeThrottler throttler) {
     Date toDate = conf.maxLiveDateOfClosedIssues();
     String rootUuid = conf.rootProjectIdUuid().getUuid();
     List<String> issueKeys = mapper.selectOldClosedIssueKeys(rootUuid, dateToLong(toDate));
     executeLargeInputs(issueKeys, input -> {
+      throttler.acquire(input.size());
       mapper.deleteIssueChangesFromIssueKeys(input);
       return emptyList();
     });
     executeLargeInputs(issueKeys, input -> {
+      throttler.acquire(input.size());
       mapper.deleteIssuesFromKeys(input);
       return emptyList();
     });
@@ -107,6 +129,7 @@ public class PurgeDao implements Dao {
       new PurgeSnapshotQuery()
         .setComponentUuid(rootUuid)
         .setIslast(false)
+        .setStatus(PROCESSED_STATUS)
         .setNotPurged(true));
     List<String> componentWithoutHistoricalDataUuids = componentDao
       .selectDescendants(
@@ -163,7 +186,11 @@ public class PurgeDao implements Dao {
   }
 
   public void deleteAnalyses(DbSession session, PurgeProfiler profiler, List<IdUuidPair> analysisIdUuids) {
-    new PurgeCommands(session, profiler).deleteAnalyses(analysisIdUuids);
+    deleteAnalyses(session, profiler, PurgeThrottler.NONE, analysisIdUuids);
+  }
+
+  public void deleteAnalyses(DbSession session, PurgeProfiler profiler, PurgeThrottler throttler, List<IdUuidPair> analysisIdUuids) {
+    new PurgeCommands(session, mapper(session), profiler, throttler).deleteAnalyses(analysisIdUuids);
   }
 
   private static PurgeMapper mapper(DbSession session) {
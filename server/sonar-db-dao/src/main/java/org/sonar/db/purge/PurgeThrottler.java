@@ -0,0 +1,37 @@
+/*
+ * SonarQube
+ * Copyright (C) 2009-2017 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.db.purge;
+
+/**
+ * Paces the deletions done by {@link PurgeDao}. It is called before each chunk of rows is deleted, with
+ * the number of keys of the chunk as an estimation of the number of deleted rows. Implementations
+ * can block in order to honor a rate, or throw an unchecked exception to abort the purge.
+ *
+ * @since 6.4
+ */
+@FunctionalInterface
+public interface PurgeThrottler {
+
+  PurgeThrottler NONE = keys -> {
+    // no limit
+  };
+
+  void acquire(int keys);
+}
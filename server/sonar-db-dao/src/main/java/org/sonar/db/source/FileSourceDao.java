@@ -31,6 +31,7 @@ import java.util.function.Function;
 import javax.annotation.CheckForNull;
 import org.apache.commons.dbutils.DbUtils;
 import org.apache.commons.io.IOUtils;
+import org.apache.ibatis.session.ResultHandler;
 import org.sonar.db.Dao;
 import org.sonar.db.DbSession;
 import org.sonar.db.source.FileSourceDto.Type;
@@ -98,6 +99,22 @@ public class FileSourceDao implements Dao {
     }
   }
 
+  /**
+   * Scrolls the line hashes of all the source files of a project, ordered by file uuid. Only the fields
+   * {@link FileSourceDto#getFileUuid()} and {@link FileSourceDto#getLineHashes()} are loaded.
+   */
+  public void scrollLineHashesByProjectUuid(DbSession dbSession, String projectUuid, ResultHandler handler) {
+    mapper(dbSession).scrollLineHashes(projectUuid, Type.SOURCE, handler);
+  }
+
+  /**
+   * Scrolls the SCM data of all the source files of a project, without reading column BINARY_DATA. Only the fields
+   * {@link FileSourceDto#getFileUuid()}, {@link FileSourceDto#getSrcHash()} and {@link FileSourceDto#getScmData()} are loaded.
+   */
+  public void scrollScmByProjectUuid(DbSession dbSession, String projectUuid, ResultHandler handler) {
+    mapper(dbSession).scrollScm(projectUuid, Type.SOURCE, handler);
+  }
+
   public void insert(DbSession session, FileSourceDto dto) {
     mapper(session).insert(dto);
   }
@@ -52,6 +52,7 @@ public class FileSourceDto {
   private String dataType;
   private String dataHash;
   private String revision;
+  private byte[] scmData;
 
   public Long getId() {
     return id;
@@ -231,6 +232,43 @@ public class FileSourceDto {
     return this;
   }
 
+  /**
+   * Serialized value of protobuf message {@link org.sonar.db.protobuf.DbFileSources.Scm}
+   */
+  @CheckForNull
+  public byte[] getScmData() {
+    return scmData;
+  }
+
+  /**
+   * Set serialized value of protobuf message {@link org.sonar.db.protobuf.DbFileSources.Scm}
+   */
+  public FileSourceDto setScmData(@Nullable byte[] scmData) {
+    this.scmData = scmData;
+    return this;
+  }
+
+  /**
+   * Content of column SCM_DATA, which is not populated for sources persisted before 6.4.
+   */
+  @CheckForNull
+  public DbFileSources.Scm getScm() {
+    return scmData == null ? null : decodeScmData(scmData);
+  }
+
+  public FileSourceDto setScm(@Nullable DbFileSources.Scm scm) {
+    this.scmData = scm == null ? null : scm.toByteArray();
+    return this;
+  }
+
+  public static DbFileSources.Scm decodeScmData(byte[] scmData) {
+    try {
+      return DbFileSources.Scm.parseFrom(scmData);
+    } catch (InvalidProtocolBufferException e) {
+      throw new IllegalStateException("Fail to deserialize SCM data", e);
+    }
+  }
+
   @CheckForNull
   public String getLineHashes() {
     return lineHashes;
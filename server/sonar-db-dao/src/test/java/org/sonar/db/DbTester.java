@@ -26,6 +26,7 @@ import java.util.Map;
 import javax.annotation.Nullable;
 import org.apache.commons.lang.StringUtils;
 import org.picocontainer.containers.TransientPicoContainer;
+import org.sonar.api.config.MapSettings;
 import org.sonar.api.utils.System2;
 import org.sonar.core.util.SequenceUuidFactory;
 import org.sonar.db.component.ComponentDbTester;
@@ -118,7 +119,7 @@ public class DbTester extends AbstractDbTester<TestDb> {
       ioc.addComponent(daoClass);
     }
     List<Dao> daos = ioc.getComponents(Dao.class);
-    client = new DbClient(db.getDatabase(), db.getMyBatis(), daos.toArray(new Dao[daos.size()]));
+    client = new DbClient(db.getDatabase(), db.getMyBatis(), new ReadReplicaConsistency(new MapSettings(), system2), daos.toArray(new Dao[daos.size()]));
   }
 
   public DbTester setDisableDefaultOrganization(boolean b) {
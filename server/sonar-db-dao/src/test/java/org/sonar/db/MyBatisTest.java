@@ -19,6 +19,9 @@
  */
 package org.sonar.db;
 
+import java.sql.Connection;
+import java.sql.SQLException;
+import javax.sql.DataSource;
 import org.apache.ibatis.session.Configuration;
 import org.hamcrest.core.Is;
 import org.junit.After;
@@ -29,6 +32,8 @@ import org.sonar.db.rule.RuleMapper;
 
 import static org.hamcrest.Matchers.notNullValue;
 import static org.junit.Assert.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
 
 public class MyBatisTest {
   private static H2Database database;
@@ -70,4 +75,48 @@ public class MyBatisTest {
       assertThat(session.getMapper(RuleMapper.class), notNullValue());
     }
   }
+
+  @Test
+  public void openReadOnlySession_uses_primary_database_if_read_replica_is_not_configured() {
+    underTest.start();
+
+    try (DbSession session = underTest.openReadOnlySession()) {
+      assertThat(session.getConnection(), notNullValue());
+      assertThat(session.getMapper(RuleMapper.class), notNullValue());
+    }
+  }
+
+  @Test
+  public void openReadOnlySession_uses_read_replica_if_configured() throws SQLException {
+    Connection readReplicaConnection = mock(Connection.class);
+    DataSource readReplica = mock(DataSource.class);
+    when(readReplica.getConnection()).thenReturn(readReplicaConnection);
+    MyBatis myBatis = new MyBatis(databaseWithReadReplica(readReplica));
+    myBatis.start();
+
+    try (DbSession session = myBatis.openReadOnlySession()) {
+      assertThat(session.getConnection(), Is.is(readReplicaConnection));
+    }
+  }
+
+  @Test
+  public void openReadOnlySession_uses_primary_database_if_read_replica_is_not_reachable() throws SQLException {
+    DataSource readReplica = mock(DataSource.class);
+    when(readReplica.getConnection()).thenThrow(new SQLException("Connection refused"));
+    MyBatis myBatis = new MyBatis(databaseWithReadReplica(readReplica));
+    myBatis.start();
+
+    try (DbSession session = myBatis.openReadOnlySession()) {
+      assertThat(session.getConnection(), notNullValue());
+      assertThat(session.getMapper(RuleMapper.class), notNullValue());
+    }
+  }
+
+  private static Database databaseWithReadReplica(DataSource readReplica) {
+    Database result = mock(Database.class);
+    when(result.getDataSource()).thenReturn(database.getDataSource());
+    when(result.getDialect()).thenReturn(database.getDialect());
+    when(result.getReadReplicaDataSource()).thenReturn(readReplica);
+    return result;
+  }
 }
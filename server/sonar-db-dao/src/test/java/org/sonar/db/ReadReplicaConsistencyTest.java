@@ -0,0 +1,84 @@
+/*
+ * SonarQube
+ * Copyright (C) 2009-2017 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.db;
+
+import org.junit.Test;
+import org.sonar.api.config.MapSettings;
+import org.sonar.api.config.Settings;
+import org.sonar.api.utils.internal.TestSystem2;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class ReadReplicaConsistencyTest {
+
+  private static final long NOW = 1_500_000_000_000L;
+
+  private TestSystem2 system2 = new TestSystem2().setNow(NOW);
+  private Settings settings = new MapSettings();
+
+  @Test
+  public void anonymous_client_can_always_read_from_replica() {
+    ReadReplicaConsistency underTest = new ReadReplicaConsistency(settings, system2);
+
+    assertThat(underTest.canReadFromReplica(null)).isTrue();
+  }
+
+  @Test
+  public void client_which_did_not_write_can_read_from_replica() {
+    ReadReplicaConsistency underTest = new ReadReplicaConsistency(settings, system2);
+    underTest.recordWrite("john");
+
+    assertThat(underTest.canReadFromReplica("jane")).isTrue();
+  }
+
+  @Test
+  public void client_reads_from_primary_database_during_default_window_after_write() {
+    ReadReplicaConsistency underTest = new ReadReplicaConsistency(settings, system2);
+    underTest.recordWrite("john");
+
+    system2.setNow(NOW + ReadReplicaConsistency.DEFAULT_WINDOW_MS - 1);
+    assertThat(underTest.canReadFromReplica("john")).isFalse();
+
+    system2.setNow(NOW + ReadReplicaConsistency.DEFAULT_WINDOW_MS);
+    assertThat(underTest.canReadFromReplica("john")).isTrue();
+  }
+
+  @Test
+  public void window_is_configurable() {
+    settings.setProperty(ReadReplicaConsistency.WINDOW_PROPERTY, 30_000L);
+    ReadReplicaConsistency underTest = new ReadReplicaConsistency(settings, system2);
+    underTest.recordWrite("john");
+
+    system2.setNow(NOW + 29_999L);
+    assertThat(underTest.canReadFromReplica("john")).isFalse();
+
+    system2.setNow(NOW + 30_000L);
+    assertThat(underTest.canReadFromReplica("john")).isTrue();
+  }
+
+  @Test
+  public void zero_window_disables_guard() {
+    settings.setProperty(ReadReplicaConsistency.WINDOW_PROPERTY, 0L);
+    ReadReplicaConsistency underTest = new ReadReplicaConsistency(settings, system2);
+    underTest.recordWrite("john");
+
+    assertThat(underTest.canReadFromReplica("john")).isTrue();
+  }
+}
@@ -76,6 +76,39 @@ public class CeActivityDaoTest {
     assertThat(dto.isHasScannerContext()).isFalse();
   }
 
+  @Test
+  public void test_insert_of_resource_usage() {
+    CeActivityDto dto = createActivityDto("TASK_1", REPORT, "PROJECT_1", CeActivityDto.Status.SUCCESS)
+      .setCpuTimeMs(300L)
+      .setAllocatedBytes(1_000_000L)
+      .setDbStatementCount(42L)
+      .setDbTimeMs(120L)
+      .setTempDiskBytes(2_000L)
+      .setReportSizeBytes(1_500L);
+    underTest.insert(db.getSession(), dto);
+
+    CeActivityDto read = underTest.selectByUuid(db.getSession(), "TASK_1").get();
+    assertThat(read.getCpuTimeMs()).isEqualTo(300L);
+    assertThat(read.getAllocatedBytes()).isEqualTo(1_000_000L);
+    assertThat(read.getDbStatementCount()).isEqualTo(42L);
+    assertThat(read.getDbTimeMs()).isEqualTo(120L);
+    assertThat(read.getTempDiskBytes()).isEqualTo(2_000L);
+    assertThat(read.getReportSizeBytes()).isEqualTo(1_500L);
+  }
+
+  @Test
+  public void resource_usage_is_null_if_not_measured() {
+    underTest.insert(db.getSession(), createActivityDto("TASK_1", REPORT, "PROJECT_1", CeActivityDto.Status.SUCCESS));
+
+    CeActivityDto read = underTest.selectByUuid(db.getSession(), "TASK_1").get();
+    assertThat(read.getCpuTimeMs()).isNull();
+    assertThat(read.getAllocatedBytes()).isNull();
+    assertThat(read.getDbStatementCount()).isNull();
+    assertThat(read.getDbTimeMs()).isNull();
+    assertThat(read.getTempDiskBytes()).isNull();
+    assertThat(read.getReportSizeBytes()).isNull();
+  }
+
   @Test
   public void test_insert_of_errorMessage_of_1_000_chars() {
     CeActivityDto dto = createActivityDto("TASK_1", REPORT, "PROJECT_1", CeActivityDto.Status.FAILED)
@@ -78,6 +78,14 @@ public class CeQueueDaoTest {
     assertThat(saved.getCreatedAt()).isEqualTo(INIT_TIME);
     assertThat(saved.getUpdatedAt()).isEqualTo(INIT_TIME);
     assertThat(saved.getStartedAt()).isNull();
+    assertThat(saved.getPriority()).isNull();
+  }
+
+  @Test
+  public void insert_and_select_priority() {
+    underTest.insert(db.getSession(), newCeQueueDto(TASK_UUID_1).setPriority(CeQueueDto.Priority.HIGH));
+
+    assertThat(underTest.selectByUuid(db.getSession(), TASK_UUID_1).get().getPriority()).isEqualTo(CeQueueDto.Priority.HIGH);
   }
 
   @Test
@@ -182,6 +190,64 @@ public class CeQueueDaoTest {
     assertThat(peek.get().getUuid()).isEqualTo(TASK_UUID_2);
   }
 
+  @Test
+  public void selectEligibleForPeek_returns_oldest_pending_task_of_each_component_without_task_in_progress() {
+    insert(TASK_UUID_1, COMPONENT_UUID_1, PENDING);
+    system2.setNow(INIT_TIME + 1_000);
+    insert(TASK_UUID_2, COMPONENT_UUID_2, PENDING);
+    system2.setNow(INIT_TIME + 2_000);
+    insert(TASK_UUID_3, COMPONENT_UUID_1, PENDING);
+    system2.setNow(INIT_TIME + 3_000);
+    insert("TASK_4", "PROJECT_3", IN_PROGRESS);
+    insert("TASK_5", "PROJECT_3", PENDING);
+    system2.setNow(INIT_TIME + 4_000);
+    insert("TASK_6", "PROJECT_4", PENDING);
+
+    assertThat(underTest.selectEligibleForPeek(db.getSession(), 10)).extracting(CeQueueDto::getUuid).containsExactly(TASK_UUID_1, TASK_UUID_2, "TASK_6");
+    assertThat(underTest.selectEligibleForPeek(db.getSession(), 2)).extracting(CeQueueDto::getUuid).containsExactly(TASK_UUID_1, TASK_UUID_2);
+  }
+
+  @Test
+  public void selectEligibleForPeek_returns_tasks_by_descending_priority_then_by_date_of_submission() {
+    insert(newPendingTask(TASK_UUID_1, COMPONENT_UUID_1, INIT_TIME).setPriority(CeQueueDto.Priority.LOW));
+    insert(newPendingTask(TASK_UUID_2, COMPONENT_UUID_2, INIT_TIME + 1_000).setPriority(null));
+    insert(newPendingTask(TASK_UUID_3, "PROJECT_3", INIT_TIME + 2_000).setPriority(CeQueueDto.Priority.NORMAL));
+    insert(newPendingTask("TASK_4", "PROJECT_4", INIT_TIME + 3_000).setPriority(CeQueueDto.Priority.HIGH));
+
+    assertThat(underTest.selectEligibleForPeek(db.getSession(), 10)).extracting(CeQueueDto::getUuid).containsExactly("TASK_4", TASK_UUID_2, TASK_UUID_3, TASK_UUID_1);
+  }
+
+  @Test
+  public void selectEligibleForPeek_does_not_leave_out_high_priority_task_submitted_after_the_limit_is_reached() {
+    for (int i = 0; i < 10; i++) {
+      insert(newPendingTask("TASK_" + i, "PROJECT_" + i, INIT_TIME + i * 1_000L));
+    }
+    insert(newPendingTask("HIGH_TASK", "HIGH_PROJECT", INIT_TIME + 10_000L).setPriority(CeQueueDto.Priority.HIGH));
+
+    assertThat(underTest.selectEligibleForPeek(db.getSession(), 5)).extracting(CeQueueDto::getUuid)
+      .containsExactly("HIGH_TASK", "TASK_0", "TASK_1", "TASK_2", "TASK_3");
+  }
+
+  @Test
+  public void tryToPeek_peeks_specified_pending_task() throws Exception {
+    insert(TASK_UUID_1, COMPONENT_UUID_1, PENDING);
+    system2.setNow(INIT_TIME + 3_000_000);
+    insert(TASK_UUID_2, COMPONENT_UUID_1, PENDING);
+
+    Optional<CeQueueDto> peek = underTest.tryToPeek(db.getSession(), TASK_UUID_2);
+    assertThat(peek.get().getUuid()).isEqualTo(TASK_UUID_2);
+    assertThat(peek.get().getStatus()).isEqualTo(IN_PROGRESS);
+    verifyCeQueueStatuses(TASK_UUID_1, PENDING, TASK_UUID_2, IN_PROGRESS);
+  }
+
+  @Test
+  public void tryToPeek_does_not_peek_task_which_is_not_pending() throws Exception {
+    insert(TASK_UUID_1, COMPONENT_UUID_1, IN_PROGRESS);
+
+    assertThat(underTest.tryToPeek(db.getSession(), TASK_UUID_1).isPresent()).isFalse();
+    assertThat(underTest.tryToPeek(db.getSession(), "missing").isPresent()).isFalse();
+  }
+
   @Test
   public void select_by_query() {
     // task status not in query
@@ -309,6 +375,14 @@ public class CeQueueDaoTest {
     assertThat(underTest.countByStatus(db.getSession(), IN_PROGRESS)).isEqualTo(2);
   }
 
+  private static CeQueueDto newPendingTask(String uuid, String componentUuid, long createdAt) {
+    return newCeQueueDto(uuid)
+      .setComponentUuid(componentUuid)
+      .setStartedAt(null)
+      .setCreatedAt(createdAt)
+      .setUpdatedAt(createdAt);
+  }
+
   private void insert(CeQueueDto dto) {
     underTest.insert(db.getSession(), dto);
     db.commit();
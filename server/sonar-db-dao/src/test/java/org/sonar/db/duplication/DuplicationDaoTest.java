@@ -25,8 +25,10 @@ import org.sonar.api.utils.System2;
 import org.sonar.db.DbSession;
 import org.sonar.db.DbTester;
 
+import java.util.ArrayList;
 import java.util.List;
 
+import static java.util.Arrays.asList;
 import static java.util.Collections.singletonList;
 import static org.assertj.core.api.Assertions.assertThat;
 
@@ -61,6 +63,34 @@ public class DuplicationDaoTest {
     assertThat(blocks).hasSize(2);
   }
 
+  @Test
+  public void scroll_candidates() {
+    db.prepareDbUnit(getClass(), "select_candidates.xml");
+    dbSession.commit();
+
+    List<DuplicationUnitDto> blocks = new ArrayList<>();
+    dao.scrollCandidates(dbSession, "u7", "java", singletonList("aa"), context -> blocks.add((DuplicationUnitDto) context.getResultObject()));
+    assertThat(blocks).extracting(DuplicationUnitDto::getComponentKey).containsExactly("bar-last");
+
+    blocks.clear();
+    dao.scrollCandidates(dbSession, null, "java", asList("aa", "bb"), context -> blocks.add((DuplicationUnitDto) context.getResultObject()));
+    assertThat(blocks).extracting(DuplicationUnitDto::getComponentKey).containsOnly("bar-last", "foo-last");
+  }
+
+  @Test
+  public void scroll_candidates_stops_loading_when_handler_stops() {
+    db.prepareDbUnit(getClass(), "select_candidates.xml");
+    dbSession.commit();
+
+    List<DuplicationUnitDto> blocks = new ArrayList<>();
+    dao.scrollCandidates(dbSession, null, "java", singletonList("aa"), context -> {
+      blocks.add((DuplicationUnitDto) context.getResultObject());
+      context.stop();
+    });
+
+    assertThat(blocks).hasSize(1);
+  }
+
   @Test
   public void insert() {
     db.prepareDbUnit(getClass(), "insert.xml");
@@ -19,6 +19,7 @@
  */
 package org.sonar.db.issue;
 
+import java.util.ArrayList;
 import java.util.List;
 import org.junit.Rule;
 import org.junit.Test;
@@ -122,6 +123,26 @@ public class IssueDaoTest {
     assertThat(issues).extracting("key").containsExactly("I2", "I1");
   }
 
+  @Test
+  public void scrollNonClosedByProjectUuid() {
+    dbTester.getDbClient().ruleDao().insert(dbTester.getSession(), RULE);
+    OrganizationDto organizationDto = dbTester.organizations().insert();
+    ComponentDto project = dbTester.components().insertProject(organizationDto, (t) -> t.setUuid(PROJECT_UUID).setKey(PROJECT_KEY));
+    ComponentDto file1 = dbTester.components().insertComponent(ComponentTesting.newFileDto(project).setUuid("file1"));
+    ComponentDto file2 = dbTester.components().insertComponent(ComponentTesting.newFileDto(project).setUuid("file2"));
+    underTest.insert(dbTester.getSession(), newIssueDto("I1").setRuleId(RULE.getId()).setComponentUuid(file2.uuid()).setProjectUuid(PROJECT_UUID).setStatus("OPEN"));
+    underTest.insert(dbTester.getSession(), newIssueDto("I2").setRuleId(RULE.getId()).setComponentUuid(file1.uuid()).setProjectUuid(PROJECT_UUID).setStatus("OPEN"));
+    underTest.insert(dbTester.getSession(), newIssueDto("I3").setRuleId(RULE.getId()).setComponentUuid(file2.uuid()).setProjectUuid(PROJECT_UUID).setStatus("CONFIRMED"));
+    underTest.insert(dbTester.getSession(), newIssueDto("I4").setRuleId(RULE.getId()).setComponentUuid(file1.uuid()).setProjectUuid(PROJECT_UUID).setStatus("CLOSED"));
+    dbTester.getSession().commit();
+
+    List<IssueDto> issues = new ArrayList<>();
+    underTest.scrollNonClosedByProjectUuid(dbTester.getSession(), PROJECT_UUID, context -> issues.add((IssueDto) context.getResultObject()));
+
+    assertThat(issues).extracting(IssueDto::getKey).containsOnly("I1", "I2", "I3");
+    assertThat(issues).extracting(IssueDto::getComponentUuid).containsExactly("file1", "file2", "file2");
+  }
+
   private static IssueDto newIssueDto(String key) {
     IssueDto dto = new IssueDto();
     dto.setComponent(new ComponentDto().setKey("struts:Action").setId(123L).setUuid("component-uuid"));
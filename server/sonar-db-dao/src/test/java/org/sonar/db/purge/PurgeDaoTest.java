@@ -80,6 +80,28 @@ public class PurgeDaoTest {
     dbTester.assertDbUnit(getClass(), "shouldPurgeProject-result.xml", "projects", "snapshots");
   }
 
+  @Test
+  public void purgeHistory_does_not_delete_unprocessed_analyses() {
+    dbTester.prepareDbUnit(getClass(), "shouldDeleteAbortedBuilds.xml");
+
+    underTest.purgeHistory(dbSession, newConfigurationWith30Days(), PurgeListener.EMPTY, new PurgeProfiler(), PurgeThrottler.NONE);
+    dbSession.commit();
+
+    dbTester.assertDbUnit(getClass(), "shouldDeleteAbortedBuilds.xml", "snapshots");
+  }
+
+  @Test
+  public void purgeHistory_acquires_throttler_before_deleting_chunks() {
+    dbTester.prepareDbUnit(getClass(), "shouldPurgeProject.xml");
+    List<Integer> acquiredRows = new ArrayList<>();
+
+    underTest.purgeHistory(dbSession, newConfigurationWith30Days(), PurgeListener.EMPTY, new PurgeProfiler(), acquiredRows::add);
+    dbSession.commit();
+
+    dbTester.assertDbUnit(getClass(), "shouldPurgeProject-result.xml", "projects", "snapshots");
+    assertThat(acquiredRows).isNotEmpty();
+  }
+
   @Test
   public void shouldDeleteHistoricalDataOfDirectoriesAndFiles() {
     dbTester.prepareDbUnit(getClass(), "shouldDeleteHistoricalDataOfDirectoriesAndFiles.xml");
@@ -21,6 +21,8 @@ package org.sonar.db.source;
 
 import java.io.IOException;
 import java.io.Reader;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.function.Function;
 import javax.annotation.Nullable;
 import org.apache.commons.io.IOUtils;
@@ -29,6 +31,7 @@ import org.junit.Test;
 import org.sonar.api.utils.System2;
 import org.sonar.db.DbSession;
 import org.sonar.db.DbTester;
+import org.sonar.db.protobuf.DbFileSources;
 import org.sonar.db.source.FileSourceDto.Type;
 
 import static org.assertj.core.api.Assertions.assertThat;
@@ -69,6 +72,64 @@ public class FileSourceDaoTest {
     assertThat(fn.result).isEqualTo("ABC\\nDEF\\nGHI");
   }
 
+  @Test
+  public void scroll_line_hashes_of_project() {
+    dbTester.prepareDbUnit(getClass(), "shared.xml");
+    List<FileSourceDto> dtos = new ArrayList<>();
+
+    underTest.scrollLineHashesByProjectUuid(dbTester.getSession(), "PRJ_UUID", context -> dtos.add((FileSourceDto) context.getResultObject()));
+
+    assertThat(dtos).extracting(FileSourceDto::getFileUuid).containsExactly("FILE1_UUID");
+    assertThat(dtos.get(0).getLineHashes()).isEqualTo("ABC\\nDEF\\nGHI");
+  }
+
+  @Test
+  public void scroll_line_hashes_of_unknown_project() {
+    dbTester.prepareDbUnit(getClass(), "shared.xml");
+    List<FileSourceDto> dtos = new ArrayList<>();
+
+    underTest.scrollLineHashesByProjectUuid(dbTester.getSession(), "unknown", context -> dtos.add((FileSourceDto) context.getResultObject()));
+
+    assertThat(dtos).isEmpty();
+  }
+
+  @Test
+  public void scroll_scm_of_project() {
+    DbFileSources.Scm scm = DbFileSources.Scm.newBuilder()
+      .addChangeset(DbFileSources.Scm.Changeset.newBuilder().setRevision("rev1").setAuthor("john").setDate(123456789L))
+      .addChangesetIndexByLine(0)
+      .addChangesetIndexByLine(0)
+      .build();
+    underTest.insert(session, new FileSourceDto()
+      .setProjectUuid("PRJ_UUID")
+      .setFileUuid("FILE1_UUID")
+      .setSourceData(DbFileSources.Data.getDefaultInstance())
+      .setSrcHash("FILE1_HASH")
+      .setScm(scm)
+      .setCreatedAt(1500000000000L)
+      .setUpdatedAt(1500000000000L));
+    underTest.insert(session, new FileSourceDto()
+      .setProjectUuid("PRJ_UUID")
+      .setFileUuid("FILE2_UUID")
+      .setSourceData(DbFileSources.Data.getDefaultInstance())
+      .setSrcHash("FILE2_HASH")
+      .setCreatedAt(1500000000000L)
+      .setUpdatedAt(1500000000000L));
+    session.commit();
+    List<FileSourceDto> dtos = new ArrayList<>();
+
+    underTest.scrollScmByProjectUuid(session, "PRJ_UUID", context -> dtos.add((FileSourceDto) context.getResultObject()));
+
+    assertThat(dtos).extracting(FileSourceDto::getFileUuid).containsOnly("FILE1_UUID", "FILE2_UUID");
+    FileSourceDto file1 = dtos.stream().filter(dto -> dto.getFileUuid().equals("FILE1_UUID")).findFirst().get();
+    assertThat(file1.getSrcHash()).isEqualTo("FILE1_HASH");
+    assertThat(file1.getBinaryData()).isNull();
+    assertThat(file1.getScm()).isEqualTo(scm);
+    FileSourceDto file2 = dtos.stream().filter(dto -> dto.getFileUuid().equals("FILE2_UUID")).findFirst().get();
+    assertThat(file2.getScm()).isNull();
+    assertThat(underTest.selectSourceByFileUuid(session, "FILE1_UUID").getScm()).isEqualTo(scm);
+  }
+
   @Test
   public void no_line_hashes_on_unknown_file() {
     dbTester.prepareDbUnit(getClass(), "shared.xml");
@@ -0,0 +1,231 @@
+/*
+ * SonarQube
+ * Copyright (C) 2009-2017 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.server.platform.db.migration.step;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import org.sonar.api.utils.log.Logger;
+import org.sonar.api.utils.log.Loggers;
+import org.sonar.core.util.ProgressLogger;
+import org.sonar.db.Database;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkState;
+
+/**
+ * Variant of {@link MassUpdate} for large tables. Rows are split in ranges of ids (the partitions), which
+ * are processed concurrently. Each partition is read and updated on its own connections and is committed
+ * independently of the others.
+ * <p>
+ * The two first parameters of the SELECT request are bound to the lower (inclusive) and upper (exclusive)
+ * bounds of the partition, for example {@code select id, data from issues where id >= ? and id < ? and new_column is null}.
+ * The SELECT must exclude the rows which are already migrated, so that a migration interrupted by a crash
+ * restarts without processing again the partitions that were committed.
+ * </p>
+ * <p>
+ * Handlers are called concurrently by different threads, so they must not share state.
+ * </p>
+ */
+public class PartitionedMassUpdate {
+
+  static final int DEFAULT_PARTITION_SIZE = 100_000;
+  static final int DEFAULT_THREADS = 4;
+
+  private static final Logger LOG = Loggers.get(PartitionedMassUpdate.class);
+
+  private final Database db;
+  private final Connection readConnection;
+  private final AtomicLong counter = new AtomicLong(0L);
+  private final AtomicInteger processedPartitions = new AtomicInteger(0);
+  private final ProgressLogger progress = ProgressLogger.create(getClass(), counter);
+
+  private String boundsSql;
+  private int partitionSize = DEFAULT_PARTITION_SIZE;
+  private int threads = DEFAULT_THREADS;
+  private String selectSql;
+  private final List<String> updateSqls = new ArrayList<>(1);
+
+  PartitionedMassUpdate(Database db, Connection readConnection) {
+    this.db = db;
+    this.readConnection = readConnection;
+  }
+
+  /**
+   * @param boundsSql request returning the min and max ids of the rows to be processed, for example
+   *                  {@code select min(id), max(id) from issues where new_column is null}
+   * @param partitionSize maximum number of ids in each partition
+   */
+  public PartitionedMassUpdate partitionByIdRange(String boundsSql, int partitionSize) {
+    checkArgument(partitionSize > 0, "Partition size must be strictly positive");
+    this.boundsSql = boundsSql;
+    this.partitionSize = partitionSize;
+    return this;
+  }
+
+  /**
+   * Maximum number of partitions processed concurrently. Each of them uses two connections of the pool.
+   * Default is {@value #DEFAULT_THREADS}.
+   */
+  public PartitionedMassUpdate threads(int i) {
+    checkArgument(i > 0, "Number of threads must be strictly positive");
+    this.threads = i;
+    return this;
+  }
+
+  public PartitionedMassUpdate select(String sql) {
+    this.selectSql = sql;
+    return this;
+  }
+
+  public PartitionedMassUpdate update(String sql) {
+    this.updateSqls.add(sql);
+    return this;
+  }
+
+  public PartitionedMassUpdate rowPluralName(String s) {
+    this.progress.setPluralLabel(s);
+    return this;
+  }
+
+  public void execute(MassUpdate.Handler handler) throws SQLException {
+    checkState(updateSqls.size() <= 1, "There should be only one update when using a " + MassUpdate.Handler.class.getName());
+    execute((row, update, updateIndex) -> handler.handle(row, update));
+  }
+
+  public void execute(MassUpdate.MultiHandler handler) throws SQLException {
+    checkState(boundsSql != null, "Partitions are not defined");
+    checkState(selectSql != null && !updateSqls.isEmpty(), "SELECT or UPDATE requests are not defined");
+
+    List<Partition> partitions = loadPartitions();
+    if (partitions.isEmpty()) {
+      return;
+    }
+
+    progress.start();
+    ExecutorService executor = Executors.newFixedThreadPool(Math.min(threads, partitions.size()),
+      new ThreadFactoryBuilder().setNameFormat("MassUpdate-%d").setDaemon(true).build());
+    try {
+      List<Future<Void>> futures = new ArrayList<>(partitions.size());
+      for (Partition partition : partitions) {
+        futures.add(executor.submit(() -> execute(partition, partitions.size(), handler)));
+      }
+      for (Future<Void> future : futures) {
+        waitFor(future);
+      }
+
+      // log the total number of processed rows
+      progress.log();
+    } finally {
+      executor.shutdownNow();
+      progress.stop();
+    }
+  }
+
+  private List<Partition> loadPartitions() throws SQLException {
+    long[] bounds = SelectImpl.create(db, readConnection, boundsSql).get(row -> {
+      Long min = row.getNullableLong(1);
+      Long max = row.getNullableLong(2);
+      return min == null || max == null ? null : new long[] {min, max};
+    });
+    List<Partition> partitions = new ArrayList<>();
+    if (bounds != null) {
+      for (long start = bounds[0]; start <= bounds[1]; start += partitionSize) {
+        partitions.add(new Partition(start, start + partitionSize));
+      }
+    }
+    return partitions;
+  }
+
+  private Void execute(Partition partition, int totalPartitions, MassUpdate.MultiHandler handler) throws SQLException {
+    AtomicLong partitionCounter = new AtomicLong(0L);
+    try (Connection partitionReadConnection = DataChange.createReadUncommittedConnection(db);
+      Connection partitionWriteConnection = DataChange.createDdlConnection(db)) {
+      List<UpsertImpl> updates = new ArrayList<>(updateSqls.size());
+      try {
+        for (String updateSql : updateSqls) {
+          updates.add(UpsertImpl.create(partitionWriteConnection, updateSql));
+        }
+        SelectImpl.create(db, partitionReadConnection, selectSql)
+          .setLong(1, partition.start)
+          .setLong(2, partition.end)
+          .scroll(row -> {
+            int i = 0;
+            for (UpsertImpl update : updates) {
+              if (handler.handle(row, update, i)) {
+                update.addBatch();
+              }
+              i++;
+            }
+            partitionCounter.getAndIncrement();
+            counter.getAndIncrement();
+          });
+        for (UpsertImpl update : updates) {
+          if (update.getBatchCount() > 0L) {
+            update.execute().commit();
+          }
+        }
+      } finally {
+        for (UpsertImpl update : updates) {
+          update.close();
+        }
+      }
+    }
+    LOG.info("Partition [{}, {}[ processed: {} {} ({}/{} partitions)", partition.start, partition.end, partitionCounter.get(), progress.getPluralLabel(),
+      processedPartitions.incrementAndGet(), totalPartitions);
+    return null;
+  }
+
+  private static void waitFor(Future<Void> future) throws SQLException {
+    try {
+      future.get();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IllegalStateException("Interrupted while waiting for the migration of partitions", e);
+    } catch (ExecutionException e) {
+      Throwable cause = e.getCause();
+      if (cause instanceof SQLException) {
+        throw (SQLException) cause;
+      }
+      if (cause instanceof RuntimeException) {
+        throw (RuntimeException) cause;
+      }
+      throw new IllegalStateException("Fail to migrate partition", cause);
+    }
+  }
+
+  private static final class Partition {
+    private final long start;
+    private final long end;
+
+    private Partition(long start, long end) {
+      this.start = start;
+      this.end = end;
+    }
+  }
+}
@@ -0,0 +1,51 @@
+/*
+ * SonarQube
+ * Copyright (C) 2009-2017 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.server.platform.db.migration.version.v64;
+
+import java.sql.SQLException;
+import org.sonar.db.Database;
+import org.sonar.server.platform.db.migration.def.BigIntegerColumnDef;
+import org.sonar.server.platform.db.migration.sql.AddColumnsBuilder;
+import org.sonar.server.platform.db.migration.step.DdlChange;
+
+import static org.sonar.server.platform.db.migration.def.BigIntegerColumnDef.newBigIntegerColumnDefBuilder;
+
+public class AddResourceUsageToCeActivity extends DdlChange {
+
+  public AddResourceUsageToCeActivity(Database db) {
+    super(db);
+  }
+
+  @Override
+  public void execute(Context context) throws SQLException {
+    context.execute(new AddColumnsBuilder(getDialect(), "ce_activity")
+      .addColumn(newNullableBigIntegerColumn("cpu_time_ms"))
+      .addColumn(newNullableBigIntegerColumn("allocated_bytes"))
+      .addColumn(newNullableBigIntegerColumn("db_statement_count"))
+      .addColumn(newNullableBigIntegerColumn("db_time_ms"))
+      .addColumn(newNullableBigIntegerColumn("temp_disk_bytes"))
+      .addColumn(newNullableBigIntegerColumn("report_size_bytes"))
+      .build());
+  }
+
+  private static BigIntegerColumnDef newNullableBigIntegerColumn(String name) {
+    return newBigIntegerColumnDefBuilder().setColumnName(name).setIsNullable(true).build();
+  }
+}
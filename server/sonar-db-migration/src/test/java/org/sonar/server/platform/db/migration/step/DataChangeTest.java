@@ -426,6 +426,89 @@ public class DataChangeTest {
     }
   }
 
+  @Test
+  public void partitioned_mass_update() throws Exception {
+    db.prepareDbUnit(getClass(), "persons.xml");
+
+    new DataChange(db.database()) {
+      @Override
+      public void execute(Context context) throws SQLException {
+        PartitionedMassUpdate massUpdate = context.preparePartitionedMassUpdate();
+        massUpdate.partitionByIdRange("select min(id), max(id) from persons where id>=2", 1);
+        massUpdate.threads(2);
+        massUpdate.select("select id from persons where id>=? and id<?");
+        massUpdate.update("update persons set login=?, age=? where id=?");
+        massUpdate.execute((row, update) -> {
+          long id = row.getNullableLong(1);
+          update
+            .setString(1, "login" + id)
+            .setInt(2, 10 + (int) id)
+            .setLong(3, id);
+          return true;
+        });
+      }
+    }.execute();
+
+    db.assertDbUnit(getClass(), "mass-update-result.xml", "persons");
+  }
+
+  @Test
+  public void partitioned_mass_update_nothing() throws Exception {
+    db.prepareDbUnit(getClass(), "persons.xml");
+
+    new DataChange(db.database()) {
+      @Override
+      public void execute(Context context) throws SQLException {
+        PartitionedMassUpdate massUpdate = context.preparePartitionedMassUpdate();
+        massUpdate.partitionByIdRange("select min(id), max(id) from persons where id>10", 1);
+        massUpdate.select("select id from persons where id>=? and id<?");
+        massUpdate.update("update persons set login=?, age=? where id=?");
+        massUpdate.execute((row, update) -> {
+          throw new IllegalStateException("No rows should be processed");
+        });
+      }
+    }.execute();
+
+    db.assertDbUnit(getClass(), "persons.xml", "persons");
+  }
+
+  @Test
+  public void display_current_row_details_if_error_during_partitioned_mass_update() throws Exception {
+    db.prepareDbUnit(getClass(), "persons.xml");
+
+    thrown.expect(IllegalStateException.class);
+    thrown.expectMessage("Error during processing of row: [id=2]");
+
+    new DataChange(db.database()) {
+      @Override
+      public void execute(Context context) throws SQLException {
+        PartitionedMassUpdate massUpdate = context.preparePartitionedMassUpdate();
+        massUpdate.partitionByIdRange("select min(id), max(id) from persons where id=2", 10);
+        massUpdate.select("select id from persons where id>=? and id<?");
+        massUpdate.update("update persons set login=?, age=? where id=?");
+        massUpdate.execute((row, update) -> {
+          throw new IllegalStateException("Unexpected error");
+        });
+      }
+    }.execute();
+  }
+
+  @Test
+  public void bad_partitioned_mass_update() throws Exception {
+    thrown.expect(IllegalStateException.class);
+    thrown.expectMessage("Partitions are not defined");
+
+    new DataChange(db.database()) {
+      @Override
+      public void execute(Context context) throws SQLException {
+        PartitionedMassUpdate massUpdate = context.preparePartitionedMassUpdate();
+        massUpdate.select("select id from persons where id>=? and id<?");
+        massUpdate.update("update persons set login=?, age=? where id=?");
+        massUpdate.execute((row, update) -> false);
+      }
+    }.execute();
+  }
+
   @Test
   public void read_not_null_fields() throws Exception {
     db.prepareDbUnit(getClass(), "persons.xml");
@@ -61,6 +61,23 @@ public interface CEQueueStatus {
    */
   long addError(long processingTime);
 
+  /**
+   * Adds the resources consumed by a processed task to the resource counters.
+   */
+  void addResourceUsage(CeTaskResourceUsage resourceUsage);
+
+  /**
+   * Adds the time a task waited in queue, from its submission to the start of its processing, to the wait time
+   * statistics.
+   *
+   * @param waitTime duration of wait in ms
+   *
+   * @see #getWaitTimePercentile(int)
+   *
+   * @throws IllegalArgumentException if waitTime is < 0
+   */
+  void addWaitTime(long waitTime);
+
   /**
    * Count of batch reports waiting for processing since startup, including reports received before instance startup.
    */
@@ -85,4 +102,41 @@ public interface CEQueueStatus {
    * Time spent processing batch reports since startup, in milliseconds.
    */
   long getProcessingTime();
+
+  /**
+   * CPU time of the workers spent processing tasks since startup, in milliseconds. Does not include the tasks
+   * executed by JVMs which do not support the measurement of thread CPU time.
+   */
+  long getCpuTime();
+
+  /**
+   * Bytes allocated in heap by the workers while processing tasks since startup. Does not include the tasks
+   * executed by JVMs which do not support the measurement of thread allocations.
+   */
+  long getAllocatedBytes();
+
+  /**
+   * Count of SQL statements executed by the workers while processing tasks since startup.
+   */
+  long getDbStatementCount();
+
+  /**
+   * Time spent executing SQL statements by the workers since startup, in milliseconds.
+   */
+  long getDbTime();
+
+  /**
+   * Disk space used by the temporary files of the tasks processed since startup, in bytes.
+   */
+  long getTempDiskBytes();
+
+  /**
+   * Wait time in queue, in milliseconds, under which the specified percentage of the most recently started tasks
+   * waited. Returns 0 if no task has been started since startup.
+   *
+   * @param percentile a percentage between 1 and 100, for example 50 for the median
+   *
+   * @throws IllegalArgumentException if percentile is not between 1 and 100
+   */
+  long getWaitTimePercentile(int percentile);
 }
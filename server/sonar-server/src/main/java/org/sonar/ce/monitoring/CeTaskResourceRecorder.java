@@ -0,0 +1,80 @@
+/*
+ * SonarQube
+ * Copyright (C) 2009-2017 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.ce.monitoring;
+
+import org.sonar.db.profiling.SqlStatistics;
+
+import static com.google.common.base.Preconditions.checkState;
+
+/**
+ * Records the resources consumed by the tasks processed by Compute Engine workers. As a worker processes a
+ * single task at a time, recording is bound to the current thread.
+ * <p>
+ * Components of the task may report the disk space they use through {@link #addTempDiskBytes(long)} and
+ * {@link #updateReportSize(long)}. These calls are ignored when the current thread is not recording.
+ * </p>
+ */
+public class CeTaskResourceRecorder {
+
+  private final ThreadLocal<Recording> recordings = new ThreadLocal<>();
+
+  public void start() {
+    SqlStatistics.startRecording();
+    recordings.set(new Recording(ResourceUsage.ofCurrentThread()));
+  }
+
+  public void addTempDiskBytes(long bytes) {
+    Recording recording = recordings.get();
+    if (recording != null) {
+      recording.tempDiskBytes += bytes;
+    }
+  }
+
+  public void updateReportSize(long bytes) {
+    Recording recording = recordings.get();
+    if (recording != null) {
+      recording.reportSizeBytes = Math.max(recording.reportSizeBytes, bytes);
+    }
+  }
+
+  /**
+   * @throws IllegalStateException if {@link #start()} has not been called by the current thread
+   */
+  public CeTaskResourceUsage stop() {
+    Recording recording = recordings.get();
+    checkState(recording != null, "Recording of resources is not started");
+    try {
+      return new CeTaskResourceUsage(ResourceUsage.ofCurrentThread().since(recording.start), recording.tempDiskBytes, recording.reportSizeBytes);
+    } finally {
+      recordings.remove();
+      SqlStatistics.stopRecording();
+    }
+  }
+
+  private static final class Recording {
+    private final ResourceUsage start;
+    private long tempDiskBytes = 0L;
+    private long reportSizeBytes = 0L;
+
+    private Recording(ResourceUsage start) {
+      this.start = start;
+    }
+  }
+}
@@ -0,0 +1,72 @@
+/*
+ * SonarQube
+ * Copyright (C) 2009-2017 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.ce.monitoring;
+
+import javax.annotation.concurrent.Immutable;
+
+/**
+ * Resources consumed by the processing of a Compute Engine task.
+ *
+ * @see CeTaskResourceRecorder
+ */
+@Immutable
+public final class CeTaskResourceUsage {
+
+  private final ResourceUsage threadUsage;
+  private final long tempDiskBytes;
+  private final long reportSizeBytes;
+
+  public CeTaskResourceUsage(ResourceUsage threadUsage, long tempDiskBytes, long reportSizeBytes) {
+    this.threadUsage = threadUsage;
+    this.tempDiskBytes = tempDiskBytes;
+    this.reportSizeBytes = reportSizeBytes;
+  }
+
+  /**
+   * CPU time, allocated memory and SQL statements of the worker thread which processed the task.
+   */
+  public ResourceUsage getThreadUsage() {
+    return threadUsage;
+  }
+
+  /**
+   * Size of the temporary files of the task, measured just before they are deleted.
+   */
+  public long getTempDiskBytes() {
+    return tempDiskBytes;
+  }
+
+  /**
+   * Size of the largest analysis report extracted by the task, {@code 0} if the task does not process
+   * any report.
+   */
+  public long getReportSizeBytes() {
+    return reportSizeBytes;
+  }
+
+  @Override
+  public String toString() {
+    return "CeTaskResourceUsage{" +
+      "threadUsage=" + threadUsage +
+      ", tempDiskBytes=" + tempDiskBytes +
+      ", reportSizeBytes=" + reportSizeBytes +
+      '}';
+  }
+}
@@ -0,0 +1,126 @@
+/*
+ * SonarQube
+ * Copyright (C) 2009-2017 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.ce.monitoring;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.concurrent.TimeUnit;
+import javax.annotation.concurrent.Immutable;
+import org.sonar.db.profiling.SqlStatistics;
+
+/**
+ * Resources consumed by a thread: CPU time, allocated memory and SQL statements. Counters are
+ * cumulative, so the consumption of a piece of code is the difference of two snapshots taken
+ * by {@link #ofCurrentThread()}.
+ * <p>
+ * Values are {@link #UNKNOWN} when the JVM does not support the related measurement. SQL statements
+ * are counted only when {@link SqlStatistics} are recorded by the thread.
+ * </p>
+ */
+@Immutable
+public final class ResourceUsage {
+
+  public static final long UNKNOWN = -1L;
+
+  private static final ThreadMXBean THREAD_MX_BEAN = ManagementFactory.getThreadMXBean();
+
+  private final long cpuTimeMs;
+  private final long allocatedBytes;
+  private final long dbStatementCount;
+  private final long dbTimeMs;
+
+  public ResourceUsage(long cpuTimeMs, long allocatedBytes, long dbStatementCount, long dbTimeMs) {
+    this.cpuTimeMs = cpuTimeMs;
+    this.allocatedBytes = allocatedBytes;
+    this.dbStatementCount = dbStatementCount;
+    this.dbTimeMs = dbTimeMs;
+  }
+
+  public static ResourceUsage ofCurrentThread() {
+    SqlStatistics sqlStatistics = SqlStatistics.current();
+    return new ResourceUsage(
+      currentThreadCpuTimeMs(),
+      currentThreadAllocatedBytes(),
+      sqlStatistics == null ? 0L : sqlStatistics.getStatementCount(),
+      sqlStatistics == null ? 0L : sqlStatistics.getDurationMs());
+  }
+
+  private static long currentThreadCpuTimeMs() {
+    if (!THREAD_MX_BEAN.isCurrentThreadCpuTimeSupported() || !THREAD_MX_BEAN.isThreadCpuTimeEnabled()) {
+      return UNKNOWN;
+    }
+    return TimeUnit.NANOSECONDS.toMillis(THREAD_MX_BEAN.getCurrentThreadCpuTime());
+  }
+
+  private static long currentThreadAllocatedBytes() {
+    if (!(THREAD_MX_BEAN instanceof com.sun.management.ThreadMXBean)) {
+      return UNKNOWN;
+    }
+    com.sun.management.ThreadMXBean bean = (com.sun.management.ThreadMXBean) THREAD_MX_BEAN;
+    if (!bean.isThreadAllocatedMemorySupported() || !bean.isThreadAllocatedMemoryEnabled()) {
+      return UNKNOWN;
+    }
+    return bean.getThreadAllocatedBytes(Thread.currentThread().getId());
+  }
+
+  /**
+   * Resources consumed since the specified snapshot of the same thread.
+   */
+  public ResourceUsage since(ResourceUsage start) {
+    return new ResourceUsage(
+      delta(cpuTimeMs, start.cpuTimeMs),
+      delta(allocatedBytes, start.allocatedBytes),
+      delta(dbStatementCount, start.dbStatementCount),
+      delta(dbTimeMs, start.dbTimeMs));
+  }
+
+  private static long delta(long end, long start) {
+    if (end == UNKNOWN || start == UNKNOWN) {
+      return UNKNOWN;
+    }
+    return Math.max(0L, end - start);
+  }
+
+  public long getCpuTimeMs() {
+    return cpuTimeMs;
+  }
+
+  public long getAllocatedBytes() {
+    return allocatedBytes;
+  }
+
+  public long getDbStatementCount() {
+    return dbStatementCount;
+  }
+
+  public long getDbTimeMs() {
+    return dbTimeMs;
+  }
+
+  @Override
+  public String toString() {
+    return "ResourceUsage{" +
+      "cpuTimeMs=" + cpuTimeMs +
+      ", allocatedBytes=" + allocatedBytes +
+      ", dbStatementCount=" + dbStatementCount +
+      ", dbTimeMs=" + dbTimeMs +
+      '}';
+  }
+}
@@ -235,6 +235,7 @@ public class CeQueueImpl implements CeQueue {
       dto.setComponentUuid(submission.getComponentUuid());
       dto.setStatus(CeQueueDto.Status.PENDING);
       dto.setSubmitterLogin(submission.getSubmitterLogin());
+      dto.setPriority(submission.getPriority());
       dto.setStartedAt(null);
       dbClient.ceQueueDao().insert(dbSession, dto);
       return dto;
@@ -23,6 +23,7 @@ import java.util.Objects;
 import javax.annotation.CheckForNull;
 import javax.annotation.Nullable;
 import javax.annotation.concurrent.Immutable;
+import org.sonar.db.ce.CeQueueDto;
 
 import static com.google.common.base.Strings.emptyToNull;
 
@@ -33,12 +34,14 @@ public final class CeTaskSubmit {
   private final String type;
   private final String componentUuid;
   private final String submitterLogin;
+  private final CeQueueDto.Priority priority;
 
   private CeTaskSubmit(Builder builder) {
     this.uuid = Objects.requireNonNull(emptyToNull(builder.uuid));
     this.type = Objects.requireNonNull(emptyToNull(builder.type));
     this.componentUuid = emptyToNull(builder.componentUuid);
     this.submitterLogin = emptyToNull(builder.submitterLogin);
+    this.priority = builder.priority;
   }
 
   public String getType() {
@@ -59,11 +62,20 @@ public final class CeTaskSubmit {
     return submitterLogin;
   }
 
+  /**
+   * Priority class of the task, {@code null} meaning {@link CeQueueDto.Priority#NORMAL}.
+   */
+  @CheckForNull
+  public CeQueueDto.Priority getPriority() {
+    return priority;
+  }
+
   public static final class Builder {
     private final String uuid;
     private String type;
     private String componentUuid;
     private String submitterLogin;
+    private CeQueueDto.Priority priority;
 
     public Builder(String uuid) {
       this.uuid = uuid;
@@ -88,6 +100,11 @@ public final class CeTaskSubmit {
       return this;
     }
 
+    public Builder setPriority(@Nullable CeQueueDto.Priority p) {
+      this.priority = p;
+      return this;
+    }
+
     public CeTaskSubmit build() {
       return new CeTaskSubmit(this);
     }
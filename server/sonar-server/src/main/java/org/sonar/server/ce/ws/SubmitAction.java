@@ -26,6 +26,7 @@ import org.sonar.api.server.ws.Request;
 import org.sonar.api.server.ws.Response;
 import org.sonar.api.server.ws.WebService;
 import org.sonar.ce.queue.CeTask;
+import org.sonar.db.ce.CeQueueDto;
 import org.sonar.server.computation.queue.ReportSubmitter;
 import org.sonar.server.organization.DefaultOrganizationProvider;
 import org.sonar.server.ws.WsUtils;
@@ -38,6 +39,7 @@ public class SubmitAction implements CeWsAction {
   private static final String PARAM_PROJECT_BRANCH = "projectBranch";
   private static final String PARAM_PROJECT_NAME = "projectName";
   private static final String PARAM_REPORT_DATA = "report";
+  private static final String PARAM_PRIORITY = "priority";
 
   private final ReportSubmitter reportSubmitter;
   private final DefaultOrganizationProvider defaultOrganizationProvider;
@@ -85,6 +87,15 @@ public class SubmitAction implements CeWsAction {
       .createParam(PARAM_REPORT_DATA)
       .setRequired(true)
       .setDescription("Report file. Format is not an API, it changes among SonarQube versions.");
+
+    action
+      .createParam(PARAM_PRIORITY)
+      .setDescription("Priority class of the processing of the report. Pending reports with a higher priority are processed first. " +
+        "A priority higher than NORMAL requires the permission to administer the project or its organization.")
+      .setSince("6.4")
+      .setInternal(true)
+      .setPossibleValues(CeQueueDto.Priority.values())
+      .setDefaultValue(CeQueueDto.Priority.NORMAL);
   }
 
   @Override
@@ -95,10 +106,11 @@ public class SubmitAction implements CeWsAction {
     String projectKey = wsRequest.mandatoryParam(PARAM_PROJECT_KEY);
     String projectBranch = wsRequest.param(PARAM_PROJECT_BRANCH);
     String projectName = StringUtils.defaultIfBlank(wsRequest.param(PARAM_PROJECT_NAME), projectKey);
+    CeQueueDto.Priority priority = wsRequest.mandatoryParamAsEnum(PARAM_PRIORITY, CeQueueDto.Priority.class);
 
     CeTask task;
     try (InputStream report = new BufferedInputStream(wsRequest.paramAsInputStream(PARAM_REPORT_DATA))) {
-      task = reportSubmitter.submit(organizationKey, projectKey, projectBranch, projectName, report);
+      task = reportSubmitter.submit(organizationKey, projectKey, projectBranch, projectName, priority, report);
     }
 
     WsCe.SubmitResponse submitResponse = WsCe.SubmitResponse.newBuilder()
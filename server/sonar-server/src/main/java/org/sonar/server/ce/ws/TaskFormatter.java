@@ -129,6 +129,12 @@ public class TaskFormatter {
     setNullable(dto.getStartedAt(), builder::setStartedAt, DateUtils::formatDateTime);
     setNullable(dto.getExecutedAt(), builder::setExecutedAt, DateUtils::formatDateTime);
     setNullable(dto.getExecutionTimeMs(), builder::setExecutionTimeMs);
+    setNullable(dto.getCpuTimeMs(), builder::setCpuTimeMs);
+    setNullable(dto.getAllocatedBytes(), builder::setAllocatedBytes);
+    setNullable(dto.getDbStatementCount(), builder::setDbStatementCount);
+    setNullable(dto.getDbTimeMs(), builder::setDbTimeMs);
+    setNullable(dto.getTempDiskBytes(), builder::setTempDiskBytes);
+    setNullable(dto.getReportSizeBytes(), builder::setReportSizeBytes);
     setNullable(dto.getErrorMessage(), builder::setErrorMessage);
     setNullable(dto.getErrorStacktrace(), builder::setErrorStacktrace);
     setNullable(scannerContext, builder::setScannerContext);
@@ -31,6 +31,7 @@ import org.sonar.db.component.ComponentDto;
 import org.sonar.server.es.BulkIndexer;
 import org.sonar.server.es.BulkIndexer.Size;
 import org.sonar.server.es.EsClient;
+import org.sonar.server.es.IndexRebuilds;
 import org.sonar.server.es.IndexType;
 import org.sonar.server.es.ProjectIndexer;
 import org.sonar.server.es.StartupIndexer;
@@ -47,10 +48,12 @@ public class ComponentIndexer implements ProjectIndexer, NeedAuthorizationIndexe
 
   private final DbClient dbClient;
   private final EsClient esClient;
+  private final IndexRebuilds rebuilds;
 
-  public ComponentIndexer(DbClient dbClient, EsClient esClient) {
+  public ComponentIndexer(DbClient dbClient, EsClient esClient, IndexRebuilds rebuilds) {
     this.dbClient = dbClient;
     this.esClient = esClient;
+    this.rebuilds = rebuilds;
   }
 
   @Override
@@ -87,7 +90,7 @@ public class ComponentIndexer implements ProjectIndexer, NeedAuthorizationIndexe
    * <b>Warning:</b> only use <code>null</code> during startup.
    */
   private void doIndexByProjectUuid(@Nullable String projectUuid, Size bulkSize) {
-    BulkIndexer bulk = new BulkIndexer(esClient, INDEX_TYPE_COMPONENT.getIndex());
+    BulkIndexer bulk = new BulkIndexer(esClient, rebuilds, INDEX_TYPE_COMPONENT.getIndex());
     bulk.setSize(bulkSize);
 
     bulk.start();
@@ -103,21 +106,21 @@ public class ComponentIndexer implements ProjectIndexer, NeedAuthorizationIndexe
 
   @Override
   public void deleteProject(String projectUuid) {
-    BulkIndexer.delete(esClient, INDEX_TYPE_COMPONENT.getIndex(), esClient.prepareSearch(INDEX_TYPE_COMPONENT)
+    BulkIndexer.delete(esClient, rebuilds, INDEX_TYPE_COMPONENT.getIndex(), esClient.prepareSearch(INDEX_TYPE_COMPONENT)
       .setQuery(boolQuery()
         .filter(
           termQuery(ComponentIndexDefinition.FIELD_PROJECT_UUID, projectUuid))));
   }
 
   public void delete(String projectUuid, Collection<String> disabledComponentUuids) {
-    BulkIndexer bulk = new BulkIndexer(esClient, INDEX_TYPE_COMPONENT.getIndex());
+    BulkIndexer bulk = new BulkIndexer(esClient, rebuilds, INDEX_TYPE_COMPONENT.getIndex());
     bulk.start();
     disabledComponentUuids.stream().forEach(uuid -> bulk.addDeletion(INDEX_TYPE_COMPONENT, uuid, projectUuid));
     bulk.stop();
   }
 
   void index(ComponentDto... docs) {
-    BulkIndexer bulk = new BulkIndexer(esClient, INDEX_TYPE_COMPONENT.getIndex());
+    BulkIndexer bulk = new BulkIndexer(esClient, rebuilds, INDEX_TYPE_COMPONENT.getIndex());
     bulk.setSize(Size.REGULAR);
     bulk.start();
     Arrays.stream(docs)
@@ -93,7 +93,7 @@ public class ShowAction implements ComponentsWsAction {
   }
 
   private ShowWsResponse doHandle(ShowWsRequest request) {
-    try (DbSession dbSession = dbClient.openSession(false)) {
+    try (DbSession dbSession = dbClient.openReadOnlySession(userSession.getLogin())) {
       ComponentDto component = getComponentByUuidOrKey(dbSession, request);
       Optional<SnapshotDto> lastAnalysis = dbClient.snapshotDao().selectLastAnalysisByComponentUuid(dbSession, component.projectUuid());
       List<ComponentDto> ancestors = dbClient.componentDao().selectAncestors(dbSession, component);
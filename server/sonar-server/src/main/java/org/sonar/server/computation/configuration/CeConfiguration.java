@@ -22,13 +22,37 @@ package org.sonar.server.computation.configuration;
 public interface CeConfiguration {
 
   /**
-   * The number of workers to process CeTasks concurrently.
+   * The number of workers to process CeTasks concurrently when the Compute Engine starts.
    */
   int getWorkerCount();
 
+  /**
+   * The maximum number of workers the Compute Engine can be resized to at runtime. It is greater than or equal to
+   * {@link #getWorkerCount()}.
+   */
+  int getMaxWorkerCount();
+
+  /**
+   * The estimated heap memory, in bytes, required to process a task. When it is greater than 0, a worker starts
+   * processing a new task only if the free heap is greater than this estimation or if no other task is in progress.
+   */
+  long getTaskMemoryEstimate();
+
   /**
    * The delay in milliseconds before calling another {@link org.sonar.server.computation.taskprocessor.CeWorkerCallable}
    * when previous one had nothing to do.
    */
   long getQueuePollingDelay();
+
+  /**
+   * Whether pending analysis reports of a component are canceled when a more recent report of the same component
+   * is pending, so that only the most recent one is processed.
+   */
+  boolean isSupersededReportsCoalescingEnabled();
+
+  /**
+   * Whether pending tasks of components which have been processed recently, or which processing is expected to be
+   * long, are peeked after the tasks of the other components, rather than strictly in order of submission.
+   */
+  boolean isFairSchedulingEnabled();
 }
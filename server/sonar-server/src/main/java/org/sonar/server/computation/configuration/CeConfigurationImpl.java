@@ -30,48 +30,74 @@ import static java.lang.String.format;
 
 /**
  * Immutable implementation of {@link CeConfiguration} which takes value returned by
- * {@link CeConfiguration#getWorkerCount()} from property {@link CeConfigurationImpl#CE_WORKERS_COUNT_PROPERTY} and
- * always returns {@link #DEFAULT_QUEUE_POLLING_DELAY} when {@link CeConfiguration#getQueuePollingDelay()} is called.
+ * {@link CeConfiguration#getWorkerCount()} from property {@link CeConfigurationImpl#CE_WORKERS_COUNT_PROPERTY},
+ * value returned by {@link CeConfiguration#getMaxWorkerCount()} from property
+ * {@link CeConfigurationImpl#CE_MAX_WORKERS_COUNT_PROPERTY} and always returns {@link #DEFAULT_QUEUE_POLLING_DELAY}
+ * when {@link CeConfiguration#getQueuePollingDelay()} is called.
  */
 public class CeConfigurationImpl implements CeConfiguration, Startable {
   public static final String CE_WORKERS_COUNT_PROPERTY = "sonar.ce.workerCount";
+  public static final String CE_MAX_WORKERS_COUNT_PROPERTY = "sonar.ce.maxWorkerCount";
+  public static final String CE_TASK_MEMORY_ESTIMATE_PROPERTY = "sonar.ce.taskMemoryEstimateMb";
+  public static final String CE_COALESCE_SUPERSEDED_REPORTS_PROPERTY = "sonar.ce.coalesceSupersededReports";
+  public static final String CE_FAIR_SCHEDULING_PROPERTY = "sonar.ce.fairScheduling";
 
   private static final Logger LOG = Loggers.get(CeConfigurationImpl.class);
 
   @VisibleForTesting
   protected static final int DEFAULT_WORKER_COUNT = 1;
+  @VisibleForTesting
+  protected static final int DEFAULT_MAX_WORKER_COUNT = 10;
   // 2 seconds
   @VisibleForTesting
   protected static final long DEFAULT_QUEUE_POLLING_DELAY = 2 * 1000L;
 
   private final int workerCount;
+  private final int maxWorkerCount;
+  private final long taskMemoryEstimate;
+  private final boolean supersededReportsCoalescingEnabled;
+  private final boolean fairSchedulingEnabled;
 
   public CeConfigurationImpl(Settings settings) {
     String workerCountAsStr = settings.getString(CE_WORKERS_COUNT_PROPERTY);
     if (workerCountAsStr == null || workerCountAsStr.isEmpty()) {
       this.workerCount = DEFAULT_WORKER_COUNT;
     } else {
-      this.workerCount = parseStringValue(workerCountAsStr);
+      this.workerCount = parseStringValue(CE_WORKERS_COUNT_PROPERTY, workerCountAsStr);
     }
+    String maxWorkerCountAsStr = settings.getString(CE_MAX_WORKERS_COUNT_PROPERTY);
+    if (maxWorkerCountAsStr == null || maxWorkerCountAsStr.isEmpty()) {
+      this.maxWorkerCount = Math.max(workerCount, DEFAULT_MAX_WORKER_COUNT);
+    } else {
+      this.maxWorkerCount = parseStringValue(CE_MAX_WORKERS_COUNT_PROPERTY, maxWorkerCountAsStr);
+      if (maxWorkerCount < workerCount) {
+        throw MessageException.of(format(
+          "value '%s' of property %s is invalid. It must be greater than or equal to the value of property %s.",
+          maxWorkerCountAsStr, CE_MAX_WORKERS_COUNT_PROPERTY, CE_WORKERS_COUNT_PROPERTY));
+      }
+    }
+    this.taskMemoryEstimate = Math.max(0L, settings.getLong(CE_TASK_MEMORY_ESTIMATE_PROPERTY)) * 1024L * 1024L;
+    this.supersededReportsCoalescingEnabled = settings.getBoolean(CE_COALESCE_SUPERSEDED_REPORTS_PROPERTY);
+    this.fairSchedulingEnabled = settings.getBoolean(CE_FAIR_SCHEDULING_PROPERTY);
   }
 
-  private static int parseStringValue(String workerCountAsStr) {
+  private static int parseStringValue(String property, String workerCountAsStr) {
     try {
       int value = Integer.parseInt(workerCountAsStr);
       if (value < 1) {
-        throw parsingError(workerCountAsStr);
+        throw parsingError(property, workerCountAsStr);
       }
       return value;
     } catch (NumberFormatException e) {
-      throw parsingError(workerCountAsStr);
+      throw parsingError(property, workerCountAsStr);
     }
   }
 
-  private static MessageException parsingError(String workerCountAsStr) {
+  private static MessageException parsingError(String property, String workerCountAsStr) {
     return MessageException.of(format(
       "value '%s' of property %s is invalid. It must an integer strictly greater than 0.",
       workerCountAsStr,
-      CE_WORKERS_COUNT_PROPERTY)
+      property)
       );
   }
 
@@ -80,6 +106,15 @@ public class CeConfigurationImpl implements CeConfiguration, Startable {
     if (this.workerCount > 1) {
       LOG.info("Compute Engine will use {} concurrent workers to process tasks", this.workerCount);
     }
+    if (this.taskMemoryEstimate > 0) {
+      LOG.info("Compute Engine will start processing a task only if at least {} MB of heap are free", this.taskMemoryEstimate / 1024 / 1024);
+    }
+    if (this.supersededReportsCoalescingEnabled) {
+      LOG.info("Compute Engine will only process the most recent pending analysis report of each component");
+    }
+    if (this.fairSchedulingEnabled) {
+      LOG.info("Compute Engine will share workers fairly between components");
+    }
   }
 
   @Override
@@ -92,8 +127,28 @@ public class CeConfigurationImpl implements CeConfiguration, Startable {
     return workerCount;
   }
 
+  @Override
+  public int getMaxWorkerCount() {
+    return maxWorkerCount;
+  }
+
+  @Override
+  public long getTaskMemoryEstimate() {
+    return taskMemoryEstimate;
+  }
+
   @Override
   public long getQueuePollingDelay() {
     return DEFAULT_QUEUE_POLLING_DELAY;
   }
+
+  @Override
+  public boolean isSupersededReportsCoalescingEnabled() {
+    return supersededReportsCoalescingEnabled;
+  }
+
+  @Override
+  public boolean isFairSchedulingEnabled() {
+    return fairSchedulingEnabled;
+  }
 }
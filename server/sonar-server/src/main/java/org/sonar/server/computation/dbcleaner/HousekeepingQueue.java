@@ -0,0 +1,130 @@
+/*
+ * SonarQube
+ * Copyright (C) 2009-2017 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.server.computation.dbcleaner;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+import org.sonar.api.ce.ComputeEngineSide;
+import org.sonar.api.config.Settings;
+import org.sonar.db.purge.IdUuidPair;
+
+/**
+ * Projects (and views) which historical data must be purged by {@link HousekeepingScheduler}, in order of
+ * submission. Requests are coalesced per project: submitting a project which is already pending only
+ * updates its settings. The queue is kept in memory, so pending requests are lost on restart and
+ * are submitted again by the next analysis of the project.
+ */
+@ComputeEngineSide
+public class HousekeepingQueue {
+
+  private final Map<String, Request> pending = new LinkedHashMap<>();
+  private final AtomicLong successCount = new AtomicLong(0);
+  private final AtomicLong errorCount = new AtomicLong(0);
+  private final AtomicLong processingTime = new AtomicLong(0);
+  private final AtomicLong deletedRowCount = new AtomicLong(0);
+
+  public synchronized void add(IdUuidPair project, Settings projectSettings) {
+    pending.put(project.getUuid(), new Request(project, projectSettings));
+  }
+
+  public synchronized Optional<Request> poll() {
+    Iterator<Request> it = pending.values().iterator();
+    if (!it.hasNext()) {
+      return Optional.empty();
+    }
+    Request request = it.next();
+    it.remove();
+    return Optional.of(request);
+  }
+
+  /**
+   * Moves back the request to the end of the queue, unless the same project has been submitted again in the meantime.
+   */
+  public synchronized void postpone(Request request) {
+    pending.putIfAbsent(request.getProject().getUuid(), request);
+  }
+
+  public synchronized int getPendingCount() {
+    return pending.size();
+  }
+
+  public void addSuccess(long durationInMs) {
+    successCount.incrementAndGet();
+    processingTime.addAndGet(durationInMs);
+  }
+
+  public void addError(long durationInMs) {
+    errorCount.incrementAndGet();
+    processingTime.addAndGet(durationInMs);
+  }
+
+  public void addDeletedRows(int rows) {
+    deletedRowCount.addAndGet(rows);
+  }
+
+  /**
+   * Count of projects purged successfully since startup
+   */
+  public long getSuccessCount() {
+    return successCount.get();
+  }
+
+  /**
+   * Count of projects which purge failed since startup
+   */
+  public long getErrorCount() {
+    return errorCount.get();
+  }
+
+  /**
+   * Time spent purging projects since startup, in milliseconds
+   */
+  public long getProcessingTime() {
+    return processingTime.get();
+  }
+
+  /**
+   * Estimated count of rows deleted since startup
+   */
+  public long getDeletedRowCount() {
+    return deletedRowCount.get();
+  }
+
+  public static final class Request {
+    private final IdUuidPair project;
+    private final Settings settings;
+
+    private Request(IdUuidPair project, Settings settings) {
+      this.project = project;
+      this.settings = settings;
+    }
+
+    public IdUuidPair getProject() {
+      return project;
+    }
+
+    public Settings getSettings() {
+      return settings;
+    }
+  }
+}
@@ -0,0 +1,196 @@
+/*
+ * SonarQube
+ * Copyright (C) 2009-2017 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.server.computation.dbcleaner;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.util.concurrent.RateLimiter;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import java.time.Instant;
+import java.time.LocalTime;
+import java.time.ZoneId;
+import java.time.format.DateTimeParseException;
+import java.util.Optional;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import javax.annotation.CheckForNull;
+import org.apache.commons.lang.StringUtils;
+import org.picocontainer.Startable;
+import org.sonar.api.ce.ComputeEngineSide;
+import org.sonar.api.config.Settings;
+import org.sonar.api.utils.System2;
+import org.sonar.api.utils.log.Logger;
+import org.sonar.api.utils.log.Loggers;
+import org.sonar.db.DbClient;
+import org.sonar.db.DbSession;
+import org.sonar.db.ce.CeQueueDto;
+import org.sonar.db.purge.PurgeThrottler;
+
+import static java.lang.String.format;
+
+/**
+ * Purges in background the historical data of the projects submitted to {@link HousekeepingQueue}, so that
+ * duration of analyses does not depend on the amount of history of projects.
+ * <ul>
+ *   <li>deletions are done by chunks, each chunk in its own transaction</li>
+ *   <li>rate of deletions is limited by the property {@value #PROPERTY_MAX_KEYS_PER_SECOND}, which is the maximum
+ *   number of keys of the chunks purged per second. A key can relate to several deleted rows.</li>
+ *   <li>purge can be restricted to a daily time window with the property {@value #PROPERTY_WINDOW}, for
+ *   example "22:00-06:00". A project which purge is started is completed even if the window closes.</li>
+ *   <li>a project is postponed while one of its analyses is being processed</li>
+ * </ul>
+ */
+@ComputeEngineSide
+public class HousekeepingScheduler implements Startable {
+
+  public static final String PROPERTY_MAX_KEYS_PER_SECOND = "sonar.dbcleaner.housekeeping.maxKeysPerSecond";
+  public static final String PROPERTY_WINDOW = "sonar.dbcleaner.housekeeping.window";
+  private static final int DEFAULT_MAX_KEYS_PER_SECOND = 10_000;
+  private static final long DELAY_IN_SECONDS = 10;
+
+  private static final Logger LOG = Loggers.get(HousekeepingScheduler.class);
+
+  private final DbClient dbClient;
+  private final ProjectCleaner projectCleaner;
+  private final HousekeepingQueue queue;
+  private final System2 system2;
+  private final int maxKeysPerSecond;
+  @CheckForNull
+  private final LocalTime windowStart;
+  @CheckForNull
+  private final LocalTime windowEnd;
+
+  private ScheduledExecutorService executorService;
+
+  public HousekeepingScheduler(DbClient dbClient, ProjectCleaner projectCleaner, HousekeepingQueue queue, Settings settings, System2 system2) {
+    this.dbClient = dbClient;
+    this.projectCleaner = projectCleaner;
+    this.queue = queue;
+    this.system2 = system2;
+    this.maxKeysPerSecond = settings.hasKey(PROPERTY_MAX_KEYS_PER_SECOND) ? settings.getInt(PROPERTY_MAX_KEYS_PER_SECOND) : DEFAULT_MAX_KEYS_PER_SECOND;
+    String window = settings.getString(PROPERTY_WINDOW);
+    if (StringUtils.isBlank(window)) {
+      this.windowStart = null;
+      this.windowEnd = null;
+    } else {
+      String[] bounds = window.trim().split("-");
+      if (bounds.length != 2) {
+        throw new IllegalStateException(invalidWindowMessage(window));
+      }
+      this.windowStart = parseTime(bounds[0], window);
+      this.windowEnd = parseTime(bounds[1], window);
+    }
+  }
+
+  private static LocalTime parseTime(String s, String window) {
+    try {
+      return LocalTime.parse(s.trim());
+    } catch (DateTimeParseException e) {
+      throw new IllegalStateException(invalidWindowMessage(window), e);
+    }
+  }
+
+  private static String invalidWindowMessage(String window) {
+    return format("Invalid value of property %s: '%s'. Expected format is HH:mm-HH:mm", PROPERTY_WINDOW, window);
+  }
+
+  @Override
+  public void start() {
+    executorService = Executors.newSingleThreadScheduledExecutor(
+      new ThreadFactoryBuilder()
+        .setNameFormat("CE_housekeeping-%d")
+        .setPriority(Thread.MIN_PRIORITY)
+        .setDaemon(true)
+        .build());
+    executorService.scheduleWithFixedDelay(() -> {
+      try {
+        processQueue();
+      } catch (Exception e) {
+        LOG.error("Error during housekeeping", e);
+      }
+    }, DELAY_IN_SECONDS, DELAY_IN_SECONDS, TimeUnit.SECONDS);
+  }
+
+  @Override
+  public void stop() {
+    if (executorService != null) {
+      // interrupts the current purge, see #createThrottler()
+      executorService.shutdownNow();
+    }
+  }
+
+  @VisibleForTesting
+  void processQueue() {
+    while (isInWindow() && !Thread.currentThread().isInterrupted()) {
+      Optional<HousekeepingQueue.Request> request = queue.poll();
+      if (!request.isPresent() || !process(request.get())) {
+        return;
+      }
+    }
+  }
+
+  /**
+   * @return false if the request has been postponed
+   */
+  private boolean process(HousekeepingQueue.Request request) {
+    try (DbSession dbSession = dbClient.openSession(true)) {
+      String uuid = request.getProject().getUuid();
+      if (dbClient.ceQueueDao().countByStatusAndComponentUuid(dbSession, CeQueueDto.Status.IN_PROGRESS, uuid) > 0) {
+        queue.postpone(request);
+        return false;
+      }
+      long start = system2.now();
+      try {
+        projectCleaner.purgeHistory(dbSession, request.getProject(), request.getSettings(), createThrottler());
+        queue.addSuccess(system2.now() - start);
+      } catch (Exception e) {
+        queue.addError(system2.now() - start);
+        LOG.error(format("Fail to purge historical data [uuid=%s]", uuid), e);
+      }
+      return true;
+    }
+  }
+
+  private PurgeThrottler createThrottler() {
+    RateLimiter rateLimiter = maxKeysPerSecond > 0 ? RateLimiter.create(maxKeysPerSecond) : null;
+    return keys -> {
+      if (Thread.currentThread().isInterrupted()) {
+        throw new IllegalStateException("Housekeeping is interrupted");
+      }
+      if (rateLimiter != null && keys > 0) {
+        rateLimiter.acquire(keys);
+      }
+      queue.addDeletedRows(keys);
+    };
+  }
+
+  @VisibleForTesting
+  boolean isInWindow() {
+    if (windowStart == null || windowEnd == null) {
+      return true;
+    }
+    LocalTime now = LocalTime.from(Instant.ofEpochMilli(system2.now()).atZone(ZoneId.systemDefault()));
+    if (windowStart.isAfter(windowEnd)) {
+      // window spans midnight
+      return !now.isBefore(windowStart) || now.isBefore(windowEnd);
+    }
+    return !now.isBefore(windowStart) && now.isBefore(windowEnd);
+  }
+}
@@ -20,6 +20,7 @@
 package org.sonar.server.computation.dbcleaner;
 
 import java.util.Collection;
+import java.util.Collections;
 import org.sonar.api.CoreProperties;
 import org.sonar.api.ce.ComputeEngineSide;
 import org.sonar.api.config.Settings;
@@ -33,6 +34,7 @@ import org.sonar.db.purge.PurgeConfiguration;
 import org.sonar.db.purge.PurgeDao;
 import org.sonar.db.purge.PurgeListener;
 import org.sonar.db.purge.PurgeProfiler;
+import org.sonar.db.purge.PurgeThrottler;
 import org.sonar.db.purge.period.DefaultPeriodCleaner;
 
 import static org.sonar.db.purge.PurgeConfiguration.newDefaultPurgeConfiguration;
@@ -54,20 +56,41 @@ public class ProjectCleaner {
     this.purgeListener = purgeListener;
   }
 
-  public ProjectCleaner purge(DbSession session, IdUuidPair idUuidPair, Settings projectSettings, Collection<String> disabledComponentUuids) {
+  /**
+   * Purges what is left over by the analysis which just completed: aborted analyses and data of disabled components.
+   * Amount of work does not depend on the history of the project. Errors are logged but not propagated.
+   *
+   * @see HousekeepingQueue for the purge of historical data
+   */
+  public ProjectCleaner purgeLeftovers(DbSession session, IdUuidPair idUuidPair, Settings projectSettings, Collection<String> disabledComponentUuids) {
     long start = System.currentTimeMillis();
     profiler.reset();
 
     PurgeConfiguration configuration = newDefaultPurgeConfiguration(projectSettings, idUuidPair, disabledComponentUuids);
-
-    cleanHistoricalData(session, configuration.rootProjectIdUuid().getUuid(), projectSettings);
-    doPurge(session, configuration);
-
+    try {
+      purgeDao.purgeLeftovers(session, configuration, purgeListener, profiler);
+    } catch (Exception e) {
+      // purge errors must no fail the report analysis
+      LOG.error("Fail to purge data [id=" + idUuidPair.getId() + "]", e);
+    }
     session.commit();
     logProfiling(start, projectSettings);
     return this;
   }
 
+  /**
+   * Purges the historical data of the project, at the pace defined by {@code throttler}. Unlike
+   * {@link #purgeLeftovers(DbSession, IdUuidPair, Settings, Collection)}, errors are propagated.
+   */
+  public ProjectCleaner purgeHistory(DbSession session, IdUuidPair idUuidPair, Settings projectSettings, PurgeThrottler throttler) {
+    PurgeConfiguration configuration = newDefaultPurgeConfiguration(projectSettings, idUuidPair, Collections.emptyList());
+    periodCleaner.clean(session, idUuidPair.getUuid(), projectSettings, throttler);
+    // profiler is not shared as this method is called concurrently to analyses
+    purgeDao.purgeHistory(session, configuration, purgeListener, new PurgeProfiler(), throttler);
+    session.commit();
+    return this;
+  }
+
   private void logProfiling(long start, Settings settings) {
     if (settings.getBoolean(CoreProperties.PROFILING_LOG_PROPERTY)) {
       long duration = System.currentTimeMillis() - start;
@@ -76,22 +99,4 @@ public class ProjectCleaner {
       LOG.info("\n -------- End of profiling for purge --------\n");
     }
   }
-
-  private void cleanHistoricalData(DbSession session, String rootUuid, Settings settings) {
-    try {
-      periodCleaner.clean(session, rootUuid, settings);
-    } catch (Exception e) {
-      // purge errors must no fail the batch
-      LOG.error("Fail to clean historical data [uuid=" + rootUuid + "]", e);
-    }
-  }
-
-  private void doPurge(DbSession session, PurgeConfiguration configuration) {
-    try {
-      purgeDao.purge(session, configuration, purgeListener, profiler);
-    } catch (Exception e) {
-      // purge errors must no fail the report analysis
-      LOG.error("Fail to purge data [id=" + configuration.rootProjectIdUuid().getId() + "]", e);
-    }
-  }
 }
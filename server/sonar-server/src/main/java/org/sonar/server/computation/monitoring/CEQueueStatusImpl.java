@@ -19,8 +19,12 @@
  */
 package org.sonar.server.computation.monitoring;
 
+import com.google.common.annotations.VisibleForTesting;
+import java.util.Arrays;
 import java.util.concurrent.atomic.AtomicLong;
 import org.sonar.ce.monitoring.CEQueueStatus;
+import org.sonar.ce.monitoring.CeTaskResourceUsage;
+import org.sonar.ce.monitoring.ResourceUsage;
 import org.sonar.db.DbClient;
 import org.sonar.db.DbSession;
 import org.sonar.db.ce.CeQueueDto;
@@ -29,11 +33,26 @@ import static com.google.common.base.Preconditions.checkArgument;
 
 public class CEQueueStatusImpl implements CEQueueStatus {
 
+  /**
+   * Number of the most recent wait times used to compute the percentiles.
+   */
+  @VisibleForTesting
+  static final int WAIT_TIME_SAMPLE_SIZE = 1_000;
+
   private final DbClient dbClient;
   private final AtomicLong inProgress = new AtomicLong(0);
   private final AtomicLong error = new AtomicLong(0);
   private final AtomicLong success = new AtomicLong(0);
   private final AtomicLong processingTime = new AtomicLong(0);
+  private final AtomicLong cpuTime = new AtomicLong(0);
+  private final AtomicLong allocatedBytes = new AtomicLong(0);
+  private final AtomicLong dbStatementCount = new AtomicLong(0);
+  private final AtomicLong dbTime = new AtomicLong(0);
+  private final AtomicLong tempDiskBytes = new AtomicLong(0);
+  // circular buffer of the most recent wait times, guarded by itself
+  private final long[] waitTimes = new long[WAIT_TIME_SAMPLE_SIZE];
+  private int waitTimeCount = 0;
+  private int nextWaitTimeIndex = 0;
 
   public CEQueueStatusImpl(DbClient dbClient) {
     this.dbClient = dbClient;
@@ -63,6 +82,32 @@ public class CEQueueStatusImpl implements CEQueueStatus {
     processingTime.addAndGet(ms);
   }
 
+  @Override
+  public void addResourceUsage(CeTaskResourceUsage resourceUsage) {
+    ResourceUsage threadUsage = resourceUsage.getThreadUsage();
+    addIfKnown(cpuTime, threadUsage.getCpuTimeMs());
+    addIfKnown(allocatedBytes, threadUsage.getAllocatedBytes());
+    dbStatementCount.addAndGet(threadUsage.getDbStatementCount());
+    dbTime.addAndGet(threadUsage.getDbTimeMs());
+    tempDiskBytes.addAndGet(resourceUsage.getTempDiskBytes());
+  }
+
+  private static void addIfKnown(AtomicLong counter, long value) {
+    if (value != ResourceUsage.UNKNOWN) {
+      counter.addAndGet(value);
+    }
+  }
+
+  @Override
+  public void addWaitTime(long waitTimeInMs) {
+    checkArgument(waitTimeInMs >= 0, "Wait time can not be < 0");
+    synchronized (waitTimes) {
+      waitTimes[nextWaitTimeIndex] = waitTimeInMs;
+      nextWaitTimeIndex = (nextWaitTimeIndex + 1) % WAIT_TIME_SAMPLE_SIZE;
+      waitTimeCount = Math.min(waitTimeCount + 1, WAIT_TIME_SAMPLE_SIZE);
+    }
+  }
+
   @Override
   public long getPendingCount() {
     try (DbSession dbSession = dbClient.openSession(false)) {
@@ -89,4 +134,45 @@ public class CEQueueStatusImpl implements CEQueueStatus {
   public long getProcessingTime() {
     return processingTime.get();
   }
+
+  @Override
+  public long getCpuTime() {
+    return cpuTime.get();
+  }
+
+  @Override
+  public long getAllocatedBytes() {
+    return allocatedBytes.get();
+  }
+
+  @Override
+  public long getDbStatementCount() {
+    return dbStatementCount.get();
+  }
+
+  @Override
+  public long getDbTime() {
+    return dbTime.get();
+  }
+
+  @Override
+  public long getTempDiskBytes() {
+    return tempDiskBytes.get();
+  }
+
+  @Override
+  public long getWaitTimePercentile(int percentile) {
+    checkArgument(percentile >= 1 && percentile <= 100, "Percentile must be between 1 and 100");
+    long[] sortedWaitTimes;
+    synchronized (waitTimes) {
+      sortedWaitTimes = Arrays.copyOf(waitTimes, waitTimeCount);
+    }
+    if (sortedWaitTimes.length == 0) {
+      return 0L;
+    }
+    Arrays.sort(sortedWaitTimes);
+    // nearest-rank method
+    int rank = (int) Math.ceil(percentile * sortedWaitTimes.length / 100.0);
+    return sortedWaitTimes[rank - 1];
+  }
 }
@@ -0,0 +1,50 @@
+/*
+ * SonarQube
+ * Copyright (C) 2009-2017 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.server.computation.monitoring;
+
+public interface CeHousekeepingMBean {
+
+  String OBJECT_NAME = "SonarQube:name=ComputeEngineHousekeeping";
+
+  /**
+   * Count of projects waiting for the purge of their historical data.
+   */
+  long getPendingCount();
+
+  /**
+   * Count of projects which historical data have been purged successfully since instance startup.
+   */
+  long getSuccessCount();
+
+  /**
+   * Count of projects which purge of historical data failed since instance startup.
+   */
+  long getErrorCount();
+
+  /**
+   * Time spent purging historical data since startup, in milliseconds.
+   */
+  long getProcessingTime();
+
+  /**
+   * Estimated count of rows deleted since startup.
+   */
+  long getDeletedRowCount();
+}
@@ -0,0 +1,84 @@
+/*
+ * SonarQube
+ * Copyright (C) 2009-2017 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.server.computation.monitoring;
+
+import org.picocontainer.Startable;
+import org.sonar.process.Jmx;
+import org.sonar.process.systeminfo.SystemInfoSection;
+import org.sonar.process.systeminfo.protobuf.ProtobufSystemInfo;
+import org.sonar.server.computation.dbcleaner.HousekeepingQueue;
+
+public class CeHousekeepingMBeanImpl implements CeHousekeepingMBean, Startable, SystemInfoSection {
+  private final HousekeepingQueue queue;
+
+  public CeHousekeepingMBeanImpl(HousekeepingQueue queue) {
+    this.queue = queue;
+  }
+
+  @Override
+  public void start() {
+    Jmx.register(OBJECT_NAME, this);
+  }
+
+  /**
+   * Unregister, if needed
+   */
+  @Override
+  public void stop() {
+    Jmx.unregister(OBJECT_NAME);
+  }
+
+  @Override
+  public long getPendingCount() {
+    return queue.getPendingCount();
+  }
+
+  @Override
+  public long getSuccessCount() {
+    return queue.getSuccessCount();
+  }
+
+  @Override
+  public long getErrorCount() {
+    return queue.getErrorCount();
+  }
+
+  @Override
+  public long getProcessingTime() {
+    return queue.getProcessingTime();
+  }
+
+  @Override
+  public long getDeletedRowCount() {
+    return queue.getDeletedRowCount();
+  }
+
+  @Override
+  public ProtobufSystemInfo.Section toProtobuf() {
+    ProtobufSystemInfo.Section.Builder builder = ProtobufSystemInfo.Section.newBuilder();
+    builder.setName("Compute Engine Housekeeping");
+    builder.addAttributesBuilder().setKey("Pending").setLongValue(getPendingCount()).build();
+    builder.addAttributesBuilder().setKey("Purged With Success").setLongValue(getSuccessCount()).build();
+    builder.addAttributesBuilder().setKey("Purged With Error").setLongValue(getErrorCount()).build();
+    builder.addAttributesBuilder().setKey("Processing Time (ms)").setLongValue(getProcessingTime()).build();
+    builder.addAttributesBuilder().setKey("Deleted Rows").setLongValue(getDeletedRowCount()).build();
+    return builder.build();
+  }
+}
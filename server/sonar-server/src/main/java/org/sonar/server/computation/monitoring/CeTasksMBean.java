@@ -49,7 +49,57 @@ public interface CeTasksMBean {
   long getProcessingTime();
 
   /**
-   * Configured number of Workers.
+   * CPU time spent processing tasks since startup, in milliseconds.
+   */
+  long getCpuTime();
+
+  /**
+   * Bytes allocated in heap while processing tasks since startup.
+   */
+  long getAllocatedBytes();
+
+  /**
+   * Count of SQL statements executed while processing tasks since startup.
+   */
+  long getDbStatementCount();
+
+  /**
+   * Time spent executing SQL statements while processing tasks since startup, in milliseconds.
+   */
+  long getDbTime();
+
+  /**
+   * Disk space used by the temporary files of the tasks processed since startup, in bytes.
+   */
+  long getTempDiskBytes();
+
+  /**
+   * Median of the wait time in queue of the most recently started tasks, in milliseconds.
+   */
+  long getWaitTimeP50();
+
+  /**
+   * 90th percentile of the wait time in queue of the most recently started tasks, in milliseconds.
+   */
+  long getWaitTimeP90();
+
+  /**
+   * 99th percentile of the wait time in queue of the most recently started tasks, in milliseconds.
+   */
+  long getWaitTimeP99();
+
+  /**
+   * Current number of Workers. It is initialized from configuration and can be changed at runtime.
    */
   int getWorkerCount();
+
+  /**
+   * Lowest number of Workers the Compute Engine can be resized to.
+   */
+  int getMinWorkerCount();
+
+  /**
+   * Highest number of Workers the Compute Engine can be resized to.
+   */
+  int getMaxWorkerCount();
 }
@@ -25,14 +25,17 @@ import org.sonar.process.Jmx;
 import org.sonar.process.systeminfo.SystemInfoSection;
 import org.sonar.process.systeminfo.protobuf.ProtobufSystemInfo;
 import org.sonar.server.computation.configuration.CeConfiguration;
+import org.sonar.server.computation.taskprocessor.CeProcessingScheduler;
 
 public class CeTasksMBeanImpl implements CeTasksMBean, Startable, SystemInfoSection {
   private final CEQueueStatus queueStatus;
   private final CeConfiguration ceConfiguration;
+  private final CeProcessingScheduler processingScheduler;
 
-  public CeTasksMBeanImpl(CEQueueStatus queueStatus, CeConfiguration ceConfiguration) {
+  public CeTasksMBeanImpl(CEQueueStatus queueStatus, CeConfiguration ceConfiguration, CeProcessingScheduler processingScheduler) {
     this.queueStatus = queueStatus;
     this.ceConfiguration = ceConfiguration;
+    this.processingScheduler = processingScheduler;
   }
 
   @Override
@@ -73,9 +76,59 @@ public class CeTasksMBeanImpl implements CeTasksMBean, Startable, SystemInfoSect
     return queueStatus.getProcessingTime();
   }
 
+  @Override
+  public long getCpuTime() {
+    return queueStatus.getCpuTime();
+  }
+
+  @Override
+  public long getAllocatedBytes() {
+    return queueStatus.getAllocatedBytes();
+  }
+
+  @Override
+  public long getDbStatementCount() {
+    return queueStatus.getDbStatementCount();
+  }
+
+  @Override
+  public long getDbTime() {
+    return queueStatus.getDbTime();
+  }
+
+  @Override
+  public long getTempDiskBytes() {
+    return queueStatus.getTempDiskBytes();
+  }
+
+  @Override
+  public long getWaitTimeP50() {
+    return queueStatus.getWaitTimePercentile(50);
+  }
+
+  @Override
+  public long getWaitTimeP90() {
+    return queueStatus.getWaitTimePercentile(90);
+  }
+
+  @Override
+  public long getWaitTimeP99() {
+    return queueStatus.getWaitTimePercentile(99);
+  }
+
   @Override
   public int getWorkerCount() {
-    return ceConfiguration.getWorkerCount();
+    return processingScheduler.getWorkerCount();
+  }
+
+  @Override
+  public int getMinWorkerCount() {
+    return CeProcessingScheduler.MIN_WORKER_COUNT;
+  }
+
+  @Override
+  public int getMaxWorkerCount() {
+    return ceConfiguration.getMaxWorkerCount();
   }
 
   @Override
@@ -87,7 +140,17 @@ public class CeTasksMBeanImpl implements CeTasksMBean, Startable, SystemInfoSect
     builder.addAttributesBuilder().setKey("Processed With Error").setLongValue(getErrorCount()).build();
     builder.addAttributesBuilder().setKey("Processed With Success").setLongValue(getSuccessCount()).build();
     builder.addAttributesBuilder().setKey("Processing Time (ms)").setLongValue(getProcessingTime()).build();
+    builder.addAttributesBuilder().setKey("CPU Time (ms)").setLongValue(getCpuTime()).build();
+    builder.addAttributesBuilder().setKey("Allocated Bytes").setLongValue(getAllocatedBytes()).build();
+    builder.addAttributesBuilder().setKey("DB Statements").setLongValue(getDbStatementCount()).build();
+    builder.addAttributesBuilder().setKey("DB Time (ms)").setLongValue(getDbTime()).build();
+    builder.addAttributesBuilder().setKey("Temp Disk Bytes").setLongValue(getTempDiskBytes()).build();
+    builder.addAttributesBuilder().setKey("Wait Time P50 (ms)").setLongValue(getWaitTimeP50()).build();
+    builder.addAttributesBuilder().setKey("Wait Time P90 (ms)").setLongValue(getWaitTimeP90()).build();
+    builder.addAttributesBuilder().setKey("Wait Time P99 (ms)").setLongValue(getWaitTimeP99()).build();
     builder.addAttributesBuilder().setKey("Worker Count").setLongValue(getWorkerCount()).build();
+    builder.addAttributesBuilder().setKey("Min Worker Count").setLongValue(getMinWorkerCount()).build();
+    builder.addAttributesBuilder().setKey("Max Worker Count").setLongValue(getMaxWorkerCount()).build();
     return builder.build();
   }
 }
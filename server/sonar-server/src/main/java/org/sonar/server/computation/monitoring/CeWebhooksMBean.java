@@ -0,0 +1,50 @@
+/*
+ * SonarQube
+ * Copyright (C) 2009-2017 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.server.computation.monitoring;
+
+public interface CeWebhooksMBean {
+
+  String OBJECT_NAME = "SonarQube:name=ComputeEngineWebhooks";
+
+  /**
+   * Count of webhook deliveries waiting to be sent or retried.
+   */
+  long getPendingCount();
+
+  /**
+   * Count of webhooks delivered successfully since instance startup.
+   */
+  long getSuccessCount();
+
+  /**
+   * Count of webhooks which delivery failed after all attempts since instance startup.
+   */
+  long getErrorCount();
+
+  /**
+   * Count of retried deliveries since instance startup.
+   */
+  long getRetryCount();
+
+  /**
+   * Time between submission and completion of deliveries since startup, in milliseconds.
+   */
+  long getDeliveryTime();
+}
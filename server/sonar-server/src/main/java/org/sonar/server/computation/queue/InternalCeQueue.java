@@ -21,6 +21,7 @@ package org.sonar.server.computation.queue;
 
 import com.google.common.base.Optional;
 import javax.annotation.Nullable;
+import org.sonar.ce.monitoring.CeTaskResourceUsage;
 import org.sonar.ce.queue.CeQueue;
 import org.sonar.ce.queue.CeTask;
 import org.sonar.ce.queue.CeTaskResult;
@@ -60,12 +61,14 @@ public interface InternalCeQueue extends CeQueue {
 
   /**
    * Removes a task from the queue and registers it to past activities. This method
-   * is called by Compute Engine workers when task is processed and can include an option {@link CeTaskResult} object.
+   * is called by Compute Engine workers when task is processed and can include an option {@link CeTaskResult} object
+   * and the resources consumed by the processing.
    *
    * @throws IllegalStateException if the task does not exist in the queue
    * @throws IllegalArgumentException if {@code error} is non {@code null} but {@code status} is not {@link Status#FAILED}
    */
-  void remove(CeTask task, Status status, @Nullable CeTaskResult taskResult, @Nullable Throwable error);
+  void remove(CeTask task, Status status, @Nullable CeTaskResult taskResult, @Nullable Throwable error,
+    @Nullable CeTaskResourceUsage resourceUsage);
 
   void cancel(DbSession dbSession, CeQueueDto ceQueueDto);
 
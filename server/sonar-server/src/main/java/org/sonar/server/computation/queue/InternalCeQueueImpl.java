@@ -24,6 +24,12 @@ import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.OutputStream;
 import java.io.PrintWriter;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.concurrent.atomic.AtomicBoolean;
 import javax.annotation.CheckForNull;
 import javax.annotation.Nullable;
@@ -31,35 +37,51 @@ import org.apache.log4j.Logger;
 import org.sonar.api.ce.ComputeEngineSide;
 import org.sonar.api.utils.System2;
 import org.sonar.ce.monitoring.CEQueueStatus;
+import org.sonar.ce.monitoring.CeTaskResourceUsage;
+import org.sonar.ce.monitoring.ResourceUsage;
 import org.sonar.ce.queue.CeQueueImpl;
 import org.sonar.ce.queue.CeTask;
 import org.sonar.ce.queue.CeTaskResult;
 import org.sonar.core.util.UuidFactory;
+import org.sonar.core.util.stream.Collectors;
 import org.sonar.db.DbClient;
 import org.sonar.db.DbSession;
 import org.sonar.db.ce.CeActivityDto;
 import org.sonar.db.ce.CeQueueDto;
+import org.sonar.db.ce.CeTaskQuery;
+import org.sonar.db.ce.CeTaskTypes;
+import org.sonar.server.computation.configuration.CeConfiguration;
 import org.sonar.server.organization.DefaultOrganizationProvider;
 
 import static com.google.common.base.Preconditions.checkArgument;
 import static com.google.common.base.Preconditions.checkState;
+import static java.lang.String.format;
 
 @ComputeEngineSide
 public class InternalCeQueueImpl extends CeQueueImpl implements InternalCeQueue {
 
+  /**
+   * Maximum number of eligible tasks among which the next task to be processed is chosen. As eligible tasks are
+   * loaded by descending priority, tasks of the highest priority class are never left out of the candidates in favor
+   * of older tasks of a lower priority. Fair scheduling only reorders the candidates.
+   */
+  private static final int MAX_PEEK_CANDIDATES = 100;
+
   private final System2 system2;
   private final DbClient dbClient;
   private final CEQueueStatus queueStatus;
+  private final CeConfiguration ceConfiguration;
 
   // state
   private AtomicBoolean peekPaused = new AtomicBoolean(false);
 
   public InternalCeQueueImpl(System2 system2, DbClient dbClient, UuidFactory uuidFactory, CEQueueStatus queueStatus,
-    DefaultOrganizationProvider defaultOrganizationProvider) {
+    DefaultOrganizationProvider defaultOrganizationProvider, CeConfiguration ceConfiguration) {
     super(dbClient, uuidFactory, defaultOrganizationProvider);
     this.system2 = system2;
     this.dbClient = dbClient;
     this.queueStatus = queueStatus;
+    this.ceConfiguration = ceConfiguration;
   }
 
   @Override
@@ -68,24 +90,128 @@ public class InternalCeQueueImpl extends CeQueueImpl implements InternalCeQueue
       return Optional.absent();
     }
     try (DbSession dbSession = dbClient.openSession(false)) {
-      Optional<CeQueueDto> dto = dbClient.ceQueueDao().peek(dbSession);
+      Optional<CeQueueDto> dto = peekNext(dbSession);
+      if (dto.isPresent() && ceConfiguration.isSupersededReportsCoalescingEnabled()) {
+        dto = peekMostRecentReport(dbSession, dto.get());
+      }
       CeTask task = null;
       if (dto.isPresent()) {
         task = loadTask(dbSession, dto.get());
         queueStatus.addInProgress();
+        addWaitTime(dto.get());
       }
       return Optional.fromNullable(task);
 
     }
   }
 
+  /**
+   * Peeks the eligible task with the highest priority class. When fair scheduling is enabled, ties are broken by
+   * {@link #loadVirtualFinishTimes(DbSession, List) virtual finish time} of the components. Remaining ties are broken
+   * by date of submission.
+   */
+  private Optional<CeQueueDto> peekNext(DbSession dbSession) {
+    List<CeQueueDto> eligibles = dbClient.ceQueueDao().selectEligibleForPeek(dbSession, MAX_PEEK_CANDIDATES);
+    if (eligibles.isEmpty()) {
+      return Optional.absent();
+    }
+
+    Comparator<CeQueueDto> comparator = Comparator.comparing(InternalCeQueueImpl::priorityOf).reversed();
+    if (ceConfiguration.isFairSchedulingEnabled()) {
+      Map<String, Long> virtualFinishTimes = loadVirtualFinishTimes(dbSession, eligibles);
+      comparator = comparator.thenComparingLong(dto -> dto.getComponentUuid() == null ? 0L
+        : virtualFinishTimes.getOrDefault(dto.getComponentUuid(), 0L));
+    }
+    // eligible tasks are ordered by priority then by date of submission and sort is stable
+    List<CeQueueDto> candidates = eligibles.stream().sorted(comparator).collect(Collectors.toList());
+    for (CeQueueDto candidate : candidates) {
+      Optional<CeQueueDto> peeked = dbClient.ceQueueDao().tryToPeek(dbSession, candidate.getUuid());
+      if (peeked.isPresent()) {
+        return peeked;
+      }
+    }
+    return Optional.absent();
+  }
+
+  private static CeQueueDto.Priority priorityOf(CeQueueDto dto) {
+    CeQueueDto.Priority priority = dto.getPriority();
+    return priority == null ? CeQueueDto.Priority.NORMAL : priority;
+  }
+
+  /**
+   * Virtual finish time of the components of the specified tasks, as in weighted fair queuing: the date of end of the
+   * last processing of the component plus its duration, which estimates the cost of the next processing. Components
+   * which have been processed recently, or which processing is long, are served after the others. Components which
+   * have never been processed are absent from the returned map.
+   */
+  private Map<String, Long> loadVirtualFinishTimes(DbSession dbSession, List<CeQueueDto> tasks) {
+    List<String> componentUuids = tasks.stream()
+      .map(CeQueueDto::getComponentUuid)
+      .filter(Objects::nonNull)
+      .distinct()
+      .collect(Collectors.toList());
+    if (componentUuids.isEmpty()) {
+      return Collections.emptyMap();
+    }
+
+    CeTaskQuery query = new CeTaskQuery().setComponentUuids(componentUuids).setOnlyCurrents(true);
+    Map<String, Long> result = new HashMap<>();
+    for (CeActivityDto activity : dbClient.ceActivityDao().selectByQuery(dbSession, query, 0, CeTaskQuery.MAX_COMPONENT_UUIDS)) {
+      Long executedAt = activity.getExecutedAt();
+      if (executedAt != null) {
+        Long executionTimeMs = activity.getExecutionTimeMs();
+        long virtualFinishTime = executedAt + (executionTimeMs == null ? 0L : executionTimeMs);
+        result.merge(activity.getComponentUuid(), virtualFinishTime, Long::max);
+      }
+    }
+    return result;
+  }
+
+  private void addWaitTime(CeQueueDto peeked) {
+    Long startedAt = peeked.getStartedAt();
+    if (startedAt != null) {
+      queueStatus.addWaitTime(Math.max(0L, startedAt - peeked.getCreatedAt()));
+    }
+  }
+
+  /**
+   * When more recent reports of the same component are pending, the peeked report and all the pending ones but the
+   * most recent are canceled, then the most recent report is peeked instead.
+   */
+  private Optional<CeQueueDto> peekMostRecentReport(DbSession dbSession, CeQueueDto peeked) {
+    String componentUuid = peeked.getComponentUuid();
+    if (componentUuid == null || !CeTaskTypes.REPORT.equals(peeked.getTaskType())) {
+      return Optional.of(peeked);
+    }
+    List<CeQueueDto> pendingReports = dbClient.ceQueueDao().selectByComponentUuid(dbSession, componentUuid).stream()
+      .filter(dto -> dto.getStatus() == CeQueueDto.Status.PENDING)
+      .filter(dto -> CeTaskTypes.REPORT.equals(dto.getTaskType()))
+      .collect(Collectors.toList());
+    if (pendingReports.isEmpty()) {
+      return Optional.of(peeked);
+    }
+
+    CeQueueDto mostRecent = pendingReports.get(pendingReports.size() - 1);
+    supersede(dbSession, peeked, mostRecent);
+    pendingReports.subList(0, pendingReports.size() - 1).forEach(dto -> supersede(dbSession, dto, mostRecent));
+    return dbClient.ceQueueDao().tryToPeek(dbSession, mostRecent.getUuid());
+  }
+
+  private void supersede(DbSession dbSession, CeQueueDto superseded, CeQueueDto mostRecent) {
+    CeActivityDto activityDto = new CeActivityDto(superseded);
+    activityDto.setStatus(CeActivityDto.Status.CANCELED);
+    activityDto.setErrorMessage(format("Superseded by more recent analysis report %s", mostRecent.getUuid()));
+    remove(dbSession, superseded, activityDto);
+  }
+
   @Override
   public int clear() {
     return cancelAll(true);
   }
 
   @Override
-  public void remove(CeTask task, CeActivityDto.Status status, @Nullable CeTaskResult taskResult, @Nullable Throwable error) {
+  public void remove(CeTask task, CeActivityDto.Status status, @Nullable CeTaskResult taskResult, @Nullable Throwable error,
+    @Nullable CeTaskResourceUsage resourceUsage) {
     checkArgument(error == null || status == CeActivityDto.Status.FAILED, "Error can be provided only when status is FAILED");
     try (DbSession dbSession = dbClient.openSession(false)) {
       Optional<CeQueueDto> queueDto = dbClient.ceQueueDao().selectByUuid(dbSession, task.getUuid());
@@ -95,10 +221,31 @@ public class InternalCeQueueImpl extends CeQueueImpl implements InternalCeQueue
       updateQueueStatus(status, activityDto);
       updateTaskResult(activityDto, taskResult);
       updateError(activityDto, error);
+      updateResourceUsage(activityDto, resourceUsage);
       remove(dbSession, queueDto.get(), activityDto);
     }
   }
 
+  private void updateResourceUsage(CeActivityDto activityDto, @Nullable CeTaskResourceUsage resourceUsage) {
+    if (resourceUsage == null) {
+      return;
+    }
+    ResourceUsage threadUsage = resourceUsage.getThreadUsage();
+    activityDto
+      .setCpuTimeMs(knownOrNull(threadUsage.getCpuTimeMs()))
+      .setAllocatedBytes(knownOrNull(threadUsage.getAllocatedBytes()))
+      .setDbStatementCount(threadUsage.getDbStatementCount())
+      .setDbTimeMs(threadUsage.getDbTimeMs())
+      .setTempDiskBytes(resourceUsage.getTempDiskBytes())
+      .setReportSizeBytes(resourceUsage.getReportSizeBytes());
+    queueStatus.addResourceUsage(resourceUsage);
+  }
+
+  @CheckForNull
+  private static Long knownOrNull(long value) {
+    return value == ResourceUsage.UNKNOWN ? null : value;
+  }
+
   private static void updateTaskResult(CeActivityDto activityDto, @Nullable CeTaskResult taskResult) {
     if (taskResult != null) {
       java.util.Optional<String> analysisUuid = taskResult.getAnalysisUuid();
@@ -25,17 +25,20 @@ import javax.annotation.Nullable;
 import org.apache.commons.lang.StringUtils;
 import org.sonar.api.resources.Qualifiers;
 import org.sonar.api.server.ServerSide;
+import org.sonar.api.web.UserRole;
 import org.sonar.ce.queue.CeQueue;
 import org.sonar.ce.queue.CeTask;
 import org.sonar.ce.queue.CeTaskSubmit;
 import org.sonar.core.component.ComponentKeys;
 import org.sonar.db.DbClient;
 import org.sonar.db.DbSession;
+import org.sonar.db.ce.CeQueueDto;
 import org.sonar.db.ce.CeTaskTypes;
 import org.sonar.db.component.ComponentDto;
 import org.sonar.db.organization.OrganizationDto;
 import org.sonar.server.component.ComponentUpdater;
 import org.sonar.server.component.NewComponent;
+import org.sonar.server.exceptions.ForbiddenException;
 import org.sonar.server.exceptions.NotFoundException;
 import org.sonar.db.permission.OrganizationPermission;
 import org.sonar.server.permission.PermissionTemplateService;
@@ -70,14 +73,28 @@ public class ReportSubmitter {
    * @throws IllegalArgumentException if the organization with the specified key is not the organization of the specified project (when it already exists in DB)
    */
   public CeTask submit(String organizationKey, String projectKey, @Nullable String projectBranch, @Nullable String projectName, InputStream reportInput) {
+    return submit(organizationKey, projectKey, projectBranch, projectName, null, reportInput);
+  }
+
+  /**
+   * Same as {@link #submit(String, String, String, String, InputStream)} but the task is processed with the specified
+   * priority class, {@code null} meaning {@link CeQueueDto.Priority#NORMAL}.
+   *
+   * @throws ForbiddenException if the priority is higher than {@link CeQueueDto.Priority#NORMAL} and the user does not
+   * administer the project or its organization
+   */
+  public CeTask submit(String organizationKey, String projectKey, @Nullable String projectBranch, @Nullable String projectName,
+    @Nullable CeQueueDto.Priority priority, InputStream reportInput) {
     try (DbSession dbSession = dbClient.openSession(false)) {
       String effectiveProjectKey = ComponentKeys.createKey(projectKey, projectBranch);
       OrganizationDto organizationDto = getOrganizationDtoOrFail(dbSession, organizationKey);
       Optional<ComponentDto> opt = dbClient.componentDao().selectByKey(dbSession, effectiveProjectKey);
       ensureOrganizationIsConsistent(opt, organizationDto);
+      // checked before the project is created
+      checkPriorityPermission(organizationDto, opt, priority);
       ComponentDto project = opt.or(() -> createProject(dbSession, organizationDto, projectKey, projectBranch, projectName));
       checkScanPermission(project);
-      return submitReport(dbSession, reportInput, project);
+      return submitReport(dbSession, reportInput, project, priority);
     }
   }
 
@@ -93,6 +110,16 @@ public class ReportSubmitter {
     }
   }
 
+  private void checkPriorityPermission(OrganizationDto organization, Optional<ComponentDto> project, @Nullable CeQueueDto.Priority priority) {
+    if (priority == null || priority.compareTo(CeQueueDto.Priority.NORMAL) <= 0) {
+      return;
+    }
+    if (!userSession.hasPermission(OrganizationPermission.ADMINISTER, organization) &&
+      !(project.isPresent() && userSession.hasComponentPermission(UserRole.ADMIN, project.get()))) {
+      throw new ForbiddenException(format("Administer permission is required to submit a report with priority %s", priority));
+    }
+  }
+
   private OrganizationDto getOrganizationDtoOrFail(DbSession dbSession, String organizationKey) {
     return dbClient.organizationDao().selectByKey(dbSession, organizationKey)
       .orElseThrow(() -> new NotFoundException(format("Organization with key '%s' does not exist", organizationKey)));
@@ -126,7 +153,7 @@ public class ReportSubmitter {
     return componentUpdater.create(dbSession, newProject, userId);
   }
 
-  private CeTask submitReport(DbSession dbSession, InputStream reportInput, ComponentDto project) {
+  private CeTask submitReport(DbSession dbSession, InputStream reportInput, ComponentDto project, @Nullable CeQueueDto.Priority priority) {
     // the report file must be saved before submitting the task
     CeTaskSubmit.Builder submit = queue.prepareSubmit();
     dbClient.ceTaskInputDao().insert(dbSession, submit.getUuid(), reportInput);
@@ -135,6 +162,7 @@ public class ReportSubmitter {
     submit.setType(CeTaskTypes.REPORT);
     submit.setComponentUuid(project.uuid());
     submit.setSubmitterLogin(userSession.getLogin());
+    submit.setPriority(priority);
     return queue.submit(submit.build());
   }
 }
@@ -69,6 +69,7 @@ import org.sonar.server.computation.task.projectanalysis.issue.RuleTypeCopier;
 import org.sonar.server.computation.task.projectanalysis.issue.ScmAccountToUser;
 import org.sonar.server.computation.task.projectanalysis.issue.ScmAccountToUserLoader;
 import org.sonar.server.computation.task.projectanalysis.issue.TrackerBaseInputFactory;
+import org.sonar.server.computation.task.projectanalysis.issue.TrackerBaseInputPrefetch;
 import org.sonar.server.computation.task.projectanalysis.issue.TrackerExecution;
 import org.sonar.server.computation.task.projectanalysis.issue.TrackerRawInputFactory;
 import org.sonar.server.computation.task.projectanalysis.issue.UpdateConflictResolver;
@@ -101,7 +102,16 @@ import org.sonar.server.computation.task.projectanalysis.scm.ScmInfoRepositoryIm
 import org.sonar.server.computation.task.projectanalysis.source.LastCommitVisitor;
 import org.sonar.server.computation.task.projectanalysis.source.SourceHashRepositoryImpl;
 import org.sonar.server.computation.task.projectanalysis.source.SourceLinesRepositoryImpl;
+import org.sonar.server.computation.task.projectanalysis.step.CommentMeasuresStep;
+import org.sonar.server.computation.task.projectanalysis.step.ComplexityMeasuresStep;
+import org.sonar.server.computation.task.projectanalysis.step.CoverageMeasuresStep;
+import org.sonar.server.computation.task.projectanalysis.step.DuplicationMeasuresStep;
+import org.sonar.server.computation.task.projectanalysis.step.LanguageDistributionMeasuresStep;
+import org.sonar.server.computation.task.projectanalysis.step.NewCoverageMeasuresStep;
+import org.sonar.server.computation.task.projectanalysis.step.NewSizeMeasuresStep;
 import org.sonar.server.computation.task.projectanalysis.step.ReportComputationSteps;
+import org.sonar.server.computation.task.projectanalysis.step.SizeMeasuresStep;
+import org.sonar.server.computation.task.projectanalysis.step.UnitTestMeasuresStep;
 import org.sonar.server.computation.task.projectanalysis.webhook.WebhookModule;
 import org.sonar.server.computation.task.step.ComputationStepExecutor;
 import org.sonar.server.computation.task.step.ComputationSteps;
@@ -162,6 +172,17 @@ public final class ProjectAnalysisTaskContainerPopulator implements ContainerPop
 
       BatchReportReaderImpl.class,
 
+      // steps whose formulas are executed in a single traversal by ComputeFormulaMeasuresStep
+      SizeMeasuresStep.class,
+      NewCoverageMeasuresStep.class,
+      CoverageMeasuresStep.class,
+      CommentMeasuresStep.class,
+      DuplicationMeasuresStep.class,
+      NewSizeMeasuresStep.class,
+      LanguageDistributionMeasuresStep.class,
+      UnitTestMeasuresStep.class,
+      ComplexityMeasuresStep.class,
+
       // repositories
       LanguageRepositoryImpl.class,
       MeasureRepositoryImpl.class,
@@ -227,6 +248,7 @@ public final class ProjectAnalysisTaskContainerPopulator implements ContainerPop
       Tracker.class,
       TrackerExecution.class,
       BaseIssuesLoader.class,
+      TrackerBaseInputPrefetch.class,
 
       // filemove
       SourceSimilarityImpl.class,
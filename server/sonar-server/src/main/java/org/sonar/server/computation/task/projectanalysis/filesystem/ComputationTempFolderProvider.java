@@ -28,19 +28,25 @@ import org.picocontainer.PicoContainer;
 import org.picocontainer.injectors.ProviderAdapter;
 import org.sonar.api.utils.TempFolder;
 import org.sonar.api.utils.internal.DefaultTempFolder;
+import org.sonar.ce.monitoring.CeTaskResourceRecorder;
 import org.sonar.server.platform.ServerFileSystem;
 
 /**
  * Provides a TempFolder instance pointing to a directory dedicated to the processing of a specific item.
  * This directory will be deleted at the end of the processing.
  * This directory is located in the "ce" directory of the temp directory of the SonarQube instance.
+ * Its size is reported to {@link CeTaskResourceRecorder} just before deletion.
  */
 public class ComputationTempFolderProvider extends ProviderAdapter implements ComponentLifecycle<TempFolder> {
   private boolean started = false;
   @CheckForNull
   private DefaultTempFolder tempFolder;
+  @CheckForNull
+  private File computationDir;
+  @CheckForNull
+  private CeTaskResourceRecorder resourceRecorder;
 
-  public TempFolder provide(ServerFileSystem fs) {
+  public TempFolder provide(ServerFileSystem fs, CeTaskResourceRecorder resourceRecorder) {
     if (this.tempFolder == null) {
       File tempDir = new File(fs.getTempDir(), "ce");
       try {
@@ -48,8 +54,9 @@ public class ComputationTempFolderProvider extends ProviderAdapter implements Co
       } catch (IOException e) {
         throw new IllegalStateException("Unable to create computation temp directory " + tempDir, e);
       }
-      File computationDir = new DefaultTempFolder(tempDir).newDir();
+      this.computationDir = new DefaultTempFolder(tempDir).newDir();
       this.tempFolder = new DefaultTempFolder(computationDir, true);
+      this.resourceRecorder = resourceRecorder;
     }
     return this.tempFolder;
   }
@@ -62,6 +69,9 @@ public class ComputationTempFolderProvider extends ProviderAdapter implements Co
   @Override
   public void stop(PicoContainer container) {
     if (tempFolder != null) {
+      if (computationDir.exists()) {
+        resourceRecorder.addTempDiskBytes(FileUtils.sizeOfDirectory(computationDir));
+      }
       tempFolder.stop();
     }
   }
@@ -21,9 +21,10 @@ package org.sonar.server.computation.task.projectanalysis.formula;
 
 import com.google.common.base.Optional;
 import com.google.common.collect.ImmutableList;
-import java.util.HashMap;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Deque;
 import java.util.List;
-import java.util.Map;
 import javax.annotation.CheckForNull;
 import org.sonar.server.computation.task.projectanalysis.component.Component;
 import org.sonar.server.computation.task.projectanalysis.component.ComponentVisitor;
@@ -39,38 +40,28 @@ import org.sonar.server.computation.task.projectanalysis.period.PeriodHolder;
 import static java.util.Objects.requireNonNull;
 
 public class FormulaExecutorComponentVisitor extends PathAwareVisitorAdapter<FormulaExecutorComponentVisitor.Counters> {
-  private static final SimpleStackElementFactory<Counters> COUNTERS_FACTORY = new SimpleStackElementFactory<Counters>() {
-
-    @Override
-    public Counters createForAny(Component component) {
-      return new Counters();
-    }
-
-    @Override
-    public Counters createForFile(Component component) {
-      // No need to create a counter on leaf levels
-      return null;
-    }
-
-    @Override
-    public Counters createForProjectView(Component projectView) {
-      // No need to create a counter on leaf levels
-      return null;
-    }
-  };
-
   @CheckForNull
   private final PeriodHolder periodHolder;
   private final MetricRepository metricRepository;
   private final MeasureRepository measureRepository;
   private final List<Formula> formulas;
+  private final CountersFactory countersFactory;
 
   private FormulaExecutorComponentVisitor(Builder builder, Iterable<Formula> formulas) {
-    super(CrawlerDepthLimit.LEAVES, ComponentVisitor.Order.POST_ORDER, COUNTERS_FACTORY);
+    this(builder, ImmutableList.copyOf(formulas));
+  }
+
+  private FormulaExecutorComponentVisitor(Builder builder, List<Formula> formulas) {
+    this(builder, formulas, new CountersFactory(formulas.size()));
+  }
+
+  private FormulaExecutorComponentVisitor(Builder builder, List<Formula> formulas, CountersFactory countersFactory) {
+    super(CrawlerDepthLimit.LEAVES, ComponentVisitor.Order.POST_ORDER, countersFactory);
     this.periodHolder = builder.periodHolder;
     this.measureRepository = builder.measureRepository;
     this.metricRepository = builder.metricRepository;
-    this.formulas = ImmutableList.copyOf(formulas);
+    this.formulas = formulas;
+    this.countersFactory = countersFactory;
   }
 
   public static Builder newBuilder(MetricRepository metricRepository, MeasureRepository measureRepository) {
@@ -146,27 +137,31 @@ public class FormulaExecutorComponentVisitor extends PathAwareVisitorAdapter<For
   }
 
   private void processNotLeaf(Component component, Path<FormulaExecutorComponentVisitor.Counters> path) {
-    for (Formula formula : formulas) {
-      Counter counter = path.current().getCounter(formula);
+    Counters counters = path.current();
+    for (int i = 0; i < formulas.size(); i++) {
+      Formula formula = formulas.get(i);
+      Counter counter = counters.get(i);
       // If there were no file under this node, the counter won't be initialized
       if (counter != null) {
         for (String metricKey : formula.getOutputMetricKeys()) {
           addNewMeasure(component, metricKey, formula, counter);
         }
-        aggregateToParent(path, formula, counter);
+        aggregateToParent(path, i, counter);
       }
     }
+    countersFactory.release(counters);
   }
 
   private void processLeaf(Component file, Path<FormulaExecutorComponentVisitor.Counters> path) {
     CounterInitializationContext counterContext = new CounterInitializationContextImpl(file);
-    for (Formula formula : formulas) {
+    for (int i = 0; i < formulas.size(); i++) {
+      Formula formula = formulas.get(i);
       Counter counter = formula.createNewCounter();
       counter.initialize(counterContext);
       for (String metricKey : formula.getOutputMetricKeys()) {
         addNewMeasure(file, metricKey, formula, counter);
       }
-      aggregateToParent(path, formula, counter);
+      aggregateToParent(path, i, counter);
     }
   }
 
@@ -182,9 +177,9 @@ public class FormulaExecutorComponentVisitor extends PathAwareVisitorAdapter<For
     }
   }
 
-  private static void aggregateToParent(Path<FormulaExecutorComponentVisitor.Counters> path, Formula formula, Counter currentCounter) {
+  private static void aggregateToParent(Path<FormulaExecutorComponentVisitor.Counters> path, int formulaIndex, Counter currentCounter) {
     if (!path.isRoot()) {
-      path.parent().aggregate(formula, currentCounter);
+      path.parent().aggregate(formulaIndex, currentCounter);
     }
   }
 
@@ -216,13 +211,21 @@ public class FormulaExecutorComponentVisitor extends PathAwareVisitorAdapter<For
     }
   }
 
+  /**
+   * Counters of a node, one slot per formula. Instances are released once the node is processed and then reused
+   * by the next node of the same depth, so that only one instance per depth of the tree is allocated.
+   */
   public static class Counters {
-    Map<Formula, Counter> countersByFormula = new HashMap<>();
+    private final Counter[] countersByFormula;
 
-    public void aggregate(Formula formula, Counter childCounter) {
-      Counter counter = countersByFormula.get(formula);
+    private Counters(int size) {
+      this.countersByFormula = new Counter[size];
+    }
+
+    private void aggregate(int formulaIndex, Counter childCounter) {
+      Counter counter = countersByFormula[formulaIndex];
       if (counter == null) {
-        countersByFormula.put(formula, childCounter);
+        countersByFormula[formulaIndex] = childCounter;
       } else {
         counter.aggregate(childCounter);
       }
@@ -232,8 +235,44 @@ public class FormulaExecutorComponentVisitor extends PathAwareVisitorAdapter<For
      * Counter can be null on a level when it has not been fed by children levels
      */
     @CheckForNull
-    public Counter getCounter(Formula formula) {
-      return countersByFormula.get(formula);
+    private Counter get(int formulaIndex) {
+      return countersByFormula[formulaIndex];
+    }
+
+    private void clear() {
+      Arrays.fill(countersByFormula, null);
+    }
+  }
+
+  private static class CountersFactory extends SimpleStackElementFactory<Counters> {
+    private final Deque<Counters> released = new ArrayDeque<>();
+    private final int size;
+
+    private CountersFactory(int size) {
+      this.size = size;
+    }
+
+    @Override
+    public Counters createForAny(Component component) {
+      Counters counters = released.poll();
+      return counters == null ? new Counters(size) : counters;
+    }
+
+    @Override
+    public Counters createForFile(Component component) {
+      // No need to create a counter on leaf levels
+      return null;
+    }
+
+    @Override
+    public Counters createForProjectView(Component projectView) {
+      // No need to create a counter on leaf levels
+      return null;
+    }
+
+    private void release(Counters counters) {
+      counters.clear();
+      released.push(counters);
     }
   }
 
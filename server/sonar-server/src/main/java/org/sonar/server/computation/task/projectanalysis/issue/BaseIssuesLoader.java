@@ -21,6 +21,7 @@ package org.sonar.server.computation.task.projectanalysis.issue;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Optional;
 import java.util.Set;
 import org.sonar.api.rule.RuleKey;
 import org.sonar.api.rule.RuleStatus;
@@ -42,35 +43,45 @@ public class BaseIssuesLoader {
   private final DbClient dbClient;
   private final RuleRepository ruleRepository;
   private final ActiveRulesHolder activeRulesHolder;
+  private final TrackerBaseInputPrefetch prefetch;
 
   public BaseIssuesLoader(TreeRootHolder treeRootHolder,
-    DbClient dbClient, RuleRepository ruleRepository, ActiveRulesHolder activeRulesHolder) {
+    DbClient dbClient, RuleRepository ruleRepository, ActiveRulesHolder activeRulesHolder, TrackerBaseInputPrefetch prefetch) {
     this.activeRulesHolder = activeRulesHolder;
     this.treeRootHolder = treeRootHolder;
     this.dbClient = dbClient;
     this.ruleRepository = ruleRepository;
+    this.prefetch = prefetch;
   }
 
   public List<DefaultIssue> loadForComponentUuid(String componentUuid) {
+    Optional<List<DefaultIssue>> prefetched = prefetch.takeIssues(componentUuid);
+    if (prefetched.isPresent()) {
+      prefetched.get().forEach(this::init);
+      return prefetched.get();
+    }
     try (DbSession dbSession = dbClient.openSession(false)) {
       List<DefaultIssue> result = new ArrayList<>();
       dbSession.getMapper(IssueMapper.class).selectNonClosedByComponentUuid(componentUuid, resultContext -> {
         DefaultIssue issue = ((IssueDto) resultContext.getResultObject()).toDefaultIssue();
-
-        // TODO this field should be set outside this class
-        if (!isActive(issue.ruleKey()) || ruleRepository.getByKey(issue.ruleKey()).getStatus() == RuleStatus.REMOVED) {
-          issue.setOnDisabledRule(true);
-          // TODO to be improved, why setOnDisabledRule(true) is not enough ?
-          issue.setBeingClosed(true);
-        }
-        // FIXME
-        issue.setSelectedAt(System.currentTimeMillis());
+        init(issue);
         result.add(issue);
       });
       return result;
     }
   }
 
+  private void init(DefaultIssue issue) {
+    // TODO this field should be set outside this class
+    if (!isActive(issue.ruleKey()) || ruleRepository.getByKey(issue.ruleKey()).getStatus() == RuleStatus.REMOVED) {
+      issue.setOnDisabledRule(true);
+      // TODO to be improved, why setOnDisabledRule(true) is not enough ?
+      issue.setBeingClosed(true);
+    }
+    // FIXME
+    issue.setSelectedAt(System.currentTimeMillis());
+  }
+
   private boolean isActive(RuleKey ruleKey) {
     return activeRulesHolder.get(ruleKey).isPresent();
   }
@@ -42,11 +42,14 @@ public class TrackerBaseInputFactory {
   private final BaseIssuesLoader baseIssuesLoader;
   private final DbClient dbClient;
   private final MovedFilesRepository movedFilesRepository;
+  private final TrackerBaseInputPrefetch prefetch;
 
-  public TrackerBaseInputFactory(BaseIssuesLoader baseIssuesLoader, DbClient dbClient, MovedFilesRepository movedFilesRepository) {
+  public TrackerBaseInputFactory(BaseIssuesLoader baseIssuesLoader, DbClient dbClient, MovedFilesRepository movedFilesRepository,
+    TrackerBaseInputPrefetch prefetch) {
     this.baseIssuesLoader = baseIssuesLoader;
     this.dbClient = dbClient;
     this.movedFilesRepository = movedFilesRepository;
+    this.prefetch = prefetch;
   }
 
   public Input<DefaultIssue> create(Component component) {
@@ -69,12 +72,17 @@ public class TrackerBaseInputFactory {
         return EMPTY_LINE_HASH_SEQUENCE;
       }
 
+      List<String> hashes = prefetch.takeLineHashes(effectiveUuid).orElseGet(this::selectLineHashes);
+      if (hashes == null || hashes.isEmpty()) {
+        return EMPTY_LINE_HASH_SEQUENCE;
+      }
+      return new LineHashSequence(hashes);
+    }
+
+    @CheckForNull
+    private List<String> selectLineHashes() {
       try (DbSession session = dbClient.openSession(false)) {
-        List<String> hashes = dbClient.fileSourceDao().selectLineHashes(session, effectiveUuid);
-        if (hashes == null || hashes.isEmpty()) {
-          return EMPTY_LINE_HASH_SEQUENCE;
-        }
-        return new LineHashSequence(hashes);
+        return dbClient.fileSourceDao().selectLineHashes(session, effectiveUuid);
       }
     }
 
@@ -0,0 +1,180 @@
+/*
+ * SonarQube
+ * Copyright (C) 2009-2017 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.server.computation.task.projectanalysis.issue;
+
+import com.google.common.base.Splitter;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import javax.annotation.CheckForNull;
+import org.picocontainer.Startable;
+import org.sonar.api.config.Settings;
+import org.sonar.api.utils.TempFolder;
+import org.sonar.api.utils.log.Logger;
+import org.sonar.api.utils.log.Loggers;
+import org.sonar.api.utils.log.Profiler;
+import org.sonar.core.issue.DefaultIssue;
+import org.sonar.db.DbClient;
+import org.sonar.db.DbSession;
+import org.sonar.db.issue.IssueDto;
+import org.sonar.db.source.FileSourceDto;
+import org.sonar.server.computation.task.projectanalysis.component.TreeRootHolder;
+import org.sonar.server.util.cache.SpillableCache;
+
+/**
+ * Loads with two streaming queries the open issues and the line hashes of all the files of the project,
+ * instead of executing two queries per component during issue tracking.
+ * <p>
+ * Data are loaded on first access. Data of a component are dropped once read, and the data exceeding
+ * {@link #MAX_ITEMS_IN_MEMORY_PROPERTY} (number of issues and of lines) are kept on disk until read.
+ * When the same component is requested twice, or when prefetch is disabled, no data is returned and
+ * callers must load data from database.
+ */
+public class TrackerBaseInputPrefetch implements Startable {
+
+  public static final String ENABLED_PROPERTY = "sonar.ce.issueTracking.prefetch";
+  public static final String MAX_ITEMS_IN_MEMORY_PROPERTY = "sonar.ce.issueTracking.prefetch.maxItemsInMemory";
+  public static final long DEFAULT_MAX_ITEMS_IN_MEMORY = 500_000L;
+
+  private static final Logger LOGGER = Loggers.get(TrackerBaseInputPrefetch.class);
+  private static final Splitter END_OF_LINE_SPLITTER = Splitter.on('\n');
+
+  private final TreeRootHolder treeRootHolder;
+  private final DbClient dbClient;
+  private final TempFolder tempFolder;
+  private final boolean enabled;
+  private final long maxItemsInMemory;
+
+  private final Set<String> issuesTaken = new HashSet<>();
+  private final Set<String> lineHashesTaken = new HashSet<>();
+  @CheckForNull
+  private SpillableCache<ArrayList<DefaultIssue>> issues;
+  @CheckForNull
+  private SpillableCache<ArrayList<String>> lineHashes;
+
+  public TrackerBaseInputPrefetch(TreeRootHolder treeRootHolder, DbClient dbClient, TempFolder tempFolder, Settings settings) {
+    this.treeRootHolder = treeRootHolder;
+    this.dbClient = dbClient;
+    this.tempFolder = tempFolder;
+    this.enabled = !settings.hasKey(ENABLED_PROPERTY) || settings.getBoolean(ENABLED_PROPERTY);
+    this.maxItemsInMemory = settings.hasKey(MAX_ITEMS_IN_MEMORY_PROPERTY) ? settings.getLong(MAX_ITEMS_IN_MEMORY_PROPERTY) : DEFAULT_MAX_ITEMS_IN_MEMORY;
+  }
+
+  @Override
+  public void start() {
+    // data are loaded on first access
+  }
+
+  @Override
+  public void stop() {
+    if (issues != null) {
+      issues.close();
+    }
+    if (lineHashes != null) {
+      lineHashes.close();
+    }
+  }
+
+  /**
+   * Open issues of the component, as loaded from database. The returned optional is empty if prefetch is disabled
+   * or if issues of this component have already been taken.
+   */
+  public Optional<List<DefaultIssue>> takeIssues(String componentUuid) {
+    if (!enabled || !issuesTaken.add(componentUuid)) {
+      return Optional.empty();
+    }
+    if (issues == null) {
+      issues = loadIssues();
+    }
+    return Optional.of(issues.take(componentUuid).orElseGet(ArrayList::new));
+  }
+
+  /**
+   * Line hashes of the file, as loaded from database. The returned optional is empty if prefetch is disabled
+   * or if line hashes of this file have already been taken.
+   */
+  public Optional<List<String>> takeLineHashes(String fileUuid) {
+    if (!enabled || !lineHashesTaken.add(fileUuid)) {
+      return Optional.empty();
+    }
+    if (lineHashes == null) {
+      lineHashes = loadLineHashes();
+    }
+    return Optional.of(lineHashes.take(fileUuid).orElseGet(ArrayList::new));
+  }
+
+  private SpillableCache<ArrayList<DefaultIssue>> loadIssues() {
+    Profiler profiler = Profiler.create(LOGGER).startDebug("Prefetch issues of project");
+    SpillableCache<ArrayList<DefaultIssue>> cache = new SpillableCache<>(tempFolder.newFile("prefetched-issues", ".dat"), maxItemsInMemory);
+    IssuesGrouper grouper = new IssuesGrouper(cache);
+    try (DbSession dbSession = dbClient.openSession(false)) {
+      dbClient.issueDao().scrollNonClosedByProjectUuid(dbSession, treeRootHolder.getRoot().getUuid(),
+        context -> grouper.add(((IssueDto) context.getResultObject()).toDefaultIssue()));
+    }
+    grouper.flush();
+    profiler.stopDebug(String.format("%d components in memory, %d on disk", cache.sizeInMemory(), cache.sizeOnDisk()));
+    return cache;
+  }
+
+  private SpillableCache<ArrayList<String>> loadLineHashes() {
+    Profiler profiler = Profiler.create(LOGGER).startDebug("Prefetch line hashes of project");
+    SpillableCache<ArrayList<String>> cache = new SpillableCache<>(tempFolder.newFile("prefetched-line-hashes", ".dat"), maxItemsInMemory);
+    try (DbSession dbSession = dbClient.openSession(false)) {
+      dbClient.fileSourceDao().scrollLineHashesByProjectUuid(dbSession, treeRootHolder.getRoot().getUuid(), context -> {
+        FileSourceDto dto = (FileSourceDto) context.getResultObject();
+        ArrayList<String> hashes = dto.getLineHashes() == null ? new ArrayList<>() : new ArrayList<>(END_OF_LINE_SPLITTER.splitToList(dto.getLineHashes()));
+        cache.put(dto.getFileUuid(), hashes, hashes.size());
+      });
+    }
+    profiler.stopDebug(String.format("%d files in memory, %d on disk", cache.sizeInMemory(), cache.sizeOnDisk()));
+    return cache;
+  }
+
+  /**
+   * Issues are sorted by component, so that all the issues of a component are consecutive.
+   */
+  private static class IssuesGrouper {
+    private final SpillableCache<ArrayList<DefaultIssue>> cache;
+    @CheckForNull
+    private String currentComponentUuid;
+    private ArrayList<DefaultIssue> currentIssues = new ArrayList<>();
+
+    private IssuesGrouper(SpillableCache<ArrayList<DefaultIssue>> cache) {
+      this.cache = cache;
+    }
+
+    void add(DefaultIssue issue) {
+      if (!issue.componentUuid().equals(currentComponentUuid)) {
+        flush();
+        currentComponentUuid = issue.componentUuid();
+      }
+      currentIssues.add(issue);
+    }
+
+    void flush() {
+      if (currentComponentUuid != null && !currentIssues.isEmpty()) {
+        cache.put(currentComponentUuid, currentIssues, currentIssues.size());
+      }
+      currentIssues = new ArrayList<>();
+    }
+  }
+}
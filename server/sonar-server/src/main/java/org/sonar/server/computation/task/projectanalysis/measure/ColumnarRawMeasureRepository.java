@@ -0,0 +1,343 @@
+/*
+ * SonarQube
+ * Copyright (C) 2009-2017 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.server.computation.task.projectanalysis.measure;
+
+import com.google.common.base.Function;
+import com.google.common.base.Optional;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.ImmutableSetMultimap;
+import com.google.common.collect.SetMultimap;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import javax.annotation.CheckForNull;
+import javax.annotation.Nullable;
+import org.sonar.server.computation.task.projectanalysis.component.Component;
+import org.sonar.server.computation.task.projectanalysis.component.Developer;
+import org.sonar.server.computation.task.projectanalysis.measure.MapBasedRawMeasureRepository.OverridePolicy;
+import org.sonar.server.computation.task.projectanalysis.metric.Metric;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static java.lang.String.format;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Implementation of MeasureRepository which supports only raw measures and which behaves like
+ * {@link MapBasedRawMeasureRepository} with a much smaller memory footprint.
+ * <p>
+ * Components and metrics are interned to dense indexes. Measures which only hold a numeric value and an optional
+ * variation (by far the most frequent ones) are stored in primitive arrays, one set of arrays per metric indexed by
+ * component. They are rebuilt as {@link Measure} objects when read. Any other measure (data, string or level value,
+ * description, QualityGate status, developer) is kept as is in a sparse side store.
+ * </p>
+ *
+ * Intended to be used as a delegate of other MeasureRepository implementations (hence the final keyword).
+ */
+public final class ColumnarRawMeasureRepository<T> implements MeasureRepository {
+  private static final Measure.ValueType[] VALUE_TYPES = Measure.ValueType.values();
+
+  private final Function<Component, T> componentToKey;
+  private final Map<T, Integer> componentIndexes = new HashMap<>();
+  private final Map<String, MetricColumn> columns = new LinkedHashMap<>();
+  private final Map<T, Map<MeasureKey, Measure>> sparseMeasures = new HashMap<>();
+
+  public ColumnarRawMeasureRepository(Function<Component, T> componentToKey) {
+    this.componentToKey = requireNonNull(componentToKey);
+  }
+
+  /**
+   * @throws UnsupportedOperationException all the time, not supported
+   */
+  @Override
+  public Optional<Measure> getBaseMeasure(Component component, Metric metric) {
+    throw new UnsupportedOperationException("This implementation of MeasureRepository supports only raw measures");
+  }
+
+  @Override
+  public Optional<Measure> getRawMeasure(Component component, Metric metric) {
+    // fail fast
+    requireNonNull(component);
+    requireNonNull(metric);
+
+    return Optional.fromNullable(find(componentToKey.apply(component), metric.getKey(), null));
+  }
+
+  @Override
+  public void add(Component component, Metric metric, Measure measure) {
+    requireNonNull(component);
+    checkValueTypeConsistency(metric, measure);
+
+    if (find(componentToKey.apply(component), metric.getKey(), measure.getDeveloper()) != null) {
+      throw new UnsupportedOperationException(
+        format(
+          "a measure can be set only once for a specific Component (key=%s), Metric (key=%s). Use update method",
+          component.getKey(),
+          metric.getKey()));
+    }
+    add(component, metric, measure, OverridePolicy.OVERRIDE);
+  }
+
+  @Override
+  public void update(Component component, Metric metric, Measure measure) {
+    requireNonNull(component);
+    checkValueTypeConsistency(metric, measure);
+
+    if (find(componentToKey.apply(component), metric.getKey(), measure.getDeveloper()) == null) {
+      throw new UnsupportedOperationException(
+        format(
+          "a measure can be updated only if one already exists for a specific Component (key=%s), Metric (key=%s). Use add method",
+          component.getKey(),
+          metric.getKey()));
+    }
+    add(component, metric, measure, OverridePolicy.OVERRIDE);
+  }
+
+  private static void checkValueTypeConsistency(Metric metric, Measure measure) {
+    checkArgument(
+      measure.getValueType() == Measure.ValueType.NO_VALUE || measure.getValueType() == metric.getType().getValueType(),
+      format(
+        "Measure's ValueType (%s) is not consistent with the Metric's ValueType (%s)",
+        measure.getValueType(), metric.getType().getValueType()));
+  }
+
+  @Override
+  public Set<Measure> getRawMeasures(Component component, Metric metric) {
+    requireNonNull(metric);
+    requireNonNull(component);
+    T componentKey = componentToKey.apply(component);
+
+    ImmutableSet.Builder<Measure> builder = ImmutableSet.builder();
+    Measure columnarMeasure = getColumnar(componentKey, metric.getKey());
+    if (columnarMeasure != null) {
+      builder.add(columnarMeasure);
+    }
+    for (Map.Entry<MeasureKey, Measure> entry : getSparse(componentKey).entrySet()) {
+      if (entry.getKey().getMetricKey().equals(metric.getKey())) {
+        builder.add(entry.getValue());
+      }
+    }
+    return builder.build();
+  }
+
+  @Override
+  public SetMultimap<String, Measure> getRawMeasures(Component component) {
+    T componentKey = componentToKey.apply(component);
+
+    ImmutableSetMultimap.Builder<String, Measure> builder = ImmutableSetMultimap.builder();
+    Integer componentIndex = componentIndexes.get(componentKey);
+    if (componentIndex != null) {
+      for (MetricColumn column : columns.values()) {
+        Measure measure = column.get(componentIndex);
+        if (measure != null) {
+          builder.put(column.metricKey, measure);
+        }
+      }
+    }
+    for (Map.Entry<MeasureKey, Measure> entry : getSparse(componentKey).entrySet()) {
+      builder.put(entry.getKey().getMetricKey(), entry.getValue());
+    }
+    return builder.build();
+  }
+
+  public void add(Component component, Metric metric, Measure measure, OverridePolicy overridePolicy) {
+    requireNonNull(component);
+    requireNonNull(measure);
+    requireNonNull(overridePolicy);
+
+    T componentKey = componentToKey.apply(component);
+    String metricKey = metric.getKey();
+    Developer developer = measure.getDeveloper();
+    if (overridePolicy == OverridePolicy.DO_NOT_OVERRIDE && find(componentKey, metricKey, developer) != null) {
+      return;
+    }
+
+    if (isColumnar(measure)) {
+      removeSparse(componentKey, new MeasureKey(metricKey, null));
+      MetricColumn column = columns.computeIfAbsent(metricKey, MetricColumn::new);
+      column.set(componentIndexes.computeIfAbsent(componentKey, k -> componentIndexes.size()), measure);
+    } else {
+      if (developer == null) {
+        removeColumnar(componentKey, metricKey);
+      }
+      sparseMeasures.computeIfAbsent(componentKey, k -> new HashMap<>()).put(new MeasureKey(metricKey, developer), measure);
+    }
+  }
+
+  /**
+   * Only measures with a numeric value (or no value at all) and nothing but an optional variation can be stored
+   * in primitive arrays.
+   */
+  private static boolean isColumnar(Measure measure) {
+    switch (measure.getValueType()) {
+      case NO_VALUE:
+      case BOOLEAN:
+      case INT:
+      case LONG:
+      case DOUBLE:
+        return measure.getDeveloper() == null
+          && measure.getData() == null
+          && measure.getDescription() == null
+          && !measure.hasQualityGateStatus();
+      default:
+        return false;
+    }
+  }
+
+  @CheckForNull
+  private Measure find(T componentKey, String metricKey, @Nullable Developer developer) {
+    if (developer == null) {
+      Measure columnarMeasure = getColumnar(componentKey, metricKey);
+      if (columnarMeasure != null) {
+        return columnarMeasure;
+      }
+    }
+    return getSparse(componentKey).get(new MeasureKey(metricKey, developer));
+  }
+
+  @CheckForNull
+  private Measure getColumnar(T componentKey, String metricKey) {
+    Integer componentIndex = componentIndexes.get(componentKey);
+    MetricColumn column = columns.get(metricKey);
+    if (componentIndex == null || column == null) {
+      return null;
+    }
+    return column.get(componentIndex);
+  }
+
+  private void removeColumnar(T componentKey, String metricKey) {
+    Integer componentIndex = componentIndexes.get(componentKey);
+    MetricColumn column = columns.get(metricKey);
+    if (componentIndex != null && column != null) {
+      column.clear(componentIndex);
+    }
+  }
+
+  private Map<MeasureKey, Measure> getSparse(T componentKey) {
+    Map<MeasureKey, Measure> measures = sparseMeasures.get(componentKey);
+    return measures == null ? Collections.emptyMap() : measures;
+  }
+
+  private void removeSparse(T componentKey, MeasureKey measureKey) {
+    Map<MeasureKey, Measure> measures = sparseMeasures.get(componentKey);
+    if (measures != null) {
+      measures.remove(measureKey);
+    }
+  }
+
+  /**
+   * Values of a single metric, indexed by component. The state of each cell is encoded on a byte: {@code 0} when
+   * there is no measure, otherwise the ordinal of the {@link Measure.ValueType} plus one, with {@link #HAS_VARIATION}
+   * set when the measure has a variation. The array of variations is only allocated when needed.
+   */
+  private static final class MetricColumn {
+    private static final int INITIAL_CAPACITY = 64;
+    private static final byte ABSENT = 0;
+    private static final byte HAS_VARIATION = 0x40;
+    private static final byte VALUE_TYPE_MASK = 0x3F;
+
+    private final String metricKey;
+    private byte[] states = new byte[INITIAL_CAPACITY];
+    private double[] values = new double[INITIAL_CAPACITY];
+    @CheckForNull
+    private double[] variations;
+
+    private MetricColumn(String metricKey) {
+      this.metricKey = metricKey;
+    }
+
+    @CheckForNull
+    Measure get(int index) {
+      if (index >= states.length || states[index] == ABSENT) {
+        return null;
+      }
+      byte state = states[index];
+      Measure.NewMeasureBuilder builder = Measure.newMeasureBuilder();
+      if ((state & HAS_VARIATION) != 0) {
+        builder.setVariation(variations[index]);
+      }
+      double value = values[index];
+      Measure.ValueType valueType = VALUE_TYPES[(state & VALUE_TYPE_MASK) - 1];
+      switch (valueType) {
+        case NO_VALUE:
+          return builder.createNoValue();
+        case BOOLEAN:
+          return builder.create(value == 1.0d);
+        case INT:
+          return builder.create((int) value);
+        case LONG:
+          return builder.create((long) value);
+        case DOUBLE:
+          return builder.createScaled(value);
+        default:
+          throw new IllegalStateException("Unsupported value type in columnar storage: " + valueType);
+      }
+    }
+
+    void set(int index, Measure measure) {
+      ensureCapacity(index);
+      byte state = (byte) (measure.getValueType().ordinal() + 1);
+      values[index] = valueOf(measure);
+      if (measure.hasVariation()) {
+        if (variations == null) {
+          variations = new double[states.length];
+        }
+        variations[index] = measure.getVariation();
+        state |= HAS_VARIATION;
+      }
+      states[index] = state;
+    }
+
+    void clear(int index) {
+      if (index < states.length) {
+        states[index] = ABSENT;
+      }
+    }
+
+    private void ensureCapacity(int index) {
+      if (index < states.length) {
+        return;
+      }
+      int newLength = Math.max(states.length * 2, index + 1);
+      states = Arrays.copyOf(states, newLength);
+      values = Arrays.copyOf(values, newLength);
+      if (variations != null) {
+        variations = Arrays.copyOf(variations, newLength);
+      }
+    }
+
+    private static double valueOf(Measure measure) {
+      switch (measure.getValueType()) {
+        case BOOLEAN:
+          return measure.getBooleanValue() ? 1.0d : 0.0d;
+        case INT:
+          return measure.getIntValue();
+        case LONG:
+          return measure.getLongValue();
+        case DOUBLE:
+          return measure.getDoubleValue();
+        default:
+          return 0.0d;
+      }
+    }
+  }
+}
@@ -172,6 +172,15 @@ public final class Measure {
       return create(value, decimalScale, null);
     }
 
+    /**
+     * Creates a {@link ValueType#DOUBLE} measure from a value which has already been scaled, typically when the
+     * measure is read back from a storage which does not keep {@link Measure} objects.
+     */
+    Measure createScaled(double value) {
+      checkArgument(!Double.isNaN(value), "NaN is not allowed as a Measure value");
+      return new Measure(ValueType.DOUBLE, developer, value, null, null, description, qualityGateStatus, variation);
+    }
+
     public Measure create(String value) {
       return new Measure(ValueType.STRING, developer, null, requireNonNull(value), null, description, qualityGateStatus, variation);
     }
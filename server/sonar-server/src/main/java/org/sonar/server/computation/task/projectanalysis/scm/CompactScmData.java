@@ -0,0 +1,66 @@
+/*
+ * SonarQube
+ * Copyright (C) 2009-2017 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.server.computation.task.projectanalysis.scm;
+
+import java.util.HashMap;
+import java.util.Map;
+import javax.annotation.CheckForNull;
+import org.sonar.db.protobuf.DbFileSources;
+
+/**
+ * Builds the dictionary-encoded SCM data stored in column FILE_SOURCES.SCM_DATA, which allows to read SCM info
+ * of a file without decoding its whole source data (see {@link DbScmInfo}).
+ */
+public final class CompactScmData {
+
+  private CompactScmData() {
+    // only static methods
+  }
+
+  /**
+   * @return {@code null} if at least one line has no SCM info
+   */
+  @CheckForNull
+  public static DbFileSources.Scm encode(Iterable<DbFileSources.Line> lines) {
+    DbFileSources.Scm.Builder builder = DbFileSources.Scm.newBuilder();
+    Map<String, Integer> indexByRevision = new HashMap<>();
+    for (DbFileSources.Line line : lines) {
+      if (!line.hasScmRevision() || !line.hasScmDate()) {
+        return null;
+      }
+      Integer index = indexByRevision.get(line.getScmRevision());
+      if (index == null) {
+        index = builder.getChangesetCount();
+        indexByRevision.put(line.getScmRevision(), index);
+        DbFileSources.Scm.Changeset.Builder changeset = builder.addChangesetBuilder()
+          .setRevision(line.getScmRevision())
+          .setDate(line.getScmDate());
+        if (line.hasScmAuthor()) {
+          changeset.setAuthor(line.getScmAuthor());
+        }
+      }
+      builder.addChangesetIndexByLine(index);
+    }
+    if (builder.getChangesetIndexByLineCount() == 0) {
+      return null;
+    }
+    return builder.build();
+  }
+}
@@ -20,6 +20,7 @@
 package org.sonar.server.computation.task.projectanalysis.scm;
 
 import com.google.common.base.Optional;
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -61,6 +62,31 @@ class DbScmInfo implements ScmInfo {
     return Optional.of(new DbScmInfo(new ScmInfoImpl(lineChangesets)));
   }
 
+  /**
+   * Creates the ScmInfo from the dictionary-encoded SCM data built by {@link CompactScmData#encode(Iterable)}
+   */
+  static Optional<ScmInfo> create(Component component, DbFileSources.Scm scm) {
+    if (scm.getChangesetIndexByLineCount() == 0) {
+      return Optional.absent();
+    }
+    Changeset.Builder builder = Changeset.newChangesetBuilder();
+    Changeset[] changesets = new Changeset[scm.getChangesetCount()];
+    for (int i = 0; i < changesets.length; i++) {
+      DbFileSources.Scm.Changeset changeset = scm.getChangeset(i);
+      changesets[i] = builder
+        .setRevision(changeset.getRevision())
+        .setAuthor(changeset.hasAuthor() ? changeset.getAuthor() : null)
+        .setDate(changeset.getDate())
+        .build();
+    }
+    List<Changeset> lineChangesets = new ArrayList<>(scm.getChangesetIndexByLineCount());
+    for (int index : scm.getChangesetIndexByLineList()) {
+      checkState(index >= 0 && index < changesets.length, "Invalid scm information stored in DB for component '%s'", component);
+      lineChangesets.add(changesets[index]);
+    }
+    return Optional.of(new DbScmInfo(new ScmInfoImpl(lineChangesets)));
+  }
+
   @Override
   public Changeset getLatestChangeset() {
     return delegate.getLatestChangeset();
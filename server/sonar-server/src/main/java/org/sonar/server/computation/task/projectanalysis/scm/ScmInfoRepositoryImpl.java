@@ -21,16 +21,20 @@ package org.sonar.server.computation.task.projectanalysis.scm;
 
 import com.google.common.base.Optional;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.Map;
+import javax.annotation.CheckForNull;
 import org.sonar.api.utils.log.Logger;
 import org.sonar.api.utils.log.Loggers;
 import org.sonar.db.DbClient;
 import org.sonar.db.DbSession;
+import org.sonar.db.protobuf.DbFileSources;
 import org.sonar.db.source.FileSourceDto;
 import org.sonar.scanner.protocol.output.ScannerReport;
 import org.sonar.server.computation.task.projectanalysis.analysis.AnalysisMetadataHolder;
 import org.sonar.server.computation.task.projectanalysis.batch.BatchReportReader;
 import org.sonar.server.computation.task.projectanalysis.component.Component;
+import org.sonar.server.computation.task.projectanalysis.component.TreeRootHolder;
 import org.sonar.server.computation.task.projectanalysis.source.SourceHashRepository;
 
 import static java.util.Objects.requireNonNull;
@@ -38,19 +42,38 @@ import static java.util.Objects.requireNonNull;
 public class ScmInfoRepositoryImpl implements ScmInfoRepository {
 
   private static final Logger LOGGER = Loggers.get(ScmInfoRepositoryImpl.class);
+  private static final int CACHE_SIZE = 1_000;
 
   private final BatchReportReader batchReportReader;
   private final AnalysisMetadataHolder analysisMetadataHolder;
   private final DbClient dbClient;
   private final SourceHashRepository sourceHashRepository;
+  private final TreeRootHolder treeRootHolder;
 
-  private final Map<Component, ScmInfo> scmInfoCache = new HashMap<>();
+  /**
+   * ScmInfo are kept only for the most recently used files, as they are cheap to rebuild from the report or from
+   * {@link #dbScmDataByFileUuid}.
+   */
+  private final Map<Component, ScmInfo> scmInfoCache = new LinkedHashMap<Component, ScmInfo>(16, 0.75F, true) {
+    @Override
+    protected boolean removeEldestEntry(Map.Entry<Component, ScmInfo> eldest) {
+      return size() > CACHE_SIZE;
+    }
+  };
 
-  public ScmInfoRepositoryImpl(BatchReportReader batchReportReader, AnalysisMetadataHolder analysisMetadataHolder, DbClient dbClient, SourceHashRepository sourceHashRepository) {
+  /**
+   * SCM data and source hashes of all the files of the project, loaded from database on first use
+   */
+  @CheckForNull
+  private Map<String, FileSourceDto> dbScmDataByFileUuid;
+
+  public ScmInfoRepositoryImpl(BatchReportReader batchReportReader, AnalysisMetadataHolder analysisMetadataHolder, DbClient dbClient,
+    SourceHashRepository sourceHashRepository, TreeRootHolder treeRootHolder) {
     this.batchReportReader = batchReportReader;
     this.analysisMetadataHolder = analysisMetadataHolder;
     this.dbClient = dbClient;
     this.sourceHashRepository = sourceHashRepository;
+    this.treeRootHolder = treeRootHolder;
   }
 
   @Override
@@ -98,13 +121,36 @@ public class ScmInfoRepositoryImpl implements ScmInfoRepository {
     }
 
     LOGGER.trace("Reading SCM info from db for file '{}'", file.getKey());
+    FileSourceDto dto = loadDbScmData().get(file.getUuid());
+    if (dto == null || !sourceHashRepository.getRawSourceHash(file).equals(dto.getSrcHash())) {
+      return NoScmInfo.INSTANCE;
+    }
+    DbFileSources.Scm scm = dto.getScm();
+    if (scm != null) {
+      return DbScmInfo.create(file, scm).or(NoScmInfo.INSTANCE);
+    }
+    // SCM data has not been persisted in the compact format yet, source data must be decoded
     try (DbSession dbSession = dbClient.openSession(false)) {
-      FileSourceDto dto = dbClient.fileSourceDao().selectSourceByFileUuid(dbSession, file.getUuid());
-      if (dto == null || !sourceHashRepository.getRawSourceHash(file).equals(dto.getSrcHash())) {
+      FileSourceDto sourceDto = dbClient.fileSourceDao().selectSourceByFileUuid(dbSession, file.getUuid());
+      if (sourceDto == null) {
         return NoScmInfo.INSTANCE;
       }
-      return DbScmInfo.create(file, dto.getSourceData().getLinesList()).or(NoScmInfo.INSTANCE);
+      return DbScmInfo.create(file, sourceDto.getSourceData().getLinesList()).or(NoScmInfo.INSTANCE);
+    }
+  }
+
+  private Map<String, FileSourceDto> loadDbScmData() {
+    if (dbScmDataByFileUuid == null) {
+      Map<String, FileSourceDto> result = new HashMap<>();
+      try (DbSession dbSession = dbClient.openSession(false)) {
+        dbClient.fileSourceDao().scrollScmByProjectUuid(dbSession, treeRootHolder.getRoot().getUuid(), context -> {
+          FileSourceDto dto = (FileSourceDto) context.getResultObject();
+          result.put(dto.getFileUuid(), dto);
+        });
+      }
+      dbScmDataByFileUuid = result;
     }
+    return dbScmDataByFileUuid;
   }
 
   private static ScmInfo getScmInfoFromReport(Component file, ScannerReport.Changesets changesets) {
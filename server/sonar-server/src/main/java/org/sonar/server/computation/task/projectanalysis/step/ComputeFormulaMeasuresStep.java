@@ -0,0 +1,102 @@
+/*
+ * SonarQube
+ * Copyright (C) 2009-2017 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.server.computation.task.projectanalysis.step;
+
+import com.google.common.collect.ImmutableList;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import org.sonar.server.computation.task.projectanalysis.component.ComponentVisitor;
+import org.sonar.server.computation.task.projectanalysis.component.TreeRootHolder;
+import org.sonar.server.computation.task.projectanalysis.component.VisitorsCrawler;
+import org.sonar.server.computation.task.projectanalysis.formula.Formula;
+import org.sonar.server.computation.task.projectanalysis.formula.FormulaExecutorComponentVisitor;
+import org.sonar.server.computation.task.projectanalysis.measure.MeasureRepository;
+import org.sonar.server.computation.task.projectanalysis.metric.MetricRepository;
+import org.sonar.server.computation.task.projectanalysis.period.PeriodHolder;
+import org.sonar.server.computation.task.step.ComputationStep;
+
+import static com.google.common.base.Preconditions.checkState;
+
+/**
+ * Execute the formulas of all the {@link FormulaComputationStep}s in a single traversal of the component tree.
+ * <p>
+ * Steps are processed in the order in which they used to be executed one after the other: on each component, the visitors
+ * of the steps are executed first, then the formulas in the order of the steps. A formula can then read on files the
+ * measures created by the visitors and by the formulas of the previous steps.
+ * </p>
+ */
+public class ComputeFormulaMeasuresStep implements ComputationStep {
+
+  private final TreeRootHolder treeRootHolder;
+  private final MetricRepository metricRepository;
+  private final MeasureRepository measureRepository;
+  private final PeriodHolder periodHolder;
+  private final List<FormulaComputationStep> steps;
+
+  public ComputeFormulaMeasuresStep(TreeRootHolder treeRootHolder, MetricRepository metricRepository, MeasureRepository measureRepository,
+    PeriodHolder periodHolder, SizeMeasuresStep sizeMeasuresStep, NewCoverageMeasuresStep newCoverageMeasuresStep,
+    CoverageMeasuresStep coverageMeasuresStep, CommentMeasuresStep commentMeasuresStep, DuplicationMeasuresStep duplicationMeasuresStep,
+    NewSizeMeasuresStep newSizeMeasuresStep, LanguageDistributionMeasuresStep languageDistributionMeasuresStep,
+    UnitTestMeasuresStep unitTestMeasuresStep, ComplexityMeasuresStep complexityMeasuresStep) {
+    this(treeRootHolder, metricRepository, measureRepository, periodHolder, ImmutableList.of(sizeMeasuresStep, newCoverageMeasuresStep, coverageMeasuresStep,
+      commentMeasuresStep, duplicationMeasuresStep, newSizeMeasuresStep, languageDistributionMeasuresStep, unitTestMeasuresStep, complexityMeasuresStep));
+  }
+
+  ComputeFormulaMeasuresStep(TreeRootHolder treeRootHolder, MetricRepository metricRepository, MeasureRepository measureRepository,
+    PeriodHolder periodHolder, List<FormulaComputationStep> steps) {
+    this.treeRootHolder = treeRootHolder;
+    this.metricRepository = metricRepository;
+    this.measureRepository = measureRepository;
+    this.periodHolder = periodHolder;
+    this.steps = steps;
+  }
+
+  @Override
+  public void execute() {
+    List<ComponentVisitor> visitors = new ArrayList<>();
+    List<Formula> formulas = new ArrayList<>();
+    for (FormulaComputationStep step : steps) {
+      visitors.addAll(step.createVisitors());
+      formulas.addAll(step.getFormulas());
+    }
+    checkOutputMetricsAreUnique(formulas);
+    visitors.add(FormulaExecutorComponentVisitor.newBuilder(metricRepository, measureRepository)
+      .withVariationSupport(periodHolder)
+      .buildFor(formulas));
+
+    new VisitorsCrawler(visitors).visit(treeRootHolder.getRoot());
+  }
+
+  private static void checkOutputMetricsAreUnique(List<Formula> formulas) {
+    Set<String> metricKeys = new HashSet<>();
+    for (Formula formula : formulas) {
+      for (String metricKey : formula.getOutputMetricKeys()) {
+        checkState(metricKeys.add(metricKey), "Metric '%s' is computed by more than one formula", metricKey);
+      }
+    }
+  }
+
+  @Override
+  public String getDescription() {
+    return "Compute measures with formulas";
+  }
+}
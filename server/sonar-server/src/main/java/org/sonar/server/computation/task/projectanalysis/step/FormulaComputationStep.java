@@ -0,0 +1,47 @@
+/*
+ * SonarQube
+ * Copyright (C) 2009-2017 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.server.computation.task.projectanalysis.step;
+
+import java.util.Collections;
+import java.util.List;
+import org.sonar.server.computation.task.projectanalysis.component.ComponentVisitor;
+import org.sonar.server.computation.task.projectanalysis.formula.Formula;
+import org.sonar.server.computation.task.step.ComputationStep;
+
+/**
+ * A {@link ComputationStep} which computes measures with {@link Formula}s. When processing a report, the formulas
+ * of all these steps are executed together by {@link ComputeFormulaMeasuresStep}, in a single traversal of the
+ * component tree.
+ */
+public interface FormulaComputationStep extends ComputationStep {
+
+  /**
+   * Formulas of the step, in order of execution.
+   */
+  List<Formula> getFormulas();
+
+  /**
+   * Visitors which must visit each component before the formulas, for example to create the measures that the
+   * formulas read on files. They are created for a single traversal of the tree.
+   */
+  default List<ComponentVisitor> createVisitors() {
+    return Collections.emptyList();
+  }
+}
@@ -20,9 +20,22 @@
 package org.sonar.server.computation.task.projectanalysis.step;
 
 import com.google.common.base.Function;
+import com.google.common.collect.ArrayListMultimap;
+import com.google.common.collect.Multimap;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Collectors;
 import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import org.sonar.api.config.Settings;
 import org.sonar.api.utils.log.Logger;
 import org.sonar.api.utils.log.Loggers;
 import org.sonar.db.DbClient;
@@ -58,28 +71,47 @@ public class LoadCrossProjectDuplicationsRepositoryStep implements ComputationSt
 
   private static final Logger LOGGER = Loggers.get(LoadCrossProjectDuplicationsRepositoryStep.class);
 
+  /**
+   * Maximum number of blocks of the analysis report kept in memory while waiting for the loading of their candidates.
+   */
+  static final String PROPERTY_MAX_BLOCKS_PER_BATCH = "sonar.cpd.crossProject.maxBlocksPerBatch";
+  static final int DEFAULT_MAX_BLOCKS_PER_BATCH = 50_000;
+
+  /**
+   * Maximum number of candidates loaded in memory for a batch of files. When reached, the batch is split in two.
+   */
+  static final String PROPERTY_MAX_CANDIDATES_PER_BATCH = "sonar.cpd.crossProject.maxCandidatesPerBatch";
+  static final int DEFAULT_MAX_CANDIDATES_PER_BATCH = 500_000;
+
   private final TreeRootHolder treeRootHolder;
   private final BatchReportReader reportReader;
   private final AnalysisMetadataHolder analysisMetadataHolder;
   private final IntegrateCrossProjectDuplications integrateCrossProjectDuplications;
   private final CrossProjectDuplicationStatusHolder crossProjectDuplicationStatusHolder;
   private final DbClient dbClient;
+  private final int maxBlocksPerBatch;
+  private final int maxCandidatesPerBatch;
 
   public LoadCrossProjectDuplicationsRepositoryStep(TreeRootHolder treeRootHolder, BatchReportReader reportReader,
     AnalysisMetadataHolder analysisMetadataHolder, CrossProjectDuplicationStatusHolder crossProjectDuplicationStatusHolder,
-    IntegrateCrossProjectDuplications integrateCrossProjectDuplications, DbClient dbClient) {
+    IntegrateCrossProjectDuplications integrateCrossProjectDuplications, DbClient dbClient, Settings settings) {
     this.treeRootHolder = treeRootHolder;
     this.reportReader = reportReader;
     this.analysisMetadataHolder = analysisMetadataHolder;
     this.integrateCrossProjectDuplications = integrateCrossProjectDuplications;
     this.crossProjectDuplicationStatusHolder = crossProjectDuplicationStatusHolder;
     this.dbClient = dbClient;
+    this.maxBlocksPerBatch = settings.hasKey(PROPERTY_MAX_BLOCKS_PER_BATCH) ? settings.getInt(PROPERTY_MAX_BLOCKS_PER_BATCH) : DEFAULT_MAX_BLOCKS_PER_BATCH;
+    this.maxCandidatesPerBatch = settings.hasKey(PROPERTY_MAX_CANDIDATES_PER_BATCH) ? settings.getInt(PROPERTY_MAX_CANDIDATES_PER_BATCH)
+      : DEFAULT_MAX_CANDIDATES_PER_BATCH;
   }
 
   @Override
   public void execute() {
     if (crossProjectDuplicationStatusHolder.isEnabled()) {
-      new DepthTraversalTypeAwareCrawler(new CrossProjectDuplicationVisitor()).visit(treeRootHolder.getRoot());
+      CrossProjectDuplicationVisitor visitor = new CrossProjectDuplicationVisitor();
+      new DepthTraversalTypeAwareCrawler(visitor).visit(treeRootHolder.getRoot());
+      visitor.flush();
     }
   }
 
@@ -88,8 +120,16 @@ public class LoadCrossProjectDuplicationsRepositoryStep implements ComputationSt
     return "Compute cross project duplications";
   }
 
+  /**
+   * Files are buffered by language until the number of their blocks reaches {@link #maxBlocksPerBatch}. Candidates
+   * of all the buffered files are then loaded at once, by sorted hashes, and dispatched back to files. If the candidates
+   * of a batch exceed {@link #maxCandidatesPerBatch}, their loading is stopped and each half of the batch is processed
+   * separately, except when the batch has a single file.
+   */
   private class CrossProjectDuplicationVisitor extends TypeAwareVisitorAdapter {
 
+    private final Map<String, FileBatch> batchesByLanguage = new HashMap<>();
+
     private CrossProjectDuplicationVisitor() {
       super(CrawlerDepthLimit.FILE, PRE_ORDER);
     }
@@ -102,34 +142,109 @@ public class LoadCrossProjectDuplicationsRepositoryStep implements ComputationSt
         return;
       }
 
-      Collection<String> hashes = from(cpdTextBlocks).transform(CpdTextBlockToHash.INSTANCE).toList();
-      List<DuplicationUnitDto> dtos = selectDuplicates(file, hashes);
-      if (dtos.isEmpty()) {
+      String language = file.getFileAttributes().getLanguageKey();
+      FileBatch batch = batchesByLanguage.computeIfAbsent(language, FileBatch::new);
+      batch.add(file, cpdTextBlocks);
+      if (batch.blockCount >= maxBlocksPerBatch) {
+        batchesByLanguage.remove(language);
+        process(batch);
+      }
+    }
+
+    private void flush() {
+      batchesByLanguage.values().forEach(this::process);
+      batchesByLanguage.clear();
+    }
+
+    private void process(FileBatch batch) {
+      Optional<Multimap<String, DuplicationUnitDto>> candidates = selectCandidates(batch);
+      if (!candidates.isPresent()) {
+        LOGGER.debug("More than {} cross project duplication candidates for {} files, batch is split", maxCandidatesPerBatch, batch.blocksByFile.size());
+        batch.split().forEach(this::process);
+        return;
+      }
+      Multimap<String, DuplicationUnitDto> candidatesByHash = candidates.get();
+      if (candidatesByHash.isEmpty()) {
+        return;
+      }
+      for (Map.Entry<Component, List<CpdTextBlock>> entry : batch.blocksByFile.entrySet()) {
+        computeCpd(entry.getKey(), entry.getValue(), candidatesByHash);
+      }
+    }
+
+    private void computeCpd(Component file, List<CpdTextBlock> cpdTextBlocks, Multimap<String, DuplicationUnitDto> candidatesByHash) {
+      Set<String> hashes = cpdTextBlocks.stream().map(CpdTextBlock::getHash).collect(Collectors.toCollection(LinkedHashSet::new));
+      List<Block> duplicatedBlocks = hashes.stream()
+        .flatMap(hash -> candidatesByHash.get(hash).stream())
+        .map(DtoToBlock.INSTANCE::apply)
+        .collect(Collectors.toList());
+      if (duplicatedBlocks.isEmpty()) {
         return;
       }
 
-      Collection<Block> duplicatedBlocks = from(dtos).transform(DtoToBlock.INSTANCE).toList();
       Collection<Block> originBlocks = from(cpdTextBlocks).transform(new CpdTextBlockToBlock(file.getKey())).toList();
       LOGGER.trace("Found {} duplicated cpd blocks on file {}", duplicatedBlocks.size(), file.getKey());
 
       integrateCrossProjectDuplications.computeCpd(file, originBlocks, duplicatedBlocks);
     }
 
-    private List<DuplicationUnitDto> selectDuplicates(Component file, Collection<String> hashes) {
+    /**
+     * @return the candidates by hash, or {@link Optional#empty()} if the batch has many files and their candidates
+     * exceed {@link #maxCandidatesPerBatch}
+     */
+    private Optional<Multimap<String, DuplicationUnitDto>> selectCandidates(FileBatch batch) {
+      List<String> hashes = batch.blocksByFile.values().stream()
+        .flatMap(List::stream)
+        .map(CpdTextBlock::getHash)
+        .distinct()
+        .sorted()
+        .collect(Collectors.toList());
+      boolean splittable = batch.blocksByFile.size() > 1;
+      Multimap<String, DuplicationUnitDto> candidatesByHash = ArrayListMultimap.create();
+      boolean[] overflow = {false};
       try (DbSession dbSession = dbClient.openSession(false)) {
         Analysis projectAnalysis = analysisMetadataHolder.getBaseAnalysis();
         String analysisUuid = projectAnalysis == null ? null : projectAnalysis.getUuid();
-        return dbClient.duplicationDao().selectCandidates(dbSession, analysisUuid, file.getFileAttributes().getLanguageKey(), hashes);
+        dbClient.duplicationDao().scrollCandidates(dbSession, analysisUuid, batch.language, hashes, context -> {
+          if (splittable && candidatesByHash.size() >= maxCandidatesPerBatch) {
+            overflow[0] = true;
+            context.stop();
+            return;
+          }
+          DuplicationUnitDto dto = (DuplicationUnitDto) context.getResultObject();
+          candidatesByHash.put(dto.getHash(), dto);
+        });
+      }
+      if (overflow[0]) {
+        return Optional.empty();
       }
+      LOGGER.debug("Loaded {} cross project duplication candidates for {} hashes of {} files", candidatesByHash.size(), hashes.size(), batch.blocksByFile.size());
+      return Optional.of(candidatesByHash);
     }
   }
 
-  private enum CpdTextBlockToHash implements Function<CpdTextBlock, String> {
-    INSTANCE;
+  private static class FileBatch {
+    private final String language;
+    private final Map<Component, List<CpdTextBlock>> blocksByFile = new LinkedHashMap<>();
+    private int blockCount = 0;
 
-    @Override
-    public String apply(@Nonnull CpdTextBlock duplicationBlock) {
-      return duplicationBlock.getHash();
+    private FileBatch(@Nullable String language) {
+      this.language = language;
+    }
+
+    private void add(Component file, List<CpdTextBlock> cpdTextBlocks) {
+      blocksByFile.put(file, cpdTextBlocks);
+      blockCount += cpdTextBlocks.size();
+    }
+
+    private List<FileBatch> split() {
+      List<Map.Entry<Component, List<CpdTextBlock>>> entries = new ArrayList<>(blocksByFile.entrySet());
+      int middle = entries.size() / 2;
+      FileBatch first = new FileBatch(language);
+      entries.subList(0, middle).forEach(entry -> first.add(entry.getKey(), entry.getValue()));
+      FileBatch second = new FileBatch(language);
+      entries.subList(middle, entries.size()).forEach(entry -> second.add(entry.getKey(), entry.getValue()));
+      return Arrays.asList(first, second);
     }
   }
 
@@ -53,14 +53,13 @@ import org.sonar.server.computation.task.projectanalysis.period.Period;
 import org.sonar.server.computation.task.projectanalysis.period.PeriodHolder;
 import org.sonar.server.computation.task.projectanalysis.scm.ScmInfo;
 import org.sonar.server.computation.task.projectanalysis.scm.ScmInfoRepository;
-import org.sonar.server.computation.task.step.ComputationStep;
 
 import static org.sonar.server.computation.task.projectanalysis.measure.Measure.newMeasureBuilder;
 
 /**
  * Computes measures related to the New Coverage. These measures do not have values, only variations.
  */
-public class NewCoverageMeasuresStep implements ComputationStep {
+public class NewCoverageMeasuresStep implements FormulaComputationStep {
 
   private static final List<Formula> FORMULAS = ImmutableList.of(
     // UT coverage
@@ -99,14 +98,18 @@ public class NewCoverageMeasuresStep implements ComputationStep {
     this.scmInfoRepository = null;
   }
 
+  @Override
+  public List<Formula> getFormulas() {
+    return ImmutableList.<Formula>copyOf(Iterables.<Formula>concat(NewLinesAndConditionsCoverageFormula.from(scmInfoRepository), FORMULAS));
+  }
+
   @Override
   public void execute() {
     new PathAwareCrawler<>(
       FormulaExecutorComponentVisitor.newBuilder(metricRepository, measureRepository)
         .withVariationSupport(periodHolder)
-        .buildFor(
-          Iterables.concat(NewLinesAndConditionsCoverageFormula.from(scmInfoRepository), FORMULAS)))
-            .visit(treeRootHolder.getRoot());
+        .buildFor(getFormulas()))
+          .visit(treeRootHolder.getRoot());
   }
 
   @Override
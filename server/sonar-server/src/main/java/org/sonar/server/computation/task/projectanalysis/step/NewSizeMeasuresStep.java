@@ -23,6 +23,7 @@ import com.google.common.base.Optional;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.Iterables;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Set;
 import java.util.stream.IntStream;
 import java.util.stream.StreamSupport;
@@ -47,7 +48,6 @@ import org.sonar.server.computation.task.projectanalysis.period.PeriodHolder;
 import org.sonar.server.computation.task.projectanalysis.scm.Changeset;
 import org.sonar.server.computation.task.projectanalysis.scm.ScmInfo;
 import org.sonar.server.computation.task.projectanalysis.scm.ScmInfoRepository;
-import org.sonar.server.computation.task.step.ComputationStep;
 
 import static org.sonar.api.measures.CoreMetrics.NEW_BLOCKS_DUPLICATED_KEY;
 import static org.sonar.api.measures.CoreMetrics.NEW_DUPLICATED_LINES_DENSITY_KEY;
@@ -57,7 +57,7 @@ import static org.sonar.api.measures.CoreMetrics.NEW_LINES_KEY;
 /**
  * Computes measures on new code related to the size
  */
-public class NewSizeMeasuresStep implements ComputationStep {
+public class NewSizeMeasuresStep implements FormulaComputationStep {
 
   private final TreeRootHolder treeRootHolder;
   private final PeriodHolder periodHolder;
@@ -79,12 +79,17 @@ public class NewSizeMeasuresStep implements ComputationStep {
     return "Compute size measures on new code";
   }
 
+  @Override
+  public List<Formula> getFormulas() {
+    return ImmutableList.<Formula>of(duplicationFormula);
+  }
+
   @Override
   public void execute() {
     new PathAwareCrawler<>(
       FormulaExecutorComponentVisitor.newBuilder(metricRepository, measureRepository)
         .withVariationSupport(periodHolder)
-        .buildFor(ImmutableList.of(duplicationFormula)))
+        .buildFor(getFormulas()))
           .visit(treeRootHolder.getRoot());
   }
 
@@ -20,6 +20,7 @@
 package org.sonar.server.computation.task.projectanalysis.step;
 
 import org.sonar.core.util.CloseableIterator;
+import org.sonar.db.BulkInserter;
 import org.sonar.db.DbClient;
 import org.sonar.db.DbSession;
 import org.sonar.db.duplication.DuplicationUnitDto;
@@ -63,21 +64,24 @@ public class PersistCrossProjectDuplicationIndexStep implements ComputationStep
       return;
     }
 
-    try (DbSession dbSession = dbClient.openSession(true)) {
+    try (DbSession dbSession = dbClient.openSession(false)) {
       Component project = treeRootHolder.getRoot();
-      new DepthTraversalTypeAwareCrawler(new DuplicationVisitor(dbSession, analysisMetadataHolder.getUuid())).visit(project);
-      dbSession.commit();
+      try (BulkInserter<DuplicationUnitDto> inserter = dbClient.duplicationDao().newBulkInserter(dbSession)) {
+        new DepthTraversalTypeAwareCrawler(new DuplicationVisitor(inserter, analysisMetadataHolder.getUuid())).visit(project);
+      }
+      // rows are not inserted through MyBatis, so commit must be forced
+      dbSession.commit(true);
     }
   }
 
   private class DuplicationVisitor extends TypeAwareVisitorAdapter {
 
-    private final DbSession session;
+    private final BulkInserter<DuplicationUnitDto> inserter;
     private final String analysisUuid;
 
-    private DuplicationVisitor(DbSession session, String analysisUuid) {
+    private DuplicationVisitor(BulkInserter<DuplicationUnitDto> inserter, String analysisUuid) {
       super(CrawlerDepthLimit.FILE, PRE_ORDER);
-      this.session = session;
+      this.inserter = inserter;
       this.analysisUuid = analysisUuid;
     }
 
@@ -92,8 +96,7 @@ public class PersistCrossProjectDuplicationIndexStep implements ComputationStep
       try {
         while (blocks.hasNext()) {
           ScannerReport.CpdTextBlock block = blocks.next();
-          dbClient.duplicationDao().insert(
-            session,
+          inserter.add(
             new DuplicationUnitDto()
               .setHash(block.getHash())
               .setStartLine(block.getStartLine())
@@ -25,6 +25,7 @@ import org.sonar.core.issue.DefaultIssue;
 import org.sonar.core.issue.DefaultIssueComment;
 import org.sonar.core.issue.FieldDiffs;
 import org.sonar.core.util.CloseableIterator;
+import org.sonar.db.BulkInserter;
 import org.sonar.db.DbClient;
 import org.sonar.db.DbSession;
 import org.sonar.db.issue.IssueChangeDto;
@@ -60,21 +61,24 @@ public class PersistIssuesStep implements ComputationStep {
 
       IssueMapper mapper = dbSession.getMapper(IssueMapper.class);
       IssueChangeMapper changeMapper = dbSession.getMapper(IssueChangeMapper.class);
-      while (issues.hasNext()) {
-        DefaultIssue issue = issues.next();
-        boolean saved = persistIssueIfRequired(mapper, issue);
-        if (saved) {
-          insertChanges(changeMapper, issue);
+      try (BulkInserter<IssueDto> inserter = dbClient.issueDao().newBulkInserter(dbSession)) {
+        while (issues.hasNext()) {
+          DefaultIssue issue = issues.next();
+          boolean saved = persistIssueIfRequired(inserter, mapper, issue);
+          if (saved) {
+            insertChanges(changeMapper, issue);
+          }
         }
       }
       dbSession.flushStatements();
-      dbSession.commit();
+      // new issues are not inserted through MyBatis, so commit must be forced
+      dbSession.commit(true);
     }
   }
 
-  private boolean persistIssueIfRequired(IssueMapper mapper, DefaultIssue issue) {
+  private boolean persistIssueIfRequired(BulkInserter<IssueDto> inserter, IssueMapper mapper, DefaultIssue issue) {
     if (issue.isNew()) {
-      persistNewIssue(mapper, issue);
+      persistNewIssue(inserter, issue);
       return true;
     }
     if (issue.isChanged()) {
@@ -84,10 +88,9 @@ public class PersistIssuesStep implements ComputationStep {
     return false;
   }
 
-  private void persistNewIssue(IssueMapper mapper, DefaultIssue issue) {
+  private void persistNewIssue(BulkInserter<IssueDto> inserter, DefaultIssue issue) {
     Integer ruleId = ruleRepository.getByKey(issue.ruleKey()).getId();
-    IssueDto dto = IssueDto.toDtoForComputationInsert(issue, ruleId, system2.now());
-    mapper.insert(dto);
+    inserter.add(IssueDto.toDtoForComputationInsert(issue, ruleId, system2.now()));
   }
 
   private void persistChangedIssue(IssueMapper mapper, DefaultIssue issue) {
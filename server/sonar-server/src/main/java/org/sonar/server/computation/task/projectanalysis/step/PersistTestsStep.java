@@ -26,7 +26,7 @@ import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.Multimap;
 import com.google.common.collect.Table;
 import java.util.ArrayList;
-import java.util.Collection;
+import java.util.BitSet;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
@@ -36,6 +36,7 @@ import org.sonar.api.utils.System2;
 import org.sonar.api.utils.log.Logger;
 import org.sonar.api.utils.log.Loggers;
 import org.sonar.core.util.CloseableIterator;
+import org.sonar.core.util.LineRanges;
 import org.sonar.core.util.Uuids;
 import org.sonar.db.DbClient;
 import org.sonar.db.DbSession;
@@ -116,7 +117,7 @@ public class PersistTestsStep implements ComputationStep {
 
     private void persistTestResults(Component component) {
       Multimap<String, DbFileSources.Test.Builder> testsByName = buildDbTests(component.getReportAttributes().getRef());
-      Table<String, String, DbFileSources.Test.CoveredFile.Builder> coveredFilesByName = loadCoverageDetails(component.getReportAttributes().getRef());
+      Table<String, String, BitSet> coveredFilesByName = loadCoverageDetails(component.getReportAttributes().getRef());
       List<DbFileSources.Test> tests = addCoveredFilesToTests(testsByName, coveredFilesByName);
       if (checkIfThereAreUnprocessedCoverageDetails(testsByName, coveredFilesByName, component.getKey())) {
         hasUnprocessedCoverageDetails = true;
@@ -149,7 +150,7 @@ public class PersistTestsStep implements ComputationStep {
     }
 
     private boolean checkIfThereAreUnprocessedCoverageDetails(Multimap<String, DbFileSources.Test.Builder> testsByName,
-                                                              Table<String, String, DbFileSources.Test.CoveredFile.Builder> coveredFilesByName, String componentKey) {
+                                                              Table<String, String, BitSet> coveredFilesByName, String componentKey) {
       Set<String> unprocessedCoverageDetailNames = new HashSet<>(coveredFilesByName.rowKeySet());
       unprocessedCoverageDetailNames.removeAll(testsByName.keySet());
       boolean hasUnprocessedCoverage = !unprocessedCoverageDetailNames.isEmpty();
@@ -160,14 +161,13 @@ public class PersistTestsStep implements ComputationStep {
     }
 
     private List<DbFileSources.Test> addCoveredFilesToTests(Multimap<String, DbFileSources.Test.Builder> testsByName,
-                                                            Table<String, String, DbFileSources.Test.CoveredFile.Builder> coveredFilesByName) {
+                                                            Table<String, String, BitSet> coveredFilesByName) {
       List<DbFileSources.Test> tests = new ArrayList<>();
       for (DbFileSources.Test.Builder test : testsByName.values()) {
-        Collection<DbFileSources.Test.CoveredFile.Builder> coveredFiles = coveredFilesByName.row(test.getName()).values();
-        if (!coveredFiles.isEmpty()) {
-          for (DbFileSources.Test.CoveredFile.Builder coveredFile : coveredFiles) {
-            test.addCoveredFile(coveredFile);
-          }
+        for (Map.Entry<String, BitSet> coveredFile : coveredFilesByName.row(test.getName()).entrySet()) {
+          test.addCoveredFile(DbFileSources.Test.CoveredFile.newBuilder()
+            .setFileUuid(coveredFile.getKey())
+            .addAllCoveredLineRange(LineRanges.encode(coveredFile.getValue())));
         }
         tests.add(test.build());
       }
@@ -203,10 +203,10 @@ public class PersistTestsStep implements ComputationStep {
     }
 
     /**
-     * returns a Table of (test name, main file uuid, covered file)
+     * returns a Table of (test name, main file uuid, covered lines)
      */
-    private Table<String, String, DbFileSources.Test.CoveredFile.Builder> loadCoverageDetails(int testFileRef) {
-      Table<String, String, DbFileSources.Test.CoveredFile.Builder> nameToCoveredFiles = HashBasedTable.create();
+    private Table<String, String, BitSet> loadCoverageDetails(int testFileRef) {
+      Table<String, String, BitSet> nameToCoveredFiles = HashBasedTable.create();
 
       try (CloseableIterator<ScannerReport.CoverageDetail> coverageIterator = reportReader.readCoverageDetails(testFileRef)) {
         while (coverageIterator.hasNext()) {
@@ -220,21 +220,15 @@ public class PersistTestsStep implements ComputationStep {
       return nameToCoveredFiles;
     }
 
-    private void loadCoverageFile(ScannerReport.CoverageDetail.CoveredFile batchCoveredFile, String testName, Table<String, String,
-      DbFileSources.Test.CoveredFile.Builder> nameToCoveredFiles) {
+    private void loadCoverageFile(ScannerReport.CoverageDetail.CoveredFile batchCoveredFile, String testName, Table<String, String, BitSet> nameToCoveredFiles) {
       String mainFileUuid = getUuid(batchCoveredFile.getFileRef());
-      DbFileSources.Test.CoveredFile.Builder existingDbCoveredFile = nameToCoveredFiles.get(testName, mainFileUuid);
-      List<Integer> batchCoveredLines = batchCoveredFile.getCoveredLineList();
-      if (existingDbCoveredFile == null) {
-        DbFileSources.Test.CoveredFile.Builder dbCoveredFile = DbFileSources.Test.CoveredFile.newBuilder()
-          .setFileUuid(getUuid(batchCoveredFile.getFileRef()))
-          .addAllCoveredLine(batchCoveredLines);
-        nameToCoveredFiles.put(testName, mainFileUuid, dbCoveredFile);
-      } else {
-        List<Integer> remainingBatchCoveredLines = new ArrayList<>(batchCoveredLines);
-        remainingBatchCoveredLines.removeAll(existingDbCoveredFile.getCoveredLineList());
-        existingDbCoveredFile.addAllCoveredLine(batchCoveredLines);
+      BitSet coveredLines = nameToCoveredFiles.get(testName, mainFileUuid);
+      if (coveredLines == null) {
+        coveredLines = new BitSet();
+        nameToCoveredFiles.put(testName, mainFileUuid, coveredLines);
       }
+      coveredLines.or(LineRanges.decodeToBitSet(batchCoveredFile.getCoveredLineRangeList()));
+      batchCoveredFile.getCoveredLineList().forEach(coveredLines::set);
     }
 
     private String getUuid(int fileRef) {
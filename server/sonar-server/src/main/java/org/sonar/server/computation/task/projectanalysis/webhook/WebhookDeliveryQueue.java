@@ -0,0 +1,316 @@
+/*
+ * SonarQube
+ * Copyright (C) 2009-2017 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.server.computation.task.projectanalysis.webhook;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import okhttp3.HttpUrl;
+import org.picocontainer.Startable;
+import org.sonar.api.ce.ComputeEngineSide;
+import org.sonar.api.config.Settings;
+import org.sonar.api.utils.System2;
+import org.sonar.api.utils.log.Logger;
+import org.sonar.api.utils.log.Loggers;
+
+import static java.lang.String.format;
+
+/**
+ * Delivers webhooks in background, so that Compute Engine workers do not wait for the remote servers.
+ * <ul>
+ *   <li>deliveries are executed by a pool of threads which size is defined by the property {@value #PROPERTY_THREADS}</li>
+ *   <li>the number of concurrent calls to the same host is limited by the property {@value #PROPERTY_MAX_CALLS_PER_HOST}.
+ *   Other deliveries to this host are postponed.</li>
+ *   <li>deliveries failing because of connectivity issues, HTTP status 429 or 5xx are retried, with an exponential
+ *   backoff starting at {@value #PROPERTY_RETRY_DELAY_MS} milliseconds, up to {@value #PROPERTY_MAX_ATTEMPTS} attempts</li>
+ *   <li>each attempt is persisted by {@link WebhookDeliveryStorage}</li>
+ *   <li>the queue is kept in memory and is bounded. Deliveries submitted while it is full are recorded as failed.</li>
+ *   <li>deliveries still pending when Compute Engine stops are recorded as failed</li>
+ * </ul>
+ */
+@ComputeEngineSide
+public class WebhookDeliveryQueue implements Startable {
+
+  public static final String PROPERTY_THREADS = "sonar.webhooks.deliveryThreads";
+  public static final String PROPERTY_MAX_CALLS_PER_HOST = "sonar.webhooks.maxCallsPerHost";
+  public static final String PROPERTY_MAX_ATTEMPTS = "sonar.webhooks.maxAttempts";
+  public static final String PROPERTY_RETRY_DELAY_MS = "sonar.webhooks.retryDelayInMs";
+  private static final int DEFAULT_THREADS = 5;
+  private static final int DEFAULT_MAX_CALLS_PER_HOST = 2;
+  private static final int DEFAULT_MAX_ATTEMPTS = 3;
+  private static final long DEFAULT_RETRY_DELAY_MS = 10_000L;
+  private static final long BUSY_HOST_DELAY_MS = 200L;
+  static final int MAX_PENDING_DELIVERIES = 1_000;
+
+  private static final Logger LOGGER = Loggers.get(WebhookDeliveryQueue.class);
+
+  private final WebhookCaller caller;
+  private final WebhookDeliveryStorage deliveryStorage;
+  private final System2 system2;
+  private final int threads;
+  private final int maxCallsPerHost;
+  private final int maxAttempts;
+  private final long retryDelayMs;
+  private final Map<String, Semaphore> permitsByHost = new ConcurrentHashMap<>();
+  private final AtomicInteger pendingCount = new AtomicInteger(0);
+  private final Set<Attempt> pendingAttempts = ConcurrentHashMap.newKeySet();
+  private final AtomicLong successCount = new AtomicLong(0);
+  private final AtomicLong errorCount = new AtomicLong(0);
+  private final AtomicLong retryCount = new AtomicLong(0);
+  private final AtomicLong deliveryTime = new AtomicLong(0);
+
+  private ScheduledExecutorService executorService;
+
+  public WebhookDeliveryQueue(WebhookCaller caller, WebhookDeliveryStorage deliveryStorage, Settings settings, System2 system2) {
+    this.caller = caller;
+    this.deliveryStorage = deliveryStorage;
+    this.system2 = system2;
+    this.threads = settings.hasKey(PROPERTY_THREADS) ? settings.getInt(PROPERTY_THREADS) : DEFAULT_THREADS;
+    this.maxCallsPerHost = settings.hasKey(PROPERTY_MAX_CALLS_PER_HOST) ? settings.getInt(PROPERTY_MAX_CALLS_PER_HOST) : DEFAULT_MAX_CALLS_PER_HOST;
+    this.maxAttempts = settings.hasKey(PROPERTY_MAX_ATTEMPTS) ? settings.getInt(PROPERTY_MAX_ATTEMPTS) : DEFAULT_MAX_ATTEMPTS;
+    this.retryDelayMs = settings.hasKey(PROPERTY_RETRY_DELAY_MS) ? settings.getLong(PROPERTY_RETRY_DELAY_MS) : DEFAULT_RETRY_DELAY_MS;
+    if (threads < 1 || maxCallsPerHost < 1 || maxAttempts < 1 || retryDelayMs < 0) {
+      throw new IllegalStateException(format("Invalid configuration of webhooks: %s=%d, %s=%d, %s=%d, %s=%d",
+        PROPERTY_THREADS, threads, PROPERTY_MAX_CALLS_PER_HOST, maxCallsPerHost, PROPERTY_MAX_ATTEMPTS, maxAttempts, PROPERTY_RETRY_DELAY_MS, retryDelayMs));
+    }
+  }
+
+  @Override
+  public void start() {
+    ScheduledThreadPoolExecutor executor = new ScheduledThreadPoolExecutor(threads,
+      new ThreadFactoryBuilder()
+        .setNameFormat("CE_webhooks-%d")
+        .setDaemon(true)
+        .build());
+    // retries scheduled later are not waited for on stop. They are recorded as failed.
+    executor.setExecuteExistingDelayedTasksAfterShutdownPolicy(false);
+    executorService = executor;
+  }
+
+  @Override
+  public void stop() {
+    if (executorService == null) {
+      return;
+    }
+    executorService.shutdown();
+    try {
+      if (!executorService.awaitTermination(5, TimeUnit.SECONDS)) {
+        executorService.shutdownNow();
+        // let the interrupted calls record their result
+        executorService.awaitTermination(1, TimeUnit.SECONDS);
+      }
+    } catch (InterruptedException e) {
+      executorService.shutdownNow();
+      Thread.currentThread().interrupt();
+    }
+    int dropped = 0;
+    for (Attempt attempt : pendingAttempts) {
+      if (drop(attempt)) {
+        dropped++;
+      }
+    }
+    if (dropped > 0) {
+      LOGGER.warn("{} webhook deliveries are dropped and recorded as failed", dropped);
+    }
+  }
+
+  /**
+   * Schedules the delivery of the payload to the webhook. This method does not wait for the call
+   * to the remote server.
+   */
+  public void submit(Webhook webhook, WebhookPayload payload) {
+    long submittedAt = system2.now();
+    if (pendingCount.incrementAndGet() > MAX_PENDING_DELIVERIES) {
+      WebhookDelivery delivery = new WebhookDelivery.Builder()
+        .setAt(submittedAt)
+        .setWebhook(webhook)
+        .setPayload(payload)
+        .setError(new IllegalStateException(format("Too many pending webhook deliveries (%d)", MAX_PENDING_DELIVERIES)))
+        .build();
+      log(delivery);
+      deliveryStorage.persist(delivery);
+      complete(submittedAt, delivery);
+      return;
+    }
+    Attempt attempt = new Attempt(webhook, payload, submittedAt);
+    pendingAttempts.add(attempt);
+    schedule(attempt, 0L);
+  }
+
+  private void schedule(Attempt attempt, long delayMs) {
+    try {
+      executorService.schedule(() -> execute(attempt), delayMs, TimeUnit.MILLISECONDS);
+    } catch (RejectedExecutionException e) {
+      // queue is being stopped
+      if (drop(attempt)) {
+        LOGGER.warn("Webhook '{}' is not sent because Compute Engine is stopping", attempt.webhook.getName());
+      }
+    }
+  }
+
+  /**
+   * Records the delivery as failed, unless it has already been completed
+   *
+   * @return {@code false} if the delivery is already completed
+   */
+  private boolean drop(Attempt attempt) {
+    if (!pendingAttempts.remove(attempt)) {
+      return false;
+    }
+    WebhookDelivery delivery = new WebhookDelivery.Builder()
+      .setAt(system2.now())
+      .setWebhook(attempt.webhook)
+      .setPayload(attempt.payload)
+      .setError(new IllegalStateException("Compute Engine is stopping"))
+      .build();
+    try {
+      deliveryStorage.persist(delivery);
+    } catch (Exception e) {
+      LOGGER.error(format("Fail to record dropped delivery of webhook '%s'", attempt.webhook.getName()), e);
+    }
+    pendingCount.decrementAndGet();
+    errorCount.incrementAndGet();
+    return true;
+  }
+
+  private void execute(Attempt attempt) {
+    try {
+      Semaphore hostPermits = permitsByHost.computeIfAbsent(hostOf(attempt.webhook), h -> new Semaphore(maxCallsPerHost));
+      if (!hostPermits.tryAcquire()) {
+        schedule(attempt, BUSY_HOST_DELAY_MS);
+        return;
+      }
+      WebhookDelivery delivery;
+      try {
+        delivery = caller.call(attempt.webhook, attempt.payload);
+      } finally {
+        hostPermits.release();
+      }
+      log(delivery);
+      deliveryStorage.persist(delivery);
+      if (!delivery.isSuccess() && isRetryable(delivery) && attempt.number < maxAttempts) {
+        retryCount.incrementAndGet();
+        long delayMs = retryDelayMs << (attempt.number - 1);
+        attempt.number++;
+        schedule(attempt, delayMs);
+      } else if (pendingAttempts.remove(attempt)) {
+        complete(attempt.submittedAt, delivery);
+      }
+    } catch (Exception e) {
+      if (pendingAttempts.remove(attempt)) {
+        pendingCount.decrementAndGet();
+        errorCount.incrementAndGet();
+      }
+      LOGGER.error(format("Fail to deliver webhook '%s'", attempt.webhook.getName()), e);
+    }
+  }
+
+  private void complete(long submittedAt, WebhookDelivery delivery) {
+    pendingCount.decrementAndGet();
+    if (delivery.isSuccess()) {
+      successCount.incrementAndGet();
+    } else {
+      errorCount.incrementAndGet();
+    }
+    deliveryTime.addAndGet(system2.now() - submittedAt);
+  }
+
+  private static boolean isRetryable(WebhookDelivery delivery) {
+    Optional<Integer> httpStatus = delivery.getHttpStatus();
+    return !httpStatus.isPresent() || httpStatus.get() == 429 || httpStatus.get() >= 500;
+  }
+
+  private static String hostOf(Webhook webhook) {
+    HttpUrl url = HttpUrl.parse(webhook.getUrl());
+    return url == null ? webhook.getUrl() : url.host();
+  }
+
+  private static void log(WebhookDelivery delivery) {
+    Optional<String> error = delivery.getErrorMessage();
+    if (error.isPresent()) {
+      LOGGER.debug("Failed to send webhook '{}' | url={} | message={}",
+        delivery.getWebhook().getName(), delivery.getWebhook().getUrl(), error.get());
+    } else {
+      LOGGER.debug("Sent webhook '{}' | url={} | time={}ms | status={}",
+        delivery.getWebhook().getName(), delivery.getWebhook().getUrl(), delivery.getDurationInMs().orElse(-1), delivery.getHttpStatus().orElse(-1));
+    }
+  }
+
+  /**
+   * Count of deliveries waiting to be sent or retried
+   */
+  public long getPendingCount() {
+    return pendingCount.get();
+  }
+
+  /**
+   * Count of webhooks delivered successfully since startup
+   */
+  public long getSuccessCount() {
+    return successCount.get();
+  }
+
+  /**
+   * Count of webhooks which delivery failed after all attempts since startup
+   */
+  public long getErrorCount() {
+    return errorCount.get();
+  }
+
+  /**
+   * Count of retried attempts since startup
+   */
+  public long getRetryCount() {
+    return retryCount.get();
+  }
+
+  /**
+   * Time between submission and completion of deliveries since startup, in milliseconds
+   */
+  public long getDeliveryTime() {
+    return deliveryTime.get();
+  }
+
+  /**
+   * The same instance is used for all the attempts of a delivery, until it is completed or dropped
+   */
+  private static final class Attempt {
+    private final Webhook webhook;
+    private final WebhookPayload payload;
+    private final long submittedAt;
+    // incremented before retry. Attempts are executed sequentially.
+    private int number = 1;
+
+    private Attempt(Webhook webhook, WebhookPayload payload, long submittedAt) {
+      this.webhook = webhook;
+      this.payload = payload;
+      this.submittedAt = submittedAt;
+    }
+  }
+}
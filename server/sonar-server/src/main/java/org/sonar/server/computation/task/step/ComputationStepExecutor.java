@@ -23,6 +23,7 @@ import javax.annotation.CheckForNull;
 import javax.annotation.Nullable;
 import org.sonar.api.utils.log.Logger;
 import org.sonar.api.utils.log.Loggers;
+import org.sonar.ce.monitoring.ResourceUsage;
 import org.sonar.core.util.logs.Profiler;
 
 public final class ComputationStepExecutor {
@@ -60,12 +61,28 @@ public final class ComputationStepExecutor {
 
   private void executeSteps(Profiler stepProfiler) {
     for (ComputationStep step : steps.instances()) {
+      ResourceUsage startUsage = stepProfiler.isDebugEnabled() ? ResourceUsage.ofCurrentThread() : null;
       stepProfiler.start();
       step.execute();
+      if (startUsage != null) {
+        addResourceUsage(stepProfiler, ResourceUsage.ofCurrentThread().since(startUsage));
+      }
       stepProfiler.stopDebug(step.getDescription());
     }
   }
 
+  private static void addResourceUsage(Profiler stepProfiler, ResourceUsage usage) {
+    if (usage.getCpuTimeMs() != ResourceUsage.UNKNOWN) {
+      stepProfiler.addContext("cpuTime", usage.getCpuTimeMs() + "ms");
+    }
+    if (usage.getAllocatedBytes() != ResourceUsage.UNKNOWN) {
+      stepProfiler.addContext("allocatedBytes", usage.getAllocatedBytes());
+    }
+    stepProfiler
+      .addContext("dbStatements", usage.getDbStatementCount())
+      .addContext("dbTime", usage.getDbTimeMs() + "ms");
+  }
+
   private void executeListener(boolean allStepsExecuted) {
     try {
       listener.finished(allStepsExecuted);
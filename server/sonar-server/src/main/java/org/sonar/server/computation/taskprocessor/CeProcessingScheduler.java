@@ -21,6 +21,22 @@ package org.sonar.server.computation.taskprocessor;
 
 public interface CeProcessingScheduler {
 
+  int MIN_WORKER_COUNT = 1;
+
   void startScheduling();
 
+  /**
+   * Number of workers currently processing tasks concurrently.
+   */
+  int getWorkerCount();
+
+  /**
+   * Changes the number of workers processing tasks concurrently. When the number decreases, the workers in excess
+   * complete their current task, if any, and then stop.
+   *
+   * @throws IllegalArgumentException if {@code workerCount} is not between {@link #MIN_WORKER_COUNT} and
+   *         {@link org.sonar.server.computation.configuration.CeConfiguration#getMaxWorkerCount()}
+   */
+  void setWorkerCount(int workerCount);
+
 }
@@ -34,10 +34,13 @@ public class CeProcessingSchedulerExecutorServiceImpl extends AbstractStoppableE
   implements CeProcessingSchedulerExecutorService {
   private static final String THREAD_NAME_PREFIX = "ce-worker-";
 
+  /**
+   * The pool is sized for the maximum number of workers, so that workers can be added at runtime.
+   */
   public CeProcessingSchedulerExecutorServiceImpl(CeConfiguration ceConfiguration) {
     super(
       MoreExecutors.listeningDecorator(
-        Executors.newScheduledThreadPool(ceConfiguration.getWorkerCount(),
+        Executors.newScheduledThreadPool(ceConfiguration.getMaxWorkerCount(),
           new ThreadFactoryBuilder()
             .setNameFormat(THREAD_NAME_PREFIX + "%d")
             .setPriority(Thread.MIN_PRIORITY)
@@ -22,7 +22,8 @@ package org.sonar.server.computation.taskprocessor;
 import com.google.common.util.concurrent.FutureCallback;
 import com.google.common.util.concurrent.Futures;
 import com.google.common.util.concurrent.ListenableFuture;
-import com.google.common.util.concurrent.ListenableScheduledFuture;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
 import javax.annotation.CheckForNull;
@@ -32,7 +33,7 @@ import org.sonar.api.utils.log.Logger;
 import org.sonar.api.utils.log.Loggers;
 import org.sonar.server.computation.configuration.CeConfiguration;
 
-import static com.google.common.util.concurrent.Futures.addCallback;
+import static com.google.common.base.Preconditions.checkArgument;
 import static java.util.concurrent.TimeUnit.MILLISECONDS;
 
 public class CeProcessingSchedulerImpl implements CeProcessingScheduler, Startable {
@@ -43,7 +44,10 @@ public class CeProcessingSchedulerImpl implements CeProcessingScheduler, Startab
 
   private final long delayBetweenTasks;
   private final TimeUnit timeUnit;
-  private final ChainingCallback[] chainingCallbacks;
+  private final int maxWorkerCount;
+  // one callback per worker, guarded by this
+  private final List<ChainingCallback> chainingCallbacks = new ArrayList<>();
+  private boolean scheduling = false;
 
   public CeProcessingSchedulerImpl(CeConfiguration ceConfiguration,
     CeProcessingSchedulerExecutorService processingExecutorService, CeWorkerCallable workerRunnable) {
@@ -52,11 +56,11 @@ public class CeProcessingSchedulerImpl implements CeProcessingScheduler, Startab
 
     this.delayBetweenTasks = ceConfiguration.getQueuePollingDelay();
     this.timeUnit = MILLISECONDS;
+    this.maxWorkerCount = ceConfiguration.getMaxWorkerCount();
 
     int workerCount = ceConfiguration.getWorkerCount();
-    this.chainingCallbacks = new ChainingCallback[workerCount];
     for (int i = 0; i < workerCount; i++) {
-      chainingCallbacks[i] = new ChainingCallback();
+      chainingCallbacks.add(new ChainingCallback());
     }
   }
 
@@ -66,15 +70,38 @@ public class CeProcessingSchedulerImpl implements CeProcessingScheduler, Startab
   }
 
   @Override
-  public void startScheduling() {
+  public synchronized void startScheduling() {
+    this.scheduling = true;
     for (ChainingCallback chainingCallback : chainingCallbacks) {
-      ListenableScheduledFuture<Boolean> future = executorService.schedule(workerRunnable, delayBetweenTasks, timeUnit);
-      addCallback(future, chainingCallback, executorService);
+      chainingCallback.chainWithDelay();
     }
   }
 
   @Override
-  public void stop() {
+  public synchronized int getWorkerCount() {
+    return chainingCallbacks.size();
+  }
+
+  @Override
+  public synchronized void setWorkerCount(int workerCount) {
+    checkArgument(workerCount >= MIN_WORKER_COUNT && workerCount <= maxWorkerCount,
+      "Worker count must be between %s and %s, got %s", MIN_WORKER_COUNT, maxWorkerCount, workerCount);
+    while (chainingCallbacks.size() < workerCount) {
+      ChainingCallback chainingCallback = new ChainingCallback();
+      chainingCallbacks.add(chainingCallback);
+      if (scheduling) {
+        chainingCallback.chainWithDelay();
+      }
+    }
+    while (chainingCallbacks.size() > workerCount) {
+      chainingCallbacks.remove(chainingCallbacks.size() - 1).stop();
+    }
+    LOG.info("Compute Engine now uses {} concurrent workers to process tasks", workerCount);
+  }
+
+  @Override
+  public synchronized void stop() {
+    this.scheduling = false;
     for (ChainingCallback chainingCallback : chainingCallbacks) {
       chainingCallback.stop();
     }
@@ -83,7 +110,7 @@ public class CeProcessingSchedulerImpl implements CeProcessingScheduler, Startab
   private class ChainingCallback implements FutureCallback<Boolean> {
     private final AtomicBoolean keepRunning = new AtomicBoolean(true);
     @CheckForNull
-    private ListenableFuture<Boolean> workerFuture;
+    private volatile ListenableFuture<Boolean> workerFuture;
 
     @Override
     public void onSuccess(@Nullable Boolean result) {
@@ -0,0 +1,63 @@
+/*
+ * SonarQube
+ * Copyright (C) 2009-2017 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.server.computation.taskprocessor;
+
+import com.google.common.annotations.VisibleForTesting;
+import java.util.function.LongSupplier;
+import org.sonar.ce.monitoring.CEQueueStatus;
+import org.sonar.server.computation.configuration.CeConfiguration;
+
+/**
+ * Decides whether a worker may start processing a new task, given the heap which is still available.
+ * <p>
+ * Admission is disabled when {@link CeConfiguration#getTaskMemoryEstimate()} is zero. Otherwise, a new task is
+ * admitted only if the free heap is greater than the estimate, or if no other task is in progress (so that the
+ * queue can't be stuck forever because of an over-estimated value).
+ * </p>
+ */
+public class CeTaskMemoryAdmission {
+
+  private final long taskMemoryEstimate;
+  private final CEQueueStatus queueStatus;
+  private final LongSupplier freeHeap;
+
+  public CeTaskMemoryAdmission(CeConfiguration ceConfiguration, CEQueueStatus queueStatus) {
+    this(ceConfiguration, queueStatus, CeTaskMemoryAdmission::computeFreeHeap);
+  }
+
+  @VisibleForTesting
+  CeTaskMemoryAdmission(CeConfiguration ceConfiguration, CEQueueStatus queueStatus, LongSupplier freeHeap) {
+    this.taskMemoryEstimate = ceConfiguration.getTaskMemoryEstimate();
+    this.queueStatus = queueStatus;
+    this.freeHeap = freeHeap;
+  }
+
+  public boolean admitsNewTask() {
+    if (taskMemoryEstimate <= 0) {
+      return true;
+    }
+    return queueStatus.getInProgressCount() == 0 || freeHeap.getAsLong() > taskMemoryEstimate;
+  }
+
+  private static long computeFreeHeap() {
+    Runtime runtime = Runtime.getRuntime();
+    return runtime.maxMemory() - (runtime.totalMemory() - runtime.freeMemory());
+  }
+}
@@ -19,6 +19,7 @@
  */
 package org.sonar.server.computation.taskprocessor;
 
+import org.sonar.ce.monitoring.CeTaskResourceRecorder;
 import org.sonar.core.platform.Module;
 
 public class CeTaskProcessorModule extends Module {
@@ -27,6 +28,8 @@ public class CeTaskProcessorModule extends Module {
     add(
       CeTaskProcessorRepositoryImpl.class,
       CeWorkerCallableImpl.class,
+      CeTaskMemoryAdmission.class,
+      CeTaskResourceRecorder.class,
       CeProcessingSchedulerExecutorServiceImpl.class,
       CeProcessingSchedulerImpl.class);
   }
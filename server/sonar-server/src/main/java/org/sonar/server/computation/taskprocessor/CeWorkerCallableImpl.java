@@ -24,6 +24,9 @@ import javax.annotation.Nullable;
 import org.sonar.api.utils.log.Logger;
 import org.sonar.api.utils.log.Loggers;
 import org.sonar.ce.log.CeLogging;
+import org.sonar.ce.monitoring.CeTaskResourceRecorder;
+import org.sonar.ce.monitoring.CeTaskResourceUsage;
+import org.sonar.ce.monitoring.ResourceUsage;
 import org.sonar.ce.queue.CeTask;
 import org.sonar.ce.queue.CeTaskResult;
 import org.sonar.ce.taskprocessor.CeTaskProcessor;
@@ -40,15 +43,24 @@ public class CeWorkerCallableImpl implements CeWorkerCallable {
   private final InternalCeQueue queue;
   private final CeLogging ceLogging;
   private final CeTaskProcessorRepository taskProcessorRepository;
+  private final CeTaskResourceRecorder resourceRecorder;
+  private final CeTaskMemoryAdmission memoryAdmission;
 
-  public CeWorkerCallableImpl(InternalCeQueue queue, CeLogging ceLogging, CeTaskProcessorRepository taskProcessorRepository) {
+  public CeWorkerCallableImpl(InternalCeQueue queue, CeLogging ceLogging, CeTaskProcessorRepository taskProcessorRepository,
+    CeTaskResourceRecorder resourceRecorder, CeTaskMemoryAdmission memoryAdmission) {
     this.queue = queue;
     this.ceLogging = ceLogging;
     this.taskProcessorRepository = taskProcessorRepository;
+    this.resourceRecorder = resourceRecorder;
+    this.memoryAdmission = memoryAdmission;
   }
 
   @Override
   public Boolean call() throws Exception {
+    if (!memoryAdmission.admitsNewTask()) {
+      LOG.debug("Not enough free heap to start a new task, waiting for next polling");
+      return false;
+    }
     Optional<CeTask> ceTask = tryAndFindTaskToExecute();
     if (!ceTask.isPresent()) {
       return false;
@@ -74,6 +86,7 @@ public class CeWorkerCallableImpl implements CeWorkerCallable {
   private void executeTask(CeTask task) {
     ceLogging.initForTask(task);
     Profiler ceProfiler = startActivityProfiler(task);
+    resourceRecorder.start();
 
     CeActivityDto.Status status = CeActivityDto.Status.FAILED;
     CeTaskResult taskResult = null;
@@ -98,12 +111,13 @@ public class CeWorkerCallableImpl implements CeWorkerCallable {
 
   private void finalizeTask(CeTask task, Profiler ceProfiler, CeActivityDto.Status status,
     @Nullable CeTaskResult taskResult, @Nullable Throwable error) {
+    CeTaskResourceUsage resourceUsage = resourceRecorder.stop();
     try {
-      queue.remove(task, status, taskResult, error);
+      queue.remove(task, status, taskResult, error, resourceUsage);
     } catch (Exception e) {
       LOG.error(format("Failed to finalize task with uuid '%s' and persist its state to db", task.getUuid()), e);
     } finally {
-      stopActivityProfiler(ceProfiler, task, status);
+      stopActivityProfiler(ceProfiler, task, status, resourceUsage);
       ceLogging.clearForTask();
     }
   }
@@ -114,7 +128,23 @@ public class CeWorkerCallableImpl implements CeWorkerCallable {
     return profiler.startInfo("Execute task");
   }
 
-  private static void stopActivityProfiler(Profiler profiler, CeTask task, CeActivityDto.Status status) {
+  private static void addResourceUsage(Profiler profiler, CeTaskResourceUsage resourceUsage) {
+    ResourceUsage threadUsage = resourceUsage.getThreadUsage();
+    if (threadUsage.getCpuTimeMs() != ResourceUsage.UNKNOWN) {
+      profiler.addContext("cpuTime", threadUsage.getCpuTimeMs() + "ms");
+    }
+    if (threadUsage.getAllocatedBytes() != ResourceUsage.UNKNOWN) {
+      profiler.addContext("allocatedBytes", threadUsage.getAllocatedBytes());
+    }
+    profiler
+      .addContext("dbStatements", threadUsage.getDbStatementCount())
+      .addContext("dbTime", threadUsage.getDbTimeMs() + "ms")
+      .addContext("tempDiskBytes", resourceUsage.getTempDiskBytes())
+      .addContext("reportSizeBytes", resourceUsage.getReportSizeBytes());
+  }
+
+  private static void stopActivityProfiler(Profiler profiler, CeTask task, CeActivityDto.Status status, CeTaskResourceUsage resourceUsage) {
+    addResourceUsage(profiler, resourceUsage);
     addContext(profiler, task);
     if (status == CeActivityDto.Status.FAILED) {
       profiler.stopError("Executed task");
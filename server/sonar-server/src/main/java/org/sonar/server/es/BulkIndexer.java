@@ -22,12 +22,12 @@ package org.sonar.server.es;
 import com.google.common.base.Preconditions;
 import com.google.common.collect.Maps;
 import java.util.Map;
+import java.util.Optional;
 import java.util.concurrent.Semaphore;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicLong;
 import org.elasticsearch.action.ActionListener;
 import org.elasticsearch.action.ActionRequest;
-import org.elasticsearch.action.admin.indices.settings.get.GetSettingsResponse;
 import org.elasticsearch.action.admin.indices.settings.put.UpdateSettingsRequestBuilder;
 import org.elasticsearch.action.bulk.BulkItemResponse;
 import org.elasticsearch.action.bulk.BulkRequestBuilder;
@@ -39,6 +39,7 @@ import org.elasticsearch.cluster.metadata.IndexMetaData;
 import org.elasticsearch.common.unit.ByteSizeUnit;
 import org.elasticsearch.common.unit.ByteSizeValue;
 import org.elasticsearch.common.unit.TimeValue;
+import org.elasticsearch.rest.RestStatus;
 import org.elasticsearch.search.SearchHit;
 import org.elasticsearch.search.SearchHitField;
 import org.elasticsearch.search.sort.SortOrder;
@@ -55,6 +56,7 @@ import static java.lang.String.format;
  *   <li>bulk request is sent on the wire when its size is higher than 5Mb</li>
  *   <li>on large table indexing, replicas and automatic refresh can be temporarily disabled</li>
  *   <li>index refresh is optional (enabled by default)</li>
+ *   <li>requests are also applied to the index being rebuilt, if any (see {@link IndexRebuilds})</li>
  * </ul>
  */
 public class BulkIndexer implements Startable {
@@ -65,18 +67,21 @@ public class BulkIndexer implements Startable {
   private static final String ALREADY_STARTED_MESSAGE = "Bulk indexing is already started";
 
   private final EsClient client;
+  private final IndexRebuilds rebuilds;
   private final String indexName;
   private Size size = Size.REGULAR;
   private long flushByteSize = FLUSH_BYTE_SIZE;
   private BulkRequestBuilder bulkRequest = null;
   private Map<String, Object> largeInitialSettings = null;
+  private String largeIndexName = null;
   private final AtomicLong counter = new AtomicLong(0L);
   private final int concurrentRequests;
   private final Semaphore semaphore;
   private final ProgressLogger progress;
 
-  public BulkIndexer(EsClient client, String indexName) {
+  public BulkIndexer(EsClient client, IndexRebuilds rebuilds, String indexName) {
     this.client = client;
+    this.rebuilds = rebuilds;
     this.indexName = indexName;
     this.progress = new ProgressLogger(format("Progress[BulkIndexer[%s]]", indexName), counter, LOGGER)
       .setPluralLabel("requests");
@@ -113,19 +118,19 @@ public class BulkIndexer implements Startable {
   public void start() {
     Preconditions.checkState(bulkRequest == null, ALREADY_STARTED_MESSAGE);
     if (size == Size.LARGE) {
+      largeIndexName = getLargeIndexName();
       largeInitialSettings = Maps.newHashMap();
       Map<String, Object> bulkSettings = Maps.newHashMap();
-      GetSettingsResponse settingsResp = client.nativeClient().admin().indices().prepareGetSettings(indexName).get();
 
       // deactivate replicas
-      int initialReplicas = Integer.parseInt(settingsResp.getSetting(indexName, IndexMetaData.SETTING_NUMBER_OF_REPLICAS));
+      int initialReplicas = Integer.parseInt(client.getIndexSetting(largeIndexName, IndexMetaData.SETTING_NUMBER_OF_REPLICAS));
       if (initialReplicas > 0) {
         largeInitialSettings.put(IndexMetaData.SETTING_NUMBER_OF_REPLICAS, initialReplicas);
         bulkSettings.put(IndexMetaData.SETTING_NUMBER_OF_REPLICAS, 0);
       }
 
       // deactivate periodical refresh
-      String refreshInterval = settingsResp.getSetting(indexName, REFRESH_INTERVAL_SETTING);
+      String refreshInterval = client.getIndexSetting(largeIndexName, REFRESH_INTERVAL_SETTING);
       largeInitialSettings.put(REFRESH_INTERVAL_SETTING, refreshInterval);
       bulkSettings.put(REFRESH_INTERVAL_SETTING, "-1");
 
@@ -136,7 +141,29 @@ public class BulkIndexer implements Startable {
     progress.start();
   }
 
+  /**
+   * When populating an index being rebuilt, the settings to be changed are the ones
+   * of the new index, not of the index still used for search.
+   */
+  private String getLargeIndexName() {
+    if (rebuilds.isPopulating()) {
+      return rebuilds.getTarget(indexName).orElse(indexName);
+    }
+    return indexName;
+  }
+
   public void add(ActionRequest<?> request) {
+    Optional<ActionRequest<?>> rebuildRequest = rebuilds.copyForRebuild(request);
+    if (rebuildRequest.isPresent()) {
+      addToBulk(rebuildRequest.get());
+      if (rebuilds.isPopulating()) {
+        return;
+      }
+    }
+    addToBulk(request);
+  }
+
+  private void addToBulk(ActionRequest<?> request) {
     bulkRequest.request().add(request);
     if (bulkRequest.request().estimatedSizeInBytes() >= flushByteSize) {
       executeBulk();
@@ -191,8 +218,8 @@ public class BulkIndexer implements Startable {
    *
    * Note that the parameter indexName could be removed if progress logs are not needed.
    */
-  public static void delete(EsClient client, String indexName, SearchRequestBuilder searchRequest) {
-    BulkIndexer bulk = new BulkIndexer(client, indexName);
+  public static void delete(EsClient client, IndexRebuilds rebuilds, String indexName, SearchRequestBuilder searchRequest) {
+    BulkIndexer bulk = new BulkIndexer(client, rebuilds, indexName);
     bulk.start();
     bulk.addDeletion(searchRequest);
     bulk.stop();
@@ -211,12 +238,17 @@ public class BulkIndexer implements Startable {
       throw new IllegalStateException("Elasticsearch bulk requests still being executed after 10 minutes", e);
     }
     progress.stop();
-    client.prepareRefresh(indexName).get();
+    Optional<String> rebuildIndexName = rebuilds.getTarget(indexName);
+    if (rebuildIndexName.isPresent()) {
+      client.prepareRefresh(indexName, rebuildIndexName.get()).get();
+    } else {
+      client.prepareRefresh(indexName).get();
+    }
     if (size == Size.LARGE) {
       // optimize lucene segments and revert index settings
       // Optimization must be done before re-applying replicas:
       // http://www.elasticsearch.org/blog/performance-considerations-elasticsearch-indexing/
-      client.prepareForceMerge(indexName).get();
+      client.prepareForceMerge(largeIndexName).get();
 
       updateSettings(largeInitialSettings);
     }
@@ -224,7 +256,7 @@ public class BulkIndexer implements Startable {
   }
 
   private void updateSettings(Map<String, Object> settings) {
-    UpdateSettingsRequestBuilder req = client.nativeClient().admin().indices().prepareUpdateSettings(indexName);
+    UpdateSettingsRequestBuilder req = client.nativeClient().admin().indices().prepareUpdateSettings(largeIndexName);
     req.setSettings(settings);
     req.get();
   }
@@ -249,12 +281,21 @@ public class BulkIndexer implements Startable {
       counter.addAndGet(response.getItems().length);
 
       for (BulkItemResponse item : response.getItems()) {
-        if (item.isFailed()) {
+        if (isVersionConflictOfRebuild(item)) {
+          // document written concurrently in the index being rebuilt, see IndexRebuilds
+          LOGGER.debug("index [{}], type [{}], id [{}] is more recent than the document loaded from database", item.getIndex(), item.getType(), item.getId());
+        } else if (item.isFailed()) {
           LOGGER.error("index [{}], type [{}], id [{}], message [{}]", item.getIndex(), item.getType(), item.getId(), item.getFailureMessage());
         }
       }
     }
 
+    private boolean isVersionConflictOfRebuild(BulkItemResponse item) {
+      return item.isFailed()
+        && item.getFailure().getStatus() == RestStatus.CONFLICT
+        && rebuilds.getAll().stream().anyMatch(rebuild -> rebuild.getNewIndex().equals(item.getIndex()));
+    }
+
     @Override
     public void onFailure(Throwable e) {
       semaphore.release();
@@ -20,6 +20,8 @@
 package org.sonar.server.es;
 
 import java.io.Closeable;
+import java.util.Iterator;
+import javax.annotation.CheckForNull;
 import org.elasticsearch.action.admin.cluster.health.ClusterHealthRequestBuilder;
 import org.elasticsearch.action.admin.cluster.node.stats.NodesStatsRequestBuilder;
 import org.elasticsearch.action.admin.cluster.state.ClusterStateRequestBuilder;
@@ -31,6 +33,7 @@ import org.elasticsearch.action.admin.indices.flush.FlushRequestBuilder;
 import org.elasticsearch.action.admin.indices.forcemerge.ForceMergeRequestBuilder;
 import org.elasticsearch.action.admin.indices.mapping.put.PutMappingRequestBuilder;
 import org.elasticsearch.action.admin.indices.refresh.RefreshRequestBuilder;
+import org.elasticsearch.action.admin.indices.settings.get.GetSettingsResponse;
 import org.elasticsearch.action.admin.indices.stats.IndicesStatsRequestBuilder;
 import org.elasticsearch.action.bulk.BulkRequestBuilder;
 import org.elasticsearch.action.count.CountRequestBuilder;
@@ -43,6 +46,7 @@ import org.elasticsearch.action.search.SearchScrollRequestBuilder;
 import org.elasticsearch.client.Client;
 import org.elasticsearch.cluster.health.ClusterHealthStatus;
 import org.elasticsearch.common.Priority;
+import org.elasticsearch.common.settings.Settings;
 import org.elasticsearch.index.query.QueryBuilders;
 import org.elasticsearch.search.aggregations.AggregationBuilders;
 import org.elasticsearch.search.aggregations.metrics.max.Max;
@@ -202,6 +206,25 @@ public class EsClient implements Closeable {
     return nativeClient;
   }
 
+  /**
+   * Value of a setting of an index. The index can also be an alias, targeting a single physical index.
+   */
+  @CheckForNull
+  public String getIndexSetting(String index, String settingName) {
+    GetSettingsResponse response = nativeClient().admin().indices().prepareGetSettings(index).get();
+    Iterator<Settings> settings = response.getIndexToSettings().valuesIt();
+    return settings.hasNext() ? settings.next().get(settingName) : null;
+  }
+
+  /**
+   * Name of the physical index targeted by the given alias, or the given name if it's not an alias.
+   */
+  public String resolveIndex(String index) {
+    GetSettingsResponse response = nativeClient().admin().indices().prepareGetSettings(index).get();
+    Iterator<String> names = response.getIndexToSettings().keysIt();
+    return names.hasNext() ? names.next() : index;
+  }
+
   /**
    * Checks whether there is any document in any mentioned type.
    */
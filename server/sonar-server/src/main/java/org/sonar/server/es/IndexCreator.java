@@ -19,11 +19,15 @@
  */
 package org.sonar.server.es;
 
+import java.util.List;
 import java.util.Map;
+import java.util.Optional;
 import org.apache.commons.lang.StringUtils;
 import org.elasticsearch.action.admin.indices.create.CreateIndexResponse;
 import org.elasticsearch.action.admin.indices.mapping.put.PutMappingResponse;
 import org.elasticsearch.cluster.health.ClusterHealthStatus;
+import org.elasticsearch.cluster.metadata.AliasMetaData;
+import org.elasticsearch.common.collect.ImmutableOpenMap;
 import org.elasticsearch.common.settings.Settings;
 import org.picocontainer.Startable;
 import org.sonar.api.server.ServerSide;
@@ -32,6 +36,11 @@ import org.sonar.api.utils.log.Loggers;
 
 /**
  * Creates/deletes all indices in Elasticsearch during server startup.
+ * <p>
+ * When {@link #PROPERTY_VERSIONED_INDICES} is enabled, each index is an alias targeting a physical
+ * index suffixed by the hash of its definition (for example "issues" targets "issues_1f8c0a2b"). When the
+ * definition changes, the new physical index is created next to the previous one, which keeps serving
+ * requests until the new index is populated by {@link IndexerStartupTask}. See {@link IndexRebuilds}.
  */
 @ServerSide
 public class IndexCreator implements Startable {
@@ -43,17 +52,29 @@ public class IndexCreator implements Startable {
    * when something changed between versions.
    */
   private static final String SETTING_HASH = "sonar_hash";
+  private static final int VERSION_SUFFIX_LENGTH = 8;
+
+  public static final String PROPERTY_VERSIONED_INDICES = "sonar.search.versionedIndices";
 
   private final EsClient client;
+  private final IndexRebuilds rebuilds;
   private final IndexDefinitions definitions;
+  private final org.sonar.api.config.Settings settings;
 
-  public IndexCreator(EsClient client, IndexDefinitions definitions) {
+  public IndexCreator(EsClient client, IndexRebuilds rebuilds, IndexDefinitions definitions, org.sonar.api.config.Settings settings) {
     this.client = client;
+    this.rebuilds = rebuilds;
     this.definitions = definitions;
+    this.settings = settings;
   }
 
   @Override
   public void start() {
+    if (settings.getBoolean(PROPERTY_VERSIONED_INDICES)) {
+      definitions.getIndices().values().forEach(this::createVersionedIndex);
+      return;
+    }
+
     // create indices that do not exist or that have a new definition (different mapping, cluster enabled, ...)
     for (IndexDefinitions.Index index : definitions.getIndices().values()) {
       boolean exists = client.prepareIndicesExist(index.getName()).get().isExists();
@@ -73,24 +94,65 @@ public class IndexCreator implements Startable {
     // nothing to do
   }
 
+  private void createVersionedIndex(IndexDefinitions.Index index) {
+    String alias = index.getName();
+    String hash = new IndexDefinitionHash().of(index);
+    String physicalIndex = alias + "_" + hash.substring(0, VERSION_SUFFIX_LENGTH);
+
+    Optional<String> currentIndex = getAliasedIndex(alias);
+    if (currentIndex.isPresent() && currentIndex.get().equals(physicalIndex)) {
+      return;
+    }
+    if (!currentIndex.isPresent() && client.prepareIndicesExist(alias).get().isExists()) {
+      // index created before the activation of versioning. It can't be kept as an alias can't have the same name.
+      LOGGER.info(String.format("Delete index %s (replaced by versioned index %s)", alias, physicalIndex));
+      deleteIndex(alias);
+    }
+    if (client.prepareIndicesExist(physicalIndex).get().isExists()) {
+      // partially populated by a rebuild that has been interrupted
+      LOGGER.info(String.format("Delete index %s (incomplete rebuild)", physicalIndex));
+      deleteIndex(physicalIndex);
+    }
+    createIndex(index, physicalIndex, hash);
+    if (currentIndex.isPresent()) {
+      LOGGER.info(String.format("Index %s is going to be rebuilt in %s. Index %s is used in the meantime.", alias, physicalIndex, currentIndex.get()));
+      // versions of the documents deleted during the rebuild must be kept, see IndexRebuilds
+      client.nativeClient().admin().indices().prepareUpdateSettings(physicalIndex)
+        .setSettings(Settings.builder().put(IndexRebuilds.GC_DELETES_SETTING, IndexRebuilds.GC_DELETES_DURING_REBUILD))
+        .get();
+      rebuilds.register(alias, currentIndex.get(), physicalIndex);
+    } else {
+      client.nativeClient().admin().indices().prepareAliases().addAlias(physicalIndex, alias).get();
+    }
+  }
+
+  private Optional<String> getAliasedIndex(String alias) {
+    ImmutableOpenMap<String, List<AliasMetaData>> aliases = client.nativeClient().admin().indices().prepareGetAliases(alias).get().getAliases();
+    return Optional.ofNullable(aliases.keysIt().hasNext() ? aliases.keysIt().next() : null);
+  }
+
   private void createIndex(IndexDefinitions.Index index) {
-    LOGGER.info(String.format("Create index %s", index.getName()));
-    Settings.Builder settings = Settings.builder();
-    settings.put(index.getSettings());
-    settings.put(SETTING_HASH, new IndexDefinitionHash().of(index));
+    createIndex(index, index.getName(), new IndexDefinitionHash().of(index));
+  }
+
+  private void createIndex(IndexDefinitions.Index index, String indexName, String hash) {
+    LOGGER.info(String.format("Create index %s", indexName));
+    Settings.Builder indexSettings = Settings.builder();
+    indexSettings.put(index.getSettings());
+    indexSettings.put(SETTING_HASH, hash);
     CreateIndexResponse indexResponse = client
-      .prepareCreate(index.getName())
-      .setSettings(settings)
+      .prepareCreate(indexName)
+      .setSettings(indexSettings)
       .get();
     if (!indexResponse.isAcknowledged()) {
-      throw new IllegalStateException("Failed to create index " + index.getName());
+      throw new IllegalStateException("Failed to create index " + indexName);
     }
     client.waitForStatus(ClusterHealthStatus.YELLOW);
 
     // create types
     for (Map.Entry<String, IndexDefinitions.IndexType> entry : index.getTypes().entrySet()) {
-      LOGGER.info(String.format("Create type %s/%s", index.getName(), entry.getKey()));
-      PutMappingResponse mappingResponse = client.preparePutMapping(index.getName())
+      LOGGER.info(String.format("Create type %s/%s", indexName, entry.getKey()));
+      PutMappingResponse mappingResponse = client.preparePutMapping(indexName)
         .setType(entry.getKey())
         .setSource(entry.getValue().getAttributes())
         .get();
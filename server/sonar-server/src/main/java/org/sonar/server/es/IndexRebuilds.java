@@ -0,0 +1,248 @@
+/*
+ * SonarQube
+ * Copyright (C) 2009-2017 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.server.es;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import javax.annotation.concurrent.ThreadSafe;
+import org.elasticsearch.action.ActionRequest;
+import org.elasticsearch.action.delete.DeleteRequest;
+import org.elasticsearch.action.index.IndexRequest;
+import org.elasticsearch.action.update.UpdateRequest;
+import org.elasticsearch.index.VersionType;
+import org.sonar.api.ce.ComputeEngineSide;
+import org.sonar.api.server.ServerSide;
+import org.sonar.api.utils.System2;
+
+/**
+ * Registry of the indices being rebuilt in background when {@link IndexCreator#PROPERTY_VERSIONED_INDICES}
+ * is enabled. During a rebuild, the alias of the index (for example "issues") still targets the previous physical
+ * index, which keeps serving requests, while the new physical index is being populated by the
+ * {@link StartupIndexer}s. Writes done in the meantime must be applied to both indices, see
+ * {@link #copyForRebuild(ActionRequest)}.
+ * <p>
+ * Documents of the new index are written with external versions ({@link VersionType#EXTERNAL_GTE}), so that the
+ * snapshot of database loaded by a {@link StartupIndexer} can't overwrite a document written concurrently by
+ * a regular indexer:
+ * <ul>
+ *   <li>documents loaded from database are versioned with the date of start of the rebuild</li>
+ *   <li>documents written in the meantime are versioned with the current date, which is greater</li>
+ * </ul>
+ * Tombstones of deleted documents are kept during the rebuild, see {@link #GC_DELETES_SETTING}, so that a
+ * deleted document is not restored by the populating of the new index.
+ */
+@ComputeEngineSide
+@ServerSide
+@ThreadSafe
+public class IndexRebuilds {
+
+  /**
+   * Duration during which the versions of deleted documents are kept by Elasticsearch
+   */
+  static final String GC_DELETES_SETTING = "index.gc_deletes";
+  static final String GC_DELETES_DURING_REBUILD = "7d";
+  static final String GC_DELETES_DEFAULT = "60s";
+
+  private final System2 system2;
+  private final Map<String, Rebuild> rebuildsByAlias = new ConcurrentHashMap<>();
+  private final ThreadLocal<Boolean> populating = ThreadLocal.withInitial(() -> Boolean.FALSE);
+
+  public IndexRebuilds(System2 system2) {
+    this.system2 = system2;
+  }
+
+  public void register(String alias, String oldIndex, String newIndex) {
+    rebuildsByAlias.put(alias, new Rebuild(alias, oldIndex, newIndex, system2.now()));
+  }
+
+  public void unregister(String alias) {
+    rebuildsByAlias.remove(alias);
+  }
+
+  public boolean isEmpty() {
+    return rebuildsByAlias.isEmpty();
+  }
+
+  public Collection<Rebuild> getAll() {
+    return new ArrayList<>(rebuildsByAlias.values());
+  }
+
+  /**
+   * @param index the alias or the name of the physical index currently targeted by the alias
+   */
+  public Optional<Rebuild> get(String index) {
+    Rebuild rebuild = rebuildsByAlias.get(index);
+    if (rebuild != null) {
+      return Optional.of(rebuild);
+    }
+    return rebuildsByAlias.values().stream()
+      .filter(r -> r.getOldIndex().equals(index))
+      .findFirst();
+  }
+
+  /**
+   * Name of the physical index being populated for the given alias or physical index, if any.
+   */
+  public Optional<String> getTarget(String index) {
+    return get(index).map(Rebuild::getNewIndex);
+  }
+
+  /**
+   * Writes of the current thread are redirected to the new indices only, instead of being
+   * applied to both old and new indices. Used when populating the new indices from database.
+   */
+  public void runPopulating(Runnable runnable) {
+    populating.set(Boolean.TRUE);
+    try {
+      runnable.run();
+    } finally {
+      populating.remove();
+    }
+  }
+
+  public boolean isPopulating() {
+    return populating.get();
+  }
+
+  /**
+   * Copy of the request targeting the new physical index, or {@link Optional#empty()} if
+   * the index of the request is not being rebuilt.
+   */
+  public Optional<ActionRequest<?>> copyForRebuild(ActionRequest<?> request) {
+    if (rebuildsByAlias.isEmpty()) {
+      return Optional.empty();
+    }
+    if (request instanceof IndexRequest) {
+      IndexRequest r = (IndexRequest) request;
+      return get(r.index()).map(rebuild -> new IndexRequest(rebuild.getNewIndex(), r.type(), r.id())
+        .source(r.source())
+        .routing(r.routing())
+        .parent(r.parent())
+        .version(versionOf(rebuild))
+        .versionType(VersionType.EXTERNAL_GTE));
+    }
+    if (request instanceof DeleteRequest) {
+      DeleteRequest r = (DeleteRequest) request;
+      return get(r.index()).map(rebuild -> new DeleteRequest(rebuild.getNewIndex(), r.type(), r.id())
+        .routing(r.routing())
+        .version(versionOf(rebuild))
+        .versionType(VersionType.EXTERNAL_GTE));
+    }
+    if (request instanceof UpdateRequest) {
+      UpdateRequest r = (UpdateRequest) request;
+      return get(r.index()).map(rebuild -> copyUpdate(r, rebuild));
+    }
+    throw new IllegalStateException("Unsupported request during rebuild of indices: " + request.getClass());
+  }
+
+  /**
+   * Documents loaded from database have the version of the start of the rebuild, which is lower
+   * than the version of any document written concurrently by regular indexers.
+   */
+  private long versionOf(Rebuild rebuild) {
+    if (isPopulating()) {
+      return rebuild.getStartedAt();
+    }
+    return Math.max(system2.now(), rebuild.getStartedAt() + 1);
+  }
+
+  private ActionRequest<?> copyUpdate(UpdateRequest r, Rebuild rebuild) {
+    if (isPopulating() && r.upsertRequest() != null) {
+      // external versioning is not supported by the update API. When populating, the upserted document
+      // is indexed instead, so that it does not overwrite a document written in the meantime.
+      return new IndexRequest(rebuild.getNewIndex(), r.type(), r.id())
+        .source(r.upsertRequest().source())
+        .routing(r.routing())
+        .parent(r.parent())
+        .version(versionOf(rebuild))
+        .versionType(VersionType.EXTERNAL_GTE);
+    }
+    // the internal version of the updated document is incremented, so it's greater than the
+    // version of the documents loaded from database
+    UpdateRequest copy = new UpdateRequest(rebuild.getNewIndex(), r.type(), r.id())
+      .routing(r.routing())
+      .parent(r.parent())
+      .docAsUpsert(r.docAsUpsert());
+    if (r.doc() != null) {
+      copy.doc(r.doc());
+    }
+    if (r.upsertRequest() != null) {
+      copy.upsert(r.upsertRequest());
+    }
+    if (r.script() != null) {
+      copy.script(r.script());
+    }
+    return copy;
+  }
+
+  public static final class Rebuild {
+    private final String alias;
+    private final String oldIndex;
+    private final String newIndex;
+    private final long startedAt;
+
+    Rebuild(String alias, String oldIndex, String newIndex, long startedAt) {
+      this.alias = alias;
+      this.oldIndex = oldIndex;
+      this.newIndex = newIndex;
+      this.startedAt = startedAt;
+    }
+
+    public String getAlias() {
+      return alias;
+    }
+
+    public String getOldIndex() {
+      return oldIndex;
+    }
+
+    public String getNewIndex() {
+      return newIndex;
+    }
+
+    /**
+     * Date of registration of the rebuild, before the loading of documents from database
+     */
+    public long getStartedAt() {
+      return startedAt;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (this == o) {
+        return true;
+      }
+      if (o == null || getClass() != o.getClass()) {
+        return false;
+      }
+      Rebuild rebuild = (Rebuild) o;
+      return alias.equals(rebuild.alias) && oldIndex.equals(rebuild.oldIndex) && newIndex.equals(rebuild.newIndex);
+    }
+
+    @Override
+    public int hashCode() {
+      return Objects.hash(alias, oldIndex, newIndex);
+    }
+  }
+}
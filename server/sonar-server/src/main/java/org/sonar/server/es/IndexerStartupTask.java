@@ -19,7 +19,22 @@
  */
 package org.sonar.server.es;
 
+import com.google.common.annotations.VisibleForTesting;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
 import java.util.stream.Collectors;
 import org.elasticsearch.action.admin.cluster.health.ClusterHealthAction;
 import org.elasticsearch.action.admin.indices.close.CloseIndexAction;
@@ -27,33 +42,125 @@ import org.elasticsearch.action.admin.indices.open.OpenIndexAction;
 import org.elasticsearch.client.Client;
 import org.elasticsearch.common.settings.Settings.Builder;
 import org.elasticsearch.common.unit.TimeValue;
+import org.picocontainer.Startable;
 import org.sonar.api.config.Settings;
 import org.sonar.api.utils.log.Logger;
 import org.sonar.api.utils.log.Loggers;
 import org.sonar.api.utils.log.Profiler;
 
-import static java.util.Arrays.stream;
 import static java.util.stream.Collectors.toSet;
 
-public class IndexerStartupTask {
+public class IndexerStartupTask implements Startable {
+
+  public static final String PROPERTY_WORKERS = "sonar.search.startupIndexing.workers";
+  public static final String PROPERTY_BACKGROUND = "sonar.search.startupIndexing.background";
 
   private static final Logger LOG = Loggers.get(IndexerStartupTask.class);
   private static final String SETTING_PREFIX_INITIAL_INDEXING_FINISHED = "sonarqube_initial_indexing_finished.";
 
   private final EsClient esClient;
+  private final IndexRebuilds rebuilds;
   private final Settings settings;
+  private final StartupIndexingStatus status;
+  private final StartupIndexingExecutor executor;
   private final StartupIndexer[] indexers;
+  /**
+   * Indexers write concurrently into an index while it must be closed to be flagged as initialized,
+   * so the close is done under the write lock of the index.
+   */
+  private final Map<String, ReadWriteLock> indexLocks = new ConcurrentHashMap<>();
+  /**
+   * Number of types remaining to be indexed, for each alias of the indices being rebuilt
+   */
+  private final Map<String, AtomicInteger> remainingTypesOfRebuilds = new ConcurrentHashMap<>();
 
-  public IndexerStartupTask(EsClient esClient, Settings settings, StartupIndexer... indexers) {
+  public IndexerStartupTask(EsClient esClient, IndexRebuilds rebuilds, Settings settings, StartupIndexingStatus status,
+    StartupIndexingExecutor executor, StartupIndexer... indexers) {
     this.esClient = esClient;
+    this.rebuilds = rebuilds;
     this.settings = settings;
+    this.status = status;
+    this.executor = executor;
     this.indexers = indexers;
   }
 
+  @Override
+  public void start() {
+    // indexing is triggered by execute(), once all the startup tasks are done
+  }
+
+  @Override
+  public void stop() {
+    // the container of startup tasks is stopped right after execute(). Indexing in background goes on in the
+    // workers of StartupIndexingExecutor, which are stopped with the web server.
+  }
+
   public void execute() {
-    if (indexesAreEnabled()) {
-      stream(indexers)
-        .forEach(this::indexEmptyTypes);
+    if (!indexesAreEnabled()) {
+      return;
+    }
+    Map<StartupIndexer, Set<IndexType>> uninitializedTypesByIndexer = new LinkedHashMap<>();
+    for (StartupIndexer indexer : indexers) {
+      Set<IndexType> uninitializedTypes = getUninitializedTypes(indexer);
+      if (!uninitializedTypes.isEmpty()) {
+        uninitializedTypesByIndexer.put(indexer, uninitializedTypes);
+        status.setPending(uninitializedTypes);
+      }
+    }
+    prepareRebuilds(uninitializedTypesByIndexer.values());
+    if (uninitializedTypesByIndexer.isEmpty()) {
+      return;
+    }
+
+    int workers = Math.min(Math.max(1, settings.getInt(PROPERTY_WORKERS)), uninitializedTypesByIndexer.size());
+    boolean background = settings.getBoolean(PROPERTY_BACKGROUND);
+    if (workers == 1 && !background) {
+      uninitializedTypesByIndexer.forEach(this::indexEmptyTypes);
+      return;
+    }
+
+    LOG.info("Indexing of {} empty type(s) with {} worker(s){}", uninitializedTypesByIndexer.values().stream().mapToInt(Set::size).sum(),
+      workers, background ? " in background" : "");
+    ExecutorService executorService = executor.create(workers);
+    List<Future<?>> futures = new ArrayList<>();
+    uninitializedTypesByIndexer.forEach((indexer, types) -> futures.add(executorService.submit(() -> indexEmptyTypesSafely(indexer, types, background))));
+    executorService.shutdown();
+    if (!background) {
+      futures.forEach(IndexerStartupTask::waitFor);
+    }
+  }
+
+  /**
+   * Blocks until the indexing started by {@link #execute()} in worker threads is finished, or until the
+   * timeout elapses. Returns immediately if indexing has been done in the calling thread.
+   *
+   * @return {@code false} if the timeout elapsed before the end of indexing
+   */
+  @VisibleForTesting
+  boolean awaitIndexing(long timeout, TimeUnit unit) throws InterruptedException {
+    return executor.awaitTermination(timeout, unit);
+  }
+
+  private void prepareRebuilds(Collection<Set<IndexType>> uninitializedTypes) {
+    uninitializedTypes.stream()
+      .flatMap(Set::stream)
+      .filter(t -> rebuilds.get(t.getIndex()).isPresent())
+      .forEach(t -> remainingTypesOfRebuilds.computeIfAbsent(t.getIndex(), alias -> new AtomicInteger()).incrementAndGet());
+
+    // nothing to populate, new index can be used immediately
+    rebuilds.getAll().stream()
+      .filter(rebuild -> !remainingTypesOfRebuilds.containsKey(rebuild.getAlias()))
+      .forEach(this::switchAlias);
+  }
+
+  private static void waitFor(Future<?> future) {
+    try {
+      future.get();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IllegalStateException("Interrupted while indexing on startup", e);
+    } catch (ExecutionException e) {
+      throw new IllegalStateException("Fail to index on startup", e.getCause());
     }
   }
 
@@ -61,33 +168,109 @@ public class IndexerStartupTask {
     return !settings.getBoolean("sonar.internal.es.disableIndexes");
   }
 
-  private void indexEmptyTypes(StartupIndexer indexer) {
-    Set<IndexType> uninizializedTypes = getUninitializedTypes(indexer);
-    if (!uninizializedTypes.isEmpty()) {
-      Profiler profiler = Profiler.create(LOG);
-      profiler.startInfo(getLogMessage(uninizializedTypes, "..."));
-      indexer.indexOnStartup(uninizializedTypes);
-      uninizializedTypes.forEach(this::setInitialized);
-      profiler.stopInfo(getLogMessage(uninizializedTypes, "done"));
+  private void indexEmptyTypesSafely(StartupIndexer indexer, Set<IndexType> uninitializedTypes, boolean background) {
+    try {
+      indexEmptyTypes(indexer, uninitializedTypes);
+    } catch (RuntimeException e) {
+      if (!background) {
+        throw e;
+      }
+      LOG.error(getLogMessage(uninitializedTypes, "failed"), e);
     }
   }
 
+  private void indexEmptyTypes(StartupIndexer indexer, Set<IndexType> uninitializedTypes) {
+    Profiler profiler = Profiler.create(LOG);
+    profiler.startInfo(getLogMessage(uninitializedTypes, "..."));
+    status.setInProgress(uninitializedTypes);
+    try {
+      indexWithReadLocks(indexer, uninitializedTypes);
+      uninitializedTypes.forEach(this::setInitialized);
+    } catch (RuntimeException e) {
+      status.setFailed(uninitializedTypes);
+      throw e;
+    }
+    profiler.stopInfo(getLogMessage(uninitializedTypes, "done"));
+  }
+
+  private void indexWithReadLocks(StartupIndexer indexer, Set<IndexType> uninitializedTypes) {
+    // documents of the indices being rebuilt are written in the new physical indices only
+    rebuilds.runPopulating(() -> indexWithReadLocks(() -> indexer.indexOnStartup(uninitializedTypes), uninitializedTypes));
+  }
+
+  private void indexWithReadLocks(Runnable indexing, Set<IndexType> uninitializedTypes) {
+    // locks are always acquired in the same order
+    List<Lock> locks = uninitializedTypes.stream()
+      .map(IndexType::getIndex)
+      .distinct()
+      .sorted()
+      .map(index -> getLock(index).readLock())
+      .collect(Collectors.toList());
+    List<Lock> acquired = new ArrayList<>();
+    try {
+      for (Lock lock : locks) {
+        lock.lock();
+        acquired.add(lock);
+      }
+      indexing.run();
+    } finally {
+      acquired.forEach(Lock::unlock);
+    }
+  }
+
+  private ReadWriteLock getLock(String index) {
+    return indexLocks.computeIfAbsent(index, i -> new ReentrantReadWriteLock());
+  }
+
   private Set<IndexType> getUninitializedTypes(StartupIndexer indexer) {
     return indexer.getIndexTypes().stream().filter(this::getUninitialized).collect(toSet());
   }
 
   private boolean getUninitialized(IndexType indexType) {
-    String setting = esClient.nativeClient().admin().indices().prepareGetSettings(indexType.getIndex()).get().getSetting(indexType.getIndex(),
-      getInitializedSettingName(indexType));
+    String setting = esClient.getIndexSetting(getPhysicalIndex(indexType), getInitializedSettingName(indexType));
     return !"true".equals(setting);
   }
 
-  private void setInitialized(IndexType indexType) {
+  /**
+   * The physical index to be populated, which is not the one targeted by the alias if the index is being rebuilt.
+   */
+  private String getPhysicalIndex(IndexType indexType) {
     String index = indexType.getIndex();
-    closeIndex(index);
-    setIndexSetting(index, getInitializedSettingName(indexType), true);
-    openIndex(index);
-    waitForIndexYellow(index);
+    return rebuilds.getTarget(index).orElseGet(() -> esClient.resolveIndex(index));
+  }
+
+  private void setInitialized(IndexType indexType) {
+    String index = getPhysicalIndex(indexType);
+    Lock lock = getLock(indexType.getIndex()).writeLock();
+    lock.lock();
+    try {
+      closeIndex(index);
+      setIndexSetting(index, getInitializedSettingName(indexType), true);
+      openIndex(index);
+      waitForIndexYellow(index);
+    } finally {
+      lock.unlock();
+    }
+    status.setDone(indexType);
+
+    AtomicInteger remainingTypes = remainingTypesOfRebuilds.get(indexType.getIndex());
+    if (remainingTypes != null && remainingTypes.decrementAndGet() == 0) {
+      rebuilds.get(indexType.getIndex()).ifPresent(this::switchAlias);
+    }
+  }
+
+  private void switchAlias(IndexRebuilds.Rebuild rebuild) {
+    LOG.info("Index {} is rebuilt. Switch alias from {} to {}.", rebuild.getAlias(), rebuild.getOldIndex(), rebuild.getNewIndex());
+    Client nativeClient = esClient.nativeClient();
+    nativeClient.admin().indices().prepareAliases()
+      .removeAlias(rebuild.getOldIndex(), rebuild.getAlias())
+      .addAlias(rebuild.getNewIndex(), rebuild.getAlias())
+      .get();
+    rebuilds.unregister(rebuild.getAlias());
+    nativeClient.admin().indices().prepareDelete(rebuild.getOldIndex()).get();
+    nativeClient.admin().indices().prepareUpdateSettings(rebuild.getNewIndex())
+      .setSettings(org.elasticsearch.common.settings.Settings.builder().put(IndexRebuilds.GC_DELETES_SETTING, IndexRebuilds.GC_DELETES_DEFAULT))
+      .get();
   }
 
   private void closeIndex(String index) {
@@ -0,0 +1,79 @@
+/*
+ * SonarQube
+ * Copyright (C) 2009-2017 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.server.es;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import javax.annotation.CheckForNull;
+import org.picocontainer.Startable;
+
+import static com.google.common.base.Preconditions.checkState;
+
+/**
+ * Worker threads of the indexing done by {@link IndexerStartupTask}. The task belongs to the container of startup
+ * tasks, which is stopped as soon as these tasks are executed, so the threads are owned by this component of level 4,
+ * which lives as long as the web server.
+ */
+public class StartupIndexingExecutor implements Startable {
+
+  @CheckForNull
+  private volatile ExecutorService executorService;
+
+  /**
+   * Creates the pool of workers. It must be shut down by the caller once all the indexing is submitted.
+   *
+   * @throws IllegalStateException if the workers of a previous startup indexing are still running
+   */
+  public synchronized ExecutorService create(int workers) {
+    ExecutorService current = executorService;
+    checkState(current == null || current.isTerminated(), "Startup indexing is already in progress");
+    ExecutorService created = Executors.newFixedThreadPool(workers, new ThreadFactoryBuilder()
+      .setNameFormat("es-startup-indexing-%d")
+      .setDaemon(true)
+      .build());
+    executorService = created;
+    return created;
+  }
+
+  /**
+   * Blocks until the indexing submitted to the workers is finished, or until the timeout elapses.
+   *
+   * @return {@code false} if the timeout elapsed before the end of indexing
+   */
+  public boolean awaitTermination(long timeout, TimeUnit unit) throws InterruptedException {
+    ExecutorService current = executorService;
+    return current == null || current.awaitTermination(timeout, unit);
+  }
+
+  @Override
+  public void start() {
+    // workers are created on demand
+  }
+
+  @Override
+  public void stop() {
+    ExecutorService current = executorService;
+    if (current != null) {
+      current.shutdownNow();
+    }
+  }
+}
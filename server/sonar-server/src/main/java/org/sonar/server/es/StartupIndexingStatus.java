@@ -0,0 +1,129 @@
+/*
+ * SonarQube
+ * Copyright (C) 2009-2017 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.server.es;
+
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import javax.annotation.CheckForNull;
+import javax.annotation.Nullable;
+import org.sonar.api.utils.System2;
+
+/**
+ * Progress of the indexing of the empty types done by {@link IndexerStartupTask}. When startup indexing
+ * runs in background, types which are not {@link State#DONE} must be considered as not yet searchable.
+ */
+public class StartupIndexingStatus {
+
+  public enum State {
+    PENDING, IN_PROGRESS, DONE, FAILED
+  }
+
+  private final System2 system2;
+  private final Map<IndexType, TypeStatus> statuses = new ConcurrentHashMap<>();
+
+  public StartupIndexingStatus(System2 system2) {
+    this.system2 = system2;
+  }
+
+  public void setPending(Collection<IndexType> indexTypes) {
+    indexTypes.forEach(t -> statuses.put(t, new TypeStatus(State.PENDING, null, null)));
+  }
+
+  public void setInProgress(Collection<IndexType> indexTypes) {
+    long now = system2.now();
+    indexTypes.forEach(t -> statuses.put(t, new TypeStatus(State.IN_PROGRESS, now, null)));
+  }
+
+  public void setDone(IndexType indexType) {
+    end(indexType, State.DONE);
+  }
+
+  public void setFailed(Collection<IndexType> indexTypes) {
+    indexTypes.stream()
+      .filter(t -> !isDone(t))
+      .forEach(t -> end(t, State.FAILED));
+  }
+
+  private boolean isDone(IndexType indexType) {
+    TypeStatus status = statuses.get(indexType);
+    return status != null && status.getState() == State.DONE;
+  }
+
+  private void end(IndexType indexType, State state) {
+    TypeStatus current = statuses.get(indexType);
+    Long startedAt = current == null ? null : current.getStartedAt();
+    statuses.put(indexType, new TypeStatus(state, startedAt, system2.now()));
+  }
+
+  /**
+   * Whether the specified type is still waiting for, or being processed by, startup indexing.
+   */
+  public boolean isIndexing(IndexType indexType) {
+    TypeStatus status = statuses.get(indexType);
+    return status != null && (status.getState() == State.PENDING || status.getState() == State.IN_PROGRESS);
+  }
+
+  /**
+   * Whether at least one type is not {@link State#DONE}.
+   */
+  public boolean hasUnfinishedTypes() {
+    return statuses.values().stream().anyMatch(s -> s.getState() != State.DONE);
+  }
+
+  /**
+   * Status of all the types processed by startup indexing, sorted by index and type.
+   */
+  public Map<IndexType, TypeStatus> getAll() {
+    Map<IndexType, TypeStatus> result = new LinkedHashMap<>();
+    statuses.entrySet().stream()
+      .sorted(Comparator.comparing(e -> e.getKey().toString()))
+      .forEach(e -> result.put(e.getKey(), e.getValue()));
+    return result;
+  }
+
+  public static final class TypeStatus {
+    private final State state;
+    private final Long startedAt;
+    private final Long endedAt;
+
+    private TypeStatus(State state, @Nullable Long startedAt, @Nullable Long endedAt) {
+      this.state = state;
+      this.startedAt = startedAt;
+      this.endedAt = endedAt;
+    }
+
+    public State getState() {
+      return state;
+    }
+
+    @CheckForNull
+    public Long getStartedAt() {
+      return startedAt;
+    }
+
+    @CheckForNull
+    public Long getEndedAt() {
+      return endedAt;
+    }
+  }
+}
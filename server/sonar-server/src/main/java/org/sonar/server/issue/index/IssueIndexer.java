@@ -23,9 +23,12 @@ import com.google.common.collect.ImmutableSet;
 import java.util.Collection;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Optional;
 import java.util.Set;
 import javax.annotation.Nullable;
+import org.elasticsearch.action.ActionRequest;
 import org.elasticsearch.action.bulk.BulkRequestBuilder;
+import org.elasticsearch.action.delete.DeleteRequest;
 import org.elasticsearch.action.index.IndexRequest;
 import org.elasticsearch.action.search.SearchRequestBuilder;
 import org.sonar.api.resources.Qualifiers;
@@ -33,6 +36,7 @@ import org.sonar.server.es.BulkIndexer;
 import org.sonar.server.es.BulkIndexer.Size;
 import org.sonar.server.es.EsClient;
 import org.sonar.server.es.EsUtils;
+import org.sonar.server.es.IndexRebuilds;
 import org.sonar.server.es.IndexType;
 import org.sonar.server.es.ProjectIndexer;
 import org.sonar.server.es.StartupIndexer;
@@ -51,10 +55,12 @@ public class IssueIndexer implements ProjectIndexer, NeedAuthorizationIndexer, S
   private static final AuthorizationScope AUTHORIZATION_SCOPE = new AuthorizationScope(INDEX_TYPE_ISSUE, project -> Qualifiers.PROJECT.equals(project.getQualifier()));
 
   private final EsClient esClient;
+  private final IndexRebuilds rebuilds;
   private final IssueIteratorFactory issueIteratorFactory;
 
-  public IssueIndexer(EsClient esClient, IssueIteratorFactory issueIteratorFactory) {
+  public IssueIndexer(EsClient esClient, IndexRebuilds rebuilds, IssueIteratorFactory issueIteratorFactory) {
     this.esClient = esClient;
+    this.rebuilds = rebuilds;
     this.issueIteratorFactory = issueIteratorFactory;
   }
 
@@ -124,7 +130,7 @@ public class IssueIndexer implements ProjectIndexer, NeedAuthorizationIndexer, S
 
   @Override
   public void deleteProject(String uuid) {
-    BulkIndexer bulk = new BulkIndexer(esClient, INDEX_TYPE_ISSUE.getIndex());
+    BulkIndexer bulk = new BulkIndexer(esClient, rebuilds, INDEX_TYPE_ISSUE.getIndex());
     bulk.start();
     SearchRequestBuilder search = esClient.prepareSearch(INDEX_TYPE_ISSUE)
       .setRouting(uuid)
@@ -141,9 +147,15 @@ public class IssueIndexer implements ProjectIndexer, NeedAuthorizationIndexer, S
     int count = 0;
     BulkRequestBuilder builder = esClient.prepareBulk();
     for (String issueKey : issueKeys) {
-      builder.add(esClient.prepareDelete(INDEX_TYPE_ISSUE, issueKey)
+      DeleteRequest deleteRequest = esClient.prepareDelete(INDEX_TYPE_ISSUE, issueKey)
         .setRefresh(false)
-        .setRouting(projectUuid));
+        .setRouting(projectUuid)
+        .request();
+      builder.add(deleteRequest);
+      Optional<ActionRequest<?>> rebuildRequest = rebuilds.copyForRebuild(deleteRequest);
+      if (rebuildRequest.isPresent()) {
+        builder.request().add(rebuildRequest.get());
+      }
       count++;
       if (count >= MAX_BATCH_SIZE) {
         EsUtils.executeBulkRequest(builder, DELETE_ERROR_MESSAGE, projectUuid);
@@ -156,7 +168,7 @@ public class IssueIndexer implements ProjectIndexer, NeedAuthorizationIndexer, S
   }
 
   private BulkIndexer createBulkIndexer(Size bulkSize) {
-    return new BulkIndexer(esClient, INDEX_TYPE_ISSUE.getIndex())
+    return new BulkIndexer(esClient, rebuilds, INDEX_TYPE_ISSUE.getIndex())
       .setSize(bulkSize);
   }
 
@@ -42,9 +42,9 @@ import org.sonar.db.protobuf.DbCommons;
 import org.sonar.db.protobuf.DbIssues;
 import org.sonar.db.rule.RuleDto;
 import org.sonar.db.user.UserDto;
-import org.sonar.markdown.Markdown;
 import org.sonar.server.es.Facets;
 import org.sonar.server.issue.workflow.Transition;
+import org.sonar.server.text.MarkdownRenderer;
 import org.sonar.server.ws.WsResponseCommonFormat;
 import org.sonarqube.ws.Common;
 import org.sonarqube.ws.Issues;
@@ -58,11 +58,13 @@ public class SearchResponseFormat {
   private final Durations durations;
   private final WsResponseCommonFormat commonFormat;
   private final Languages languages;
+  private final MarkdownRenderer markdownRenderer;
 
-  public SearchResponseFormat(Durations durations, WsResponseCommonFormat commonFormat, Languages languages) {
+  public SearchResponseFormat(Durations durations, WsResponseCommonFormat commonFormat, Languages languages, MarkdownRenderer markdownRenderer) {
     this.durations = durations;
     this.commonFormat = commonFormat;
     this.languages = languages;
+    this.markdownRenderer = markdownRenderer;
   }
 
   public Issues.SearchWsResponse formatSearch(Set<SearchAdditionalField> fields, SearchResponseData data,
@@ -250,7 +252,7 @@ public class SearchResponseFormat {
     wsIssue.setActions(wsActions);
   }
 
-  private static void formatIssueComments(SearchResponseData data, Issues.Issue.Builder wsIssue, IssueDto dto) {
+  private void formatIssueComments(SearchResponseData data, Issues.Issue.Builder wsIssue, IssueDto dto) {
     Issues.Comments.Builder wsComments = Issues.Comments.newBuilder();
     List<IssueChangeDto> comments = data.getCommentsForIssueKey(dto.getKey());
     if (comments != null) {
@@ -265,7 +267,7 @@ public class SearchResponseFormat {
           .setCreatedAt(DateUtils.formatDateTime(new Date(comment.getCreatedAt())));
         if (markdown != null) {
           wsComment
-            .setHtmlText(Markdown.convertToHtml(markdown))
+            .setHtmlText(markdownRenderer.toHtml(markdown))
             .setMarkdown(markdown);
         }
         wsComments.addComments(wsComment);
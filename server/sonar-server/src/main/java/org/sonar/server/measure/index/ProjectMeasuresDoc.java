@@ -42,16 +42,18 @@ import static org.sonar.server.measure.index.ProjectMeasuresIndexDefinition.FIEL
 import static org.sonar.server.measure.index.ProjectMeasuresIndexDefinition.FIELD_MEASURES_KEY;
 import static org.sonar.server.measure.index.ProjectMeasuresIndexDefinition.FIELD_MEASURES_VALUE;
 import static org.sonar.server.measure.index.ProjectMeasuresIndexDefinition.FIELD_NAME;
+import static org.sonar.server.measure.index.ProjectMeasuresIndexDefinition.FIELD_NUMERIC_MEASURES;
 import static org.sonar.server.measure.index.ProjectMeasuresIndexDefinition.FIELD_ORGANIZATION_UUID;
 import static org.sonar.server.measure.index.ProjectMeasuresIndexDefinition.FIELD_QUALITY_GATE_STATUS;
 import static org.sonar.server.measure.index.ProjectMeasuresIndexDefinition.FIELD_TAGS;
+import static org.sonar.server.measure.index.ProjectMeasuresIndexDefinition.NUMERIC_METRIC_KEYS;
 
 public class ProjectMeasuresDoc extends BaseDoc {
 
   public static final Map<String, Integer> QUALITY_GATE_STATUS = ImmutableMap.of(OK.name(), 1, WARN.name(), 2, ERROR.name(), 3);
 
   public ProjectMeasuresDoc() {
-    super(new HashMap<>(7));
+    super(new HashMap<>(8));
   }
 
   @Override
@@ -115,11 +117,24 @@ public class ProjectMeasuresDoc extends BaseDoc {
     return getField(FIELD_MEASURES);
   }
 
+  /**
+   * Values of the metrics of {@link ProjectMeasuresIndexDefinition#NUMERIC_METRIC_KEYS} are also copied to their own
+   * field of {@link ProjectMeasuresIndexDefinition#FIELD_NUMERIC_MEASURES}.
+   */
   public ProjectMeasuresDoc setMeasures(Collection<Map<String, Object>> measures) {
     setField(FIELD_MEASURES, measures);
+    Map<String, Double> numericMeasures = new HashMap<>();
+    measures.stream()
+      .filter(measure -> NUMERIC_METRIC_KEYS.contains(measure.get(FIELD_MEASURES_KEY)))
+      .forEach(measure -> numericMeasures.put((String) measure.get(FIELD_MEASURES_KEY), ((Number) measure.get(FIELD_MEASURES_VALUE)).doubleValue()));
+    setField(FIELD_NUMERIC_MEASURES, numericMeasures);
     return this;
   }
 
+  public Map<String, Double> getNumericMeasures() {
+    return getField(FIELD_NUMERIC_MEASURES);
+  }
+
   public ProjectMeasuresDoc setMeasuresFromMap(Map<String, Double> measures) {
     setMeasures(
       measures.entrySet().stream()
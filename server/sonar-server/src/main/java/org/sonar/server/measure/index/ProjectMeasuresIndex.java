@@ -72,6 +72,8 @@ import static org.sonar.server.measure.index.ProjectMeasuresIndexDefinition.FIEL
 import static org.sonar.server.measure.index.ProjectMeasuresIndexDefinition.FIELD_QUALITY_GATE_STATUS;
 import static org.sonar.server.measure.index.ProjectMeasuresIndexDefinition.FIELD_TAGS;
 import static org.sonar.server.measure.index.ProjectMeasuresIndexDefinition.INDEX_TYPE_PROJECT_MEASURES;
+import static org.sonar.server.measure.index.ProjectMeasuresIndexDefinition.NUMERIC_METRIC_KEYS;
+import static org.sonar.server.measure.index.ProjectMeasuresIndexDefinition.numericMeasureField;
 import static org.sonar.server.measure.index.ProjectMeasuresQuery.SORT_BY_NAME;
 import static org.sonarqube.ws.client.project.ProjectsWsParameters.FILTER_LANGUAGE;
 
@@ -146,6 +148,10 @@ public class ProjectMeasuresIndex extends BaseIndex {
   }
 
   private static void addMetricSort(ProjectMeasuresQuery query, SearchRequestBuilder requestBuilder, String sort) {
+    if (NUMERIC_METRIC_KEYS.contains(sort)) {
+      requestBuilder.addSort(new FieldSortBuilder(numericMeasureField(sort)).order(query.isAsc() ? ASC : DESC));
+      return;
+    }
     requestBuilder.addSort(
       new FieldSortBuilder(FIELD_MEASURES_VALUE)
         .setNestedPath(FIELD_MEASURES)
@@ -179,8 +185,9 @@ public class ProjectMeasuresIndex extends BaseIndex {
   }
 
   private static AbstractAggregationBuilder createRangeFacet(String metricKey, List<Double> thresholds) {
+    boolean numericField = NUMERIC_METRIC_KEYS.contains(metricKey);
     RangeBuilder rangeAgg = AggregationBuilders.range(metricKey)
-      .field(FIELD_MEASURES_VALUE);
+      .field(numericField ? numericMeasureField(metricKey) : FIELD_MEASURES_VALUE);
     final int lastIndex = thresholds.size() - 1;
     IntStream.range(0, thresholds.size())
       .forEach(i -> {
@@ -194,6 +201,9 @@ public class ProjectMeasuresIndex extends BaseIndex {
         }
       });
 
+    if (numericField) {
+      return rangeAgg;
+    }
     return AggregationBuilders.nested("nested_" + metricKey)
       .path(FIELD_MEASURES)
       .subAggregation(
@@ -203,17 +213,24 @@ public class ProjectMeasuresIndex extends BaseIndex {
   }
 
   private static AbstractAggregationBuilder createRatingFacet(String metricKey) {
+    if (NUMERIC_METRIC_KEYS.contains(metricKey)) {
+      return createRatingFilters(metricKey, numericMeasureField(metricKey));
+    }
     return AggregationBuilders.nested("nested_" + metricKey)
       .path(FIELD_MEASURES)
       .subAggregation(
         AggregationBuilders.filter("filter_" + metricKey)
           .filter(termsQuery(FIELD_MEASURES_KEY, metricKey))
-          .subAggregation(filters(metricKey)
-            .filter("1", termQuery(FIELD_MEASURES_VALUE, 1d))
-            .filter("2", termQuery(FIELD_MEASURES_VALUE, 2d))
-            .filter("3", termQuery(FIELD_MEASURES_VALUE, 3d))
-            .filter("4", termQuery(FIELD_MEASURES_VALUE, 4d))
-            .filter("5", termQuery(FIELD_MEASURES_VALUE, 5d))));
+          .subAggregation(createRatingFilters(metricKey, FIELD_MEASURES_VALUE)));
+  }
+
+  private static FiltersAggregationBuilder createRatingFilters(String metricKey, String valueField) {
+    return filters(metricKey)
+      .filter("1", termQuery(valueField, 1d))
+      .filter("2", termQuery(valueField, 2d))
+      .filter("3", termQuery(valueField, 3d))
+      .filter("4", termQuery(valueField, 4d))
+      .filter("5", termQuery(valueField, 5d));
   }
 
   private static AbstractAggregationBuilder createQualityGateFacet() {
@@ -245,9 +262,7 @@ public class ProjectMeasuresIndex extends BaseIndex {
       BoolQueryBuilder metricFilters = boolQuery();
       entry.getValue()
         .stream()
-        .map(criterion -> nestedQuery(FIELD_MEASURES, boolQuery()
-          .filter(termQuery(FIELD_MEASURES_KEY, criterion.getMetricKey()))
-          .filter(toValueQuery(criterion))))
+        .map(ProjectMeasuresIndex::toMetricQuery)
         .forEach(metricFilters::must);
       filters.put(entry.getKey(), metricFilters);
     });
@@ -285,9 +300,17 @@ public class ProjectMeasuresIndex extends BaseIndex {
     return Optional.of(ComponentTextSearchQueryFactory.createQuery(componentTextSearchQuery, ComponentTextSearchFeature.values()));
   }
 
-  private static QueryBuilder toValueQuery(MetricCriterion criterion) {
-    String fieldName = FIELD_MEASURES_VALUE;
+  private static QueryBuilder toMetricQuery(MetricCriterion criterion) {
+    String metricKey = criterion.getMetricKey();
+    if (NUMERIC_METRIC_KEYS.contains(metricKey)) {
+      return toValueQuery(criterion, numericMeasureField(metricKey));
+    }
+    return nestedQuery(FIELD_MEASURES, boolQuery()
+      .filter(termQuery(FIELD_MEASURES_KEY, metricKey))
+      .filter(toValueQuery(criterion, FIELD_MEASURES_VALUE)));
+  }
 
+  private static QueryBuilder toValueQuery(MetricCriterion criterion, String fieldName) {
     switch (criterion.getOperator()) {
       case GT:
         return rangeQuery(fieldName).gt(criterion.getValue());
@@ -19,7 +19,14 @@
  */
 package org.sonar.server.measure.index;
 
+import com.google.common.collect.ImmutableMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
 import org.sonar.api.config.Settings;
+import org.sonar.api.measures.CoreMetrics;
+import org.sonar.api.measures.Metric;
+import org.sonar.core.util.stream.Collectors;
 import org.sonar.server.es.IndexDefinition;
 import org.sonar.server.es.IndexType;
 import org.sonar.server.es.NewIndex;
@@ -39,10 +46,20 @@ public class ProjectMeasuresIndexDefinition implements IndexDefinition {
   public static final String FIELD_MEASURES = "measures";
   public static final String FIELD_MEASURES_KEY = "key";
   public static final String FIELD_MEASURES_VALUE = "value";
+  public static final String FIELD_NUMERIC_MEASURES = "numericMeasures";
   public static final String FIELD_LANGUAGES = "languages";
   public static final String FIELD_LANGUAGES_KEY = "key";
   public static final String FIELD_LANGUAGES_VALUE = "value";
 
+  /**
+   * Keys of the numeric core metrics. Their values are indexed both in {@link #FIELD_MEASURES} and in a dedicated
+   * field of {@link #FIELD_NUMERIC_MEASURES}, so that filters, facets and sorts on them don't require nested queries.
+   */
+  public static final Set<String> NUMERIC_METRIC_KEYS = CoreMetrics.getMetrics().stream()
+    .filter(Metric::isNumericType)
+    .map(Metric::getKey)
+    .collect(Collectors.toSet());
+
   private final Settings settings;
 
   public ProjectMeasuresIndexDefinition(Settings settings) {
@@ -68,10 +85,24 @@ public class ProjectMeasuresIndexDefinition implements IndexDefinition {
       .addStringField(FIELD_MEASURES_KEY)
       .addDoubleField(FIELD_MEASURES_VALUE)
       .build();
+    mapping.setProperty(FIELD_NUMERIC_MEASURES, ImmutableMap.of("type", "object", "properties", numericMeasuresProperties()));
     mapping.nestedFieldBuilder(FIELD_LANGUAGES)
       .addStringField(FIELD_LANGUAGES_KEY)
       .addIntegerField(FIELD_LANGUAGES_VALUE)
       .build();
     mapping.setEnableSource(false);
   }
+
+  private static Map<String, Object> numericMeasuresProperties() {
+    Map<String, Object> properties = new TreeMap<>();
+    NUMERIC_METRIC_KEYS.forEach(metricKey -> properties.put(metricKey, ImmutableMap.of("type", "double")));
+    return properties;
+  }
+
+  /**
+   * Name of the dedicated field of a metric of {@link #NUMERIC_METRIC_KEYS}
+   */
+  public static String numericMeasureField(String metricKey) {
+    return FIELD_NUMERIC_MEASURES + "." + metricKey;
+  }
 }
@@ -33,6 +33,7 @@ import org.sonar.db.measure.ProjectMeasuresIndexerIterator.ProjectMeasures;
 import org.sonar.server.es.BulkIndexer;
 import org.sonar.server.es.BulkIndexer.Size;
 import org.sonar.server.es.EsClient;
+import org.sonar.server.es.IndexRebuilds;
 import org.sonar.server.es.IndexType;
 import org.sonar.server.es.ProjectIndexer;
 import org.sonar.server.es.StartupIndexer;
@@ -47,10 +48,12 @@ public class ProjectMeasuresIndexer implements ProjectIndexer, NeedAuthorization
 
   private final DbClient dbClient;
   private final EsClient esClient;
+  private final IndexRebuilds rebuilds;
 
-  public ProjectMeasuresIndexer(DbClient dbClient, EsClient esClient) {
+  public ProjectMeasuresIndexer(DbClient dbClient, EsClient esClient, IndexRebuilds rebuilds) {
     this.dbClient = dbClient;
     this.esClient = esClient;
+    this.rebuilds = rebuilds;
   }
 
   @Override
@@ -86,11 +89,10 @@ public class ProjectMeasuresIndexer implements ProjectIndexer, NeedAuthorization
 
   @Override
   public void deleteProject(String uuid) {
-    esClient
-      .prepareDelete(INDEX_TYPE_PROJECT_MEASURES, uuid)
-      .setRouting(uuid)
-      .setRefresh(true)
-      .get();
+    BulkIndexer bulk = new BulkIndexer(esClient, rebuilds, INDEX_TYPE_PROJECT_MEASURES.getIndex());
+    bulk.start();
+    bulk.addDeletion(INDEX_TYPE_PROJECT_MEASURES, uuid, uuid);
+    bulk.stop();
   }
 
   private void doIndex(BulkIndexer bulk, @Nullable String projectUuid) {
@@ -110,7 +112,7 @@ public class ProjectMeasuresIndexer implements ProjectIndexer, NeedAuthorization
   }
 
   private BulkIndexer createBulkIndexer(Size bulkSize) {
-    return new BulkIndexer(esClient, INDEX_TYPE_PROJECT_MEASURES.getIndex())
+    return new BulkIndexer(esClient, rebuilds, INDEX_TYPE_PROJECT_MEASURES.getIndex())
       .setSize(bulkSize);
   }
 
@@ -123,7 +123,7 @@ public class ComponentAction implements MeasuresWsAction {
   }
 
   private ComponentWsResponse doHandle(ComponentWsRequest request) {
-    try (DbSession dbSession = dbClient.openSession(false)) {
+    try (DbSession dbSession = dbClient.openReadOnlySession(userSession.getLogin())) {
       ComponentDto component = componentFinder.getByUuidOrKey(dbSession, request.getComponentId(), request.getComponentKey(), COMPONENT_ID_AND_KEY);
       Long developerId = searchDeveloperId(dbSession, request);
       Optional<ComponentDto> refComponent = getReferenceComponent(dbSession, component);
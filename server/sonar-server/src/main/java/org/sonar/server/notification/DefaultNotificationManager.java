@@ -23,11 +23,18 @@ import com.google.common.annotations.VisibleForTesting;
 import com.google.common.collect.HashMultimap;
 import com.google.common.collect.Lists;
 import com.google.common.collect.Multimap;
+import com.google.common.collect.Multimaps;
 import com.google.common.collect.SetMultimap;
 import java.io.IOException;
 import java.io.InvalidClassException;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+import javax.annotation.CheckForNull;
 import javax.annotation.Nullable;
 import org.sonar.api.notifications.Notification;
 import org.sonar.api.notifications.NotificationChannel;
@@ -48,6 +55,8 @@ public class DefaultNotificationManager implements NotificationManager {
   private NotificationQueueDao notificationQueueDao;
   private PropertiesDao propertiesDao;
 
+  private final ThreadLocal<Map<String, Multimap<String, NotificationChannel>>> subscribersCache = new ThreadLocal<>();
+
   private boolean alreadyLoggedDeserializationIssue = false;
 
   /**
@@ -83,21 +92,48 @@ public class DefaultNotificationManager implements NotificationManager {
   /**
    * Give the notification queue so that it can be processed
    */
+  @CheckForNull
   public Notification getFromQueue() {
-    int batchSize = 1;
+    QueuedNotifications queued = readFromQueue(1);
+    if (queued.isEmpty()) {
+      return null;
+    }
+    removeFromQueue(queued);
+    List<Notification> notifications = queued.getNotifications();
+    return notifications.isEmpty() ? null : notifications.get(0);
+  }
+
+  /**
+   * Read at most {@code batchSize} of the oldest notifications of the queue, oldest first. They stay in the queue
+   * until {@link #removeFromQueue(QueuedNotifications)} is called, so that they are not lost if the server
+   * stops during their delivery. Notifications which can't be deserialized are skipped, but are removed
+   * from the queue with the others.
+   */
+  public QueuedNotifications readFromQueue(int batchSize) {
     List<NotificationQueueDto> notificationDtos = notificationQueueDao.selectOldest(batchSize);
     if (notificationDtos.isEmpty()) {
-      return null;
+      return new QueuedNotifications(Collections.emptyList(), Collections.emptyList());
+    }
+    List<Notification> notifications = new ArrayList<>(notificationDtos.size());
+    for (NotificationQueueDto notificationDto : notificationDtos) {
+      Notification notification = convertToNotification(notificationDto);
+      if (notification != null) {
+        notifications.add(notification);
+      }
     }
-    notificationQueueDao.delete(notificationDtos);
+    return new QueuedNotifications(notificationDtos, notifications);
+  }
 
-    return convertToNotification(notificationDtos);
+  public void removeFromQueue(QueuedNotifications queued) {
+    if (!queued.isEmpty()) {
+      notificationQueueDao.delete(queued.dtos);
+    }
   }
 
-  private Notification convertToNotification(List<NotificationQueueDto> notifications) {
+  @CheckForNull
+  private Notification convertToNotification(NotificationQueueDto notification) {
     try {
-      // If batchSize is increased then we should return a list instead of a single element
-      return notifications.get(0).toNotification();
+      return notification.toNotification();
     } catch (InvalidClassException e) {
       // SONAR-4739
       if (!alreadyLoggedDeserializationIssue) {
@@ -119,6 +155,20 @@ public class DefaultNotificationManager implements NotificationManager {
     return notificationQueueDao.count();
   }
 
+  /**
+   * Until {@link #stopSubscribersCache()} is called, subscribers loaded by the current thread are kept in memory
+   * and reused by the next calls to {@link #findSubscribedRecipientsForDispatcher(NotificationDispatcher, String)}
+   * and {@link #findNotificationSubscribers(NotificationDispatcher, String)} with the same parameters.
+   * The multimaps returned from the cache are unmodifiable.
+   */
+  public void startSubscribersCache() {
+    subscribersCache.set(new HashMap<>());
+  }
+
+  public void stopSubscribersCache() {
+    subscribersCache.remove();
+  }
+
   /**
    * {@inheritDoc}
    */
@@ -126,33 +176,41 @@ public class DefaultNotificationManager implements NotificationManager {
   public Multimap<String, NotificationChannel> findSubscribedRecipientsForDispatcher(NotificationDispatcher dispatcher,
     @Nullable String projectUuid) {
     String dispatcherKey = dispatcher.getKey();
-
-    SetMultimap<String, NotificationChannel> recipients = HashMultimap.create();
-    for (NotificationChannel channel : notificationChannels) {
-      String channelKey = channel.getKey();
-
-      // Find users subscribed globally to the dispatcher (i.e. not on a specific project)
-      addUsersToRecipientListForChannel(propertiesDao.selectUsersForNotification(dispatcherKey, channelKey, null), recipients, channel);
-
-      if (projectUuid != null) {
-        // Find users subscribed to the dispatcher specifically for the project
-        addUsersToRecipientListForChannel(propertiesDao.selectUsersForNotification(dispatcherKey, channelKey, projectUuid), recipients, channel);
+    return cacheSubscribers("recipients|" + dispatcherKey + "|" + projectUuid, () -> {
+      SetMultimap<String, NotificationChannel> recipients = HashMultimap.create();
+      for (NotificationChannel channel : notificationChannels) {
+        String channelKey = channel.getKey();
+
+        // Find users subscribed globally to the dispatcher (i.e. not on a specific project)
+        addUsersToRecipientListForChannel(propertiesDao.selectUsersForNotification(dispatcherKey, channelKey, null), recipients, channel);
+
+        if (projectUuid != null) {
+          // Find users subscribed to the dispatcher specifically for the project
+          addUsersToRecipientListForChannel(propertiesDao.selectUsersForNotification(dispatcherKey, channelKey, projectUuid), recipients, channel);
+        }
       }
-    }
-
-    return recipients;
+      return recipients;
+    });
   }
 
   @Override
   public Multimap<String, NotificationChannel> findNotificationSubscribers(NotificationDispatcher dispatcher, @Nullable String componentKey) {
     String dispatcherKey = dispatcher.getKey();
+    return cacheSubscribers("subscribers|" + dispatcherKey + "|" + componentKey, () -> {
+      SetMultimap<String, NotificationChannel> recipients = HashMultimap.create();
+      for (NotificationChannel channel : notificationChannels) {
+        addUsersToRecipientListForChannel(propertiesDao.selectNotificationSubscribers(dispatcherKey, channel.getKey(), componentKey), recipients, channel);
+      }
+      return recipients;
+    });
+  }
 
-    SetMultimap<String, NotificationChannel> recipients = HashMultimap.create();
-    for (NotificationChannel channel : notificationChannels) {
-      addUsersToRecipientListForChannel(propertiesDao.selectNotificationSubscribers(dispatcherKey, channel.getKey(), componentKey), recipients, channel);
+  private Multimap<String, NotificationChannel> cacheSubscribers(String cacheKey, Supplier<Multimap<String, NotificationChannel>> loader) {
+    Map<String, Multimap<String, NotificationChannel>> cache = subscribersCache.get();
+    if (cache == null) {
+      return loader.get();
     }
-
-    return recipients;
+    return cache.computeIfAbsent(cacheKey, k -> Multimaps.unmodifiableMultimap(loader.get()));
   }
 
   @VisibleForTesting
@@ -166,4 +224,31 @@ public class DefaultNotificationManager implements NotificationManager {
     }
   }
 
+  /**
+   * Notifications read from the queue, see {@link #readFromQueue(int)}
+   */
+  public static final class QueuedNotifications {
+    private final List<NotificationQueueDto> dtos;
+    private final List<Notification> notifications;
+
+    QueuedNotifications(List<NotificationQueueDto> dtos, List<Notification> notifications) {
+      this.dtos = dtos;
+      this.notifications = notifications;
+    }
+
+    public List<Notification> getNotifications() {
+      return notifications;
+    }
+
+    /**
+     * Number of rows read from the queue, including the notifications which can't be deserialized
+     */
+    public int size() {
+      return dtos.size();
+    }
+
+    public boolean isEmpty() {
+      return dtos.isEmpty();
+    }
+  }
 }
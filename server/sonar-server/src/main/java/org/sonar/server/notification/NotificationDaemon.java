@@ -21,9 +21,14 @@ package org.sonar.server.notification;
 
 import com.google.common.annotations.VisibleForTesting;
 import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 import org.picocontainer.Startable;
 import org.sonar.api.Properties;
 import org.sonar.api.Property;
@@ -32,6 +37,7 @@ import org.sonar.api.notifications.Notification;
 import org.sonar.api.server.ServerSide;
 import org.sonar.api.utils.log.Logger;
 import org.sonar.api.utils.log.Loggers;
+import org.sonar.server.notification.DefaultNotificationManager.QueuedNotifications;
 
 @Properties({
   @Property(
@@ -43,34 +49,71 @@ import org.sonar.api.utils.log.Loggers;
     key = NotificationDaemon.PROPERTY_DELAY_BEFORE_REPORTING_STATUS,
     defaultValue = "600",
     name = "Delay before reporting notification status, in seconds",
+    global = false),
+  @Property(
+    key = NotificationDaemon.PROPERTY_BATCH_SIZE,
+    defaultValue = "100",
+    name = "Maximum number of notifications read from the queue at once",
+    global = false),
+  @Property(
+    key = NotificationDaemon.PROPERTY_DELIVERY_THREADS,
+    defaultValue = "4",
+    name = "Number of threads delivering notifications in parallel",
     global = false)
 })
 @ServerSide
 public class NotificationDaemon implements Startable {
   private static final String THREAD_NAME_PREFIX = "sq-notification-service-";
+  private static final String DELIVERY_THREAD_NAME_PREFIX = "sq-notification-delivery-";
 
   private static final Logger LOG = Loggers.get(NotificationDaemon.class);
 
   public static final String PROPERTY_DELAY = "sonar.notifications.delay";
   public static final String PROPERTY_DELAY_BEFORE_REPORTING_STATUS = "sonar.notifications.runningDelayBeforeReportingStatus";
+  public static final String PROPERTY_BATCH_SIZE = "sonar.notifications.batchSize";
+  public static final String PROPERTY_DELIVERY_THREADS = "sonar.notifications.deliveryThreads";
+  private static final int DEFAULT_BATCH_SIZE = 100;
+  private static final int DEFAULT_DELIVERY_THREADS = 4;
 
   private final long delayInSeconds;
   private final long delayBeforeReportingStatusInSeconds;
+  private final int batchSize;
+  private final int deliveryThreads;
   private final DefaultNotificationManager manager;
   private final NotificationService service;
+  private final AtomicLong sentCount = new AtomicLong();
+  private final AtomicLong lastBatchDurationInMs = new AtomicLong();
+  /**
+   * Number of notifications being delivered, which are not removed from queue yet
+   */
+  private final AtomicInteger inProgressCount = new AtomicInteger();
+  @VisibleForTesting
+  long stopTimeoutInMs = 5_000L;
 
   private ScheduledExecutorService executorService;
-  private boolean stopping = false;
+  private ExecutorService deliveryExecutorService;
+  private volatile boolean stopping = false;
 
   public NotificationDaemon(Settings settings, DefaultNotificationManager manager, NotificationService service) {
     this.delayInSeconds = settings.getLong(PROPERTY_DELAY);
     this.delayBeforeReportingStatusInSeconds = settings.getLong(PROPERTY_DELAY_BEFORE_REPORTING_STATUS);
+    this.batchSize = positiveOrDefault(settings.getInt(PROPERTY_BATCH_SIZE), DEFAULT_BATCH_SIZE);
+    this.deliveryThreads = positiveOrDefault(settings.getInt(PROPERTY_DELIVERY_THREADS), DEFAULT_DELIVERY_THREADS);
     this.manager = manager;
     this.service = service;
   }
 
+  private static int positiveOrDefault(int value, int defaultValue) {
+    return value > 0 ? value : defaultValue;
+  }
+
   @Override
   public void start() {
+    deliveryExecutorService = Executors.newFixedThreadPool(deliveryThreads,
+      new ThreadFactoryBuilder()
+        .setNameFormat(DELIVERY_THREAD_NAME_PREFIX + "%d")
+        .setPriority(Thread.MIN_PRIORITY)
+        .build());
     executorService = Executors.newSingleThreadScheduledExecutor(
       new ThreadFactoryBuilder()
         .setNameFormat(THREAD_NAME_PREFIX + "%d")
@@ -83,20 +126,33 @@ public class NotificationDaemon implements Startable {
         LOG.error("Error in NotificationService", e);
       }
     }, 0, delayInSeconds, TimeUnit.SECONDS);
-    LOG.info("Notification service started (delay {} sec.)", delayInSeconds);
+    LOG.info("Notification service started (delay {} sec., batch size {}, {} delivery threads)", delayInSeconds, batchSize, deliveryThreads);
   }
 
   @Override
   public void stop() {
+    stopping = true;
+    terminate(executorService);
+    terminate(deliveryExecutorService);
+    int notDelivered = inProgressCount.get();
+    if (notDelivered > 0) {
+      LOG.warn("Delivery of {} notifications is interrupted. They will be delivered again at next startup.", notDelivered);
+    }
+    LOG.info("Notification service stopped");
+  }
+
+  private void terminate(ExecutorService executor) {
+    executor.shutdown();
     try {
-      stopping = true;
-      executorService.shutdown();
-      executorService.awaitTermination(5, TimeUnit.SECONDS);
+      if (!executor.awaitTermination(stopTimeoutInMs, TimeUnit.MILLISECONDS)) {
+        executor.shutdownNow();
+        executor.awaitTermination(stopTimeoutInMs, TimeUnit.MILLISECONDS);
+      }
     } catch (InterruptedException e) {
       LOG.error("Error during stop of notification service", e);
+      executor.shutdownNow();
       Thread.currentThread().interrupt();
     }
-    LOG.info("Notification service stopped");
   }
 
   @VisibleForTesting
@@ -105,10 +161,13 @@ public class NotificationDaemon implements Startable {
     long lastLog = start;
     long notifSentCount = 0;
 
-    Notification notifToSend = manager.getFromQueue();
-    while (notifToSend != null) {
-      service.deliver(notifToSend);
-      notifSentCount++;
+    QueuedNotifications notifsToSend = manager.readFromQueue(batchSize);
+    while (!notifsToSend.isEmpty()) {
+      if (!deliver(notifsToSend)) {
+        // notifications stay in queue
+        return;
+      }
+      notifSentCount += notifsToSend.getNotifications().size();
       if (stopping) {
         break;
       }
@@ -119,8 +178,38 @@ public class NotificationDaemon implements Startable {
         long spentTimeInMinutes = (now - start) / (60 * 1000);
         log(notifSentCount, remainingNotifCount, spentTimeInMinutes);
       }
-      notifToSend = manager.getFromQueue();
+      notifsToSend = manager.readFromQueue(batchSize);
+    }
+  }
+
+  /**
+   * Notifications are removed from queue once delivered, so that they are delivered at next startup if the
+   * service is stopped in the meantime.
+   *
+   * @return {@code false} if the delivery has been interrupted by the stop of the service
+   */
+  private boolean deliver(QueuedNotifications queued) {
+    List<Notification> notifications = queued.getNotifications();
+    long batchStart = System.currentTimeMillis();
+    inProgressCount.set(queued.size());
+    // subscribers are loaded once per batch, whatever the number of notifications related to the same project
+    manager.startSubscribersCache();
+    try {
+      service.deliver(notifications, deliveryExecutorService);
+    } catch (RejectedExecutionException e) {
+      // delivery threads are stopped
+      return false;
+    } finally {
+      manager.stopSubscribersCache();
     }
+    if (Thread.currentThread().isInterrupted()) {
+      return false;
+    }
+    manager.removeFromQueue(queued);
+    inProgressCount.set(0);
+    sentCount.addAndGet(notifications.size());
+    lastBatchDurationInMs.set(System.currentTimeMillis() - batchStart);
+    return true;
   }
 
   @VisibleForTesting
@@ -129,6 +218,28 @@ public class NotificationDaemon implements Startable {
       notifSentCount, spentTimeInMinutes, remainingNotifCount);
   }
 
+  /**
+   * Number of notifications processed since startup
+   */
+  public long getSentCount() {
+    return sentCount.get();
+  }
+
+  /**
+   * Time spent to deliver the last batch of notifications, in milliseconds
+   */
+  public long getLastBatchDurationInMs() {
+    return lastBatchDurationInMs.get();
+  }
+
+  public int getBatchSize() {
+    return batchSize;
+  }
+
+  public int getDeliveryThreads() {
+    return deliveryThreads;
+  }
+
   @VisibleForTesting
   long now() {
     return System.currentTimeMillis();
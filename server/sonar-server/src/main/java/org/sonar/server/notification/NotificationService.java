@@ -29,6 +29,9 @@ import java.util.Collection;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
 import javax.annotation.Nullable;
 import org.sonar.api.ce.ComputeEngineSide;
 import org.sonar.api.notifications.Notification;
@@ -65,6 +68,28 @@ public class NotificationService {
   }
 
   public void deliver(Notification notification) {
+    dispatch(notification, findRecipients(notification));
+  }
+
+  /**
+   * Deliver a batch of notifications. Recipients are resolved sequentially by the calling thread, while
+   * deliveries to each recipient are executed by {@code deliveryExecutor}. The method returns once all the
+   * deliveries are done.
+   */
+  public void deliver(Collection<Notification> notifications, ExecutorService deliveryExecutor) {
+    List<Future<?>> deliveries = new ArrayList<>();
+    for (Notification notification : notifications) {
+      SetMultimap<String, NotificationChannel> recipients = findRecipients(notification);
+      for (Map.Entry<String, Collection<NotificationChannel>> entry : recipients.asMap().entrySet()) {
+        String username = entry.getKey();
+        Collection<NotificationChannel> userChannels = entry.getValue();
+        deliveries.add(deliveryExecutor.submit(() -> deliver(notification, username, userChannels)));
+      }
+    }
+    awaitDeliveries(deliveries);
+  }
+
+  private SetMultimap<String, NotificationChannel> findRecipients(Notification notification) {
     final SetMultimap<String, NotificationChannel> recipients = HashMultimap.create();
     for (NotificationDispatcher dispatcher : dispatchers) {
       NotificationDispatcher.Context context = new ContextImpl(recipients);
@@ -75,21 +100,37 @@ public class NotificationService {
         LOG.warn(String.format("Unable to dispatch notification %s using %s", notification, dispatcher), e);
       }
     }
-    dispatch(notification, recipients);
+    return recipients;
   }
 
-  private void dispatch(Notification notification, SetMultimap<String, NotificationChannel> recipients) {
+  private static void dispatch(Notification notification, SetMultimap<String, NotificationChannel> recipients) {
     for (Map.Entry<String, Collection<NotificationChannel>> entry : recipients.asMap().entrySet()) {
-      String username = entry.getKey();
-      Collection<NotificationChannel> userChannels = entry.getValue();
-      LOG.debug("For user {} via {}", username, userChannels);
-      for (NotificationChannel channel : userChannels) {
-        try {
-          channel.deliver(notification, username);
-        } catch (Exception e) {
-          // catch all exceptions in order to deliver via other channels
-          LOG.warn("Unable to deliver notification " + notification + " for user " + username + " via " + channel, e);
-        }
+      deliver(notification, entry.getKey(), entry.getValue());
+    }
+  }
+
+  private static void deliver(Notification notification, String username, Collection<NotificationChannel> userChannels) {
+    LOG.debug("For user {} via {}", username, userChannels);
+    for (NotificationChannel channel : userChannels) {
+      try {
+        channel.deliver(notification, username);
+      } catch (Exception e) {
+        // catch all exceptions in order to deliver via other channels
+        LOG.warn("Unable to deliver notification " + notification + " for user " + username + " via " + channel, e);
+      }
+    }
+  }
+
+  private static void awaitDeliveries(List<Future<?>> deliveries) {
+    for (Future<?> delivery : deliveries) {
+      try {
+        delivery.get();
+      } catch (InterruptedException e) {
+        LOG.warn("Interrupted while waiting for delivery of notifications");
+        Thread.currentThread().interrupt();
+        return;
+      } catch (ExecutionException e) {
+        LOG.warn("Unable to deliver notification", e.getCause());
       }
     }
   }
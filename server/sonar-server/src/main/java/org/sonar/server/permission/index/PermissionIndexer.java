@@ -35,6 +35,7 @@ import org.sonar.db.DbSession;
 import org.sonar.server.es.BulkIndexer;
 import org.sonar.server.es.BulkIndexer.Size;
 import org.sonar.server.es.EsClient;
+import org.sonar.server.es.IndexRebuilds;
 import org.sonar.server.es.IndexType;
 import org.sonar.server.es.ProjectIndexer;
 import org.sonar.server.es.StartupIndexer;
@@ -57,18 +58,20 @@ public class PermissionIndexer implements ProjectIndexer, StartupIndexer {
 
   private final DbClient dbClient;
   private final EsClient esClient;
+  private final IndexRebuilds rebuilds;
   private final Collection<AuthorizationScope> authorizationScopes;
 
-  public PermissionIndexer(DbClient dbClient, EsClient esClient, NeedAuthorizationIndexer... needAuthorizationIndexers) {
-    this(dbClient, esClient, Arrays.stream(needAuthorizationIndexers)
+  public PermissionIndexer(DbClient dbClient, EsClient esClient, IndexRebuilds rebuilds, NeedAuthorizationIndexer... needAuthorizationIndexers) {
+    this(dbClient, esClient, rebuilds, Arrays.stream(needAuthorizationIndexers)
       .map(NeedAuthorizationIndexer::getAuthorizationScope)
       .collect(Collectors.toList(needAuthorizationIndexers.length)));
   }
 
   @VisibleForTesting
-  public PermissionIndexer(DbClient dbClient, EsClient esClient, Collection<AuthorizationScope> authorizationScopes) {
+  public PermissionIndexer(DbClient dbClient, EsClient esClient, IndexRebuilds rebuilds, Collection<AuthorizationScope> authorizationScopes) {
     this.dbClient = dbClient;
     this.esClient = esClient;
+    this.rebuilds = rebuilds;
     this.authorizationScopes = authorizationScopes;
   }
 
@@ -123,11 +126,12 @@ public class PermissionIndexer implements ProjectIndexer, StartupIndexer {
 
   @Override
   public void deleteProject(String projectUuid) {
-    authorizationScopes.forEach(scope -> esClient
-      .prepareDelete(scope.getIndexType(), projectUuid)
-      .setRouting(projectUuid)
-      .setRefresh(true)
-      .get());
+    authorizationScopes.forEach(scope -> {
+      BulkIndexer bulk = new BulkIndexer(esClient, rebuilds, scope.getIndexType().getIndex());
+      bulk.start();
+      bulk.addDeletion(scope.getIndexType(), projectUuid, projectUuid);
+      bulk.stop();
+    });
   }
 
   private Stream<AuthorizationScope> getScopes(Set<IndexType> indexTypes) {
@@ -147,7 +151,7 @@ public class PermissionIndexer implements ProjectIndexer, StartupIndexer {
   private void index(Collection<PermissionIndexerDao.Dto> authorizations, AuthorizationScope scope, Size bulkSize) {
     IndexType indexType = scope.getIndexType();
 
-    BulkIndexer bulkIndexer = new BulkIndexer(esClient, indexType.getIndex());
+    BulkIndexer bulkIndexer = new BulkIndexer(esClient, rebuilds, indexType.getIndex());
     bulkIndexer.setSize(bulkSize);
     bulkIndexer.start();
 
@@ -35,6 +35,7 @@ import org.sonar.db.version.SqTables;
 import org.sonar.server.component.index.ComponentIndexDefinition;
 import org.sonar.server.es.BulkIndexer;
 import org.sonar.server.es.EsClient;
+import org.sonar.server.es.IndexRebuilds;
 import org.sonar.server.issue.index.IssueIndexDefinition;
 import org.sonar.server.measure.index.ProjectMeasuresIndexDefinition;
 import org.sonar.server.property.InternalProperties;
@@ -60,10 +61,12 @@ public class BackendCleanup {
     "schema_migrations", BackendCleanup::truncateSchemaMigrations);
 
   private final EsClient esClient;
+  private final IndexRebuilds rebuilds;
   private final DbClient dbClient;
 
-  public BackendCleanup(EsClient esClient, DbClient dbClient) {
+  public BackendCleanup(EsClient esClient, IndexRebuilds rebuilds, DbClient dbClient) {
     this.esClient = esClient;
+    this.rebuilds = rebuilds;
     this.dbClient = dbClient;
   }
 
@@ -151,7 +154,7 @@ public class BackendCleanup {
    * Completely remove a index with all types
    */
   public void clearIndex(String indexName) {
-    BulkIndexer.delete(esClient, indexName, esClient.prepareSearch(indexName).setQuery(matchAllQuery()));
+    BulkIndexer.delete(esClient, rebuilds, indexName, esClient.prepareSearch(indexName).setQuery(matchAllQuery()));
   }
 
   @FunctionalInterface
@@ -102,6 +102,7 @@ public class DatabaseMonitor extends BaseMonitorMBean implements DatabaseMonitor
     Map<String, Object> attributes = new LinkedHashMap<>();
     completeDbAttributes(attributes);
     completePoolAttributes(attributes);
+    completeReadReplicaPoolAttributes(attributes);
     return attributes;
   }
 
@@ -117,6 +118,19 @@ public class DatabaseMonitor extends BaseMonitorMBean implements DatabaseMonitor
     attributes.put("Pool Remove Abandoned Timeout (seconds)", getPoolRemoveAbandonedTimeoutSeconds());
   }
 
+  private void completeReadReplicaPoolAttributes(Map<String, Object> attributes) {
+    BasicDataSource readReplica = (BasicDataSource) dbClient.getDatabase().getReadReplicaDataSource();
+    if (readReplica == null) {
+      return;
+    }
+    attributes.put("Read Replica URL", readReplica.getUrl());
+    attributes.put("Read Replica Pool Active Connections", readReplica.getNumActive());
+    attributes.put("Read Replica Pool Max Connections", readReplica.getMaxActive());
+    attributes.put("Read Replica Pool Idle Connections", readReplica.getNumIdle());
+    attributes.put("Read Replica Pool Max Idle Connections", readReplica.getMaxIdle());
+    attributes.put("Read Replica Pool Max Wait (ms)", readReplica.getMaxWait());
+  }
+
   private BasicDataSource commonsDbcp() {
     return (BasicDataSource) dbClient.getDatabase().getDataSource();
   }
@@ -0,0 +1,70 @@
+/*
+ * SonarQube
+ * Copyright (C) 2009-2017 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.server.platform.monitoring;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import org.sonar.server.notification.DefaultNotificationManager;
+import org.sonar.server.notification.NotificationDaemon;
+
+/**
+ * Activity of the queue of notifications
+ */
+public class NotificationQueueMonitor extends BaseMonitorMBean implements NotificationQueueMonitorMBean {
+
+  private final DefaultNotificationManager manager;
+  private final NotificationDaemon daemon;
+
+  public NotificationQueueMonitor(DefaultNotificationManager manager, NotificationDaemon daemon) {
+    this.manager = manager;
+    this.daemon = daemon;
+  }
+
+  @Override
+  public String name() {
+    return "Notifications";
+  }
+
+  @Override
+  public long getPendingNotifications() {
+    return manager.count();
+  }
+
+  @Override
+  public long getSentNotifications() {
+    return daemon.getSentCount();
+  }
+
+  @Override
+  public long getLastBatchDurationMillis() {
+    return daemon.getLastBatchDurationInMs();
+  }
+
+  @Override
+  public Map<String, Object> attributes() {
+    Map<String, Object> attributes = new LinkedHashMap<>();
+    attributes.put("Pending Notifications", getPendingNotifications());
+    attributes.put("Sent Notifications", getSentNotifications());
+    attributes.put("Last Batch Duration (ms)", getLastBatchDurationMillis());
+    attributes.put("Batch Size", daemon.getBatchSize());
+    attributes.put("Delivery Threads", daemon.getDeliveryThreads());
+    return attributes;
+  }
+}
@@ -34,6 +34,7 @@ import org.sonar.db.DaoModule;
 import org.sonar.db.DatabaseChecker;
 import org.sonar.db.DbClient;
 import org.sonar.db.DefaultDatabase;
+import org.sonar.db.ReadReplicaConsistency;
 import org.sonar.db.purge.PurgeProfiler;
 import org.sonar.db.semaphore.SemaphoresImpl;
 import org.sonar.process.logging.LogbackHelper;
@@ -103,6 +104,7 @@ public class PlatformLevel1 extends PlatformLevel {
 
       // DB
       DbClient.class,
+      ReadReplicaConsistency.class,
       DaoModule.class,
 
       // Elasticsearch
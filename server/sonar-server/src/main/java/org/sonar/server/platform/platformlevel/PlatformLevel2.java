@@ -36,6 +36,7 @@ import org.sonar.server.platform.db.migration.history.MigrationHistoryTable;
 import org.sonar.server.platform.db.migration.history.MigrationHistoryTableImpl;
 import org.sonar.server.platform.db.migration.version.DatabaseVersion;
 import org.sonar.server.plugins.InstalledPluginReferentialFactory;
+import org.sonar.server.plugins.ExplodedPluginCache;
 import org.sonar.server.plugins.ServerPluginJarExploder;
 import org.sonar.server.plugins.ServerPluginRepository;
 import org.sonar.server.plugins.WebServerExtensionInstaller;
@@ -59,6 +60,7 @@ public class PlatformLevel2 extends PlatformLevel {
       // plugins
       ServerPluginRepository.class,
       ServerPluginJarExploder.class,
+      ExplodedPluginCache.class,
       PluginLoader.class,
       PluginClassloaderFactory.class,
       InstalledPluginReferentialFactory.class,
@@ -19,6 +19,7 @@
  */
 package org.sonar.server.platform.platformlevel;
 
+import org.sonar.server.es.StartupIndexingStatus;
 import org.sonar.server.organization.NoopDefaultOrganizationCache;
 import org.sonar.server.platform.ServerImpl;
 import org.sonar.server.platform.db.migration.AutoDbMigration;
@@ -52,6 +53,7 @@ public class PlatformLevelSafeMode extends PlatformLevel {
       IndexAction.class,
 
       // Server WS
+      StartupIndexingStatus.class,
       StatusAction.class,
       MigrateDbAction.class,
       DbMigrationStatusAction.class,
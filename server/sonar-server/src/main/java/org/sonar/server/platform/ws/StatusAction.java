@@ -20,7 +20,10 @@
 package org.sonar.server.platform.ws;
 
 import com.google.common.io.Resources;
+import java.util.Date;
+import java.util.Map;
 import org.sonar.api.platform.Server;
+import org.sonar.api.server.ws.Change;
 import org.sonar.api.server.ws.Request;
 import org.sonar.api.server.ws.Response;
 import org.sonar.api.server.ws.WebService;
@@ -31,6 +34,8 @@ import org.sonar.db.DbClient;
 import org.sonar.db.DbSession;
 import org.sonar.db.IsAliveMapper;
 import org.sonar.server.app.RestartFlagHolder;
+import org.sonar.server.es.IndexType;
+import org.sonar.server.es.StartupIndexingStatus;
 import org.sonar.server.platform.Platform;
 import org.sonar.server.platform.db.migration.DatabaseMigrationState;
 
@@ -46,14 +51,16 @@ public class StatusAction implements SystemWsAction {
   private final Platform platform;
   private final DbClient dbClient;
   private final RestartFlagHolder restartFlagHolder;
+  private final StartupIndexingStatus startupIndexingStatus;
 
   public StatusAction(Server server, DatabaseMigrationState migrationState,
-    Platform platform, DbClient dbClient, RestartFlagHolder restartFlagHolder) {
+    Platform platform, DbClient dbClient, RestartFlagHolder restartFlagHolder, StartupIndexingStatus startupIndexingStatus) {
     this.server = server;
     this.migrationState = migrationState;
     this.platform = platform;
     this.dbClient = dbClient;
     this.restartFlagHolder = restartFlagHolder;
+    this.startupIndexingStatus = startupIndexingStatus;
   }
 
   @Override
@@ -70,8 +77,11 @@ public class StatusAction implements SystemWsAction {
         "(refer to WS /api/system/restart for details).</li>" +
         "<li>DB_MIGRATION_NEEDED: database migration is required. DB migration can be started using WS /api/system/migrate_db.</li>" +
         "<li>DB_MIGRATION_RUNNING: DB migration is running (refer to WS /api/system/migrate_db for details)</li>" +
-        "</ul>")
+        "</ul>" +
+        "When Elasticsearch indices are being filled in background after startup, the field 'indexing' lists the progress of each index type " +
+        "(PENDING, IN_PROGRESS, DONE or FAILED). Search features relying on types which are not DONE may return incomplete results.")
       .setSince("5.2")
+      .setChangelog(new Change("6.4", "Field 'indexing' is added when startup indexing is not finished"))
       .setResponseExample(Resources.getResource(this.getClass(), "example-status.json"))
       .setHandler(this);
   }
@@ -90,9 +100,32 @@ public class StatusAction implements SystemWsAction {
     json.prop("id", server.getId());
     json.prop("version", server.getVersion());
     json.prop("status", status.toString());
+    writeIndexing(json);
     json.endObject();
   }
 
+  private void writeIndexing(JsonWriter json) {
+    if (!startupIndexingStatus.hasUnfinishedTypes()) {
+      return;
+    }
+    json.name("indexing").beginArray();
+    for (Map.Entry<IndexType, StartupIndexingStatus.TypeStatus> entry : startupIndexingStatus.getAll().entrySet()) {
+      StartupIndexingStatus.TypeStatus typeStatus = entry.getValue();
+      json.beginObject();
+      json.prop("index", entry.getKey().getIndex());
+      json.prop("type", entry.getKey().getType());
+      json.prop("status", typeStatus.getState().name());
+      if (typeStatus.getStartedAt() != null) {
+        json.propDateTime("startedAt", new Date(typeStatus.getStartedAt()));
+      }
+      if (typeStatus.getEndedAt() != null) {
+        json.propDateTime("endedAt", new Date(typeStatus.getEndedAt()));
+      }
+      json.endObject();
+    }
+    json.endArray();
+  }
+
   private Status computeStatus() {
     if (!isConnectedToDB()) {
       return Status.DOWN;
@@ -0,0 +1,265 @@
+/*
+ * SonarQube
+ * Copyright (C) 2009-2017 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.server.plugins;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Predicate;
+import java.util.zip.ZipEntry;
+import javax.annotation.CheckForNull;
+import org.apache.commons.codec.digest.DigestUtils;
+import org.apache.commons.io.FileUtils;
+import org.sonar.api.ce.ComputeEngineSide;
+import org.sonar.api.server.ServerSide;
+import org.sonar.api.utils.ZipUtils;
+import org.sonar.api.utils.log.Logger;
+import org.sonar.api.utils.log.Loggers;
+import org.sonar.core.platform.ExplodedPlugin;
+import org.sonar.core.platform.PluginInfo;
+import org.sonar.home.cache.DirectoryLock;
+import org.sonar.server.platform.ServerFileSystem;
+
+import static java.lang.String.format;
+import static java.util.Collections.emptyList;
+import static org.sonar.core.platform.PluginJarExploder.LIB_RELATIVE_PATH_IN_JAR;
+
+/**
+ * Persistent cache of exploded plugins, shared by web server and Compute Engine. Entries are
+ * keyed by the MD5 hash of plugin JAR, so they are reused across restarts as long as the JAR
+ * is not changed. Each entry is a directory of {@code data/plugins-cache}:
+ * <ul>
+ *   <li>{@code .sonar_lock}: lock held by the process which populates the entry, see {@link DirectoryLock}</li>
+ *   <li>{@code plugin/}: copy of the JAR and content of its directory META-INF/lib</li>
+ *   <li>{@code complete}: marker created when {@code plugin/} is fully populated. Entries without
+ *   marker are ignored and populated again.</li>
+ * </ul>
+ * Errors are logged and make {@link #get(PluginInfo)} return an empty result, so that callers fall back to
+ * exploding plugins in their own directories.
+ */
+@ServerSide
+@ComputeEngineSide
+public class ExplodedPluginCache {
+
+  private static final Logger LOG = Loggers.get(ExplodedPluginCache.class);
+  private static final String CACHE_RELATIVE_PATH = "plugins-cache";
+  private static final String CONTENT_DIR = "plugin";
+  private static final String COMPLETE_MARKER = "complete";
+
+  private final ServerFileSystem fs;
+  private final Map<File, String> hashesByJar = new ConcurrentHashMap<>();
+
+  public ExplodedPluginCache(ServerFileSystem fs) {
+    this.fs = fs;
+  }
+
+  /**
+   * Populates in parallel the entries of the plugins which are not cached yet.
+   */
+  public void populate(Collection<PluginInfo> plugins) {
+    if (getCacheDir() == null || plugins.isEmpty()) {
+      return;
+    }
+    int threads = Math.min(plugins.size(), Runtime.getRuntime().availableProcessors());
+    ExecutorService executor = Executors.newFixedThreadPool(threads,
+      new ThreadFactoryBuilder().setNameFormat("plugins-cache-%d").setDaemon(true).build());
+    try {
+      List<Future<Optional<ExplodedPlugin>>> futures = new ArrayList<>();
+      plugins.forEach(plugin -> futures.add(executor.submit(() -> get(plugin))));
+      for (Future<Optional<ExplodedPlugin>> future : futures) {
+        future.get();
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    } catch (ExecutionException e) {
+      // errors are already handled by #get(PluginInfo)
+      LOG.warn("Fail to populate cache of plugins", e);
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+
+  /**
+   * Gets the exploded plugin from cache, exploding it in cache if needed.
+   *
+   * @return empty if the cache can't be used
+   */
+  public Optional<ExplodedPlugin> get(PluginInfo plugin) {
+    File cacheDir = getCacheDir();
+    if (cacheDir == null) {
+      return Optional.empty();
+    }
+    File jar = plugin.getNonNullJarFile();
+    try {
+      File entryDir = new File(cacheDir, hash(jar));
+      File contentDir = new File(entryDir, CONTENT_DIR);
+      File jarCopy = new File(contentDir, jar.getName());
+      if (!isComplete(entryDir, jar, jarCopy)) {
+        populateEntry(entryDir, contentDir, jar, jarCopy);
+      }
+      return Optional.of(new ExplodedPlugin(plugin.getKey(), jarCopy, listLibs(contentDir)));
+    } catch (Exception e) {
+      LOG.warn(format("Fail to use cache of exploded plugins for %s. Plugin is exploded in dedicated directory.", jar.getAbsolutePath()), e);
+      return Optional.empty();
+    }
+  }
+
+  /**
+   * Deletes the entries which do not relate to any of the specified plugins. Entries which are being
+   * populated by another process are kept.
+   */
+  public void deleteUnused(Collection<PluginInfo> usedPlugins) {
+    File cacheDir = getCacheDir();
+    File[] entryDirs = cacheDir == null ? null : cacheDir.listFiles(File::isDirectory);
+    if (entryDirs == null) {
+      return;
+    }
+    try {
+      Set<String> usedHashes = new HashSet<>();
+      for (PluginInfo plugin : usedPlugins) {
+        usedHashes.add(hash(plugin.getNonNullJarFile()));
+      }
+      for (File entryDir : entryDirs) {
+        if (!usedHashes.contains(entryDir.getName())) {
+          deleteEntry(entryDir);
+        }
+      }
+    } catch (Exception e) {
+      LOG.warn("Fail to delete unused entries of cache of plugins", e);
+    }
+  }
+
+  private static void deleteEntry(File entryDir) throws IOException {
+    DirectoryLock lock = new DirectoryLock(entryDir.toPath(), new LockLogger());
+    if (!lock.tryLock()) {
+      return;
+    }
+    try {
+      Files.deleteIfExists(new File(entryDir, COMPLETE_MARKER).toPath());
+      org.sonar.core.util.FileUtils.deleteQuietly(new File(entryDir, CONTENT_DIR));
+    } finally {
+      lock.unlock();
+    }
+    org.sonar.core.util.FileUtils.deleteQuietly(entryDir);
+  }
+
+  private static boolean isComplete(File entryDir, File jar, File jarCopy) {
+    return new File(entryDir, COMPLETE_MARKER).exists() && jarCopy.isFile() && jarCopy.length() == jar.length();
+  }
+
+  /**
+   * The lock prevents web server and Compute Engine to populate the same entry at the same time. Entry is
+   * checked again once lock is acquired, as it may have been populated by the other process in the meantime.
+   */
+  private static void populateEntry(File entryDir, File contentDir, File jar, File jarCopy) throws IOException {
+    FileUtils.forceMkdir(entryDir);
+    DirectoryLock lock = new DirectoryLock(entryDir.toPath(), new LockLogger());
+    lock.lock();
+    try {
+      if (isComplete(entryDir, jar, jarCopy)) {
+        return;
+      }
+      File marker = new File(entryDir, COMPLETE_MARKER);
+      Files.deleteIfExists(marker.toPath());
+      FileUtils.forceMkdir(contentDir);
+      org.sonar.core.util.FileUtils.cleanDirectory(contentDir);
+      FileUtils.copyFile(jar, jarCopy);
+      ZipUtils.unzip(jar, contentDir, newLibFilter());
+      FileUtils.touch(marker);
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  private static Predicate<ZipEntry> newLibFilter() {
+    return ze -> ze.getName().startsWith(LIB_RELATIVE_PATH_IN_JAR);
+  }
+
+  private static Collection<File> listLibs(File contentDir) {
+    File libDir = new File(contentDir, LIB_RELATIVE_PATH_IN_JAR);
+    if (libDir.isDirectory()) {
+      return FileUtils.listFiles(libDir, null, false);
+    }
+    return emptyList();
+  }
+
+  private String hash(File jar) throws IOException {
+    String hash = hashesByJar.get(jar);
+    if (hash == null) {
+      try (InputStream input = Files.newInputStream(jar.toPath())) {
+        hash = DigestUtils.md5Hex(input);
+      }
+      hashesByJar.put(jar, hash);
+    }
+    return hash;
+  }
+
+  @CheckForNull
+  @VisibleForTesting
+  File getCacheDir() {
+    File dataDir = fs.getDataDir();
+    if (dataDir == null) {
+      return null;
+    }
+    return new File(dataDir, CACHE_RELATIVE_PATH);
+  }
+
+  private static class LockLogger implements org.sonar.home.cache.Logger {
+    @Override
+    public void debug(String msg) {
+      LOG.debug(msg);
+    }
+
+    @Override
+    public void info(String msg) {
+      LOG.info(msg);
+    }
+
+    @Override
+    public void warn(String msg) {
+      LOG.warn(msg);
+    }
+
+    @Override
+    public void error(String msg) {
+      LOG.error(msg);
+    }
+
+    @Override
+    public void error(String msg, Throwable t) {
+      LOG.error(msg, t);
+    }
+  }
+}
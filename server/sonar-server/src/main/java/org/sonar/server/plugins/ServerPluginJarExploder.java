@@ -20,6 +20,8 @@
 package org.sonar.server.plugins;
 
 import java.io.File;
+import java.util.Collection;
+import java.util.Optional;
 import org.apache.commons.io.FileUtils;
 import org.sonar.api.ce.ComputeEngineSide;
 import org.sonar.api.server.ServerSide;
@@ -36,15 +38,29 @@ import static org.apache.commons.io.FileUtils.forceMkdir;
 public class ServerPluginJarExploder extends PluginJarExploder {
 
   private final ServerFileSystem fs;
+  private final ExplodedPluginCache cache;
 
-  public ServerPluginJarExploder(ServerFileSystem fs) {
+  public ServerPluginJarExploder(ServerFileSystem fs, ExplodedPluginCache cache) {
     this.fs = fs;
+    this.cache = cache;
+  }
+
+  /**
+   * Web server is started before Compute Engine, so it is responsible for removing the entries
+   * of the uninstalled plugins from cache.
+   */
+  @Override
+  public void prepare(Collection<PluginInfo> infos) {
+    cache.deleteUnused(infos);
+    cache.populate(infos);
   }
 
   /**
    * JAR files of directory extensions/plugins can be moved when server is up and plugins are uninstalled.
-   * For this reason these files must not be locked by classloaders. They are copied to the directory
-   * web/deploy/plugins in order to be loaded by {@link org.sonar.core.platform.PluginLoader}.
+   * For this reason these files must not be locked by classloaders. They are loaded by
+   * {@link org.sonar.core.platform.PluginLoader} from {@link ExplodedPluginCache}, or when cache can't be used,
+   * from the directory web/deploy/plugins. In both cases the JAR is copied to web/deploy/plugins in order
+   * to be downloaded by scanners.
    */
   @Override
   public ExplodedPlugin explode(PluginInfo pluginInfo) {
@@ -56,6 +72,10 @@ public class ServerPluginJarExploder extends PluginJarExploder {
       File jarSource = pluginInfo.getNonNullJarFile();
       File jarTarget = new File(toDir, jarSource.getName());
       FileUtils.copyFile(jarSource, jarTarget);
+      Optional<ExplodedPlugin> cached = cache.get(pluginInfo);
+      if (cached.isPresent()) {
+        return cached.get();
+      }
       ZipUtils.unzip(jarSource, toDir, newLibFilter());
       return explodeFromUnzippedDir(pluginInfo.getKey(), jarTarget, toDir);
     } catch (Exception e) {
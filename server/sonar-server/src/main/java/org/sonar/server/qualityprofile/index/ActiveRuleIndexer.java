@@ -36,6 +36,7 @@ import org.sonar.server.es.BaseIndexer;
 import org.sonar.server.es.BulkIndexer;
 import org.sonar.server.es.BulkIndexer.Size;
 import org.sonar.server.es.EsClient;
+import org.sonar.server.es.IndexRebuilds;
 import org.sonar.server.qualityprofile.ActiveRuleChange;
 
 import static org.elasticsearch.index.query.QueryBuilders.termsQuery;
@@ -47,10 +48,12 @@ import static org.sonar.server.rule.index.RuleIndexDefinition.INDEX_TYPE_ACTIVE_
 public class ActiveRuleIndexer extends BaseIndexer {
 
   private final DbClient dbClient;
+  private final IndexRebuilds rebuilds;
 
-  public ActiveRuleIndexer(System2 system2, DbClient dbClient, EsClient esClient) {
+  public ActiveRuleIndexer(System2 system2, DbClient dbClient, EsClient esClient, IndexRebuilds rebuilds) {
     super(system2, esClient, 300, INDEX_TYPE_ACTIVE_RULE, FIELD_ACTIVE_RULE_UPDATED_AT);
     this.dbClient = dbClient;
+    this.rebuilds = rebuilds;
   }
 
   @Override
@@ -98,7 +101,7 @@ public class ActiveRuleIndexer extends BaseIndexer {
   }
 
   public void deleteProfile(String qualityProfileKey) {
-    BulkIndexer bulk = new BulkIndexer(esClient, INDEX_TYPE_ACTIVE_RULE.getIndex());
+    BulkIndexer bulk = new BulkIndexer(esClient, rebuilds, INDEX_TYPE_ACTIVE_RULE.getIndex());
     bulk.start();
     SearchRequestBuilder search = esClient.prepareSearch(INDEX_TYPE_ACTIVE_RULE)
       .setQuery(QueryBuilders.boolQuery().must(termsQuery(FIELD_ACTIVE_RULE_PROFILE_KEY, qualityProfileKey)));
@@ -107,7 +110,7 @@ public class ActiveRuleIndexer extends BaseIndexer {
   }
 
   private void deleteKeys(List<ActiveRuleKey> keys) {
-    BulkIndexer bulk = new BulkIndexer(esClient, INDEX_TYPE_ACTIVE_RULE.getIndex());
+    BulkIndexer bulk = new BulkIndexer(esClient, rebuilds, INDEX_TYPE_ACTIVE_RULE.getIndex());
     bulk.start();
     SearchRequestBuilder search = esClient.prepareSearch(INDEX_TYPE_ACTIVE_RULE)
       .setQuery(QueryBuilders.boolQuery().must(termsQuery(FIELD_ACTIVE_RULE_KEY, keys)));
@@ -116,7 +119,7 @@ public class ActiveRuleIndexer extends BaseIndexer {
   }
 
   private BulkIndexer createBulkIndexer(Size size) {
-    BulkIndexer bulk = new BulkIndexer(esClient, INDEX_TYPE_ACTIVE_RULE.getIndex());
+    BulkIndexer bulk = new BulkIndexer(esClient, rebuilds, INDEX_TYPE_ACTIVE_RULE.getIndex());
     bulk.setSize(size);
     return bulk;
   }
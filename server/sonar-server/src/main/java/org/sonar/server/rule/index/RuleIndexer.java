@@ -28,6 +28,7 @@ import org.sonar.server.es.BaseIndexer;
 import org.sonar.server.es.BulkIndexer;
 import org.sonar.server.es.BulkIndexer.Size;
 import org.sonar.server.es.EsClient;
+import org.sonar.server.es.IndexRebuilds;
 
 import static org.sonar.server.rule.index.RuleIndexDefinition.FIELD_RULE_UPDATED_AT;
 import static org.sonar.server.rule.index.RuleIndexDefinition.INDEX_TYPE_RULE;
@@ -35,10 +36,12 @@ import static org.sonar.server.rule.index.RuleIndexDefinition.INDEX_TYPE_RULE;
 public class RuleIndexer extends BaseIndexer {
 
   private final DbClient dbClient;
+  private final IndexRebuilds rebuilds;
 
-  public RuleIndexer(System2 system2, DbClient dbClient, EsClient esClient) {
+  public RuleIndexer(System2 system2, DbClient dbClient, EsClient esClient, IndexRebuilds rebuilds) {
     super(system2, esClient, 300, INDEX_TYPE_RULE, FIELD_RULE_UPDATED_AT);
     this.dbClient = dbClient;
+    this.rebuilds = rebuilds;
   }
 
   @Override
@@ -75,7 +78,7 @@ public class RuleIndexer extends BaseIndexer {
   }
 
   private BulkIndexer createBulkIndexer(Size size) {
-    BulkIndexer bulk = new BulkIndexer(esClient, INDEX_TYPE_RULE.getIndex());
+    BulkIndexer bulk = new BulkIndexer(esClient, rebuilds, INDEX_TYPE_RULE.getIndex());
     bulk.setSize(size);
     return bulk;
   }
@@ -32,9 +32,9 @@ import org.sonar.api.server.debt.DebtRemediationFunction;
 import org.sonar.api.server.debt.internal.DefaultDebtRemediationFunction;
 import org.sonar.db.rule.RuleDto;
 import org.sonar.db.rule.RuleParamDto;
-import org.sonar.markdown.Markdown;
 import org.sonar.server.rule.ws.SearchAction.SearchResult;
 import org.sonar.server.text.MacroInterpreter;
+import org.sonar.server.text.MarkdownRenderer;
 import org.sonarqube.ws.Common;
 import org.sonarqube.ws.Rules;
 
@@ -72,10 +72,14 @@ public class RuleMapper {
 
   private final Languages languages;
   private final MacroInterpreter macroInterpreter;
+  private final MarkdownRenderer markdownRenderer;
+  private final RuleParamDtoToWsRuleParam ruleParamDtoToWsRuleParam;
 
-  public RuleMapper(final Languages languages, final MacroInterpreter macroInterpreter) {
+  public RuleMapper(final Languages languages, final MacroInterpreter macroInterpreter, final MarkdownRenderer markdownRenderer) {
     this.languages = languages;
     this.macroInterpreter = macroInterpreter;
+    this.markdownRenderer = markdownRenderer;
+    this.ruleParamDtoToWsRuleParam = new RuleParamDtoToWsRuleParam(markdownRenderer);
   }
 
   /**
@@ -208,11 +212,11 @@ public class RuleMapper {
     }
   }
 
-  private static void setParams(Rules.Rule.Builder ruleResponse, RuleDto ruleDto, SearchResult searchResult, Set<String> fieldsToReturn) {
+  private void setParams(Rules.Rule.Builder ruleResponse, RuleDto ruleDto, SearchResult searchResult, Set<String> fieldsToReturn) {
     if (shouldReturnField(fieldsToReturn, FIELD_PARAMS)) {
       List<RuleParamDto> ruleParameters = searchResult.getRuleParamsByRuleId().get(ruleDto.getId());
       ruleResponse.getParamsBuilder().addAllParams(FluentIterable.from(ruleParameters)
-        .transform(RuleParamDtoToWsRuleParam.INSTANCE)
+        .transform(ruleParamDtoToWsRuleParam)
         .toList());
     }
   }
@@ -229,7 +233,7 @@ public class RuleMapper {
       if (description != null) {
         switch (ruleDto.getDescriptionFormat()) {
           case MARKDOWN:
-            ruleResponse.setHtmlDesc(macroInterpreter.interpret(Markdown.convertToHtml(description)));
+            ruleResponse.setHtmlDesc(macroInterpreter.interpret(markdownRenderer.toHtml(description)));
             break;
           case HTML:
             ruleResponse.setHtmlDesc(macroInterpreter.interpret(description));
@@ -247,7 +251,7 @@ public class RuleMapper {
 
   private void setNotesFields(Rules.Rule.Builder ruleResponse, RuleDto ruleDto, Set<String> fieldsToReturn) {
     if (shouldReturnField(fieldsToReturn, "htmlNote") && ruleDto.getNoteData() != null) {
-      ruleResponse.setHtmlNote(macroInterpreter.interpret(Markdown.convertToHtml(ruleDto.getNoteData())));
+      ruleResponse.setHtmlNote(macroInterpreter.interpret(markdownRenderer.toHtml(ruleDto.getNoteData())));
     }
     if (shouldReturnField(fieldsToReturn, "mdNote") && ruleDto.getNoteData() != null) {
       ruleResponse.setMdNote(ruleDto.getNoteData());
@@ -332,15 +336,19 @@ public class RuleMapper {
     }
   }
 
-  private enum RuleParamDtoToWsRuleParam implements Function<RuleParamDto, Rules.Rule.Param> {
-    INSTANCE;
+  private static class RuleParamDtoToWsRuleParam implements Function<RuleParamDto, Rules.Rule.Param> {
+    private final MarkdownRenderer markdownRenderer;
+
+    private RuleParamDtoToWsRuleParam(MarkdownRenderer markdownRenderer) {
+      this.markdownRenderer = markdownRenderer;
+    }
 
     @Override
     public Rules.Rule.Param apply(@Nonnull RuleParamDto param) {
       Rules.Rule.Param.Builder paramResponse = Rules.Rule.Param.newBuilder();
       paramResponse.setKey(param.getName());
       if (param.getDescription() != null) {
-        paramResponse.setHtmlDesc(Markdown.convertToHtml(param.getDescription()));
+        paramResponse.setHtmlDesc(markdownRenderer.toHtml(param.getDescription()));
       }
       if (param.getDefaultValue() != null) {
         paramResponse.setDefaultValue(param.getDefaultValue());
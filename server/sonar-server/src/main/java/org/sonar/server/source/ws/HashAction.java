@@ -68,7 +68,7 @@ public class HashAction implements SourcesWsAction {
 
   @Override
   public void handle(Request request, Response response) throws Exception {
-    try (DbSession session = dbClient.openSession(false)) {
+    try (DbSession session = dbClient.openReadOnlySession(userSession.getLogin())) {
       String componentKey = request.mandatoryParam("key");
       ComponentDto component = componentFinder.getByKey(session, componentKey);
       userSession.checkComponentPermission(UserRole.USER, component);
@@ -77,7 +77,7 @@ public class IndexAction implements SourcesWsAction {
     String fileKey = request.mandatoryParam("resource");
     int from = request.mandatoryParamAsInt("from");
     Integer to = request.paramAsInt("to");
-    try (DbSession session = dbClient.openSession(false)) {
+    try (DbSession session = dbClient.openReadOnlySession(userSession.getLogin())) {
       ComponentDto component = componentFinder.getByKey(session, fileKey);
       userSession.checkComponentPermission(UserRole.CODEVIEWER, component);
       Optional<Iterable<String>> lines = sourceService.getLinesAsRawText(session, component.uuid(), from, to == null ? Integer.MAX_VALUE : to - 1);
@@ -112,7 +112,7 @@ public class LinesAction implements SourcesWsAction {
 
   @Override
   public void handle(Request request, Response response) {
-    try (DbSession dbSession = dbClient.openSession(false)) {
+    try (DbSession dbSession = dbClient.openReadOnlySession(userSession.getLogin())) {
       ComponentDto file = componentFinder.getByUuidOrKey(dbSession, request.param(PARAM_UUID), request.param(PARAM_KEY), UUID_AND_KEY);
       userSession.checkComponentPermission(UserRole.CODEVIEWER, file);
 
@@ -23,9 +23,11 @@ import com.google.common.annotations.VisibleForTesting;
 import com.google.common.collect.Maps;
 import java.util.List;
 import java.util.Map;
+import org.sonar.core.util.LineRanges;
 import org.sonar.server.es.BaseDoc;
 
 import static org.sonar.server.test.index.TestIndexDefinition.FIELD_COVERED_FILE_LINES;
+import static org.sonar.server.test.index.TestIndexDefinition.FIELD_COVERED_FILE_LINE_RANGES;
 import static org.sonar.server.test.index.TestIndexDefinition.FIELD_COVERED_FILE_UUID;
 
 public class CoveredFileDoc extends BaseDoc {
@@ -35,7 +37,7 @@ public class CoveredFileDoc extends BaseDoc {
 
   @VisibleForTesting
   public CoveredFileDoc() {
-    super(Maps.newHashMapWithExpectedSize(2));
+    super(Maps.newHashMapWithExpectedSize(3));
   }
 
   @Override
@@ -62,12 +64,24 @@ public class CoveredFileDoc extends BaseDoc {
     return this;
   }
 
+  /**
+   * Covered lines, expanded from their compact encoding.
+   */
   public List<Integer> coveredLines() {
-    return getField(FIELD_COVERED_FILE_LINES);
+    return LineRanges.decode(coveredLineRanges());
+  }
+
+  public int coveredLinesCount() {
+    return LineRanges.countLines(coveredLineRanges());
+  }
+
+  private List<Integer> coveredLineRanges() {
+    return getField(FIELD_COVERED_FILE_LINE_RANGES);
   }
 
   public CoveredFileDoc setCoveredLines(List<Integer> coveredLines) {
     setField(FIELD_COVERED_FILE_LINES, coveredLines);
+    setField(FIELD_COVERED_FILE_LINE_RANGES, LineRanges.encode(coveredLines));
     return this;
   }
 
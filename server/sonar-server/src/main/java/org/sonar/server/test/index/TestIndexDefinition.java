@@ -19,6 +19,7 @@
  */
 package org.sonar.server.test.index;
 
+import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
 import org.sonar.api.config.Settings;
 import org.sonar.server.es.IndexDefinition;
@@ -39,6 +40,7 @@ public class TestIndexDefinition implements IndexDefinition {
   public static final String FIELD_COVERED_FILES = "coveredFiles";
   public static final String FIELD_COVERED_FILE_UUID = "sourceFileUuid";
   public static final String FIELD_COVERED_FILE_LINES = "coveredLines";
+  public static final String FIELD_COVERED_FILE_LINE_RANGES = "coveredLineRanges";
   public static final String FIELD_UPDATED_AT = "updatedAt";
 
   private final Settings settings;
@@ -56,6 +58,10 @@ public class TestIndexDefinition implements IndexDefinition {
 
     NewIndex.NewIndexType mapping = index.createType(INDEX_TYPE_TEST.getType());
     mapping.setAttribute("_routing", ImmutableMap.of("required", true));
+    // covered lines are indexed but only their compact encoding is kept in _source
+    mapping.setAttribute("_source", ImmutableMap.of(
+      "enabled", true,
+      "excludes", ImmutableList.of(FIELD_COVERED_FILES + "." + FIELD_COVERED_FILE_LINES)));
     mapping.stringFieldBuilder(FIELD_PROJECT_UUID).disableNorms().build();
     mapping.stringFieldBuilder(FIELD_FILE_UUID).disableNorms().build();
     mapping.stringFieldBuilder(FIELD_TEST_UUID).disableNorms().build();
@@ -66,7 +72,8 @@ public class TestIndexDefinition implements IndexDefinition {
     mapping.stringFieldBuilder(FIELD_STACKTRACE).disableNorms().disableSearch().build();
     mapping.setProperty(FIELD_COVERED_FILES, ImmutableMap.of("type", "nested", "properties", ImmutableMap.of(
       FIELD_COVERED_FILE_UUID, ImmutableMap.of("type", "string", "index", "not_analyzed"),
-      FIELD_COVERED_FILE_LINES, ImmutableMap.of("type", "integer")
+      FIELD_COVERED_FILE_LINES, ImmutableMap.of("type", "integer"),
+      FIELD_COVERED_FILE_LINE_RANGES, ImmutableMap.of("type", "integer", "index", "no", "doc_values", false)
       )));
     mapping.createDateTimeField(FIELD_UPDATED_AT);
   }
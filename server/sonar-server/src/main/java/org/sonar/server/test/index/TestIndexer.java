@@ -30,6 +30,7 @@ import org.sonar.db.DbSession;
 import org.sonar.server.es.BulkIndexer;
 import org.sonar.server.es.BulkIndexer.Size;
 import org.sonar.server.es.EsClient;
+import org.sonar.server.es.IndexRebuilds;
 import org.sonar.server.es.IndexType;
 import org.sonar.server.es.ProjectIndexer;
 import org.sonar.server.es.StartupIndexer;
@@ -46,10 +47,12 @@ public class TestIndexer implements ProjectIndexer, StartupIndexer {
 
   private final DbClient dbClient;
   private final EsClient esClient;
+  private final IndexRebuilds rebuilds;
 
-  public TestIndexer(DbClient dbClient, EsClient esClient) {
+  public TestIndexer(DbClient dbClient, EsClient esClient, IndexRebuilds rebuilds) {
     this.dbClient = dbClient;
     this.esClient = esClient;
+    this.rebuilds = rebuilds;
   }
 
   @Override
@@ -81,12 +84,12 @@ public class TestIndexer implements ProjectIndexer, StartupIndexer {
   }
 
   public long index(Iterator<FileSourcesUpdaterHelper.Row> dbRows) {
-    BulkIndexer bulk = new BulkIndexer(esClient, INDEX_TYPE_TEST.getIndex());
+    BulkIndexer bulk = new BulkIndexer(esClient, rebuilds, INDEX_TYPE_TEST.getIndex());
     return doIndex(bulk, dbRows);
   }
 
   private long doIndex(@Nullable String projectUuid, Size bulkSize) {
-    final BulkIndexer bulk = new BulkIndexer(esClient, INDEX_TYPE_TEST.getIndex());
+    final BulkIndexer bulk = new BulkIndexer(esClient, rebuilds, INDEX_TYPE_TEST.getIndex());
     bulk.setSize(bulkSize);
 
     DbSession dbSession = dbClient.openSession(false);
@@ -116,7 +119,7 @@ public class TestIndexer implements ProjectIndexer, StartupIndexer {
   public void deleteByFile(String fileUuid) {
     SearchRequestBuilder searchRequest = esClient.prepareSearch(INDEX_TYPE_TEST)
       .setQuery(QueryBuilders.termsQuery(FIELD_FILE_UUID, fileUuid));
-    BulkIndexer.delete(esClient, INDEX_TYPE_TEST.getIndex(), searchRequest);
+    BulkIndexer.delete(esClient, rebuilds, INDEX_TYPE_TEST.getIndex(), searchRequest);
   }
 
   @Override
@@ -124,6 +127,6 @@ public class TestIndexer implements ProjectIndexer, StartupIndexer {
     SearchRequestBuilder searchRequest = esClient.prepareSearch(INDEX_TYPE_TEST)
       .setTypes(INDEX_TYPE_TEST.getType())
       .setQuery(QueryBuilders.termQuery(TestIndexDefinition.FIELD_PROJECT_UUID, projectUuid));
-    BulkIndexer.delete(esClient, INDEX_TYPE_TEST.getIndex(), searchRequest);
+    BulkIndexer.delete(esClient, rebuilds, INDEX_TYPE_TEST.getIndex(), searchRequest);
   }
 }
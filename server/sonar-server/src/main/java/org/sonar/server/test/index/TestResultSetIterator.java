@@ -26,6 +26,7 @@ import java.nio.charset.StandardCharsets;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.util.BitSet;
 import java.util.Collections;
 import java.util.Date;
 import java.util.List;
@@ -33,6 +34,8 @@ import javax.annotation.Nullable;
 import org.elasticsearch.action.update.UpdateRequest;
 import org.sonar.api.utils.log.Loggers;
 import org.sonar.api.utils.text.JsonWriter;
+import org.sonar.core.util.LineRanges;
+import org.sonar.core.util.stream.Collectors;
 import org.sonar.db.DbClient;
 import org.sonar.db.DbSession;
 import org.sonar.db.ResultSetIterator;
@@ -44,6 +47,7 @@ import org.sonar.server.source.index.FileSourcesUpdaterHelper.Row;
 
 import static org.sonar.server.test.index.TestIndexDefinition.FIELD_COVERED_FILES;
 import static org.sonar.server.test.index.TestIndexDefinition.FIELD_COVERED_FILE_LINES;
+import static org.sonar.server.test.index.TestIndexDefinition.FIELD_COVERED_FILE_LINE_RANGES;
 import static org.sonar.server.test.index.TestIndexDefinition.FIELD_COVERED_FILE_UUID;
 import static org.sonar.server.test.index.TestIndexDefinition.FIELD_DURATION_IN_MS;
 import static org.sonar.server.test.index.TestIndexDefinition.FIELD_FILE_UUID;
@@ -95,6 +99,15 @@ public class TestResultSetIterator extends ResultSetIterator<Row> {
     return tests;
   }
 
+  /**
+   * Covered lines are persisted as ranges since 6.4, and as a list of lines before.
+   */
+  private static BitSet coveredLines(DbFileSources.Test.CoveredFile coveredFile) {
+    BitSet coveredLines = LineRanges.decodeToBitSet(coveredFile.getCoveredLineRangeList());
+    coveredFile.getCoveredLineList().forEach(coveredLines::set);
+    return coveredLines;
+  }
+
   /**
    * Convert protobuf message to tests required for Elasticsearch indexing
    */
@@ -120,7 +133,10 @@ public class TestResultSetIterator extends ResultSetIterator<Row> {
         for (DbFileSources.Test.CoveredFile coveredFile : test.getCoveredFileList()) {
           writer.beginObject();
           writer.prop(FIELD_COVERED_FILE_UUID, coveredFile.getFileUuid());
-          writer.name(FIELD_COVERED_FILE_LINES).valueObject(coveredFile.getCoveredLineList());
+          BitSet coveredLines = coveredLines(coveredFile);
+          // expanded lines are indexed to search tests by covered line, but are not stored in _source
+          writer.name(FIELD_COVERED_FILE_LINES).valueObject(coveredLines.stream().boxed().collect(Collectors.toList()));
+          writer.name(FIELD_COVERED_FILE_LINE_RANGES).valueObject(LineRanges.encode(coveredLines));
           writer.endObject();
         }
         writer.endArray();
@@ -88,7 +88,7 @@ public class CoveredFilesAction implements TestsWsAction {
       for (CoveredFileDoc doc : coveredFiles) {
         WsTests.CoveredFilesResponse.CoveredFile.Builder fileBuilder = WsTests.CoveredFilesResponse.CoveredFile.newBuilder();
         fileBuilder.setId(doc.fileUuid());
-        fileBuilder.setCoveredLines(doc.coveredLines().size());
+        fileBuilder.setCoveredLines(doc.coveredLinesCount());
         ComponentDto component = componentsByUuid.get(doc.fileUuid());
         if (component != null) {
           fileBuilder.setKey(component.key());
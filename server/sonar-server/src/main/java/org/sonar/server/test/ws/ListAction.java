@@ -180,7 +180,7 @@ public class ListAction implements TestsWsAction {
   private static int coveredLines(List<CoveredFileDoc> coveredFiles) {
     int numberOfLinesCovered = 0;
     for (CoveredFileDoc coveredFile : coveredFiles) {
-      numberOfLinesCovered += coveredFile.coveredLines().size();
+      numberOfLinesCovered += coveredFile.coveredLinesCount();
     }
 
     return numberOfLinesCovered;
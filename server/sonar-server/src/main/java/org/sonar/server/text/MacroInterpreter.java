@@ -29,14 +29,23 @@ import java.util.List;
 public class MacroInterpreter {
 
   private final List<Macro> macros;
+  private final RenderedTextCache cache;
 
   public MacroInterpreter(Server server) {
     this.macros = ImmutableList.<Macro>of(
       new RuleMacro(server.getContextPath())
       );
+    this.cache = new RenderedTextCache(RenderedTextCache.DEFAULT_MAX_CHARS, this::doInterpret);
   }
 
+  /**
+   * Replaces the macros of the specified text. Results are cached by text.
+   */
   public String interpret(String text) {
+    return cache.get(text);
+  }
+
+  private String doInterpret(String text) {
     String textReplaced = text;
     for (Macro macro : macros) {
       textReplaced = textReplaced.replaceAll(macro.getRegex(), macro.getReplacement());
@@ -0,0 +1,50 @@
+/*
+ * SonarQube
+ * Copyright (C) 2009-2017 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.server.text;
+
+import org.sonar.api.server.ServerSide;
+import org.sonar.markdown.Markdown;
+
+/**
+ * Converts Markdown to HTML, see {@link Markdown#convertToHtml(String)}.
+ * <p>
+ * Conversions are cached by source text so that texts which are read far more often than they are
+ * written, like rule descriptions, rule notes and issue comments, are converted only once. Web services
+ * which create or update such texts return them through the same renderer, so the HTML is usually
+ * rendered when the text is written.
+ * </p>
+ */
+@ServerSide
+public class MarkdownRenderer {
+
+  private final RenderedTextCache cache;
+
+  public MarkdownRenderer() {
+    this(RenderedTextCache.DEFAULT_MAX_CHARS);
+  }
+
+  MarkdownRenderer(int maxCachedChars) {
+    this.cache = new RenderedTextCache(maxCachedChars, Markdown::convertToHtml);
+  }
+
+  public String toHtml(String markdown) {
+    return cache.get(markdown);
+  }
+}
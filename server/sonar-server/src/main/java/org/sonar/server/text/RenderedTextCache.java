@@ -0,0 +1,60 @@
+/*
+ * SonarQube
+ * Copyright (C) 2009-2017 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.server.text;
+
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheLoader;
+import com.google.common.cache.LoadingCache;
+import java.util.function.Function;
+
+/**
+ * Bounded in-memory cache of the result of a rendering function, keyed by the source text.
+ * Rendered texts are not related to any database row: a modified source text is a new key and the
+ * previous entry is evicted once no longer used.
+ */
+class RenderedTextCache {
+
+  /**
+   * Default maximum number of characters (sources and renderings) kept in a cache, about 10Mb of heap.
+   */
+  static final int DEFAULT_MAX_CHARS = 5_000_000;
+
+  private final LoadingCache<String, String> cache;
+
+  RenderedTextCache(int maxChars, Function<String, String> renderer) {
+    this.cache = CacheBuilder.newBuilder()
+      .maximumWeight(maxChars)
+      .weigher((String source, String rendered) -> source.length() + rendered.length())
+      .build(new CacheLoader<String, String>() {
+        @Override
+        public String load(String source) {
+          return renderer.apply(source);
+        }
+      });
+  }
+
+  String get(String source) {
+    return cache.getUnchecked(source);
+  }
+
+  long size() {
+    return cache.size();
+  }
+}
@@ -30,6 +30,7 @@ import javax.servlet.ServletRequest;
 import javax.servlet.ServletResponse;
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
+import org.sonar.db.DbClient;
 import org.sonar.server.authentication.UserSessionInitializer;
 import org.sonar.server.organization.DefaultOrganizationCache;
 import org.sonar.server.platform.Platform;
@@ -69,11 +70,16 @@ public class UserSessionFilter implements Filter {
     }
   }
 
-  private static void doFilter(HttpServletRequest request, HttpServletResponse response, FilterChain chain,
+  private void doFilter(HttpServletRequest request, HttpServletResponse response, FilterChain chain,
     @Nullable UserSessionInitializer userSessionInitializer) throws IOException, ServletException {
     try {
       if (userSessionInitializer == null || userSessionInitializer.initUserSession(request, response)) {
-        chain.doFilter(request, response);
+        recordWriteOfUser(request);
+        try {
+          chain.doFilter(request, response);
+        } finally {
+          recordWriteOfUser(request);
+        }
       }
     } finally {
       if (userSessionInitializer != null) {
@@ -82,6 +88,23 @@ public class UserSessionFilter implements Filter {
     }
   }
 
+  /**
+   * POST requests may write data. The user who sent them must then read from the primary database
+   * for a while, rather than from the read replica which may lag behind. The write is recorded before
+   * the request is handled, so that a read sent as soon as the response is flushed can't reach the replica,
+   * then again once handled, so that the window starts after the last write of long requests.
+   */
+  private void recordWriteOfUser(HttpServletRequest request) {
+    if (!"POST".equals(request.getMethod())) {
+      return;
+    }
+    ThreadLocalUserSession userSession = platform.getContainer().getComponentByType(ThreadLocalUserSession.class);
+    DbClient dbClient = platform.getContainer().getComponentByType(DbClient.class);
+    if (userSession != null && dbClient != null && userSession.hasSession() && userSession.isLoggedIn()) {
+      dbClient.getReadReplicaConsistency().recordWrite(userSession.getLogin());
+    }
+  }
+
   @Override
   public void init(FilterConfig filterConfig) throws ServletException {
     // nothing to do
@@ -29,6 +29,7 @@ import org.sonar.db.DbSession;
 import org.sonar.server.es.BulkIndexer;
 import org.sonar.server.es.BulkIndexer.Size;
 import org.sonar.server.es.EsClient;
+import org.sonar.server.es.IndexRebuilds;
 import org.sonar.server.es.IndexType;
 import org.sonar.server.es.StartupIndexer;
 
@@ -39,10 +40,12 @@ public class UserIndexer implements StartupIndexer {
 
   private final DbClient dbClient;
   private final EsClient esClient;
+  private final IndexRebuilds rebuilds;
 
-  public UserIndexer(DbClient dbClient, EsClient esClient) {
+  public UserIndexer(DbClient dbClient, EsClient esClient, IndexRebuilds rebuilds) {
     this.dbClient = dbClient;
     this.esClient = esClient;
+    this.rebuilds = rebuilds;
   }
 
   @Override
@@ -61,7 +64,7 @@ public class UserIndexer implements StartupIndexer {
   }
 
   private void doIndex(@Nullable String login, Size bulkSize) {
-    final BulkIndexer bulk = new BulkIndexer(esClient, UserIndexDefinition.INDEX_TYPE_USER.getIndex());
+    final BulkIndexer bulk = new BulkIndexer(esClient, rebuilds, UserIndexDefinition.INDEX_TYPE_USER.getIndex());
     bulk.setSize(bulkSize);
 
     try (DbSession dbSession = dbClient.openSession(false)) {
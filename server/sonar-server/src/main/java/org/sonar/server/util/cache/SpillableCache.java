@@ -0,0 +1,177 @@
+/*
+ * SonarQube
+ * Copyright (C) 2009-2017 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.server.util.cache;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.RandomAccessFile;
+import java.io.Serializable;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import javax.annotation.CheckForNull;
+import org.apache.commons.io.FileUtils;
+import org.apache.commons.io.IOUtils;
+
+/**
+ * Key-value store whose values can be read only once. Values are kept in memory as long as
+ * the sum of their weights does not exceed a given budget, then they are serialized into a file.
+ * Values are removed from the store when they are read, so that memory is released as soon as possible.
+ */
+public class SpillableCache<V extends Serializable> implements AutoCloseable {
+
+  private final File file;
+  private final long maxWeightInMemory;
+  private final Map<String, InMemoryValue<V>> inMemory = new HashMap<>();
+  private final Map<String, DiskLocation> onDisk = new HashMap<>();
+  private long weightInMemory = 0L;
+  @CheckForNull
+  private RandomAccessFile raf;
+
+  public SpillableCache(File file, long maxWeightInMemory) {
+    this.file = file;
+    this.maxWeightInMemory = maxWeightInMemory;
+  }
+
+  /**
+   * Adds a value. Any value previously stored with the same key is replaced.
+   */
+  public SpillableCache<V> put(String key, V value, int weight) {
+    remove(key);
+    if (weightInMemory + weight <= maxWeightInMemory) {
+      inMemory.put(key, new InMemoryValue<>(value, weight));
+      weightInMemory += weight;
+    } else {
+      onDisk.put(key, write(value));
+    }
+    return this;
+  }
+
+  /**
+   * Returns the value associated with the key and removes it from the store.
+   */
+  public Optional<V> take(String key) {
+    InMemoryValue<V> value = inMemory.remove(key);
+    if (value != null) {
+      weightInMemory -= value.weight;
+      return Optional.of(value.value);
+    }
+    DiskLocation location = onDisk.remove(key);
+    if (location != null) {
+      return Optional.of(read(location));
+    }
+    return Optional.empty();
+  }
+
+  public boolean contains(String key) {
+    return inMemory.containsKey(key) || onDisk.containsKey(key);
+  }
+
+  public int sizeInMemory() {
+    return inMemory.size();
+  }
+
+  public int sizeOnDisk() {
+    return onDisk.size();
+  }
+
+  private void remove(String key) {
+    InMemoryValue<V> previous = inMemory.remove(key);
+    if (previous != null) {
+      weightInMemory -= previous.weight;
+    }
+    onDisk.remove(key);
+  }
+
+  private DiskLocation write(V value) {
+    try {
+      ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+      try (ObjectOutputStream objectOutput = new ObjectOutputStream(bytes)) {
+        objectOutput.writeObject(value);
+      }
+      RandomAccessFile randomAccessFile = openFile();
+      long offset = randomAccessFile.length();
+      randomAccessFile.seek(offset);
+      randomAccessFile.write(bytes.toByteArray());
+      return new DiskLocation(offset, bytes.size());
+    } catch (IOException e) {
+      throw new IllegalStateException("Fail to write into file " + file, e);
+    }
+  }
+
+  @SuppressWarnings("unchecked")
+  private V read(DiskLocation location) {
+    try {
+      byte[] bytes = new byte[location.length];
+      RandomAccessFile randomAccessFile = openFile();
+      randomAccessFile.seek(location.offset);
+      randomAccessFile.readFully(bytes);
+      try (ObjectInputStream objectInput = new ObjectInputStream(new ByteArrayInputStream(bytes))) {
+        return (V) objectInput.readObject();
+      }
+    } catch (IOException | ClassNotFoundException e) {
+      throw new IllegalStateException("Fail to read file " + file, e);
+    }
+  }
+
+  private RandomAccessFile openFile() throws IOException {
+    if (raf == null) {
+      raf = new RandomAccessFile(file, "rw");
+    }
+    return raf;
+  }
+
+  /**
+   * Releases all the values and deletes the file.
+   */
+  @Override
+  public void close() {
+    inMemory.clear();
+    onDisk.clear();
+    weightInMemory = 0L;
+    IOUtils.closeQuietly(raf);
+    raf = null;
+    FileUtils.deleteQuietly(file);
+  }
+
+  private static class InMemoryValue<V> {
+    private final V value;
+    private final int weight;
+
+    private InMemoryValue(V value, int weight) {
+      this.value = value;
+      this.weight = weight;
+    }
+  }
+
+  private static class DiskLocation {
+    private final long offset;
+    private final int length;
+
+    private DiskLocation(long offset, int length) {
+      this.offset = offset;
+      this.length = length;
+    }
+  }
+}
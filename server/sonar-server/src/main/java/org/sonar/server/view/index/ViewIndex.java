@@ -30,6 +30,7 @@ import org.sonar.api.ce.ComputeEngineSide;
 import org.sonar.api.server.ServerSide;
 import org.sonar.server.es.BulkIndexer;
 import org.sonar.server.es.EsClient;
+import org.sonar.server.es.IndexRebuilds;
 
 import static com.google.common.collect.Lists.newArrayList;
 import static org.elasticsearch.index.query.QueryBuilders.boolQuery;
@@ -43,9 +44,11 @@ public class ViewIndex {
   private static final int SCROLL_TIME_IN_MINUTES = 3;
 
   private final EsClient esClient;
+  private final IndexRebuilds rebuilds;
 
-  public ViewIndex(EsClient esClient) {
+  public ViewIndex(EsClient esClient, IndexRebuilds rebuilds) {
     this.esClient = esClient;
+    this.rebuilds = rebuilds;
   }
 
   public List<String> findAllViewUuids() {
@@ -79,6 +82,6 @@ public class ViewIndex {
   public void delete(Collection<String> viewUuids) {
     SearchRequestBuilder searchRequest = esClient.prepareSearch(ViewIndexDefinition.INDEX_TYPE_VIEW)
       .setQuery(boolQuery().must(matchAllQuery()).filter(termsQuery(ViewIndexDefinition.FIELD_UUID, viewUuids)));
-    BulkIndexer.delete(esClient, ViewIndexDefinition.INDEX_TYPE_VIEW.getIndex(), searchRequest);
+    BulkIndexer.delete(esClient, rebuilds, ViewIndexDefinition.INDEX_TYPE_VIEW.getIndex(), searchRequest);
   }
 }
@@ -31,6 +31,7 @@ import org.sonar.db.component.UuidWithProjectUuidDto;
 import org.sonar.server.es.BulkIndexer;
 import org.sonar.server.es.BulkIndexer.Size;
 import org.sonar.server.es.EsClient;
+import org.sonar.server.es.IndexRebuilds;
 import org.sonar.server.es.IndexType;
 import org.sonar.server.es.StartupIndexer;
 
@@ -41,10 +42,12 @@ public class ViewIndexer implements StartupIndexer {
 
   private final DbClient dbClient;
   private final EsClient esClient;
+  private final IndexRebuilds rebuilds;
 
-  public ViewIndexer(DbClient dbClient, EsClient esClient) {
+  public ViewIndexer(DbClient dbClient, EsClient esClient, IndexRebuilds rebuilds) {
     this.dbClient = dbClient;
     this.esClient = esClient;
+    this.rebuilds = rebuilds;
   }
 
   @Override
@@ -88,14 +91,14 @@ public class ViewIndexer implements StartupIndexer {
    * The views lookup cache will be cleared
    */
   public void index(ViewDoc viewDoc) {
-    final BulkIndexer bulk = new BulkIndexer(esClient, ViewIndexDefinition.INDEX_TYPE_VIEW.getIndex());
+    final BulkIndexer bulk = new BulkIndexer(esClient, rebuilds, ViewIndexDefinition.INDEX_TYPE_VIEW.getIndex());
     bulk.start();
     doIndex(bulk, viewDoc, true);
     bulk.stop();
   }
 
   private void index(DbSession dbSession, Map<String, String> viewAndProjectViewUuidMap, boolean needClearCache, Size bulkSize) {
-    final BulkIndexer bulk = new BulkIndexer(esClient, ViewIndexDefinition.INDEX_TYPE_VIEW.getIndex());
+    final BulkIndexer bulk = new BulkIndexer(esClient, rebuilds, ViewIndexDefinition.INDEX_TYPE_VIEW.getIndex());
     bulk.setSize(bulkSize);
     bulk.start();
     for (Map.Entry<String, String> entry : viewAndProjectViewUuidMap.entrySet()) {
@@ -0,0 +1,101 @@
+/*
+ * SonarQube
+ * Copyright (C) 2009-2017 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.ce.monitoring;
+
+import org.junit.After;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+import org.sonar.db.profiling.SqlStatistics;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class CeTaskResourceRecorderTest {
+
+  @Rule
+  public ExpectedException expectedException = ExpectedException.none();
+
+  private CeTaskResourceRecorder underTest = new CeTaskResourceRecorder();
+
+  @After
+  public void tearDown() {
+    SqlStatistics.stopRecording();
+  }
+
+  @Test
+  public void record_sql_statistics_of_current_thread_while_started() {
+    assertThat(SqlStatistics.current()).isNull();
+
+    underTest.start();
+    assertThat(SqlStatistics.current()).isNotNull();
+
+    CeTaskResourceUsage usage = underTest.stop();
+    assertThat(SqlStatistics.current()).isNull();
+    assertThat(usage.getThreadUsage().getDbStatementCount()).isEqualTo(0);
+    assertThat(usage.getThreadUsage().getCpuTimeMs()).isGreaterThanOrEqualTo(ResourceUsage.UNKNOWN);
+  }
+
+  @Test
+  public void sum_temp_disk_bytes_and_keep_largest_report_size() {
+    underTest.start();
+    underTest.addTempDiskBytes(100);
+    underTest.addTempDiskBytes(50);
+    underTest.updateReportSize(300);
+    underTest.updateReportSize(200);
+
+    CeTaskResourceUsage usage = underTest.stop();
+
+    assertThat(usage.getTempDiskBytes()).isEqualTo(150);
+    assertThat(usage.getReportSizeBytes()).isEqualTo(300);
+  }
+
+  @Test
+  public void ignore_disk_usage_if_not_started() {
+    underTest.addTempDiskBytes(100);
+    underTest.updateReportSize(300);
+
+    underTest.start();
+    CeTaskResourceUsage usage = underTest.stop();
+
+    assertThat(usage.getTempDiskBytes()).isEqualTo(0);
+    assertThat(usage.getReportSizeBytes()).isEqualTo(0);
+  }
+
+  @Test
+  public void stop_fails_if_not_started() {
+    expectedException.expect(IllegalStateException.class);
+    expectedException.expectMessage("Recording of resources is not started");
+
+    underTest.stop();
+  }
+
+  @Test
+  public void resource_usage_since_a_snapshot_keeps_unknown_values() {
+    ResourceUsage start = new ResourceUsage(ResourceUsage.UNKNOWN, 1_000, 2, 10);
+    ResourceUsage end = new ResourceUsage(50, 3_000, 5, 25);
+
+    ResourceUsage delta = end.since(start);
+
+    assertThat(delta.getCpuTimeMs()).isEqualTo(ResourceUsage.UNKNOWN);
+    assertThat(delta.getAllocatedBytes()).isEqualTo(2_000);
+    assertThat(delta.getDbStatementCount()).isEqualTo(3);
+    assertThat(delta.getDbTimeMs()).isEqualTo(15);
+  }
+}
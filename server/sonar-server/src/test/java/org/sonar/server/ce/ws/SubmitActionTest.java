@@ -20,14 +20,25 @@
 package org.sonar.server.ce.ws;
 
 import java.io.InputStream;
+import org.junit.Rule;
 import org.junit.Test;
+import org.junit.rules.ExpectedException;
 import org.mockito.Matchers;
+import org.sonar.api.utils.System2;
+import org.sonar.ce.queue.CeQueue;
 import org.sonar.ce.queue.CeTask;
 import org.sonar.core.util.Protobuf;
+import org.sonar.db.DbTester;
+import org.sonar.db.ce.CeQueueDto;
 import org.sonar.db.ce.CeTaskTypes;
+import org.sonar.db.component.ComponentDto;
+import org.sonar.server.component.ComponentUpdater;
 import org.sonar.server.computation.queue.ReportSubmitter;
+import org.sonar.server.exceptions.ForbiddenException;
 import org.sonar.server.organization.DefaultOrganizationProvider;
 import org.sonar.server.organization.TestDefaultOrganizationProvider;
+import org.sonar.server.permission.PermissionTemplateService;
+import org.sonar.server.tester.UserSessionRule;
 import org.sonar.server.ws.TestResponse;
 import org.sonar.server.ws.WsActionTester;
 import org.sonar.test.JsonAssert;
@@ -39,10 +50,19 @@ import static org.mockito.Matchers.any;
 import static org.mockito.Matchers.eq;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyZeroInteractions;
 import static org.mockito.Mockito.when;
+import static org.sonar.core.permission.GlobalPermissions.SCAN_EXECUTION;
 
 public class SubmitActionTest {
 
+  @Rule
+  public ExpectedException expectedException = ExpectedException.none();
+  @Rule
+  public UserSessionRule userSession = UserSessionRule.standalone();
+  @Rule
+  public DbTester db = DbTester.create(System2.INSTANCE);
+
   private static final CeTask A_CE_TASK = new CeTask.Builder()
     .setOrganizationUuid("org1")
     .setUuid("TASK_1")
@@ -58,7 +78,7 @@ public class SubmitActionTest {
 
   @Test
   public void submit_task_to_the_queue_and_ask_for_immediate_processing() {
-    when(reportSubmitter.submit(eq(organizationKey), eq("my_project"), Matchers.isNull(String.class), eq("My Project"), any(InputStream.class)))
+    when(reportSubmitter.submit(eq(organizationKey), eq("my_project"), Matchers.isNull(String.class), eq("My Project"), eq(CeQueueDto.Priority.NORMAL), any(InputStream.class)))
       .thenReturn(A_CE_TASK);
 
     TestResponse wsResponse = tester.newRequest()
@@ -69,7 +89,7 @@ public class SubmitActionTest {
       .setMethod("POST")
       .execute();
 
-    verify(reportSubmitter).submit(eq(organizationKey), eq("my_project"), Matchers.isNull(String.class), eq("My Project"), any(InputStream.class));
+    verify(reportSubmitter).submit(eq(organizationKey), eq("my_project"), Matchers.isNull(String.class), eq("My Project"), eq(CeQueueDto.Priority.NORMAL), any(InputStream.class));
 
     WsCe.SubmitResponse submitResponse = Protobuf.read(wsResponse.getInputStream(), WsCe.SubmitResponse.PARSER);
     assertThat(submitResponse.getTaskId()).isEqualTo("TASK_1");
@@ -78,7 +98,7 @@ public class SubmitActionTest {
 
   @Test
   public void test_example_json_response() {
-    when(reportSubmitter.submit(eq(organizationKey), eq("my_project"), Matchers.isNull(String.class), eq("My Project"), any(InputStream.class)))
+    when(reportSubmitter.submit(eq(organizationKey), eq("my_project"), Matchers.isNull(String.class), eq("My Project"), eq(CeQueueDto.Priority.NORMAL), any(InputStream.class)))
       .thenReturn(A_CE_TASK);
 
     TestResponse wsResponse = tester.newRequest()
@@ -97,17 +117,57 @@ public class SubmitActionTest {
    */
   @Test
   public void project_name_is_optional() {
-    when(reportSubmitter.submit(eq(organizationKey), eq("my_project"), Matchers.isNull(String.class), eq("my_project"), any(InputStream.class)))
+    when(reportSubmitter.submit(eq(organizationKey), eq("my_project"), Matchers.isNull(String.class), eq("my_project"), eq(CeQueueDto.Priority.NORMAL), any(InputStream.class)))
+      .thenReturn(A_CE_TASK);
+
+    tester.newRequest()
+      .setParam("projectKey", "my_project")
+      .setParam("report", "{binary}")
+      .setMediaType(MediaTypes.PROTOBUF)
+      .setMethod("POST")
+      .execute();
+
+    verify(reportSubmitter).submit(eq(organizationKey), eq("my_project"), Matchers.isNull(String.class), eq("my_project"), eq(CeQueueDto.Priority.NORMAL), any(InputStream.class));
+
+  }
+
+  @Test
+  public void submit_task_with_priority() {
+    when(reportSubmitter.submit(eq(organizationKey), eq("my_project"), Matchers.isNull(String.class), eq("my_project"), eq(CeQueueDto.Priority.HIGH), any(InputStream.class)))
       .thenReturn(A_CE_TASK);
 
     tester.newRequest()
       .setParam("projectKey", "my_project")
+      .setParam("priority", "HIGH")
       .setParam("report", "{binary}")
       .setMediaType(MediaTypes.PROTOBUF)
       .setMethod("POST")
       .execute();
 
-    verify(reportSubmitter).submit(eq(organizationKey), eq("my_project"), Matchers.isNull(String.class), eq("my_project"), any(InputStream.class));
+    verify(reportSubmitter).submit(eq(organizationKey), eq("my_project"), Matchers.isNull(String.class), eq("my_project"), eq(CeQueueDto.Priority.HIGH), any(InputStream.class));
+  }
 
+  @Test
+  public void fail_to_submit_task_with_high_priority_without_administer_permission() {
+    ComponentDto project = db.components().insertProject(db.getDefaultOrganization());
+    userSession.logIn().addProjectUuidPermissions(SCAN_EXECUTION, project.uuid());
+    CeQueue queue = mock(CeQueue.class);
+    ReportSubmitter reportSubmitter = new ReportSubmitter(queue, userSession, mock(ComponentUpdater.class), mock(PermissionTemplateService.class), db.getDbClient());
+    WsActionTester tester = new WsActionTester(new SubmitAction(reportSubmitter, TestDefaultOrganizationProvider.from(db)));
+
+    expectedException.expect(ForbiddenException.class);
+    expectedException.expectMessage("Administer permission is required to submit a report with priority HIGH");
+
+    try {
+      tester.newRequest()
+        .setParam("projectKey", project.key())
+        .setParam("priority", "HIGH")
+        .setParam("report", "{binary}")
+        .setMediaType(MediaTypes.PROTOBUF)
+        .setMethod("POST")
+        .execute();
+    } finally {
+      verifyZeroInteractions(queue);
+    }
   }
 }
@@ -172,6 +172,38 @@ public class TaskFormatterTest {
     assertThat(wsTask.hasScannerContext()).isFalse();
   }
 
+  @Test
+  public void formatActivity_with_resource_usage() {
+    CeActivityDto dto = newActivity("UUID", "COMPONENT_UUID", CeActivityDto.Status.SUCCESS)
+      .setCpuTimeMs(300L)
+      .setAllocatedBytes(1_000_000L)
+      .setDbStatementCount(42L)
+      .setDbTimeMs(120L)
+      .setTempDiskBytes(2_000L)
+      .setReportSizeBytes(1_500L);
+
+    WsCe.Task wsTask = underTest.formatActivity(db.getSession(), dto);
+
+    assertThat(wsTask.getCpuTimeMs()).isEqualTo(300L);
+    assertThat(wsTask.getAllocatedBytes()).isEqualTo(1_000_000L);
+    assertThat(wsTask.getDbStatementCount()).isEqualTo(42L);
+    assertThat(wsTask.getDbTimeMs()).isEqualTo(120L);
+    assertThat(wsTask.getTempDiskBytes()).isEqualTo(2_000L);
+    assertThat(wsTask.getReportSizeBytes()).isEqualTo(1_500L);
+  }
+
+  @Test
+  public void formatActivity_without_resource_usage() {
+    CeActivityDto dto = newActivity("UUID", "COMPONENT_UUID", CeActivityDto.Status.SUCCESS);
+
+    WsCe.Task wsTask = underTest.formatActivity(db.getSession(), dto);
+
+    assertThat(wsTask.hasCpuTimeMs()).isFalse();
+    assertThat(wsTask.hasAllocatedBytes()).isFalse();
+    assertThat(wsTask.hasDbStatementCount()).isFalse();
+    assertThat(wsTask.hasReportSizeBytes()).isFalse();
+  }
+
   @Test
   public void formatActivity_set_scanner_context_if_argument_is_non_null() {
     CeActivityDto dto = newActivity("UUID", "COMPONENT_UUID", CeActivityDto.Status.FAILED);
@@ -59,7 +59,7 @@ public abstract class ComponentIndexTest {
   @Rule
   public ComponentTextSearchFeatureRule features = new ComponentTextSearchFeatureRule();
 
-  protected ComponentIndexer indexer = new ComponentIndexer(db.getDbClient(), es.client());
+  protected ComponentIndexer indexer = new ComponentIndexer(db.getDbClient(), es.client(), es.indexRebuilds());
 
   protected ComponentIndex index = new ComponentIndex(es.client(), new AuthorizationTypeSupport(userSession));
   protected PermissionIndexerTester authorizationIndexerTester = new PermissionIndexerTester(es, indexer);
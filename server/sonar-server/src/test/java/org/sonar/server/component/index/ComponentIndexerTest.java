@@ -204,7 +204,7 @@ public class ComponentIndexerTest {
   }
 
   private ComponentIndexer createIndexer() {
-    return new ComponentIndexer(dbTester.getDbClient(), esTester.client());
+    return new ComponentIndexer(dbTester.getDbClient(), esTester.client(), esTester.indexRebuilds());
   }
 
 }
@@ -51,7 +51,7 @@ public class SuggestionsActionTest {
   @Rule
   public UserSessionRule userSessionRule = UserSessionRule.standalone();
 
-  private ComponentIndexer componentIndexer = new ComponentIndexer(db.getDbClient(), es.client());
+  private ComponentIndexer componentIndexer = new ComponentIndexer(db.getDbClient(), es.client(), es.indexRebuilds());
   private SuggestionsAction action;
   private OrganizationDto organization;
   private PermissionIndexerTester authorizationIndexerTester = new PermissionIndexerTester(es, componentIndexer);
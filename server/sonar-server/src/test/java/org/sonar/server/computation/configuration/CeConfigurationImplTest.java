@@ -29,6 +29,10 @@ import org.sonar.api.utils.MessageException;
 
 import static java.lang.Math.abs;
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.sonar.server.computation.configuration.CeConfigurationImpl.CE_COALESCE_SUPERSEDED_REPORTS_PROPERTY;
+import static org.sonar.server.computation.configuration.CeConfigurationImpl.CE_FAIR_SCHEDULING_PROPERTY;
+import static org.sonar.server.computation.configuration.CeConfigurationImpl.CE_MAX_WORKERS_COUNT_PROPERTY;
+import static org.sonar.server.computation.configuration.CeConfigurationImpl.CE_TASK_MEMORY_ESTIMATE_PROPERTY;
 import static org.sonar.server.computation.configuration.CeConfigurationImpl.CE_WORKERS_COUNT_PROPERTY;
 
 public class CeConfigurationImplTest {
@@ -103,9 +107,88 @@ public class CeConfigurationImplTest {
     new CeConfigurationImpl(settings);
   }
 
+  @Test
+  public void getMaxWorkerCount_returns_10_when_property_is_not_defined() {
+    assertThat(new CeConfigurationImpl(settings).getMaxWorkerCount()).isEqualTo(10);
+  }
+
+  @Test
+  public void getMaxWorkerCount_returns_worker_count_when_property_is_not_defined_and_worker_count_is_greater_than_10() {
+    settings.setProperty(CE_WORKERS_COUNT_PROPERTY, 12);
+
+    assertThat(new CeConfigurationImpl(settings).getMaxWorkerCount()).isEqualTo(12);
+  }
+
+  @Test
+  public void getMaxWorkerCount_returns_value_of_property() {
+    settings.setProperty(CE_WORKERS_COUNT_PROPERTY, 2);
+    settings.setProperty(CE_MAX_WORKERS_COUNT_PROPERTY, 4);
+
+    assertThat(new CeConfigurationImpl(settings).getMaxWorkerCount()).isEqualTo(4);
+  }
+
+  @Test
+  public void constructor_throws_MessageException_when_max_worker_property_is_less_than_worker_count() {
+    settings.setProperty(CE_WORKERS_COUNT_PROPERTY, 3);
+    settings.setProperty(CE_MAX_WORKERS_COUNT_PROPERTY, 2);
+
+    expectedException.expect(MessageException.class);
+    expectedException.expectMessage("value '2' of property " + CE_MAX_WORKERS_COUNT_PROPERTY + " is invalid. " +
+      "It must be greater than or equal to the value of property " + CE_WORKERS_COUNT_PROPERTY);
+
+    new CeConfigurationImpl(settings);
+  }
+
+  @Test
+  public void constructor_throws_MessageException_when_max_worker_property_is_0() {
+    settings.setProperty(CE_MAX_WORKERS_COUNT_PROPERTY, "0");
+
+    expectedException.expect(MessageException.class);
+    expectedException.expectMessage("value '0' of property " + CE_MAX_WORKERS_COUNT_PROPERTY + " is invalid. " +
+      "It must an integer strictly greater than 0");
+
+    new CeConfigurationImpl(settings);
+  }
+
+  @Test
+  public void task_memory_estimate_is_0_by_default() {
+    assertThat(new CeConfigurationImpl(settings).getTaskMemoryEstimate()).isEqualTo(0L);
+  }
+
+  @Test
+  public void task_memory_estimate_is_read_in_MB_from_property() {
+    settings.setProperty(CE_TASK_MEMORY_ESTIMATE_PROPERTY, 512);
+
+    assertThat(new CeConfigurationImpl(settings).getTaskMemoryEstimate()).isEqualTo(512L * 1024 * 1024);
+  }
+
   private void expectMessageException(int value) {
     expectedException.expect(MessageException.class);
     expectedException.expectMessage("value '" + value + "' of property " + CE_WORKERS_COUNT_PROPERTY + " is invalid. " +
         "It must an integer strictly greater than 0");
   }
+
+  @Test
+  public void superseded_reports_coalescing_is_disabled_by_default() {
+    assertThat(new CeConfigurationImpl(settings).isSupersededReportsCoalescingEnabled()).isFalse();
+  }
+
+  @Test
+  public void superseded_reports_coalescing_is_enabled_by_property() {
+    settings.setProperty(CE_COALESCE_SUPERSEDED_REPORTS_PROPERTY, true);
+
+    assertThat(new CeConfigurationImpl(settings).isSupersededReportsCoalescingEnabled()).isTrue();
+  }
+
+  @Test
+  public void fair_scheduling_is_disabled_by_default() {
+    assertThat(new CeConfigurationImpl(settings).isFairSchedulingEnabled()).isFalse();
+  }
+
+  @Test
+  public void fair_scheduling_is_enabled_by_property() {
+    settings.setProperty(CE_FAIR_SCHEDULING_PROPERTY, true);
+
+    assertThat(new CeConfigurationImpl(settings).isFairSchedulingEnabled()).isTrue();
+  }
 }
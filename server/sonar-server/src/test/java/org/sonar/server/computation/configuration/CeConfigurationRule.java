@@ -28,7 +28,11 @@ import static com.google.common.base.Preconditions.checkArgument;
  */
 public class CeConfigurationRule extends ExternalResource implements CeConfiguration {
   private int workerCount = CeConfigurationImpl.DEFAULT_WORKER_COUNT;
+  private int maxWorkerCount = CeConfigurationImpl.DEFAULT_MAX_WORKER_COUNT;
+  private long taskMemoryEstimate = 0L;
   private long queuePollingDelay = CeConfigurationImpl.DEFAULT_QUEUE_POLLING_DELAY;
+  private boolean supersededReportsCoalescingEnabled = false;
+  private boolean fairSchedulingEnabled = false;
 
   @Override
   public int getWorkerCount() {
@@ -41,6 +45,27 @@ public class CeConfigurationRule extends ExternalResource implements CeConfigura
     return this;
   }
 
+  @Override
+  public int getMaxWorkerCount() {
+    return maxWorkerCount;
+  }
+
+  public CeConfigurationRule setMaxWorkerCount(int maxWorkerCount) {
+    checkArgument(maxWorkerCount >= 1, "max worker count must be >= 1");
+    this.maxWorkerCount = maxWorkerCount;
+    return this;
+  }
+
+  @Override
+  public long getTaskMemoryEstimate() {
+    return taskMemoryEstimate;
+  }
+
+  public CeConfigurationRule setTaskMemoryEstimate(long taskMemoryEstimate) {
+    this.taskMemoryEstimate = taskMemoryEstimate;
+    return this;
+  }
+
   @Override
   public long getQueuePollingDelay() {
     return queuePollingDelay;
@@ -50,4 +75,24 @@ public class CeConfigurationRule extends ExternalResource implements CeConfigura
     checkArgument(queuePollingDelay > 0, "Queue polling delay must be >= 0");
     this.queuePollingDelay = queuePollingDelay;
   }
+
+  @Override
+  public boolean isSupersededReportsCoalescingEnabled() {
+    return supersededReportsCoalescingEnabled;
+  }
+
+  public CeConfigurationRule setSupersededReportsCoalescingEnabled(boolean supersededReportsCoalescingEnabled) {
+    this.supersededReportsCoalescingEnabled = supersededReportsCoalescingEnabled;
+    return this;
+  }
+
+  @Override
+  public boolean isFairSchedulingEnabled() {
+    return fairSchedulingEnabled;
+  }
+
+  public CeConfigurationRule setFairSchedulingEnabled(boolean fairSchedulingEnabled) {
+    this.fairSchedulingEnabled = fairSchedulingEnabled;
+    return this;
+  }
 }
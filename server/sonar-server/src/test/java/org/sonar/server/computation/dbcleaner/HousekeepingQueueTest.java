@@ -0,0 +1,102 @@
+/*
+ * SonarQube
+ * Copyright (C) 2009-2017 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.server.computation.dbcleaner;
+
+import java.util.Optional;
+import org.junit.Test;
+import org.sonar.api.config.MapSettings;
+import org.sonar.api.config.Settings;
+import org.sonar.db.purge.IdUuidPair;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class HousekeepingQueueTest {
+
+  private HousekeepingQueue underTest = new HousekeepingQueue();
+
+  @Test
+  public void poll_returns_empty_if_queue_is_empty() {
+    assertThat(underTest.poll()).isEmpty();
+    assertThat(underTest.getPendingCount()).isEqualTo(0);
+  }
+
+  @Test
+  public void poll_returns_requests_in_order_of_submission() {
+    underTest.add(new IdUuidPair(1L, "P1"), new MapSettings());
+    underTest.add(new IdUuidPair(2L, "P2"), new MapSettings());
+
+    assertThat(underTest.getPendingCount()).isEqualTo(2);
+    assertThat(underTest.poll().get().getProject().getUuid()).isEqualTo("P1");
+    assertThat(underTest.poll().get().getProject().getUuid()).isEqualTo("P2");
+    assertThat(underTest.poll()).isEmpty();
+  }
+
+  @Test
+  public void requests_of_same_project_are_coalesced() {
+    Settings latestSettings = new MapSettings();
+    underTest.add(new IdUuidPair(1L, "P1"), new MapSettings());
+    underTest.add(new IdUuidPair(2L, "P2"), new MapSettings());
+    underTest.add(new IdUuidPair(1L, "P1"), latestSettings);
+
+    assertThat(underTest.getPendingCount()).isEqualTo(2);
+    HousekeepingQueue.Request request = underTest.poll().get();
+    assertThat(request.getProject().getUuid()).isEqualTo("P1");
+    assertThat(request.getSettings()).isSameAs(latestSettings);
+  }
+
+  @Test
+  public void postpone_moves_request_to_the_end_of_the_queue() {
+    underTest.add(new IdUuidPair(1L, "P1"), new MapSettings());
+    underTest.add(new IdUuidPair(2L, "P2"), new MapSettings());
+
+    underTest.postpone(underTest.poll().get());
+
+    assertThat(underTest.poll().get().getProject().getUuid()).isEqualTo("P2");
+    assertThat(underTest.poll().get().getProject().getUuid()).isEqualTo("P1");
+  }
+
+  @Test
+  public void postpone_does_not_override_new_request_of_same_project() {
+    Settings latestSettings = new MapSettings();
+    underTest.add(new IdUuidPair(1L, "P1"), new MapSettings());
+    HousekeepingQueue.Request request = underTest.poll().get();
+    underTest.add(new IdUuidPair(1L, "P1"), latestSettings);
+
+    underTest.postpone(request);
+
+    assertThat(underTest.getPendingCount()).isEqualTo(1);
+    Optional<HousekeepingQueue.Request> next = underTest.poll();
+    assertThat(next.get().getSettings()).isSameAs(latestSettings);
+  }
+
+  @Test
+  public void record_statistics() {
+    underTest.addSuccess(10L);
+    underTest.addSuccess(20L);
+    underTest.addError(5L);
+    underTest.addDeletedRows(100);
+    underTest.addDeletedRows(50);
+
+    assertThat(underTest.getSuccessCount()).isEqualTo(2);
+    assertThat(underTest.getErrorCount()).isEqualTo(1);
+    assertThat(underTest.getProcessingTime()).isEqualTo(35L);
+    assertThat(underTest.getDeletedRowCount()).isEqualTo(150L);
+  }
+}
@@ -0,0 +1,173 @@
+/*
+ * SonarQube
+ * Copyright (C) 2009-2017 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.server.computation.dbcleaner;
+
+import java.time.LocalDate;
+import java.time.ZoneId;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+import org.sonar.api.config.MapSettings;
+import org.sonar.api.config.Settings;
+import org.sonar.api.utils.internal.TestSystem2;
+import org.sonar.db.DbClient;
+import org.sonar.db.DbSession;
+import org.sonar.db.ce.CeQueueDto;
+import org.sonar.db.purge.IdUuidPair;
+import org.sonar.db.purge.PurgeThrottler;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.RETURNS_DEEP_STUBS;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class HousekeepingSchedulerTest {
+
+  private static final IdUuidPair PROJECT_1 = new IdUuidPair(1L, "P1");
+  private static final IdUuidPair PROJECT_2 = new IdUuidPair(2L, "P2");
+
+  @Rule
+  public ExpectedException expectedException = ExpectedException.none();
+
+  private DbClient dbClient = mock(DbClient.class, RETURNS_DEEP_STUBS);
+  private ProjectCleaner projectCleaner = mock(ProjectCleaner.class);
+  private HousekeepingQueue queue = new HousekeepingQueue();
+  private MapSettings settings = new MapSettings();
+  private TestSystem2 system2 = new TestSystem2().setNow(at(12));
+
+  @Test
+  public void purge_all_pending_projects() {
+    queue.add(PROJECT_1, new MapSettings());
+    queue.add(PROJECT_2, new MapSettings());
+
+    newScheduler().processQueue();
+
+    verify(projectCleaner).purgeHistory(any(DbSession.class), eq(PROJECT_1), any(Settings.class), any(PurgeThrottler.class));
+    verify(projectCleaner).purgeHistory(any(DbSession.class), eq(PROJECT_2), any(Settings.class), any(PurgeThrottler.class));
+    assertThat(queue.getPendingCount()).isEqualTo(0);
+    assertThat(queue.getSuccessCount()).isEqualTo(2);
+  }
+
+  @Test
+  public void postpone_project_which_analysis_is_in_progress() {
+    queue.add(PROJECT_1, new MapSettings());
+    when(dbClient.ceQueueDao().countByStatusAndComponentUuid(any(DbSession.class), eq(CeQueueDto.Status.IN_PROGRESS), eq("P1"))).thenReturn(1);
+
+    newScheduler().processQueue();
+
+    verify(projectCleaner, never()).purgeHistory(any(DbSession.class), any(IdUuidPair.class), any(Settings.class), any(PurgeThrottler.class));
+    assertThat(queue.getPendingCount()).isEqualTo(1);
+  }
+
+  @Test
+  public void failure_is_recorded_and_does_not_stop_processing() {
+    queue.add(PROJECT_1, new MapSettings());
+    queue.add(PROJECT_2, new MapSettings());
+    doThrow(new IllegalStateException("BOOM")).when(projectCleaner)
+      .purgeHistory(any(DbSession.class), eq(PROJECT_1), any(Settings.class), any(PurgeThrottler.class));
+
+    newScheduler().processQueue();
+
+    verify(projectCleaner).purgeHistory(any(DbSession.class), eq(PROJECT_2), any(Settings.class), any(PurgeThrottler.class));
+    assertThat(queue.getErrorCount()).isEqualTo(1);
+    assertThat(queue.getSuccessCount()).isEqualTo(1);
+  }
+
+  @Test
+  public void deleted_rows_are_counted_by_throttler() {
+    queue.add(PROJECT_1, new MapSettings());
+    doAnswer(invocation -> {
+      PurgeThrottler throttler = (PurgeThrottler) invocation.getArguments()[3];
+      throttler.acquire(10);
+      throttler.acquire(5);
+      return projectCleaner;
+    }).when(projectCleaner).purgeHistory(any(DbSession.class), eq(PROJECT_1), any(Settings.class), any(PurgeThrottler.class));
+
+    newScheduler().processQueue();
+
+    assertThat(queue.getDeletedRowCount()).isEqualTo(15);
+  }
+
+  @Test
+  public void do_not_purge_outside_window() {
+    settings.setProperty(HousekeepingScheduler.PROPERTY_WINDOW, "22:00-06:00");
+    queue.add(PROJECT_1, new MapSettings());
+
+    newScheduler().processQueue();
+
+    verify(projectCleaner, never()).purgeHistory(any(DbSession.class), any(IdUuidPair.class), any(Settings.class), any(PurgeThrottler.class));
+    assertThat(queue.getPendingCount()).isEqualTo(1);
+  }
+
+  @Test
+  public void isInWindow_supports_windows_spanning_midnight() {
+    settings.setProperty(HousekeepingScheduler.PROPERTY_WINDOW, "22:00-06:00");
+    HousekeepingScheduler underTest = newScheduler();
+
+    assertThat(underTest.isInWindow()).isFalse();
+    system2.setNow(at(23));
+    assertThat(underTest.isInWindow()).isTrue();
+    system2.setNow(at(2));
+    assertThat(underTest.isInWindow()).isTrue();
+    system2.setNow(at(6));
+    assertThat(underTest.isInWindow()).isFalse();
+  }
+
+  @Test
+  public void isInWindow_supports_windows_within_a_day() {
+    settings.setProperty(HousekeepingScheduler.PROPERTY_WINDOW, "10:00-14:00");
+    HousekeepingScheduler underTest = newScheduler();
+
+    assertThat(underTest.isInWindow()).isTrue();
+    system2.setNow(at(9));
+    assertThat(underTest.isInWindow()).isFalse();
+    system2.setNow(at(14));
+    assertThat(underTest.isInWindow()).isFalse();
+  }
+
+  @Test
+  public void always_in_window_if_property_is_not_set() {
+    assertThat(newScheduler().isInWindow()).isTrue();
+  }
+
+  @Test
+  public void fail_if_window_is_invalid() {
+    settings.setProperty(HousekeepingScheduler.PROPERTY_WINDOW, "22h-6h");
+
+    expectedException.expect(IllegalStateException.class);
+    expectedException.expectMessage("Invalid value of property sonar.dbcleaner.housekeeping.window: '22h-6h'. Expected format is HH:mm-HH:mm");
+
+    newScheduler();
+  }
+
+  private HousekeepingScheduler newScheduler() {
+    return new HousekeepingScheduler(dbClient, projectCleaner, queue, settings, system2);
+  }
+
+  private static long at(int hour) {
+    return LocalDate.now().atTime(hour, 0).atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+  }
+}
@@ -20,22 +20,25 @@
 package org.sonar.server.computation.dbcleaner;
 
 import org.junit.Before;
+import org.junit.Rule;
 import org.junit.Test;
+import org.junit.rules.ExpectedException;
 import org.sonar.api.CoreProperties;
 import org.sonar.api.config.Settings;
 import org.sonar.api.config.MapSettings;
 import org.sonar.api.utils.log.Logger;
-import org.sonar.core.config.PurgeConstants;
 import org.sonar.db.DbSession;
 import org.sonar.db.purge.IdUuidPair;
 import org.sonar.db.purge.PurgeConfiguration;
 import org.sonar.db.purge.PurgeDao;
 import org.sonar.db.purge.PurgeListener;
 import org.sonar.db.purge.PurgeProfiler;
+import org.sonar.db.purge.PurgeThrottler;
 import org.sonar.db.purge.period.DefaultPeriodCleaner;
 
 import static java.util.Collections.emptyList;
 import static org.mockito.Matchers.anyString;
+import static org.mockito.Matchers.eq;
 import static org.mockito.Mockito.any;
 import static org.mockito.Mockito.anyLong;
 import static org.mockito.Mockito.doThrow;
@@ -45,6 +48,9 @@ import static org.mockito.Mockito.verify;
 
 public class ProjectCleanerTest {
 
+  @Rule
+  public ExpectedException expectedException = ExpectedException.none();
+
   private ProjectCleaner underTest;
   private PurgeDao dao = mock(PurgeDao.class);
   private PurgeProfiler profiler = mock(PurgeProfiler.class);
@@ -61,7 +67,7 @@ public class ProjectCleanerTest {
   public void no_profiling_when_property_is_false() {
     settings.setProperty(CoreProperties.PROFILING_LOG_PROPERTY, false);
 
-    underTest.purge(mock(DbSession.class), mock(IdUuidPair.class), settings, emptyList());
+    underTest.purgeLeftovers(mock(DbSession.class), mock(IdUuidPair.class), settings, emptyList());
 
     verify(profiler, never()).dump(anyLong(), any(Logger.class));
   }
@@ -70,36 +76,47 @@ public class ProjectCleanerTest {
   public void profiling_when_property_is_true() {
     settings.setProperty(CoreProperties.PROFILING_LOG_PROPERTY, true);
 
-    underTest.purge(mock(DbSession.class), mock(IdUuidPair.class), settings, emptyList());
+    underTest.purgeLeftovers(mock(DbSession.class), mock(IdUuidPair.class), settings, emptyList());
 
     verify(profiler).dump(anyLong(), any(Logger.class));
   }
 
   @Test
-  public void call_period_cleaner_index_client_and_purge_dao() {
-    settings.setProperty(PurgeConstants.DAYS_BEFORE_DELETING_CLOSED_ISSUES, 5);
+  public void purgeLeftovers_calls_purge_dao() {
+    underTest.purgeLeftovers(mock(DbSession.class), mock(IdUuidPair.class), settings, emptyList());
+
+    verify(dao).purgeLeftovers(any(DbSession.class), any(PurgeConfiguration.class), any(PurgeListener.class), any(PurgeProfiler.class));
+    verify(periodCleaner, never()).clean(any(DbSession.class), anyString(), any(Settings.class));
+    verify(periodCleaner, never()).clean(any(DbSession.class), anyString(), any(Settings.class), any(PurgeThrottler.class));
+  }
+
+  @Test
+  public void if_dao_purgeLeftovers_fails_it_should_not_interrupt_program_execution() {
+    doThrow(RuntimeException.class).when(dao).purgeLeftovers(any(DbSession.class), any(PurgeConfiguration.class), any(PurgeListener.class), any(PurgeProfiler.class));
 
-    underTest.purge(mock(DbSession.class), mock(IdUuidPair.class), settings, emptyList());
+    underTest.purgeLeftovers(mock(DbSession.class), mock(IdUuidPair.class), settings, emptyList());
 
-    verify(periodCleaner).clean(any(DbSession.class), anyString(), any(Settings.class));
-    verify(dao).purge(any(DbSession.class), any(PurgeConfiguration.class), any(PurgeListener.class), any(PurgeProfiler.class));
+    verify(dao).purgeLeftovers(any(DbSession.class), any(PurgeConfiguration.class), any(PurgeListener.class), any(PurgeProfiler.class));
   }
 
   @Test
-  public void if_dao_purge_fails_it_should_not_interrupt_program_execution() {
-    doThrow(RuntimeException.class).when(dao).purge(any(DbSession.class), any(PurgeConfiguration.class), any(PurgeListener.class), any(PurgeProfiler.class));
+  public void purgeHistory_calls_period_cleaner_and_purge_dao_with_throttler() {
+    PurgeThrottler throttler = mock(PurgeThrottler.class);
 
-    underTest.purge(mock(DbSession.class), mock(IdUuidPair.class), settings, emptyList());
+    underTest.purgeHistory(mock(DbSession.class), mock(IdUuidPair.class), settings, throttler);
 
-    verify(dao).purge(any(DbSession.class), any(PurgeConfiguration.class), any(PurgeListener.class), any(PurgeProfiler.class));
+    verify(periodCleaner).clean(any(DbSession.class), anyString(), any(Settings.class), eq(throttler));
+    verify(dao).purgeHistory(any(DbSession.class), any(PurgeConfiguration.class), any(PurgeListener.class), any(PurgeProfiler.class), eq(throttler));
   }
 
   @Test
-  public void if_profiler_cleaning_fails_it_should_not_interrupt_program_execution() {
-    doThrow(RuntimeException.class).when(periodCleaner).clean(any(DbSession.class), anyString(), any(Settings.class));
+  public void if_dao_purgeHistory_fails_then_error_is_propagated() {
+    doThrow(new IllegalStateException("BOOM")).when(dao)
+      .purgeHistory(any(DbSession.class), any(PurgeConfiguration.class), any(PurgeListener.class), any(PurgeProfiler.class), any(PurgeThrottler.class));
 
-    underTest.purge(mock(DbSession.class), mock(IdUuidPair.class), settings, emptyList());
+    expectedException.expect(IllegalStateException.class);
+    expectedException.expectMessage("BOOM");
 
-    verify(periodCleaner).clean(any(DbSession.class), anyString(), any(Settings.class));
+    underTest.purgeHistory(mock(DbSession.class), mock(IdUuidPair.class), settings, PurgeThrottler.NONE);
   }
 }
@@ -24,6 +24,8 @@ import org.junit.Rule;
 import org.junit.Test;
 import org.junit.rules.ExpectedException;
 import org.mockito.Mockito;
+import org.sonar.ce.monitoring.CeTaskResourceUsage;
+import org.sonar.ce.monitoring.ResourceUsage;
 import org.sonar.db.DbClient;
 import org.sonar.db.DbSession;
 import org.sonar.db.ce.CeQueueDto;
@@ -133,6 +135,73 @@ public class CEQueueStatusImplTest {
     assertThat(underTest.getProcessingTime()).isEqualTo(calls);
   }
 
+  @Test
+  public void addResourceUsage_increases_resource_counters() {
+    underTest.addResourceUsage(new CeTaskResourceUsage(new ResourceUsage(10, 1_000, 5, 3), 200, 100));
+    underTest.addResourceUsage(new CeTaskResourceUsage(new ResourceUsage(20, 2_000, 7, 4), 300, 150));
+
+    assertThat(underTest.getCpuTime()).isEqualTo(30);
+    assertThat(underTest.getAllocatedBytes()).isEqualTo(3_000);
+    assertThat(underTest.getDbStatementCount()).isEqualTo(12);
+    assertThat(underTest.getDbTime()).isEqualTo(7);
+    assertThat(underTest.getTempDiskBytes()).isEqualTo(500);
+  }
+
+  @Test
+  public void addResourceUsage_ignores_unknown_cpu_time_and_allocated_bytes() {
+    underTest.addResourceUsage(new CeTaskResourceUsage(new ResourceUsage(ResourceUsage.UNKNOWN, ResourceUsage.UNKNOWN, 5, 3), 0, 0));
+
+    assertThat(underTest.getCpuTime()).isEqualTo(0);
+    assertThat(underTest.getAllocatedBytes()).isEqualTo(0);
+    assertThat(underTest.getDbStatementCount()).isEqualTo(5);
+  }
+
+  @Test
+  public void getWaitTimePercentile_returns_0_if_no_wait_time() {
+    assertThat(underTest.getWaitTimePercentile(50)).isEqualTo(0);
+    assertThat(underTest.getWaitTimePercentile(99)).isEqualTo(0);
+  }
+
+  @Test
+  public void getWaitTimePercentile_uses_nearest_rank() {
+    for (int i = 100; i > 0; i--) {
+      underTest.addWaitTime(i * 10);
+    }
+
+    assertThat(underTest.getWaitTimePercentile(1)).isEqualTo(10);
+    assertThat(underTest.getWaitTimePercentile(50)).isEqualTo(500);
+    assertThat(underTest.getWaitTimePercentile(90)).isEqualTo(900);
+    assertThat(underTest.getWaitTimePercentile(100)).isEqualTo(1_000);
+  }
+
+  @Test
+  public void getWaitTimePercentile_only_considers_the_most_recent_wait_times() {
+    for (int i = 0; i < CEQueueStatusImpl.WAIT_TIME_SAMPLE_SIZE; i++) {
+      underTest.addWaitTime(1_000);
+    }
+    for (int i = 0; i < CEQueueStatusImpl.WAIT_TIME_SAMPLE_SIZE; i++) {
+      underTest.addWaitTime(5);
+    }
+
+    assertThat(underTest.getWaitTimePercentile(100)).isEqualTo(5);
+  }
+
+  @Test
+  public void addWaitTime_throws_IAE_if_time_is_less_than_0() {
+    expectedException.expect(IllegalArgumentException.class);
+    expectedException.expectMessage("Wait time can not be < 0");
+
+    underTest.addWaitTime(-1);
+  }
+
+  @Test
+  public void getWaitTimePercentile_throws_IAE_if_percentile_is_out_of_range() {
+    expectedException.expect(IllegalArgumentException.class);
+    expectedException.expectMessage("Percentile must be between 1 and 100");
+
+    underTest.getWaitTimePercentile(0);
+  }
+
   @Test
   public void count_Pending_from_database() {
     when(dbClient.ceQueueDao().countByStatus(any(DbSession.class), eq(CeQueueDto.Status.PENDING))).thenReturn(42);
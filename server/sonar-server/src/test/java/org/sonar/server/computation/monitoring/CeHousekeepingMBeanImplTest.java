@@ -0,0 +1,81 @@
+/*
+ * SonarQube
+ * Copyright (C) 2009-2017 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.server.computation.monitoring;
+
+import java.lang.management.ManagementFactory;
+import javax.annotation.CheckForNull;
+import javax.management.InstanceNotFoundException;
+import javax.management.ObjectInstance;
+import javax.management.ObjectName;
+import org.junit.Test;
+import org.sonar.api.config.MapSettings;
+import org.sonar.db.purge.IdUuidPair;
+import org.sonar.process.systeminfo.protobuf.ProtobufSystemInfo;
+import org.sonar.server.computation.dbcleaner.HousekeepingQueue;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class CeHousekeepingMBeanImplTest {
+
+  private HousekeepingQueue queue = new HousekeepingQueue();
+  private CeHousekeepingMBeanImpl underTest = new CeHousekeepingMBeanImpl(queue);
+
+  @Test
+  public void register_and_unregister() throws Exception {
+    assertThat(getMBean()).isNull();
+
+    underTest.start();
+    assertThat(getMBean()).isNotNull();
+
+    underTest.stop();
+    assertThat(getMBean()).isNull();
+  }
+
+  @Test
+  public void get_methods_delegate_to_the_HousekeepingQueue_instance() {
+    queue.add(new IdUuidPair(1L, "P1"), new MapSettings());
+    queue.add(new IdUuidPair(2L, "P2"), new MapSettings());
+    queue.addSuccess(10L);
+    queue.addError(5L);
+    queue.addDeletedRows(1_000);
+
+    assertThat(underTest.getPendingCount()).isEqualTo(2);
+    assertThat(underTest.getSuccessCount()).isEqualTo(1);
+    assertThat(underTest.getErrorCount()).isEqualTo(1);
+    assertThat(underTest.getProcessingTime()).isEqualTo(15L);
+    assertThat(underTest.getDeletedRowCount()).isEqualTo(1_000L);
+  }
+
+  @Test
+  public void export_system_info() {
+    ProtobufSystemInfo.Section section = underTest.toProtobuf();
+    assertThat(section.getName()).isEqualTo("Compute Engine Housekeeping");
+    assertThat(section.getAttributesCount()).isEqualTo(5);
+  }
+
+  @CheckForNull
+  private ObjectInstance getMBean() throws Exception {
+    try {
+      return ManagementFactory.getPlatformMBeanServer().getObjectInstance(new ObjectName(CeHousekeepingMBean.OBJECT_NAME));
+    } catch (InstanceNotFoundException e) {
+      return null;
+    }
+  }
+}
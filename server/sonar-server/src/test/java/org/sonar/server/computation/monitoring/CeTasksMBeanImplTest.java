@@ -26,10 +26,14 @@ import javax.management.ObjectInstance;
 import javax.management.ObjectName;
 import org.junit.Test;
 import org.sonar.ce.monitoring.CEQueueStatus;
+import org.sonar.ce.monitoring.CeTaskResourceUsage;
 import org.sonar.process.systeminfo.protobuf.ProtobufSystemInfo;
 import org.sonar.server.computation.configuration.CeConfiguration;
+import org.sonar.server.computation.taskprocessor.CeProcessingScheduler;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
 
 public class CeTasksMBeanImplTest {
   private static final long PENDING_COUNT = 2;
@@ -38,8 +42,17 @@ public class CeTasksMBeanImplTest {
   private static final long SUCCESS_COUNT = 13;
   private static final long PROCESSING_TIME = 987;
   private static final int WORKER_COUNT = 56;
-
-  private CeTasksMBeanImpl underTest = new CeTasksMBeanImpl(new DumbCEQueueStatus(), new DumbCeConfiguration());
+  private static final int CURRENT_WORKER_COUNT = 12;
+  private static final int MAX_WORKER_COUNT = 64;
+  private static final long CPU_TIME = 654;
+  private static final long ALLOCATED_BYTES = 1_234_567;
+  private static final long DB_STATEMENT_COUNT = 321;
+  private static final long DB_TIME = 123;
+  private static final long TEMP_DISK_BYTES = 7_654_321;
+  private static final long WAIT_TIME_BY_PERCENTILE = 17;
+
+  private CeProcessingScheduler processingScheduler = mock(CeProcessingScheduler.class);
+  private CeTasksMBeanImpl underTest = new CeTasksMBeanImpl(new DumbCEQueueStatus(), new DumbCeConfiguration(), processingScheduler);
 
   @Test
   public void register_and_unregister() throws Exception {
@@ -59,18 +72,38 @@ public class CeTasksMBeanImplTest {
     assertThat(underTest.getErrorCount()).isEqualTo(ERROR_COUNT);
     assertThat(underTest.getSuccessCount()).isEqualTo(SUCCESS_COUNT);
     assertThat(underTest.getProcessingTime()).isEqualTo(PROCESSING_TIME);
+    assertThat(underTest.getCpuTime()).isEqualTo(CPU_TIME);
+    assertThat(underTest.getAllocatedBytes()).isEqualTo(ALLOCATED_BYTES);
+    assertThat(underTest.getDbStatementCount()).isEqualTo(DB_STATEMENT_COUNT);
+    assertThat(underTest.getDbTime()).isEqualTo(DB_TIME);
+    assertThat(underTest.getTempDiskBytes()).isEqualTo(TEMP_DISK_BYTES);
+    assertThat(underTest.getWaitTimeP50()).isEqualTo(WAIT_TIME_BY_PERCENTILE * 50);
+    assertThat(underTest.getWaitTimeP90()).isEqualTo(WAIT_TIME_BY_PERCENTILE * 90);
+    assertThat(underTest.getWaitTimeP99()).isEqualTo(WAIT_TIME_BY_PERCENTILE * 99);
+  }
+
+  @Test
+  public void getWorkerCount_delegates_to_the_CeProcessingScheduler_instance() {
+    when(processingScheduler.getWorkerCount()).thenReturn(CURRENT_WORKER_COUNT);
+
+    assertThat(underTest.getWorkerCount()).isEqualTo(CURRENT_WORKER_COUNT);
   }
 
   @Test
-  public void getWorkerCount_delegates_to_the_CEConfiguration_instance() {
-    assertThat(underTest.getWorkerCount()).isEqualTo(WORKER_COUNT);
+  public void getMaxWorkerCount_delegates_to_the_CEConfiguration_instance() {
+    assertThat(underTest.getMaxWorkerCount()).isEqualTo(MAX_WORKER_COUNT);
+  }
+
+  @Test
+  public void getMinWorkerCount_is_constant() {
+    assertThat(underTest.getMinWorkerCount()).isEqualTo(CeProcessingScheduler.MIN_WORKER_COUNT);
   }
 
   @Test
   public void export_system_info() {
     ProtobufSystemInfo.Section section = underTest.toProtobuf();
     assertThat(section.getName()).isEqualTo("Compute Engine Tasks");
-    assertThat(section.getAttributesCount()).isEqualTo(6);
+    assertThat(section.getAttributesCount()).isEqualTo(16);
   }
 
   /**
@@ -119,6 +152,46 @@ public class CeTasksMBeanImplTest {
       return PROCESSING_TIME;
     }
 
+    @Override
+    public void addResourceUsage(CeTaskResourceUsage resourceUsage) {
+      methodNotImplemented();
+    }
+
+    @Override
+    public long getCpuTime() {
+      return CPU_TIME;
+    }
+
+    @Override
+    public long getAllocatedBytes() {
+      return ALLOCATED_BYTES;
+    }
+
+    @Override
+    public long getDbStatementCount() {
+      return DB_STATEMENT_COUNT;
+    }
+
+    @Override
+    public long getDbTime() {
+      return DB_TIME;
+    }
+
+    @Override
+    public long getTempDiskBytes() {
+      return TEMP_DISK_BYTES;
+    }
+
+    @Override
+    public void addWaitTime(long waitTime) {
+      methodNotImplemented();
+    }
+
+    @Override
+    public long getWaitTimePercentile(int percentile) {
+      return WAIT_TIME_BY_PERCENTILE * percentile;
+    }
+
     private long methodNotImplemented() {
       throw new UnsupportedOperationException("Not Implemented");
     }
@@ -130,10 +203,30 @@ public class CeTasksMBeanImplTest {
       return WORKER_COUNT;
     }
 
+    @Override
+    public int getMaxWorkerCount() {
+      return MAX_WORKER_COUNT;
+    }
+
+    @Override
+    public long getTaskMemoryEstimate() {
+      throw new UnsupportedOperationException("getTaskMemoryEstimate is not implemented");
+    }
+
     @Override
     public long getQueuePollingDelay() {
       throw new UnsupportedOperationException("getQueuePollingDelay is not implemented");
     }
+
+    @Override
+    public boolean isSupersededReportsCoalescingEnabled() {
+      throw new UnsupportedOperationException("isSupersededReportsCoalescingEnabled is not implemented");
+    }
+
+    @Override
+    public boolean isFairSchedulingEnabled() {
+      throw new UnsupportedOperationException("isFairSchedulingEnabled is not implemented");
+    }
   }
 
   @CheckForNull
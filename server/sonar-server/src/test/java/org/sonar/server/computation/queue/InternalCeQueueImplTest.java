@@ -27,9 +27,10 @@ import javax.annotation.Nullable;
 import org.junit.Rule;
 import org.junit.Test;
 import org.junit.rules.ExpectedException;
-import org.sonar.api.utils.System2;
 import org.sonar.api.utils.internal.TestSystem2;
 import org.sonar.ce.monitoring.CEQueueStatus;
+import org.sonar.ce.monitoring.CeTaskResourceUsage;
+import org.sonar.ce.monitoring.ResourceUsage;
 import org.sonar.ce.queue.CeTask;
 import org.sonar.ce.queue.CeTaskResult;
 import org.sonar.ce.queue.CeTaskSubmit;
@@ -42,6 +43,7 @@ import org.sonar.db.ce.CeQueueDto;
 import org.sonar.db.ce.CeTaskTypes;
 import org.sonar.db.component.ComponentDto;
 import org.sonar.db.component.ComponentTesting;
+import org.sonar.server.computation.configuration.CeConfigurationRule;
 import org.sonar.server.computation.monitoring.CEQueueStatusImpl;
 import org.sonar.server.organization.DefaultOrganizationProvider;
 import org.sonar.server.organization.TestDefaultOrganizationProvider;
@@ -57,7 +59,7 @@ public class InternalCeQueueImplTest {
 
   private static final String AN_ANALYSIS_UUID = "U1";
 
-  private System2 system2 = new TestSystem2().setNow(1_450_000_000_000L);
+  private TestSystem2 system2 = new TestSystem2().setNow(1_450_000_000_000L);
 
   @Rule
   public ExpectedException expectedException = ExpectedException.none();
@@ -69,7 +71,9 @@ public class InternalCeQueueImplTest {
   private UuidFactory uuidFactory = UuidFactoryImpl.INSTANCE;
   private CEQueueStatus queueStatus = new CEQueueStatusImpl(dbTester.getDbClient());
   private DefaultOrganizationProvider defaultOrganizationProvider = TestDefaultOrganizationProvider.from(dbTester);
-  private InternalCeQueue underTest = new InternalCeQueueImpl(system2, dbTester.getDbClient(), uuidFactory, queueStatus, defaultOrganizationProvider);
+  private CeConfigurationRule ceConfiguration = new CeConfigurationRule();
+  private InternalCeQueue underTest = new InternalCeQueueImpl(system2, dbTester.getDbClient(), uuidFactory, queueStatus, defaultOrganizationProvider,
+    ceConfiguration);
 
   @Test
   public void submit_returns_task_populated_from_CeTaskSubmit_and_creates_CeQueue_row() {
@@ -136,11 +140,113 @@ public class InternalCeQueueImplTest {
     verifyCeTask(taskSubmit2, tasks.get(1), null);
   }
 
+  @Test
+  public void peek_oldest_report_of_component_if_coalescing_of_superseded_reports_is_disabled() {
+    CeTask task1 = submit(CeTaskTypes.REPORT, "PROJECT_1");
+    submit(CeTaskTypes.REPORT, "PROJECT_1");
+
+    Optional<CeTask> peek = underTest.peek();
+
+    assertThat(peek.get().getUuid()).isEqualTo(task1.getUuid());
+    assertThat(dbTester.countRowsOfTable("ce_queue")).isEqualTo(2);
+    assertThat(dbTester.countRowsOfTable("ce_activity")).isEqualTo(0);
+  }
+
+  @Test
+  public void peek_most_recent_report_of_component_and_cancel_superseded_ones_if_coalescing_is_enabled() {
+    ceConfiguration.setSupersededReportsCoalescingEnabled(true);
+    CeTask task1 = submit(CeTaskTypes.REPORT, "PROJECT_1");
+    CeTask otherProjectTask = submit(CeTaskTypes.REPORT, "PROJECT_2");
+    CeTask task2 = submit(CeTaskTypes.REPORT, "PROJECT_1");
+    CeTask task3 = submit(CeTaskTypes.REPORT, "PROJECT_1");
+
+    Optional<CeTask> peek = underTest.peek();
+
+    assertThat(peek.get().getUuid()).isEqualTo(task3.getUuid());
+    assertThat(queueStatus.getInProgressCount()).isEqualTo(1);
+    assertThat(dbTester.getDbClient().ceQueueDao().selectByUuid(session, task3.getUuid()).get().getStatus()).isEqualTo(CeQueueDto.Status.IN_PROGRESS);
+    assertThat(dbTester.getDbClient().ceQueueDao().selectByUuid(session, otherProjectTask.getUuid()).get().getStatus()).isEqualTo(CeQueueDto.Status.PENDING);
+    for (CeTask superseded : asList(task1, task2)) {
+      assertThat(dbTester.getDbClient().ceQueueDao().selectByUuid(session, superseded.getUuid()).isPresent()).isFalse();
+      CeActivityDto activity = dbTester.getDbClient().ceActivityDao().selectByUuid(session, superseded.getUuid()).get();
+      assertThat(activity.getStatus()).isEqualTo(CeActivityDto.Status.CANCELED);
+      assertThat(activity.getErrorMessage()).isEqualTo("Superseded by more recent analysis report " + task3.getUuid());
+    }
+  }
+
+  @Test
+  public void do_not_coalesce_tasks_which_are_not_reports() {
+    ceConfiguration.setSupersededReportsCoalescingEnabled(true);
+    CeTask task1 = submit("OTHER", "PROJECT_1");
+    CeTask task2 = submit("OTHER", "PROJECT_1");
+
+    Optional<CeTask> peek = underTest.peek();
+
+    assertThat(peek.get().getUuid()).isEqualTo(task1.getUuid());
+    assertThat(dbTester.getDbClient().ceQueueDao().selectByUuid(session, task2.getUuid()).get().getStatus()).isEqualTo(CeQueueDto.Status.PENDING);
+    assertThat(dbTester.countRowsOfTable("ce_activity")).isEqualTo(0);
+  }
+
+  @Test
+  public void peek_tasks_with_higher_priority_first() {
+    CeTask normalTask = submit(CeTaskTypes.REPORT, "PROJECT_1");
+    CeTask lowTask = underTest.submit(createTaskSubmitWithPriority(CeTaskTypes.REPORT, "PROJECT_2", CeQueueDto.Priority.LOW));
+    CeTask highTask = underTest.submit(createTaskSubmitWithPriority(CeTaskTypes.REPORT, "PROJECT_3", CeQueueDto.Priority.HIGH));
+
+    assertThat(underTest.peek().get().getUuid()).isEqualTo(highTask.getUuid());
+    assertThat(underTest.peek().get().getUuid()).isEqualTo(normalTask.getUuid());
+    assertThat(underTest.peek().get().getUuid()).isEqualTo(lowTask.getUuid());
+  }
+
+  @Test
+  public void peek_tasks_in_order_of_submission_if_fair_scheduling_is_disabled() {
+    insertActivity("PROJECT_1", 1_000L, 10L);
+    insertActivity("PROJECT_2", 500L, 10L);
+    CeTask task1 = submit(CeTaskTypes.REPORT, "PROJECT_1");
+    submit(CeTaskTypes.REPORT, "PROJECT_2");
+
+    assertThat(underTest.peek().get().getUuid()).isEqualTo(task1.getUuid());
+  }
+
+  @Test
+  public void peek_tasks_by_virtual_finish_time_of_components_if_fair_scheduling_is_enabled() {
+    ceConfiguration.setFairSchedulingEnabled(true);
+    // processed recently
+    insertActivity("PROJECT_1", 1_000L, 10L);
+    // processed a long time ago, but very long to process
+    insertActivity("PROJECT_2", 100L, 2_000L);
+    // processed a long time ago
+    insertActivity("PROJECT_3", 500L, 10L);
+    CeTask task1 = submit(CeTaskTypes.REPORT, "PROJECT_1");
+    CeTask task2 = submit(CeTaskTypes.REPORT, "PROJECT_2");
+    CeTask task3 = submit(CeTaskTypes.REPORT, "PROJECT_3");
+    // never processed
+    CeTask task4 = submit(CeTaskTypes.REPORT, "PROJECT_4");
+    underTest.submit(createTaskSubmitWithPriority(CeTaskTypes.REPORT, "PROJECT_1", CeQueueDto.Priority.HIGH));
+
+    assertThat(underTest.peek().get().getUuid()).isEqualTo(task4.getUuid());
+    assertThat(underTest.peek().get().getUuid()).isEqualTo(task3.getUuid());
+    assertThat(underTest.peek().get().getUuid()).isEqualTo(task1.getUuid());
+    assertThat(underTest.peek().get().getUuid()).isEqualTo(task2.getUuid());
+    // second task of PROJECT_1 can not be peeked before the first one is processed, whatever its priority
+    assertThat(underTest.peek().isPresent()).isFalse();
+  }
+
+  @Test
+  public void peek_records_wait_time_of_task() {
+    submit(CeTaskTypes.REPORT, "PROJECT_1");
+    system2.setNow(1_450_000_005_000L);
+
+    underTest.peek();
+
+    assertThat(queueStatus.getWaitTimePercentile(50)).isEqualTo(5_000L);
+  }
+
   @Test
   public void test_remove() {
     CeTask task = submit(CeTaskTypes.REPORT, "PROJECT_1");
     Optional<CeTask> peek = underTest.peek();
-    underTest.remove(peek.get(), CeActivityDto.Status.SUCCESS, null, null);
+    underTest.remove(peek.get(), CeActivityDto.Status.SUCCESS, null, null, null);
 
     // queue is empty
     assertThat(dbTester.getDbClient().ceQueueDao().selectByUuid(dbTester.getSession(), task.getUuid()).isPresent()).isFalse();
@@ -154,12 +260,43 @@ public class InternalCeQueueImplTest {
     assertThat(history.get().getAnalysisUuid()).isNull();
   }
 
+  @Test
+  public void remove_saves_resource_usage_in_CeActivity_and_queue_status() {
+    CeTask task = submit(CeTaskTypes.REPORT, "PROJECT_1");
+    Optional<CeTask> peek = underTest.peek();
+    CeTaskResourceUsage resourceUsage = new CeTaskResourceUsage(new ResourceUsage(150, 10_000, 12, 30), 2_048, 1_024);
+    underTest.remove(peek.get(), CeActivityDto.Status.SUCCESS, null, null, resourceUsage);
+
+    CeActivityDto history = dbTester.getDbClient().ceActivityDao().selectByUuid(dbTester.getSession(), task.getUuid()).get();
+    assertThat(history.getCpuTimeMs()).isEqualTo(150L);
+    assertThat(history.getAllocatedBytes()).isEqualTo(10_000L);
+    assertThat(history.getDbStatementCount()).isEqualTo(12L);
+    assertThat(history.getDbTimeMs()).isEqualTo(30L);
+    assertThat(history.getTempDiskBytes()).isEqualTo(2_048L);
+    assertThat(history.getReportSizeBytes()).isEqualTo(1_024L);
+    assertThat(queueStatus.getCpuTime()).isEqualTo(150L);
+    assertThat(queueStatus.getDbStatementCount()).isEqualTo(12L);
+  }
+
+  @Test
+  public void remove_does_not_save_unknown_cpu_time_and_allocated_bytes() {
+    CeTask task = submit(CeTaskTypes.REPORT, "PROJECT_1");
+    Optional<CeTask> peek = underTest.peek();
+    CeTaskResourceUsage resourceUsage = new CeTaskResourceUsage(new ResourceUsage(ResourceUsage.UNKNOWN, ResourceUsage.UNKNOWN, 12, 30), 0, 0);
+    underTest.remove(peek.get(), CeActivityDto.Status.SUCCESS, null, null, resourceUsage);
+
+    CeActivityDto history = dbTester.getDbClient().ceActivityDao().selectByUuid(dbTester.getSession(), task.getUuid()).get();
+    assertThat(history.getCpuTimeMs()).isNull();
+    assertThat(history.getAllocatedBytes()).isNull();
+    assertThat(history.getDbStatementCount()).isEqualTo(12L);
+  }
+
   @Test
   public void remove_throws_IAE_if_exception_is_provided_but_status_is_SUCCESS() {
     expectedException.expect(IllegalArgumentException.class);
     expectedException.expectMessage("Error can be provided only when status is FAILED");
 
-    underTest.remove(mock(CeTask.class), CeActivityDto.Status.SUCCESS, null, new RuntimeException("Some error"));
+    underTest.remove(mock(CeTask.class), CeActivityDto.Status.SUCCESS, null, new RuntimeException("Some error"), null);
   }
 
   @Test
@@ -167,14 +304,14 @@ public class InternalCeQueueImplTest {
     expectedException.expect(IllegalArgumentException.class);
     expectedException.expectMessage("Error can be provided only when status is FAILED");
 
-    underTest.remove(mock(CeTask.class), CeActivityDto.Status.CANCELED, null, new RuntimeException("Some error"));
+    underTest.remove(mock(CeTask.class), CeActivityDto.Status.CANCELED, null, new RuntimeException("Some error"), null);
   }
 
   @Test
   public void remove_does_not_set_analysisUuid_in_CeActivity_when_CeTaskResult_has_no_analysis_uuid() {
     CeTask task = submit(CeTaskTypes.REPORT, "PROJECT_1");
     Optional<CeTask> peek = underTest.peek();
-    underTest.remove(peek.get(), CeActivityDto.Status.SUCCESS, newTaskResult(null), null);
+    underTest.remove(peek.get(), CeActivityDto.Status.SUCCESS, newTaskResult(null), null, null);
 
     // available in history
     Optional<CeActivityDto> history = dbTester.getDbClient().ceActivityDao().selectByUuid(dbTester.getSession(), task.getUuid());
@@ -187,7 +324,7 @@ public class InternalCeQueueImplTest {
     CeTask task = submit(CeTaskTypes.REPORT, "PROJECT_1");
 
     Optional<CeTask> peek = underTest.peek();
-    underTest.remove(peek.get(), CeActivityDto.Status.SUCCESS, newTaskResult(AN_ANALYSIS_UUID), null);
+    underTest.remove(peek.get(), CeActivityDto.Status.SUCCESS, newTaskResult(AN_ANALYSIS_UUID), null, null);
 
     // available in history
     Optional<CeActivityDto> history = dbTester.getDbClient().ceActivityDao().selectByUuid(dbTester.getSession(), task.getUuid());
@@ -201,7 +338,7 @@ public class InternalCeQueueImplTest {
 
     CeTask task = submit(CeTaskTypes.REPORT, "PROJECT_1");
     Optional<CeTask> peek = underTest.peek();
-    underTest.remove(peek.get(), CeActivityDto.Status.FAILED, null, error);
+    underTest.remove(peek.get(), CeActivityDto.Status.FAILED, null, error, null);
 
     Optional<CeActivityDto> activityDto = dbTester.getDbClient().ceActivityDao().selectByUuid(session, task.getUuid());
     assertThat(activityDto).isPresent();
@@ -219,11 +356,11 @@ public class InternalCeQueueImplTest {
   @Test
   public void fail_to_remove_if_not_in_queue() throws Exception {
     CeTask task = submit(CeTaskTypes.REPORT, "PROJECT_1");
-    underTest.remove(task, CeActivityDto.Status.SUCCESS, null, null);
+    underTest.remove(task, CeActivityDto.Status.SUCCESS, null, null, null);
 
     expectedException.expect(IllegalStateException.class);
 
-    underTest.remove(task, CeActivityDto.Status.SUCCESS, null, null);
+    underTest.remove(task, CeActivityDto.Status.SUCCESS, null, null, null);
   }
 
   @Test
@@ -360,6 +497,29 @@ public class InternalCeQueueImplTest {
     return submission.build();
   }
 
+  private CeTaskSubmit createTaskSubmitWithPriority(String type, String componentUuid, CeQueueDto.Priority priority) {
+    CeTaskSubmit.Builder submission = underTest.prepareSubmit();
+    submission.setType(type);
+    submission.setComponentUuid(componentUuid);
+    submission.setPriority(priority);
+    return submission.build();
+  }
+
+  private void insertActivity(String componentUuid, long executedAt, long executionTimeMs) {
+    CeQueueDto queueDto = new CeQueueDto()
+      .setUuid(uuidFactory.create())
+      .setTaskType(CeTaskTypes.REPORT)
+      .setComponentUuid(componentUuid)
+      .setStatus(CeQueueDto.Status.IN_PROGRESS)
+      .setStartedAt(executedAt - executionTimeMs);
+    CeActivityDto activityDto = new CeActivityDto(queueDto)
+      .setStatus(CeActivityDto.Status.SUCCESS)
+      .setExecutedAt(executedAt)
+      .setExecutionTimeMs(executionTimeMs);
+    dbTester.getDbClient().ceActivityDao().insert(session, activityDto);
+    session.commit();
+  }
+
   private CeTaskResult newTaskResult(@Nullable String analysisUuid) {
     CeTaskResult taskResult = mock(CeTaskResult.class);
     when(taskResult.getAnalysisUuid()).thenReturn(java.util.Optional.ofNullable(analysisUuid));
@@ -28,12 +28,14 @@ import org.junit.Test;
 import org.junit.rules.ExpectedException;
 import org.sonar.api.resources.Qualifiers;
 import org.sonar.api.utils.System2;
+import org.sonar.api.web.UserRole;
 import org.sonar.ce.queue.CeQueue;
 import org.sonar.ce.queue.CeQueueImpl;
 import org.sonar.ce.queue.CeTaskSubmit;
 import org.sonar.core.permission.GlobalPermissions;
 import org.sonar.db.DbSession;
 import org.sonar.db.DbTester;
+import org.sonar.db.ce.CeQueueDto;
 import org.sonar.db.ce.CeTaskTypes;
 import org.sonar.db.component.ComponentDto;
 import org.sonar.db.organization.OrganizationDto;
@@ -46,6 +48,7 @@ import org.sonar.server.permission.PermissionTemplateService;
 import org.sonar.server.tester.UserSessionRule;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.fail;
 import static org.mockito.Matchers.any;
 import static org.mockito.Matchers.anyInt;
 import static org.mockito.Matchers.anyString;
@@ -57,6 +60,7 @@ import static org.mockito.Mockito.verifyZeroInteractions;
 import static org.mockito.Mockito.when;
 import static org.sonar.core.permission.GlobalPermissions.SCAN_EXECUTION;
 import static org.sonar.db.component.ComponentTesting.newProjectDto;
+import static org.sonar.db.permission.OrganizationPermission.ADMINISTER;
 import static org.sonar.db.permission.OrganizationPermission.PROVISION_PROJECTS;
 import static org.sonar.db.permission.OrganizationPermission.SCAN;
 
@@ -202,6 +206,85 @@ public class ReportSubmitterTest {
     verify(queue).submit(any(CeTaskSubmit.class));
   }
 
+  @Test
+  public void submit_a_report_with_priority() {
+    ComponentDto project = db.components().insertProject(db.getDefaultOrganization());
+    userSession.logIn()
+      .addProjectUuidPermissions(SCAN_EXECUTION, project.uuid())
+      .addProjectUuidPermissions(UserRole.ADMIN, project.uuid());
+
+    mockSuccessfulPrepareSubmitCall();
+
+    underTest.submit(defaultOrganizationKey, project.getKey(), null, project.name(), CeQueueDto.Priority.HIGH, IOUtils.toInputStream("{binary}"));
+
+    verify(queue).submit(argThat(new TypeSafeMatcher<CeTaskSubmit>() {
+      @Override
+      protected boolean matchesSafely(CeTaskSubmit submit) {
+        return submit.getPriority() == CeQueueDto.Priority.HIGH;
+      }
+
+      @Override
+      public void describeTo(Description description) {
+
+      }
+    }));
+  }
+
+  @Test
+  public void organization_administrator_is_allowed_to_submit_a_report_with_high_priority() {
+    OrganizationDto org = db.organizations().insert();
+    ComponentDto project = db.components().insertProject(org);
+    userSession.logIn().addPermission(SCAN, org).addPermission(ADMINISTER, org);
+
+    mockSuccessfulPrepareSubmitCall();
+
+    underTest.submit(org.getKey(), project.getKey(), null, project.name(), CeQueueDto.Priority.HIGH, IOUtils.toInputStream("{binary}"));
+
+    verify(queue).submit(any(CeTaskSubmit.class));
+  }
+
+  @Test
+  public void user_with_scan_permission_is_allowed_to_submit_a_report_with_low_priority() {
+    ComponentDto project = db.components().insertProject(db.getDefaultOrganization());
+    userSession.logIn().addProjectUuidPermissions(SCAN_EXECUTION, project.uuid());
+
+    mockSuccessfulPrepareSubmitCall();
+
+    underTest.submit(defaultOrganizationKey, project.getKey(), null, project.name(), CeQueueDto.Priority.LOW, IOUtils.toInputStream("{binary}"));
+
+    verify(queue).submit(any(CeTaskSubmit.class));
+  }
+
+  @Test
+  public void fail_with_forbidden_exception_when_submitting_with_high_priority_without_administer_permission() {
+    ComponentDto project = db.components().insertProject(db.getDefaultOrganization());
+    userSession.logIn().addProjectUuidPermissions(SCAN_EXECUTION, project.uuid());
+
+    thrown.expect(ForbiddenException.class);
+    thrown.expectMessage("Administer permission is required to submit a report with priority HIGH");
+
+    underTest.submit(defaultOrganizationKey, project.getKey(), null, project.name(), CeQueueDto.Priority.HIGH, IOUtils.toInputStream("{binary}"));
+  }
+
+  @Test
+  public void do_not_create_project_when_submitting_with_high_priority_without_administer_permission() {
+    userSession.logIn()
+      .addPermission(SCAN, db.getDefaultOrganization())
+      .addPermission(PROVISION_PROJECTS, db.getDefaultOrganization());
+    when(permissionTemplateService.wouldUserHaveScanPermissionWithDefaultTemplate(any(DbSession.class), eq(defaultOrganizationUuid), anyInt(), anyString(),
+      eq(PROJECT_KEY), eq(Qualifiers.PROJECT)))
+        .thenReturn(true);
+
+    try {
+      underTest.submit(defaultOrganizationKey, PROJECT_KEY, null, PROJECT_NAME, CeQueueDto.Priority.HIGH, IOUtils.toInputStream("{binary}"));
+      fail("A ForbiddenException should have been thrown");
+    } catch (ForbiddenException e) {
+      assertThat(e).hasMessage("Administer permission is required to submit a report with priority HIGH");
+    }
+
+    verifyZeroInteractions(componentUpdater, queue);
+  }
+
   @Test
   public void user_with_scan_permission_on_organization_is_allowed_to_submit_a_report_on_existing_project() {
     OrganizationDto org = db.organizations().insert();
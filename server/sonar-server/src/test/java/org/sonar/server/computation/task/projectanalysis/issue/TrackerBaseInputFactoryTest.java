@@ -22,6 +22,7 @@ package org.sonar.server.computation.task.projectanalysis.issue;
 import com.google.common.base.Optional;
 import org.junit.Before;
 import org.junit.Test;
+import org.sonar.core.issue.tracking.LineHashSequence;
 import org.sonar.db.DbClient;
 import org.sonar.db.DbSession;
 import org.sonar.db.source.FileSourceDao;
@@ -29,10 +30,14 @@ import org.sonar.server.computation.task.projectanalysis.component.Component;
 import org.sonar.server.computation.task.projectanalysis.component.ReportComponent;
 import org.sonar.server.computation.task.projectanalysis.filemove.MovedFilesRepository;
 
+import static java.util.Arrays.asList;
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyString;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyZeroInteractions;
 import static org.mockito.Mockito.when;
 
 public class TrackerBaseInputFactoryTest {
@@ -45,8 +50,9 @@ public class TrackerBaseInputFactoryTest {
   private FileSourceDao fileSourceDao = mock(FileSourceDao.class);
 
   private MovedFilesRepository movedFilesRepository = mock(MovedFilesRepository.class);
+  private TrackerBaseInputPrefetch prefetch = mock(TrackerBaseInputPrefetch.class);
 
-  private TrackerBaseInputFactory underTest = new TrackerBaseInputFactory(baseIssuesLoader, dbClient, movedFilesRepository);
+  private TrackerBaseInputFactory underTest = new TrackerBaseInputFactory(baseIssuesLoader, dbClient, movedFilesRepository, prefetch);
 
   @Before
   public void setUp() throws Exception {
@@ -54,6 +60,7 @@ public class TrackerBaseInputFactoryTest {
     when(dbClient.fileSourceDao()).thenReturn(fileSourceDao);
     when(movedFilesRepository.getOriginalFile(any(Component.class)))
       .thenReturn(Optional.<MovedFilesRepository.OriginalFile>absent());
+    when(prefetch.takeLineHashes(anyString())).thenReturn(java.util.Optional.empty());
   }
 
   @Test
@@ -63,6 +70,17 @@ public class TrackerBaseInputFactoryTest {
     verify(fileSourceDao).selectLineHashes(dbSession, FILE_UUID);
   }
 
+  @Test
+  public void create_returns_Input_which_uses_prefetched_lines_hashes_when_available() {
+    when(prefetch.takeLineHashes(FILE_UUID)).thenReturn(java.util.Optional.of(asList("h1", "h2")));
+
+    LineHashSequence lineHashSequence = underTest.create(FILE).getLineHashSequence();
+
+    assertThat(lineHashSequence.length()).isEqualTo(2);
+    assertThat(lineHashSequence.getHashForLine(2)).isEqualTo("h2");
+    verifyZeroInteractions(fileSourceDao);
+  }
+
   @Test
   public void create_returns_Input_which_retrieves_lines_hashes_of_original_file_of_component_when_it_has_one() {
     String originalUuid = "original uuid";
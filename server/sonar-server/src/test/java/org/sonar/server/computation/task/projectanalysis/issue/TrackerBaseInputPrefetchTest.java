@@ -0,0 +1,155 @@
+/*
+ * SonarQube
+ * Copyright (C) 2009-2017 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.server.computation.task.projectanalysis.issue;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.sonar.api.config.MapSettings;
+import org.sonar.api.issue.Issue;
+import org.sonar.api.utils.System2;
+import org.sonar.api.utils.TempFolder;
+import org.sonar.core.issue.DefaultIssue;
+import org.sonar.db.DbTester;
+import org.sonar.db.component.ComponentDto;
+import org.sonar.db.component.ComponentTesting;
+import org.sonar.db.issue.IssueDto;
+import org.sonar.db.issue.IssueTesting;
+import org.sonar.db.protobuf.DbFileSources;
+import org.sonar.db.rule.RuleDto;
+import org.sonar.db.rule.RuleTesting;
+import org.sonar.db.source.FileSourceDto;
+import org.sonar.server.computation.task.projectanalysis.component.Component;
+import org.sonar.server.computation.task.projectanalysis.component.TreeRootHolderRule;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.sonar.server.computation.task.projectanalysis.component.ReportComponent.builder;
+
+public class TrackerBaseInputPrefetchTest {
+
+  private static final String PROJECT_UUID = "PROJECT_UUID";
+
+  @Rule
+  public TemporaryFolder temp = new TemporaryFolder();
+  @Rule
+  public DbTester db = DbTester.create(System2.INSTANCE);
+  @Rule
+  public TreeRootHolderRule treeRootHolder = new TreeRootHolderRule();
+
+  private TempFolder tempFolder = mock(TempFolder.class);
+  private MapSettings settings = new MapSettings();
+  private ComponentDto project;
+  private ComponentDto file1;
+  private ComponentDto file2;
+  private RuleDto rule;
+
+  @Before
+  public void setUp() throws Exception {
+    treeRootHolder.setRoot(builder(Component.Type.PROJECT, 1).setUuid(PROJECT_UUID).setKey("PROJECT_KEY").build());
+    when(tempFolder.newFile(anyString(), anyString())).thenAnswer(invocation -> temp.newFile());
+    project = db.components().insertProject(db.organizations().insert(), PROJECT_UUID);
+    file1 = db.components().insertComponent(ComponentTesting.newFileDto(project, null, "FILE1"));
+    file2 = db.components().insertComponent(ComponentTesting.newFileDto(project, null, "FILE2"));
+    rule = RuleTesting.newXooX1();
+    db.getDbClient().ruleDao().insert(db.getSession(), rule);
+    db.commit();
+  }
+
+  @Test
+  public void take_open_issues_of_component() {
+    insertIssue("I1", file1, Issue.STATUS_OPEN);
+    insertIssue("I2", file2, Issue.STATUS_CONFIRMED);
+    insertIssue("I3", file1, Issue.STATUS_REOPENED);
+    insertIssue("I4", file1, Issue.STATUS_CLOSED);
+    TrackerBaseInputPrefetch underTest = newPrefetch();
+
+    assertThat(underTest.takeIssues("FILE1").get()).extracting(DefaultIssue::key).containsOnly("I1", "I3");
+    assertThat(underTest.takeIssues("FILE2").get()).extracting(DefaultIssue::key).containsOnly("I2");
+    assertThat(underTest.takeIssues(PROJECT_UUID).get()).isEmpty();
+  }
+
+  @Test
+  public void issues_spilled_to_disk_are_returned() {
+    settings.setProperty(TrackerBaseInputPrefetch.MAX_ITEMS_IN_MEMORY_PROPERTY, 1);
+    insertIssue("I1", file1, Issue.STATUS_OPEN);
+    insertIssue("I2", file2, Issue.STATUS_OPEN);
+    insertIssue("I3", file2, Issue.STATUS_OPEN);
+    TrackerBaseInputPrefetch underTest = newPrefetch();
+
+    assertThat(underTest.takeIssues("FILE2").get()).extracting(DefaultIssue::key).containsOnly("I2", "I3");
+    assertThat(underTest.takeIssues("FILE1").get()).extracting(DefaultIssue::key).containsOnly("I1");
+    underTest.stop();
+  }
+
+  @Test
+  public void issues_can_be_taken_only_once() {
+    insertIssue("I1", file1, Issue.STATUS_OPEN);
+    TrackerBaseInputPrefetch underTest = newPrefetch();
+
+    assertThat(underTest.takeIssues("FILE1")).isPresent();
+    assertThat(underTest.takeIssues("FILE1")).isEmpty();
+  }
+
+  @Test
+  public void take_line_hashes_of_file() {
+    insertFileSource(file1, "h1\nh2\nh3");
+    insertFileSource(file2, null);
+    TrackerBaseInputPrefetch underTest = newPrefetch();
+
+    assertThat(underTest.takeLineHashes("FILE1").get()).containsExactly("h1", "h2", "h3");
+    assertThat(underTest.takeLineHashes("FILE2").get()).isEmpty();
+    assertThat(underTest.takeLineHashes("unknown").get()).isEmpty();
+    assertThat(underTest.takeLineHashes("FILE1")).isEmpty();
+  }
+
+  @Test
+  public void return_nothing_if_prefetch_is_disabled() {
+    settings.setProperty(TrackerBaseInputPrefetch.ENABLED_PROPERTY, false);
+    insertIssue("I1", file1, Issue.STATUS_OPEN);
+    insertFileSource(file1, "h1");
+    TrackerBaseInputPrefetch underTest = newPrefetch();
+
+    assertThat(underTest.takeIssues("FILE1")).isEmpty();
+    assertThat(underTest.takeLineHashes("FILE1")).isEmpty();
+  }
+
+  private TrackerBaseInputPrefetch newPrefetch() {
+    return new TrackerBaseInputPrefetch(treeRootHolder, db.getDbClient(), tempFolder, settings);
+  }
+
+  private void insertIssue(String key, ComponentDto file, String status) {
+    IssueDto issue = IssueTesting.newDto(rule, file, project).setKee(key).setStatus(status);
+    db.getDbClient().issueDao().insert(db.getSession(), issue);
+    db.commit();
+  }
+
+  private void insertFileSource(ComponentDto file, String lineHashes) {
+    db.getDbClient().fileSourceDao().insert(db.getSession(), new FileSourceDto()
+      .setProjectUuid(PROJECT_UUID)
+      .setFileUuid(file.uuid())
+      .setSourceData(DbFileSources.Data.newBuilder().build())
+      .setLineHashes(lineHashes));
+    db.commit();
+  }
+}
@@ -0,0 +1,216 @@
+/*
+ * SonarQube
+ * Copyright (C) 2009-2017 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.server.computation.task.projectanalysis.measure;
+
+import com.google.common.collect.SetMultimap;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+import org.sonar.server.computation.task.projectanalysis.component.Component;
+import org.sonar.server.computation.task.projectanalysis.component.Developer;
+import org.sonar.server.computation.task.projectanalysis.component.DumbDeveloper;
+import org.sonar.server.computation.task.projectanalysis.component.ReportComponent;
+import org.sonar.server.computation.task.projectanalysis.measure.MapBasedRawMeasureRepository.OverridePolicy;
+import org.sonar.server.computation.task.projectanalysis.metric.Metric;
+import org.sonar.server.computation.task.projectanalysis.metric.MetricImpl;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.guava.api.Assertions.assertThat;
+import static org.sonar.server.computation.task.projectanalysis.component.ComponentFunctions.toReportRef;
+import static org.sonar.server.computation.task.projectanalysis.measure.Measure.newMeasureBuilder;
+
+public class ColumnarRawMeasureRepositoryTest {
+  @Rule
+  public ExpectedException expectedException = ExpectedException.none();
+
+  private static final ReportComponent FILE_COMPONENT = ReportComponent.builder(Component.Type.FILE, 1).setKey("file cpt key").build();
+  private static final ReportComponent OTHER_COMPONENT = ReportComponent.builder(Component.Type.FILE, 2).setKey("some other key").build();
+  private static final Developer SOME_DEVELOPER = new DumbDeveloper("DEV1");
+
+  private static final Metric INT_METRIC = new MetricImpl(1, "int", "int", Metric.MetricType.INT);
+  private static final Metric LONG_METRIC = new MetricImpl(2, "long", "long", Metric.MetricType.WORK_DUR);
+  private static final Metric DOUBLE_METRIC = new MetricImpl(3, "double", "double", Metric.MetricType.FLOAT);
+  private static final Metric BOOLEAN_METRIC = new MetricImpl(4, "boolean", "boolean", Metric.MetricType.BOOL);
+  private static final Metric STRING_METRIC = new MetricImpl(5, "string", "string", Metric.MetricType.STRING);
+  private static final Metric LEVEL_METRIC = new MetricImpl(6, "level", "level", Metric.MetricType.LEVEL);
+
+  private ColumnarRawMeasureRepository<Integer> underTest = new ColumnarRawMeasureRepository<>(toReportRef());
+
+  @Test
+  public void getBaseMeasure_is_not_supported() {
+    expectedException.expect(UnsupportedOperationException.class);
+
+    underTest.getBaseMeasure(FILE_COMPONENT, INT_METRIC);
+  }
+
+  @Test(expected = NullPointerException.class)
+  public void add_throws_NPE_if_Component_argument_is_null() {
+    underTest.add(null, INT_METRIC, newMeasureBuilder().create(1));
+  }
+
+  @Test(expected = NullPointerException.class)
+  public void add_throws_NPE_if_Component_measure_is_null() {
+    underTest.add(FILE_COMPONENT, INT_METRIC, null);
+  }
+
+  @Test
+  public void add_throws_UOE_if_numeric_measure_already_exists() {
+    underTest.add(FILE_COMPONENT, INT_METRIC, newMeasureBuilder().create(1));
+
+    expectedException.expect(UnsupportedOperationException.class);
+    expectedException.expectMessage("a measure can be set only once for a specific Component (key=file cpt key), Metric (key=int). Use update method");
+
+    underTest.add(FILE_COMPONENT, INT_METRIC, newMeasureBuilder().create(2));
+  }
+
+  @Test
+  public void add_throws_IAE_if_valueType_of_Measure_is_not_the_same_as_the_Metric_valueType() {
+    expectedException.expect(IllegalArgumentException.class);
+    expectedException.expectMessage("Measure's ValueType (INT) is not consistent with the Metric's ValueType (DOUBLE)");
+
+    underTest.add(FILE_COMPONENT, DOUBLE_METRIC, newMeasureBuilder().create(1));
+  }
+
+  @Test
+  public void update_throws_UOE_if_measure_does_not_exists() {
+    expectedException.expect(UnsupportedOperationException.class);
+    expectedException.expectMessage("a measure can be updated only if one already exists for a specific Component (key=file cpt key), Metric (key=int). Use add method");
+
+    underTest.update(FILE_COMPONENT, INT_METRIC, newMeasureBuilder().create(1));
+  }
+
+  @Test
+  public void numeric_measures_are_read_back_with_same_value_and_variation() {
+    underTest.add(FILE_COMPONENT, INT_METRIC, newMeasureBuilder().setVariation(-3d).create(12));
+    underTest.add(FILE_COMPONENT, LONG_METRIC, newMeasureBuilder().create(Long.MAX_VALUE / 1024));
+    underTest.add(FILE_COMPONENT, DOUBLE_METRIC, newMeasureBuilder().setVariation(0.5d).create(12.345d, 2));
+    underTest.add(FILE_COMPONENT, BOOLEAN_METRIC, newMeasureBuilder().create(true));
+    underTest.add(OTHER_COMPONENT, BOOLEAN_METRIC, newMeasureBuilder().create(false));
+
+    Measure intMeasure = underTest.getRawMeasure(FILE_COMPONENT, INT_METRIC).get();
+    assertThat(intMeasure.getIntValue()).isEqualTo(12);
+    assertThat(intMeasure.getVariation()).isEqualTo(-3d);
+    Measure longMeasure = underTest.getRawMeasure(FILE_COMPONENT, LONG_METRIC).get();
+    assertThat(longMeasure.getLongValue()).isEqualTo(Long.MAX_VALUE / 1024);
+    assertThat(longMeasure.hasVariation()).isFalse();
+    Measure doubleMeasure = underTest.getRawMeasure(FILE_COMPONENT, DOUBLE_METRIC).get();
+    assertThat(doubleMeasure.getDoubleValue()).isEqualTo(12.35d);
+    assertThat(doubleMeasure.getVariation()).isEqualTo(0.5d);
+    assertThat(underTest.getRawMeasure(FILE_COMPONENT, BOOLEAN_METRIC).get().getBooleanValue()).isTrue();
+    assertThat(underTest.getRawMeasure(OTHER_COMPONENT, BOOLEAN_METRIC).get().getBooleanValue()).isFalse();
+    assertThat(underTest.getRawMeasure(OTHER_COMPONENT, INT_METRIC)).isAbsent();
+  }
+
+  @Test
+  public void no_value_measure_is_read_back() {
+    underTest.add(FILE_COMPONENT, INT_METRIC, newMeasureBuilder().setVariation(2d).createNoValue());
+
+    Measure measure = underTest.getRawMeasure(FILE_COMPONENT, INT_METRIC).get();
+    assertThat(measure.getValueType()).isEqualTo(Measure.ValueType.NO_VALUE);
+    assertThat(measure.getVariation()).isEqualTo(2d);
+  }
+
+  @Test
+  public void non_numeric_measures_are_returned_as_added() {
+    Measure stringMeasure = newMeasureBuilder().create("some value");
+    Measure levelMeasure = newMeasureBuilder().create(Measure.Level.ERROR);
+    Measure intMeasureWithData = newMeasureBuilder().create(5, "some data");
+    Measure intMeasureWithQualityGateStatus = newMeasureBuilder().setQualityGateStatus(new QualityGateStatus(Measure.Level.OK)).create(5);
+
+    underTest.add(FILE_COMPONENT, STRING_METRIC, stringMeasure);
+    underTest.add(FILE_COMPONENT, LEVEL_METRIC, levelMeasure);
+    underTest.add(FILE_COMPONENT, INT_METRIC, intMeasureWithData);
+    underTest.add(OTHER_COMPONENT, INT_METRIC, intMeasureWithQualityGateStatus);
+
+    assertThat(underTest.getRawMeasure(FILE_COMPONENT, STRING_METRIC).get()).isSameAs(stringMeasure);
+    assertThat(underTest.getRawMeasure(FILE_COMPONENT, LEVEL_METRIC).get()).isSameAs(levelMeasure);
+    assertThat(underTest.getRawMeasure(FILE_COMPONENT, INT_METRIC).get()).isSameAs(intMeasureWithData);
+    assertThat(underTest.getRawMeasure(OTHER_COMPONENT, INT_METRIC).get()).isSameAs(intMeasureWithQualityGateStatus);
+  }
+
+  @Test
+  public void update_can_switch_between_numeric_and_non_numeric_measures() {
+    Measure withQualityGateStatus = newMeasureBuilder().setQualityGateStatus(new QualityGateStatus(Measure.Level.OK)).create(2);
+
+    underTest.add(FILE_COMPONENT, INT_METRIC, newMeasureBuilder().create(1));
+    underTest.update(FILE_COMPONENT, INT_METRIC, withQualityGateStatus);
+    assertThat(underTest.getRawMeasures(FILE_COMPONENT, INT_METRIC)).containsOnly(withQualityGateStatus);
+    assertThat(underTest.getRawMeasure(FILE_COMPONENT, INT_METRIC).get()).isSameAs(withQualityGateStatus);
+
+    underTest.update(FILE_COMPONENT, INT_METRIC, newMeasureBuilder().create(3));
+    assertThat(underTest.getRawMeasures(FILE_COMPONENT, INT_METRIC)).hasSize(1);
+    assertThat(underTest.getRawMeasure(FILE_COMPONENT, INT_METRIC).get().getIntValue()).isEqualTo(3);
+  }
+
+  @Test
+  public void add_with_DO_NOT_OVERRIDE_keeps_existing_numeric_measure() {
+    underTest.add(FILE_COMPONENT, INT_METRIC, newMeasureBuilder().create(1));
+
+    underTest.add(FILE_COMPONENT, INT_METRIC, newMeasureBuilder().create(2), OverridePolicy.DO_NOT_OVERRIDE);
+    assertThat(underTest.getRawMeasure(FILE_COMPONENT, INT_METRIC).get().getIntValue()).isEqualTo(1);
+
+    underTest.add(FILE_COMPONENT, INT_METRIC, newMeasureBuilder().create(2), OverridePolicy.OVERRIDE);
+    assertThat(underTest.getRawMeasure(FILE_COMPONENT, INT_METRIC).get().getIntValue()).isEqualTo(2);
+  }
+
+  @Test
+  public void developer_measures_are_stored_besides_numeric_measure() {
+    Measure devMeasure = newMeasureBuilder().forDeveloper(SOME_DEVELOPER).create(10);
+
+    underTest.add(FILE_COMPONENT, INT_METRIC, newMeasureBuilder().create(1));
+    underTest.add(FILE_COMPONENT, INT_METRIC, devMeasure);
+
+    assertThat(underTest.getRawMeasure(FILE_COMPONENT, INT_METRIC).get().getIntValue()).isEqualTo(1);
+    assertThat(underTest.getRawMeasures(FILE_COMPONENT, INT_METRIC)).hasSize(2).contains(devMeasure);
+  }
+
+  @Test
+  public void getRawMeasures_returns_measures_of_both_storages() {
+    Measure stringMeasure = newMeasureBuilder().create("some value");
+    underTest.add(FILE_COMPONENT, INT_METRIC, newMeasureBuilder().create(1));
+    underTest.add(FILE_COMPONENT, DOUBLE_METRIC, newMeasureBuilder().create(1.5d, 1));
+    underTest.add(FILE_COMPONENT, STRING_METRIC, stringMeasure);
+    underTest.add(OTHER_COMPONENT, BOOLEAN_METRIC, newMeasureBuilder().create(true));
+
+    SetMultimap<String, Measure> rawMeasures = underTest.getRawMeasures(FILE_COMPONENT);
+
+    assertThat(rawMeasures.keySet()).containsOnly(INT_METRIC.getKey(), DOUBLE_METRIC.getKey(), STRING_METRIC.getKey());
+    assertThat(rawMeasures.get(INT_METRIC.getKey()).iterator().next().getIntValue()).isEqualTo(1);
+    assertThat(rawMeasures.get(DOUBLE_METRIC.getKey()).iterator().next().getDoubleValue()).isEqualTo(1.5d);
+    assertThat(rawMeasures.get(STRING_METRIC.getKey())).containsOnly(stringMeasure);
+  }
+
+  @Test
+  public void getRawMeasures_returns_empty_if_repository_is_empty() {
+    assertThat(underTest.getRawMeasures(FILE_COMPONENT).isEmpty()).isTrue();
+    assertThat(underTest.getRawMeasures(FILE_COMPONENT, INT_METRIC)).isEmpty();
+  }
+
+  @Test
+  public void supports_many_components() {
+    for (int ref = 1; ref <= 1_000; ref++) {
+      underTest.add(ReportComponent.builder(Component.Type.FILE, ref).build(), INT_METRIC, newMeasureBuilder().create(ref));
+    }
+
+    for (int ref = 1; ref <= 1_000; ref++) {
+      assertThat(underTest.getRawMeasure(ReportComponent.builder(Component.Type.FILE, ref).build(), INT_METRIC).get().getIntValue()).isEqualTo(ref);
+    }
+  }
+}
@@ -0,0 +1,61 @@
+/*
+ * SonarQube
+ * Copyright (C) 2009-2017 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.server.computation.task.projectanalysis.scm;
+
+import org.junit.Test;
+import org.sonar.db.protobuf.DbFileSources;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class CompactScmDataTest {
+
+  @Test
+  public void encode_distinct_changesets_and_index_of_changeset_of_each_line() {
+    DbFileSources.Data.Builder data = DbFileSources.Data.newBuilder();
+    data.addLinesBuilder().setLine(1).setScmRevision("rev-1").setScmAuthor("john").setScmDate(123L);
+    data.addLinesBuilder().setLine(2).setScmRevision("rev-2").setScmDate(456L);
+    data.addLinesBuilder().setLine(3).setScmRevision("rev-1").setScmAuthor("john").setScmDate(123L);
+
+    DbFileSources.Scm scm = CompactScmData.encode(data.getLinesList());
+
+    assertThat(scm.getChangesetCount()).isEqualTo(2);
+    assertThat(scm.getChangeset(0).getRevision()).isEqualTo("rev-1");
+    assertThat(scm.getChangeset(0).getAuthor()).isEqualTo("john");
+    assertThat(scm.getChangeset(0).getDate()).isEqualTo(123L);
+    assertThat(scm.getChangeset(1).getRevision()).isEqualTo("rev-2");
+    assertThat(scm.getChangeset(1).hasAuthor()).isFalse();
+    assertThat(scm.getChangeset(1).getDate()).isEqualTo(456L);
+    assertThat(scm.getChangesetIndexByLineList()).containsExactly(0, 1, 0);
+  }
+
+  @Test
+  public void return_null_if_a_line_has_no_scm_info() {
+    DbFileSources.Data.Builder data = DbFileSources.Data.newBuilder();
+    data.addLinesBuilder().setLine(1).setScmRevision("rev-1").setScmDate(123L);
+    data.addLinesBuilder().setLine(2).setScmRevision("rev-2");
+
+    assertThat(CompactScmData.encode(data.getLinesList())).isNull();
+  }
+
+  @Test
+  public void return_null_if_no_lines() {
+    assertThat(CompactScmData.encode(DbFileSources.Data.getDefaultInstance().getLinesList())).isNull();
+  }
+}
@@ -157,6 +157,39 @@ public class DbScmInfoTest {
     DbScmInfo.create(FILE, fileDataBuilder.getLinesList()).get().getAllChangesets();
   }
 
+  @Test
+  public void create_scm_info_from_compact_scm_data() throws Exception {
+    DbFileSources.Data.Builder fileDataBuilder = DbFileSources.Data.newBuilder();
+    addLine(fileDataBuilder, 1, "john", 123456789L, "rev-1");
+    addLine(fileDataBuilder, 2, "henry", 1234567810L, "rev-2");
+    addLine(fileDataBuilder, 3, "john", 123456789L, "rev-1");
+
+    ScmInfo scmInfo = DbScmInfo.create(FILE, CompactScmData.encode(fileDataBuilder.getLinesList())).get();
+
+    assertThat(scmInfo.getAllChangesets()).hasSize(3);
+    assertThat(scmInfo.getChangesetForLine(1)).isSameAs(scmInfo.getChangesetForLine(3));
+    assertThat(scmInfo.getChangesetForLine(2).getAuthor()).isEqualTo("henry");
+    assertThat(scmInfo.getChangesetForLine(2).getRevision()).isEqualTo("rev-2");
+    assertThat(scmInfo.getLatestChangeset().getDate()).isEqualTo(1234567810L);
+  }
+
+  @Test
+  public void return_absent_scm_info_when_compact_scm_data_has_no_lines() throws Exception {
+    assertThat(DbScmInfo.create(FILE, DbFileSources.Scm.getDefaultInstance())).isAbsent();
+  }
+
+  @Test
+  public void fail_with_ISE_when_compact_scm_data_refers_to_unknown_changeset() throws Exception {
+    thrown.expect(IllegalStateException.class);
+    thrown.expectMessage("Invalid scm information stored in DB for component 'ReportComponent{ref=1, key='FILE_KEY', type=FILE}'");
+
+    DbScmInfo.create(FILE, DbFileSources.Scm.newBuilder()
+      .addChangeset(DbFileSources.Scm.Changeset.newBuilder().setRevision("rev").setDate(555L))
+      .addChangesetIndexByLine(0)
+      .addChangesetIndexByLine(1)
+      .build());
+  }
+
   private static void addLine(DbFileSources.Data.Builder dataBuilder, Integer line, String author, Long date, String revision) {
     dataBuilder.addLinesBuilder()
       .setLine(line)
@@ -0,0 +1,149 @@
+/*
+ * SonarQube
+ * Copyright (C) 2009-2017 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.server.computation.task.projectanalysis.step;
+
+import com.google.common.collect.ImmutableList;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+import org.sonar.server.computation.task.projectanalysis.component.FileAttributes;
+import org.sonar.server.computation.task.projectanalysis.component.TreeRootHolderRule;
+import org.sonar.server.computation.task.projectanalysis.measure.MeasureRepositoryRule;
+import org.sonar.server.computation.task.projectanalysis.metric.MetricRepositoryRule;
+import org.sonar.server.computation.task.projectanalysis.period.PeriodHolderRule;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.sonar.api.measures.CoreMetrics.ACCESSORS;
+import static org.sonar.api.measures.CoreMetrics.CLASSES;
+import static org.sonar.api.measures.CoreMetrics.CLASS_COMPLEXITY;
+import static org.sonar.api.measures.CoreMetrics.CLASS_COMPLEXITY_DISTRIBUTION;
+import static org.sonar.api.measures.CoreMetrics.COGNITIVE_COMPLEXITY;
+import static org.sonar.api.measures.CoreMetrics.COMPLEXITY;
+import static org.sonar.api.measures.CoreMetrics.COMPLEXITY_IN_CLASSES;
+import static org.sonar.api.measures.CoreMetrics.COMPLEXITY_IN_FUNCTIONS;
+import static org.sonar.api.measures.CoreMetrics.COMPLEXITY_KEY;
+import static org.sonar.api.measures.CoreMetrics.DIRECTORIES;
+import static org.sonar.api.measures.CoreMetrics.FILES;
+import static org.sonar.api.measures.CoreMetrics.FILES_KEY;
+import static org.sonar.api.measures.CoreMetrics.FILE_COMPLEXITY;
+import static org.sonar.api.measures.CoreMetrics.FILE_COMPLEXITY_DISTRIBUTION;
+import static org.sonar.api.measures.CoreMetrics.FILE_COMPLEXITY_KEY;
+import static org.sonar.api.measures.CoreMetrics.FUNCTIONS;
+import static org.sonar.api.measures.CoreMetrics.FUNCTION_COMPLEXITY;
+import static org.sonar.api.measures.CoreMetrics.FUNCTION_COMPLEXITY_DISTRIBUTION;
+import static org.sonar.api.measures.CoreMetrics.GENERATED_LINES;
+import static org.sonar.api.measures.CoreMetrics.GENERATED_NCLOC;
+import static org.sonar.api.measures.CoreMetrics.LINES;
+import static org.sonar.api.measures.CoreMetrics.LINES_KEY;
+import static org.sonar.api.measures.CoreMetrics.NCLOC;
+import static org.sonar.api.measures.CoreMetrics.STATEMENTS;
+import static org.sonar.server.computation.task.projectanalysis.component.Component.Type.DIRECTORY;
+import static org.sonar.server.computation.task.projectanalysis.component.Component.Type.FILE;
+import static org.sonar.server.computation.task.projectanalysis.component.Component.Type.PROJECT;
+import static org.sonar.server.computation.task.projectanalysis.component.ReportComponent.builder;
+import static org.sonar.server.computation.task.projectanalysis.measure.Measure.newMeasureBuilder;
+
+public class ComputeFormulaMeasuresStepTest {
+
+  private static final int ROOT_REF = 1;
+  private static final int DIRECTORY_REF = 11;
+  private static final int FILE_1_REF = 111;
+  private static final int FILE_2_REF = 112;
+
+  @Rule
+  public ExpectedException expectedException = ExpectedException.none();
+  @Rule
+  public TreeRootHolderRule treeRootHolder = new TreeRootHolderRule().setRoot(
+    builder(PROJECT, ROOT_REF)
+      .addChildren(
+        builder(DIRECTORY, DIRECTORY_REF)
+          .addChildren(
+            builder(FILE, FILE_1_REF).setFileAttributes(new FileAttributes(false, "java", 10)).build(),
+            builder(FILE, FILE_2_REF).setFileAttributes(new FileAttributes(false, "java", 20)).build())
+          .build())
+      .build());
+  @Rule
+  public MetricRepositoryRule metricRepository = new MetricRepositoryRule()
+    .add(FILES)
+    .add(DIRECTORIES)
+    .add(LINES)
+    .add(GENERATED_LINES)
+    .add(NCLOC)
+    .add(GENERATED_NCLOC)
+    .add(FUNCTIONS)
+    .add(STATEMENTS)
+    .add(CLASSES)
+    .add(ACCESSORS)
+    .add(COMPLEXITY)
+    .add(COMPLEXITY_IN_CLASSES)
+    .add(COMPLEXITY_IN_FUNCTIONS)
+    .add(COGNITIVE_COMPLEXITY)
+    .add(FUNCTION_COMPLEXITY_DISTRIBUTION)
+    .add(FILE_COMPLEXITY_DISTRIBUTION)
+    .add(CLASS_COMPLEXITY_DISTRIBUTION)
+    .add(FILE_COMPLEXITY)
+    .add(CLASS_COMPLEXITY)
+    .add(FUNCTION_COMPLEXITY);
+  @Rule
+  public MeasureRepositoryRule measureRepository = MeasureRepositoryRule.create(treeRootHolder, metricRepository);
+  @Rule
+  public PeriodHolderRule periodHolder = new PeriodHolderRule();
+
+  private SizeMeasuresStep sizeMeasuresStep = new SizeMeasuresStep(treeRootHolder, metricRepository, measureRepository);
+  private ComplexityMeasuresStep complexityMeasuresStep = new ComplexityMeasuresStep(treeRootHolder, metricRepository, measureRepository);
+
+  @Test
+  public void execute_visitors_and_formulas_of_all_steps() {
+    measureRepository.addRawMeasure(FILE_1_REF, COMPLEXITY_KEY, newMeasureBuilder().create(4));
+    measureRepository.addRawMeasure(FILE_2_REF, COMPLEXITY_KEY, newMeasureBuilder().create(6));
+
+    newStep(sizeMeasuresStep, complexityMeasuresStep).execute();
+
+    assertThat(measureRepository.getAddedRawMeasure(FILE_1_REF, LINES_KEY).get().getIntValue()).isEqualTo(10);
+    assertThat(measureRepository.getAddedRawMeasure(ROOT_REF, LINES_KEY).get().getIntValue()).isEqualTo(30);
+    assertThat(measureRepository.getAddedRawMeasure(ROOT_REF, FILES_KEY).get().getIntValue()).isEqualTo(2);
+    assertThat(measureRepository.getAddedRawMeasure(DIRECTORY_REF, COMPLEXITY_KEY).get().getIntValue()).isEqualTo(10);
+    assertThat(measureRepository.getAddedRawMeasure(ROOT_REF, COMPLEXITY_KEY).get().getIntValue()).isEqualTo(10);
+  }
+
+  @Test
+  public void formulas_read_measures_created_by_visitors_on_files() {
+    measureRepository.addRawMeasure(FILE_1_REF, COMPLEXITY_KEY, newMeasureBuilder().create(4));
+    measureRepository.addRawMeasure(FILE_2_REF, COMPLEXITY_KEY, newMeasureBuilder().create(6));
+
+    newStep(sizeMeasuresStep, complexityMeasuresStep).execute();
+
+    // average of complexity by number of files, which is computed by the visitor of SizeMeasuresStep
+    assertThat(measureRepository.getAddedRawMeasure(DIRECTORY_REF, FILE_COMPLEXITY_KEY).get().getDoubleValue()).isEqualTo(5d);
+    assertThat(measureRepository.getAddedRawMeasure(ROOT_REF, FILE_COMPLEXITY_KEY).get().getDoubleValue()).isEqualTo(5d);
+  }
+
+  @Test
+  public void fail_if_a_metric_is_computed_by_many_formulas() {
+    expectedException.expect(IllegalStateException.class);
+    expectedException.expectMessage("Metric 'generated_lines' is computed by more than one formula");
+
+    newStep(sizeMeasuresStep, sizeMeasuresStep).execute();
+  }
+
+  private ComputeFormulaMeasuresStep newStep(FormulaComputationStep... steps) {
+    return new ComputeFormulaMeasuresStep(treeRootHolder, metricRepository, measureRepository, periodHolder, ImmutableList.copyOf(steps));
+  }
+}
@@ -30,7 +30,11 @@ import org.junit.Rule;
 import org.junit.Test;
 import org.junit.rules.ExpectedException;
 import org.mockito.ArgumentCaptor;
+import org.sonar.api.config.MapSettings;
+import org.sonar.api.config.Settings;
 import org.sonar.api.utils.System2;
+import org.sonar.api.utils.log.LogTester;
+import org.sonar.api.utils.log.LoggerLevel;
 import org.sonar.db.DbClient;
 import org.sonar.db.DbSession;
 import org.sonar.db.DbTester;
@@ -55,8 +59,10 @@ import org.sonar.server.computation.task.step.ComputationStep;
 
 import static java.util.Arrays.asList;
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.any;
 import static org.mockito.Mockito.eq;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.verifyZeroInteractions;
 import static org.mockito.Mockito.when;
@@ -68,6 +74,9 @@ public class LoadCrossProjectDuplicationsRepositoryStepTest {
   @Rule
   public ExpectedException thrown = ExpectedException.none();
 
+  @Rule
+  public LogTester logTester = new LogTester();
+
   static final String XOO_LANGUAGE = "xoo";
 
   static final int PROJECT_REF = 1;
@@ -103,8 +112,10 @@ public class LoadCrossProjectDuplicationsRepositoryStepTest {
 
   Analysis baseProjectAnalysis;
 
+  Settings settings = new MapSettings();
+
   ComputationStep underTest = new LoadCrossProjectDuplicationsRepositoryStep(treeRootHolder, batchReportReader, analysisMetadataHolder, crossProjectDuplicationStatusHolder,
-    integrateCrossProjectDuplications, dbClient);
+    integrateCrossProjectDuplications, dbClient, settings);
 
   @Before
   public void setUp() throws Exception {
@@ -259,6 +270,105 @@ public class LoadCrossProjectDuplicationsRepositoryStepTest {
         .build());
   }
 
+  @Test
+  public void load_candidates_of_many_files_in_one_batch() throws Exception {
+    Component file2 = setRootWithTwoFiles();
+    insertDuplicatesAndOriginBlocksOfTwoFiles(file2);
+
+    underTest.execute();
+
+    verifyComputeCpdOnTwoFiles(file2);
+  }
+
+  @Test
+  public void load_candidates_by_many_batches_when_max_number_of_blocks_is_reached() throws Exception {
+    settings.setProperty("sonar.cpd.crossProject.maxBlocksPerBatch", 1);
+    ComputationStep underTest = new LoadCrossProjectDuplicationsRepositoryStep(treeRootHolder, batchReportReader, analysisMetadataHolder,
+      crossProjectDuplicationStatusHolder, integrateCrossProjectDuplications, dbClient, settings);
+    Component file2 = setRootWithTwoFiles();
+    insertDuplicatesAndOriginBlocksOfTwoFiles(file2);
+
+    underTest.execute();
+
+    verifyComputeCpdOnTwoFiles(file2);
+  }
+
+  @Test
+  public void split_batch_when_max_number_of_candidates_is_reached() throws Exception {
+    logTester.setLevel(LoggerLevel.DEBUG);
+    settings.setProperty("sonar.cpd.crossProject.maxCandidatesPerBatch", 1);
+    ComputationStep underTest = new LoadCrossProjectDuplicationsRepositoryStep(treeRootHolder, batchReportReader, analysisMetadataHolder,
+      crossProjectDuplicationStatusHolder, integrateCrossProjectDuplications, dbClient, settings);
+    Component file2 = setRootWithTwoFiles();
+    insertDuplicatesAndOriginBlocksOfTwoFiles(file2);
+
+    underTest.execute();
+
+    verifyComputeCpdOnTwoFiles(file2);
+    assertThat(logTester.logs(LoggerLevel.DEBUG))
+      .contains("More than 1 cross project duplication candidates for 2 files, batch is split")
+      .containsSequence(
+        "Loaded 1 cross project duplication candidates for 1 hashes of 1 files",
+        "Loaded 1 cross project duplication candidates for 1 hashes of 1 files");
+  }
+
+  private Component setRootWithTwoFiles() {
+    Component file2 = ReportComponent.builder(FILE, FILE_REF + 1)
+      .setKey("FILE_2_KEY")
+      .setFileAttributes(new FileAttributes(false, XOO_LANGUAGE, 1))
+      .build();
+    treeRootHolder.setRoot(ReportComponent.builder(PROJECT, PROJECT_REF).addChildren(CURRENT_FILE, file2).build());
+    return file2;
+  }
+
+  private void insertDuplicatesAndOriginBlocksOfTwoFiles(Component file2) {
+    when(crossProjectDuplicationStatusHolder.isEnabled()).thenReturn(true);
+    analysisMetadataHolder.setBaseAnalysis(baseProjectAnalysis);
+
+    ComponentDto otherProject = createProject("OTHER_PROJECT_KEY");
+    SnapshotDto otherProjectSnapshot = createProjectSnapshot(otherProject);
+    ComponentDto otherFile = createFile("OTHER_FILE_KEY", otherProject);
+    dbClient.duplicationDao().insert(dbSession, new DuplicationUnitDto()
+      .setHash("a8998353e96320ec")
+      .setStartLine(40)
+      .setEndLine(55)
+      .setIndexInFile(0)
+      .setAnalysisUuid(otherProjectSnapshot.getUuid())
+      .setComponentUuid(otherFile.uuid()));
+    dbClient.duplicationDao().insert(dbSession, new DuplicationUnitDto()
+      .setHash("b1234353e96320ff")
+      .setStartLine(60)
+      .setEndLine(75)
+      .setIndexInFile(1)
+      .setAnalysisUuid(otherProjectSnapshot.getUuid())
+      .setComponentUuid(otherFile.uuid()));
+    dbSession.commit();
+
+    batchReportReader.putDuplicationBlocks(FILE_REF, asList(newCpdTextBlock("a8998353e96320ec")));
+    batchReportReader.putDuplicationBlocks(file2.getReportAttributes().getRef(), asList(newCpdTextBlock("b1234353e96320ff"), newCpdTextBlock("b1234353e96320ff")));
+  }
+
+  private void verifyComputeCpdOnTwoFiles(Component file2) {
+    Class<ArrayList<Block>> listClass = (Class<ArrayList<Block>>) (Class) ArrayList.class;
+    ArgumentCaptor<ArrayList<Block>> duplicationBlocks = ArgumentCaptor.forClass(listClass);
+    verify(integrateCrossProjectDuplications).computeCpd(eq(CURRENT_FILE), any(), duplicationBlocks.capture());
+    assertThat(duplicationBlocks.getValue()).extracting(Block::getStartLine).containsExactly(40);
+
+    // a hash repeated in the file loads its candidates once
+    verify(integrateCrossProjectDuplications, times(1)).computeCpd(eq(file2), any(), duplicationBlocks.capture());
+    assertThat(duplicationBlocks.getValue()).extracting(Block::getStartLine).containsExactly(60);
+  }
+
+  private static ScannerReport.CpdTextBlock newCpdTextBlock(String hash) {
+    return ScannerReport.CpdTextBlock.newBuilder()
+      .setHash(hash)
+      .setStartLine(30)
+      .setEndLine(45)
+      .setStartTokenIndex(0)
+      .setEndTokenIndex(10)
+      .build();
+  }
+
   @Test
   public void nothing_to_do_when_cross_project_duplication_is_disabled() throws Exception {
     when(crossProjectDuplicationStatusHolder.isEnabled()).thenReturn(false);
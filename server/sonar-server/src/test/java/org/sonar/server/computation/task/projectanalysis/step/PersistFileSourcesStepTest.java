@@ -20,6 +20,7 @@
 package org.sonar.server.computation.task.projectanalysis.step;
 
 import java.util.Arrays;
+import org.apache.commons.codec.digest.DigestUtils;
 import org.junit.Before;
 import org.junit.Rule;
 import org.junit.Test;
@@ -179,6 +180,23 @@ public class PersistFileSourcesStepTest extends BaseStepTest {
     assertThat(data.getLines(0).getScmAuthor()).isEqualTo("john");
     assertThat(data.getLines(0).getScmDate()).isEqualTo(123456789L);
     assertThat(data.getLines(0).getScmRevision()).isEqualTo("rev-1");
+
+    DbFileSources.Scm scm = fileSourceDto.getScm();
+    assertThat(scm.getChangesetCount()).isEqualTo(1);
+    assertThat(scm.getChangeset(0).getAuthor()).isEqualTo("john");
+    assertThat(scm.getChangeset(0).getDate()).isEqualTo(123456789L);
+    assertThat(scm.getChangeset(0).getRevision()).isEqualTo("rev-1");
+    assertThat(scm.getChangesetIndexByLineList()).containsExactly(0);
+  }
+
+  @Test
+  public void not_persist_scm_data_when_no_scm() {
+    initBasicReport(1);
+
+    underTest.execute();
+
+    FileSourceDto fileSourceDto = dbClient.fileSourceDao().selectSourceByFileUuid(session, FILE_UUID);
+    assertThat(fileSourceDto.getScmData()).isNull();
   }
 
   @Test
@@ -423,6 +441,45 @@ public class PersistFileSourcesStepTest extends BaseStepTest {
     assertThat(fileSourceDto.getRevision()).isEqualTo("rev-1");
   }
 
+  @Test
+  public void update_sources_when_scm_data_is_missing() {
+    // Existing sources, persisted before SCM data was stored in column SCM_DATA
+    long past = 150000L;
+    DbFileSources.Data data = DbFileSources.Data.newBuilder()
+      .addLines(DbFileSources.Line.newBuilder()
+        .setLine(1)
+        .setSource("line1")
+        .setScmRevision("rev-1")
+        .setScmAuthor("john")
+        .setScmDate(123456789L)
+        .build())
+      .build();
+    dbClient.fileSourceDao().insert(dbTester.getSession(), new FileSourceDto()
+      .setProjectUuid(PROJECT_UUID)
+      .setFileUuid(FILE_UUID)
+      .setSrcHash("137f72c3708c6bd0de00a0e5a69c699b")
+      .setLineHashes("137f72c3708c6bd0de00a0e5a69c699b")
+      .setDataHash(DigestUtils.md5Hex(FileSourceDto.encodeSourceData(data)))
+      .setSourceData(data)
+      .setRevision("rev-1")
+      .setCreatedAt(past)
+      .setUpdatedAt(past));
+    dbTester.getSession().commit();
+
+    scmInfoRepository.setScmInfo(FILE_REF, Changeset.newChangesetBuilder()
+      .setAuthor("john")
+      .setDate(123456789L)
+      .setRevision("rev-1")
+      .build());
+    initBasicReport(1);
+
+    underTest.execute();
+
+    FileSourceDto fileSourceDto = dbClient.fileSourceDao().selectSourceByFileUuid(session, FILE_UUID);
+    assertThat(fileSourceDto.getUpdatedAt()).isEqualTo(NOW);
+    assertThat(fileSourceDto.getScm().getChangesetIndexByLineList()).containsExactly(0);
+  }
+
   @Test
   public void clear_revision_when_no_ChangeSet() {
     // Existing sources
@@ -27,6 +27,7 @@ import org.junit.Test;
 import org.sonar.api.utils.System2;
 import org.sonar.api.utils.log.LogTester;
 import org.sonar.api.utils.log.LoggerLevel;
+import org.sonar.core.util.LineRanges;
 import org.sonar.db.DbClient;
 import org.sonar.db.DbTester;
 import org.sonar.db.protobuf.DbFileSources;
@@ -157,7 +158,7 @@ public class PersistTestsStepTest extends BaseStepTest {
     assertThat(test1.getStatus()).isEqualTo(DbFileSources.Test.TestStatus.FAILURE);
     assertThat(test1.getExecutionTimeMs()).isEqualTo(1_000);
     assertThat(test1.getCoveredFileCount()).isEqualTo(1);
-    assertThat(test1.getCoveredFile(0).getCoveredLineList()).containsOnly(1, 2, 3);
+    assertThat(LineRanges.decode(test1.getCoveredFile(0).getCoveredLineRangeList())).containsExactly(1, 2, 3);
     assertThat(test1.getCoveredFile(0).getFileUuid()).isEqualTo(MAIN_FILE_UUID_1);
   }
 
@@ -204,8 +205,28 @@ public class PersistTestsStepTest extends BaseStepTest {
     underTest.execute();
 
     FileSourceDto dto = dbClient.fileSourceDao().selectTest(db.getSession(), TEST_FILE_UUID_1);
-    List<Integer> coveredLines = dto.getTestData().get(0).getCoveredFile(0).getCoveredLineList();
-    assertThat(coveredLines).containsOnly(1, 2, 3, 4);
+    List<Integer> coveredLineRanges = dto.getTestData().get(0).getCoveredFile(0).getCoveredLineRangeList();
+    assertThat(coveredLineRanges).containsExactly(1, 4);
+  }
+
+  @Test
+  public void read_covered_lines_of_deprecated_field() {
+    reportReader.putTests(TEST_FILE_REF_1, Arrays.asList(newTest(1)));
+    reportReader.putCoverageDetails(TEST_FILE_REF_1, Arrays.asList(
+      newCoverageDetailWithLines(1, MAIN_FILE_REF_1, 1, 2),
+      CoverageDetail.newBuilder()
+        .setTestName("name#1")
+        .addCoveredFile(CoverageDetail.CoveredFile.newBuilder()
+          .addAllCoveredLine(Arrays.asList(5, 6))
+          .setFileRef(MAIN_FILE_REF_1))
+        .build()));
+
+    underTest.execute();
+
+    FileSourceDto dto = dbClient.fileSourceDao().selectTest(db.getSession(), TEST_FILE_UUID_1);
+    DbFileSources.Test.CoveredFile coveredFile = dto.getTestData().get(0).getCoveredFile(0);
+    assertThat(coveredFile.getCoveredLineList()).isEmpty();
+    assertThat(LineRanges.decode(coveredFile.getCoveredLineRangeList())).containsExactly(1, 2, 5, 6);
   }
 
   @Test
@@ -250,7 +271,7 @@ public class PersistTestsStepTest extends BaseStepTest {
     assertThat(test.getStacktrace()).isEqualTo(newBatchTest.getStacktrace());
     assertThat(test.getExecutionTimeMs()).isEqualTo(newBatchTest.getDurationInMs());
     assertThat(test.getCoveredFileCount()).isEqualTo(1);
-    assertThat(test.getCoveredFile(0).getCoveredLineList()).containsOnly(1, 2, 3);
+    assertThat(LineRanges.decode(test.getCoveredFile(0).getCoveredLineRangeList())).containsExactly(1, 2, 3);
     assertThat(test.getCoveredFile(0).getFileUuid()).isEqualTo(MAIN_FILE_UUID_1);
   }
 
@@ -272,7 +293,7 @@ public class PersistTestsStepTest extends BaseStepTest {
     return CoverageDetail.newBuilder()
       .setTestName("name#" + id)
       .addCoveredFile(CoverageDetail.CoveredFile.newBuilder()
-        .addAllCoveredLine(Arrays.asList(lines))
+        .addAllCoveredLineRange(LineRanges.encode(Arrays.asList(lines)))
         .setFileRef(covered_file_ref)
         .build())
       .build();
@@ -34,6 +34,7 @@ import org.sonar.api.config.MapSettings;
 import org.sonar.db.DbClient;
 import org.sonar.db.DbSession;
 import org.sonar.db.purge.IdUuidPair;
+import org.sonar.server.computation.dbcleaner.HousekeepingQueue;
 import org.sonar.server.computation.dbcleaner.ProjectCleaner;
 import org.sonar.server.computation.task.projectanalysis.component.Component;
 import org.sonar.server.computation.task.projectanalysis.component.MutableDbIdsRepositoryRule;
@@ -68,10 +69,11 @@ public class PurgeDatastoresStepTest extends BaseStepTest {
   public MutableDbIdsRepositoryRule dbIdsRepository = MutableDbIdsRepositoryRule.standalone();
 
   private ProjectCleaner projectCleaner = mock(ProjectCleaner.class);
+  private HousekeepingQueue housekeepingQueue = new HousekeepingQueue();
   private SettingsRepository settingsRepository = mock(SettingsRepository.class);
   private MutableDisabledComponentsHolder disabledComponentsHolder = mock(MutableDisabledComponentsHolder.class, RETURNS_DEEP_STUBS);
 
-  private PurgeDatastoresStep underTest = new PurgeDatastoresStep(mock(DbClient.class, Mockito.RETURNS_DEEP_STUBS), projectCleaner, dbIdsRepository, treeRootHolder, settingsRepository, disabledComponentsHolder);
+  private PurgeDatastoresStep underTest = new PurgeDatastoresStep(mock(DbClient.class, Mockito.RETURNS_DEEP_STUBS), projectCleaner, housekeepingQueue, dbIdsRepository, treeRootHolder, settingsRepository, disabledComponentsHolder);
 
   @Test
   public void call_purge_method_of_the_purge_task_for_project() {
@@ -129,6 +131,7 @@ public class PurgeDatastoresStepTest extends BaseStepTest {
     underTest.execute();
 
     verifyNoMoreInteractions(projectCleaner);
+    assertThat(housekeepingQueue.getPendingCount()).isEqualTo(0);
   }
 
   private void verify_call_purge_method_of_the_purge_task(Component project) {
@@ -139,9 +142,15 @@ public class PurgeDatastoresStepTest extends BaseStepTest {
     underTest.execute();
 
     ArgumentCaptor<IdUuidPair> argumentCaptor = ArgumentCaptor.forClass(IdUuidPair.class);
-    verify(projectCleaner).purge(any(DbSession.class), argumentCaptor.capture(), any(Settings.class), anyList());
+    verify(projectCleaner).purgeLeftovers(any(DbSession.class), argumentCaptor.capture(), any(Settings.class), anyList());
     assertThat(argumentCaptor.getValue().getId()).isEqualTo(PROJECT_ID);
     assertThat(argumentCaptor.getValue().getUuid()).isEqualTo(PROJECT_UUID);
+
+    // historical data are purged in background
+    verifyNoMoreInteractions(projectCleaner);
+    HousekeepingQueue.Request request = housekeepingQueue.poll().get();
+    assertThat(request.getProject().getId()).isEqualTo(PROJECT_ID);
+    assertThat(request.getProject().getUuid()).isEqualTo(PROJECT_UUID);
   }
 
   private static Object[][] dataproviderFromComponentTypeValues(Predicate<Component.Type> predicate) {
@@ -0,0 +1,208 @@
+/*
+ * SonarQube
+ * Copyright (C) 2009-2017 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.server.computation.task.projectanalysis.webhook;
+
+import java.io.IOException;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import org.junit.After;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.DisableOnDebug;
+import org.junit.rules.ExpectedException;
+import org.junit.rules.TestRule;
+import org.junit.rules.Timeout;
+import org.mockito.ArgumentCaptor;
+import org.sonar.api.SonarQubeSide;
+import org.sonar.api.config.MapSettings;
+import org.sonar.api.internal.SonarRuntimeImpl;
+import org.sonar.api.utils.System2;
+import org.sonar.api.utils.Version;
+import org.sonar.api.utils.log.LogTester;
+import org.sonar.api.utils.log.LoggerLevel;
+import org.sonar.server.util.OkHttpClientProvider;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+public class WebhookDeliveryQueueTest {
+
+  private static final long NOW = 1_500_000_000_000L;
+  private static final Webhook WEBHOOK = new Webhook("P1_UUID", "CE_UUID1", "First", "http://url1");
+  private static final WebhookPayload PAYLOAD = new WebhookPayload("P1", "{\"payload\": {}}");
+
+  @Rule
+  public LogTester logTester = new LogTester().setLevel(LoggerLevel.DEBUG);
+
+  @Rule
+  public ExpectedException expectedException = ExpectedException.none();
+
+  @Rule
+  public MockWebServer server = new MockWebServer();
+
+  @Rule
+  public TestRule timeoutSafeguard = new DisableOnDebug(Timeout.seconds(60));
+
+  private final MapSettings settings = new MapSettings();
+  private final TestWebhookCaller caller = new TestWebhookCaller();
+  private final WebhookDeliveryStorage deliveryStorage = mock(WebhookDeliveryStorage.class);
+  private WebhookDeliveryQueue underTest;
+
+  @After
+  public void tearDown() {
+    if (underTest != null) {
+      underTest.stop();
+    }
+  }
+
+  @Test
+  public void deliver_and_persist_webhook_in_background() {
+    caller.enqueueSuccess(NOW, 200, 1_234);
+
+    start(caller).submit(WEBHOOK, PAYLOAD);
+
+    ArgumentCaptor<WebhookDelivery> deliveryCaptor = ArgumentCaptor.forClass(WebhookDelivery.class);
+    verify(deliveryStorage, timeout(5_000)).persist(deliveryCaptor.capture());
+    underTest.stop();
+
+    assertThat(deliveryCaptor.getValue().getHttpStatus()).contains(200);
+    assertThat(caller.countSent()).isEqualTo(1);
+    assertThat(underTest.getPendingCount()).isEqualTo(0);
+    assertThat(underTest.getSuccessCount()).isEqualTo(1);
+    assertThat(underTest.getErrorCount()).isEqualTo(0);
+    assertThat(underTest.getRetryCount()).isEqualTo(0);
+    assertThat(logTester.logs(LoggerLevel.DEBUG)).contains("Sent webhook 'First' | url=http://url1 | time=1234ms | status=200");
+  }
+
+  @Test
+  public void retry_on_connectivity_failure_and_server_error() {
+    caller.enqueueFailure(NOW, new IOException("Fail to connect"));
+    caller.enqueueSuccess(NOW, 503, 10);
+    caller.enqueueSuccess(NOW, 200, 10);
+
+    start(caller).submit(WEBHOOK, PAYLOAD);
+
+    verify(deliveryStorage, timeout(5_000).times(3)).persist(any(WebhookDelivery.class));
+    underTest.stop();
+
+    assertThat(caller.countSent()).isEqualTo(3);
+    assertThat(underTest.getSuccessCount()).isEqualTo(1);
+    assertThat(underTest.getRetryCount()).isEqualTo(2);
+    assertThat(logTester.logs(LoggerLevel.DEBUG)).contains("Failed to send webhook 'First' | url=http://url1 | message=Fail to connect");
+  }
+
+  @Test
+  public void give_up_after_max_attempts() {
+    settings.setProperty(WebhookDeliveryQueue.PROPERTY_MAX_ATTEMPTS, 2);
+    caller.enqueueSuccess(NOW, 500, 10);
+    caller.enqueueSuccess(NOW, 500, 10);
+
+    start(caller).submit(WEBHOOK, PAYLOAD);
+
+    verify(deliveryStorage, timeout(5_000).times(2)).persist(any(WebhookDelivery.class));
+    underTest.stop();
+
+    assertThat(caller.countSent()).isEqualTo(2);
+    assertThat(underTest.getErrorCount()).isEqualTo(1);
+    assertThat(underTest.getPendingCount()).isEqualTo(0);
+  }
+
+  @Test
+  public void do_not_retry_on_client_error() {
+    caller.enqueueSuccess(NOW, 404, 10);
+
+    start(caller).submit(WEBHOOK, PAYLOAD);
+
+    verify(deliveryStorage, timeout(5_000)).persist(any(WebhookDelivery.class));
+    underTest.stop();
+
+    assertThat(caller.countSent()).isEqualTo(1);
+    assertThat(underTest.getErrorCount()).isEqualTo(1);
+    assertThat(underTest.getRetryCount()).isEqualTo(0);
+  }
+
+  @Test
+  public void retry_calls_to_stub_http_server() throws Exception {
+    server.enqueue(new MockResponse().setResponseCode(502));
+    server.enqueue(new MockResponse().setResponseCode(200));
+    WebhookCaller httpCaller = new WebhookCallerImpl(System2.INSTANCE,
+      new OkHttpClientProvider().provide(new MapSettings(), SonarRuntimeImpl.forSonarQube(Version.parse("6.4"), SonarQubeSide.COMPUTE_ENGINE)));
+    Webhook webhook = new Webhook("P1_UUID", "CE_UUID1", "Stub", server.url("/ping").toString());
+
+    start(httpCaller).submit(webhook, PAYLOAD);
+
+    ArgumentCaptor<WebhookDelivery> deliveryCaptor = ArgumentCaptor.forClass(WebhookDelivery.class);
+    verify(deliveryStorage, timeout(5_000).times(2)).persist(deliveryCaptor.capture());
+    underTest.stop();
+
+    assertThat(deliveryCaptor.getAllValues()).extracting(d -> d.getHttpStatus().get()).containsExactly(502, 200);
+    assertThat(server.getRequestCount()).isEqualTo(2);
+    assertThat(server.takeRequest().getPath()).isEqualTo("/ping");
+    assertThat(underTest.getSuccessCount()).isEqualTo(1);
+  }
+
+  @Test
+  public void record_as_failed_the_deliveries_pending_on_stop() {
+    settings.setProperty(WebhookDeliveryQueue.PROPERTY_THREADS, 1);
+    settings.setProperty(WebhookDeliveryQueue.PROPERTY_RETRY_DELAY_MS, 60_000L);
+    caller.enqueueFailure(NOW, new IOException("Fail to connect"));
+    underTest = new WebhookDeliveryQueue(caller, deliveryStorage, settings, System2.INSTANCE);
+    underTest.start();
+    underTest.submit(WEBHOOK, PAYLOAD);
+    verify(deliveryStorage, timeout(5_000)).persist(any(WebhookDelivery.class));
+
+    // second attempt is scheduled in one minute
+    underTest.stop();
+
+    ArgumentCaptor<WebhookDelivery> deliveryCaptor = ArgumentCaptor.forClass(WebhookDelivery.class);
+    verify(deliveryStorage, times(2)).persist(deliveryCaptor.capture());
+    WebhookDelivery dropped = deliveryCaptor.getAllValues().get(1);
+    assertThat(dropped.isSuccess()).isFalse();
+    assertThat(dropped.getWebhook()).isSameAs(WEBHOOK);
+    assertThat(dropped.getPayload()).isSameAs(PAYLOAD);
+    assertThat(dropped.getErrorMessage()).contains("Compute Engine is stopping");
+    assertThat(caller.countSent()).isEqualTo(1);
+    assertThat(underTest.getPendingCount()).isEqualTo(0);
+    assertThat(underTest.getErrorCount()).isEqualTo(1);
+    assertThat(logTester.logs(LoggerLevel.WARN)).isNotEmpty();
+  }
+
+  @Test
+  public void fail_if_configuration_is_invalid() {
+    settings.setProperty(WebhookDeliveryQueue.PROPERTY_THREADS, 0);
+
+    expectedException.expect(IllegalStateException.class);
+    expectedException.expectMessage("Invalid configuration of webhooks");
+
+    new WebhookDeliveryQueue(caller, deliveryStorage, settings, System2.INSTANCE);
+  }
+
+  private WebhookDeliveryQueue start(WebhookCaller webhookCaller) {
+    settings.setProperty(WebhookDeliveryQueue.PROPERTY_THREADS, 1);
+    settings.setProperty(WebhookDeliveryQueue.PROPERTY_RETRY_DELAY_MS, 10L);
+    underTest = new WebhookDeliveryQueue(webhookCaller, deliveryStorage, settings, System2.INSTANCE);
+    underTest.start();
+    return underTest;
+  }
+}
@@ -42,6 +42,7 @@ import javax.annotation.Nullable;
 import javax.annotation.concurrent.Immutable;
 import org.junit.Rule;
 import org.junit.Test;
+import org.junit.rules.ExpectedException;
 import org.junit.rules.Timeout;
 import org.sonar.server.computation.configuration.CeConfigurationRule;
 
@@ -52,6 +53,7 @@ import static org.mockito.Matchers.eq;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyZeroInteractions;
 import static org.mockito.Mockito.when;
 
 public class CeProcessingSchedulerImplTest {
@@ -62,6 +64,8 @@ public class CeProcessingSchedulerImplTest {
   public Timeout timeout = Timeout.seconds(60);
   @Rule
   public CeConfigurationRule ceConfiguration = new CeConfigurationRule();
+  @Rule
+  public ExpectedException expectedException = ExpectedException.none();
 
   private CeWorkerCallable ceWorkerRunnable = mock(CeWorkerCallable.class);
   private StubCeProcessingSchedulerExecutorService processingExecutorService = new StubCeProcessingSchedulerExecutorService();
@@ -199,6 +203,67 @@ public class CeProcessingSchedulerImplTest {
     verify(listenableScheduledFuture, times(workerCount)).addListener(any(Runnable.class), eq(processingExecutorService));
   }
 
+  @Test
+  public void setWorkerCount_schedules_additional_CeWorkerCallable_when_scheduling_is_started() {
+    ListenableScheduledFuture listenableScheduledFuture = mock(ListenableScheduledFuture.class);
+    CeProcessingSchedulerExecutorService processingExecutorService = mock(CeProcessingSchedulerExecutorService.class);
+    CeProcessingSchedulerImpl underTest = new CeProcessingSchedulerImpl(ceConfiguration, processingExecutorService, ceWorkerRunnable);
+    when(processingExecutorService.schedule(ceWorkerRunnable, ceConfiguration.getQueuePollingDelay(), MILLISECONDS))
+      .thenReturn(listenableScheduledFuture);
+
+    underTest.startScheduling();
+    underTest.setWorkerCount(3);
+
+    assertThat(underTest.getWorkerCount()).isEqualTo(3);
+    verify(processingExecutorService, times(3)).schedule(ceWorkerRunnable, ceConfiguration.getQueuePollingDelay(), MILLISECONDS);
+  }
+
+  @Test
+  public void setWorkerCount_does_not_schedule_CeWorkerCallable_when_scheduling_is_not_started() {
+    CeProcessingSchedulerExecutorService processingExecutorService = mock(CeProcessingSchedulerExecutorService.class);
+    CeProcessingSchedulerImpl underTest = new CeProcessingSchedulerImpl(ceConfiguration, processingExecutorService, ceWorkerRunnable);
+
+    underTest.setWorkerCount(3);
+
+    assertThat(underTest.getWorkerCount()).isEqualTo(3);
+    verifyZeroInteractions(processingExecutorService);
+  }
+
+  @Test
+  public void setWorkerCount_stops_CeWorkerCallable_in_excess() {
+    ceConfiguration.setWorkerCount(3);
+    ListenableScheduledFuture listenableScheduledFuture = mock(ListenableScheduledFuture.class);
+    CeProcessingSchedulerExecutorService processingExecutorService = mock(CeProcessingSchedulerExecutorService.class);
+    CeProcessingSchedulerImpl underTest = new CeProcessingSchedulerImpl(ceConfiguration, processingExecutorService, ceWorkerRunnable);
+    when(processingExecutorService.schedule(ceWorkerRunnable, ceConfiguration.getQueuePollingDelay(), MILLISECONDS))
+      .thenReturn(listenableScheduledFuture);
+    underTest.startScheduling();
+
+    underTest.setWorkerCount(1);
+
+    assertThat(underTest.getWorkerCount()).isEqualTo(1);
+    verify(listenableScheduledFuture, times(2)).cancel(false);
+  }
+
+  @Test
+  public void setWorkerCount_fails_with_IAE_if_count_is_less_than_1() {
+    expectedException.expect(IllegalArgumentException.class);
+    expectedException.expectMessage("Worker count must be between 1 and 10, got 0");
+
+    underTest.setWorkerCount(0);
+  }
+
+  @Test
+  public void setWorkerCount_fails_with_IAE_if_count_is_greater_than_max_worker_count() {
+    ceConfiguration.setMaxWorkerCount(4);
+    CeProcessingSchedulerImpl underTest = new CeProcessingSchedulerImpl(ceConfiguration, processingExecutorService, ceWorkerRunnable);
+
+    expectedException.expect(IllegalArgumentException.class);
+    expectedException.expectMessage("Worker count must be between 1 and 4, got 5");
+
+    underTest.setWorkerCount(5);
+  }
+
   private void startSchedulingAndRun() throws ExecutionException, InterruptedException {
     underTest.startScheduling();
 
@@ -0,0 +1,74 @@
+/*
+ * SonarQube
+ * Copyright (C) 2009-2017 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.server.computation.taskprocessor;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.sonar.ce.monitoring.CEQueueStatus;
+import org.sonar.server.computation.configuration.CeConfigurationRule;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class CeTaskMemoryAdmissionTest {
+
+  private static final long ESTIMATE = 512L * 1024 * 1024;
+
+  @Rule
+  public CeConfigurationRule ceConfiguration = new CeConfigurationRule();
+
+  private CEQueueStatus queueStatus = mock(CEQueueStatus.class);
+
+  @Test
+  public void always_admits_new_task_when_memory_estimate_is_not_configured() {
+    when(queueStatus.getInProgressCount()).thenReturn(3L);
+    CeTaskMemoryAdmission underTest = new CeTaskMemoryAdmission(ceConfiguration, queueStatus, () -> 0L);
+
+    assertThat(underTest.admitsNewTask()).isTrue();
+  }
+
+  @Test
+  public void admits_new_task_when_free_heap_is_greater_than_estimate() {
+    ceConfiguration.setTaskMemoryEstimate(ESTIMATE);
+    when(queueStatus.getInProgressCount()).thenReturn(3L);
+    CeTaskMemoryAdmission underTest = new CeTaskMemoryAdmission(ceConfiguration, queueStatus, () -> ESTIMATE + 1);
+
+    assertThat(underTest.admitsNewTask()).isTrue();
+  }
+
+  @Test
+  public void does_not_admit_new_task_when_free_heap_is_lower_than_estimate() {
+    ceConfiguration.setTaskMemoryEstimate(ESTIMATE);
+    when(queueStatus.getInProgressCount()).thenReturn(1L);
+    CeTaskMemoryAdmission underTest = new CeTaskMemoryAdmission(ceConfiguration, queueStatus, () -> ESTIMATE);
+
+    assertThat(underTest.admitsNewTask()).isFalse();
+  }
+
+  @Test
+  public void admits_new_task_when_free_heap_is_lower_than_estimate_but_no_task_is_in_progress() {
+    ceConfiguration.setTaskMemoryEstimate(ESTIMATE);
+    when(queueStatus.getInProgressCount()).thenReturn(0L);
+    CeTaskMemoryAdmission underTest = new CeTaskMemoryAdmission(ceConfiguration, queueStatus, () -> 0L);
+
+    assertThat(underTest.admitsNewTask()).isTrue();
+  }
+}
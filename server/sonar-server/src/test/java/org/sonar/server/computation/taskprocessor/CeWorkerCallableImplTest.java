@@ -22,6 +22,7 @@ package org.sonar.server.computation.taskprocessor;
 import com.google.common.base.Optional;
 import java.util.List;
 import javax.annotation.Nullable;
+import org.junit.Before;
 import org.junit.Rule;
 import org.junit.Test;
 import org.mockito.InOrder;
@@ -29,6 +30,9 @@ import org.mockito.Mockito;
 import org.sonar.api.utils.log.LogTester;
 import org.sonar.api.utils.log.LoggerLevel;
 import org.sonar.ce.log.CeLogging;
+import org.sonar.ce.monitoring.CeTaskResourceRecorder;
+import org.sonar.ce.monitoring.CeTaskResourceUsage;
+import org.sonar.ce.monitoring.ResourceUsage;
 import org.sonar.ce.queue.CeTask;
 import org.sonar.db.ce.CeActivityDto;
 import org.sonar.db.ce.CeTaskTypes;
@@ -52,8 +56,26 @@ public class CeWorkerCallableImplTest {
   private InternalCeQueue queue = mock(InternalCeQueue.class);
   private ReportTaskProcessor taskProcessor = mock(ReportTaskProcessor.class);
   private CeLogging ceLogging = spy(CeLogging.class);
-  private CeWorkerCallable underTest = new CeWorkerCallableImpl(queue, ceLogging, taskProcessorRepository);
-  private InOrder inOrder = Mockito.inOrder(ceLogging, taskProcessor, queue);
+  private CeTaskResourceRecorder resourceRecorder = mock(CeTaskResourceRecorder.class);
+  private CeTaskResourceUsage resourceUsage = new CeTaskResourceUsage(new ResourceUsage(150, 10_000, 12, 30), 2_048, 1_024);
+  private CeTaskMemoryAdmission memoryAdmission = mock(CeTaskMemoryAdmission.class);
+  private CeWorkerCallable underTest = new CeWorkerCallableImpl(queue, ceLogging, taskProcessorRepository, resourceRecorder, memoryAdmission);
+  private InOrder inOrder = Mockito.inOrder(ceLogging, resourceRecorder, taskProcessor, queue);
+
+  @Before
+  public void setUp() {
+    when(resourceRecorder.stop()).thenReturn(resourceUsage);
+    when(memoryAdmission.admitsNewTask()).thenReturn(true);
+  }
+
+  @Test
+  public void does_not_peek_queue_when_new_task_is_not_admitted() throws Exception {
+    when(memoryAdmission.admitsNewTask()).thenReturn(false);
+
+    assertThat(underTest.call()).isFalse();
+
+    verifyZeroInteractions(queue, taskProcessor, ceLogging, resourceRecorder);
+  }
 
   @Test
   public void no_pending_tasks_in_queue() throws Exception {
@@ -61,7 +83,7 @@ public class CeWorkerCallableImplTest {
 
     assertThat(underTest.call()).isFalse();
 
-    verifyZeroInteractions(taskProcessor, ceLogging);
+    verifyZeroInteractions(taskProcessor, ceLogging, resourceRecorder);
   }
 
   @Test
@@ -73,7 +95,9 @@ public class CeWorkerCallableImplTest {
     assertThat(underTest.call()).isTrue();
 
     inOrder.verify(ceLogging).initForTask(task);
-    inOrder.verify(queue).remove(task, CeActivityDto.Status.FAILED, null, null);
+    inOrder.verify(resourceRecorder).start();
+    inOrder.verify(resourceRecorder).stop();
+    inOrder.verify(queue).remove(task, CeActivityDto.Status.FAILED, null, null, resourceUsage);
     inOrder.verify(ceLogging).clearForTask();
   }
 
@@ -86,8 +110,10 @@ public class CeWorkerCallableImplTest {
     assertThat(underTest.call()).isTrue();
 
     inOrder.verify(ceLogging).initForTask(task);
+    inOrder.verify(resourceRecorder).start();
     inOrder.verify(taskProcessor).process(task);
-    inOrder.verify(queue).remove(task, CeActivityDto.Status.SUCCESS, null, null);
+    inOrder.verify(resourceRecorder).stop();
+    inOrder.verify(queue).remove(task, CeActivityDto.Status.SUCCESS, null, null, resourceUsage);
     inOrder.verify(ceLogging).clearForTask();
   }
 
@@ -102,10 +128,24 @@ public class CeWorkerCallableImplTest {
 
     inOrder.verify(ceLogging).initForTask(task);
     inOrder.verify(taskProcessor).process(task);
-    inOrder.verify(queue).remove(task, CeActivityDto.Status.FAILED, null, error);
+    inOrder.verify(queue).remove(task, CeActivityDto.Status.FAILED, null, error, resourceUsage);
     inOrder.verify(ceLogging).clearForTask();
   }
 
+  @Test
+  public void display_resource_usage_in_logs() throws Exception {
+    when(queue.peek()).thenReturn(Optional.of(createCeTask(null)));
+    taskProcessorRepository.setProcessorForTask(CeTaskTypes.REPORT, taskProcessor);
+
+    underTest.call();
+
+    List<String> logs = logTester.logs(LoggerLevel.INFO);
+    assertThat(logs).hasSize(2);
+    assertThat(logs.get(0)).doesNotContain("cpuTime=");
+    assertThat(logs.get(1)).contains("Executed task | cpuTime=150ms | allocatedBytes=10000 | dbStatements=12 | dbTime=30ms"
+      + " | tempDiskBytes=2048 | reportSizeBytes=1024 | project=");
+  }
+
   @Test
   public void do_not_display_submitter_param_in_log_when_submitterLogin_is_not_set_in_case_of_success() throws Exception {
     when(queue.peek()).thenReturn(Optional.of(createCeTask(null)));
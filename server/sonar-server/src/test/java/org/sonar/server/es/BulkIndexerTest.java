@@ -40,7 +40,7 @@ public class BulkIndexerTest {
 
   @Test
   public void index_nothing() {
-    BulkIndexer indexer = new BulkIndexer(esTester.client(), INDEX);
+    BulkIndexer indexer = new BulkIndexer(esTester.client(), esTester.indexRebuilds(), INDEX);
     indexer.start();
     indexer.stop();
 
@@ -49,7 +49,7 @@ public class BulkIndexerTest {
 
   @Test
   public void index_documents() {
-    BulkIndexer indexer = new BulkIndexer(esTester.client(), INDEX);
+    BulkIndexer indexer = new BulkIndexer(esTester.client(), esTester.indexRebuilds(), INDEX);
     indexer.start();
     indexer.add(newIndexRequest(42));
     indexer.add(newIndexRequest(78));
@@ -67,7 +67,7 @@ public class BulkIndexerTest {
     // index has one replica
     assertThat(replicas()).isEqualTo(1);
 
-    BulkIndexer indexer = new BulkIndexer(esTester.client(), INDEX)
+    BulkIndexer indexer = new BulkIndexer(esTester.client(), esTester.indexRebuilds(), INDEX)
       .setFlushByteSize(500)
       .setSize(Size.LARGE);
     indexer.start();
@@ -99,7 +99,7 @@ public class BulkIndexerTest {
 
     SearchRequestBuilder req = esTester.client().prepareSearch(INDEX_TYPE_FAKE)
       .setQuery(QueryBuilders.rangeQuery(FakeIndexDefinition.INT_FIELD).gte(removeFrom));
-    BulkIndexer.delete(esTester.client(), INDEX, req);
+    BulkIndexer.delete(esTester.client(), esTester.indexRebuilds(), INDEX, req);
 
     assertThat(count()).isEqualTo(removeFrom);
   }
@@ -46,6 +46,7 @@ import org.elasticsearch.node.NodeBuilder;
 import org.elasticsearch.search.SearchHit;
 import org.junit.rules.ExternalResource;
 import org.sonar.api.config.MapSettings;
+import org.sonar.api.utils.System2;
 import org.sonar.core.platform.ComponentContainer;
 
 import static com.google.common.base.Preconditions.checkState;
@@ -56,6 +57,7 @@ public class EsTester extends ExternalResource {
 
   private final List<IndexDefinition> indexDefinitions;
   private final EsClient client = new EsClient(NodeHolder.INSTANCE.node.client());
+  private final IndexRebuilds indexRebuilds = new IndexRebuilds(System2.INSTANCE);
   private ComponentContainer container;
 
   public EsTester(IndexDefinition... defs) {
@@ -71,6 +73,7 @@ public class EsTester extends ExternalResource {
       container.addSingleton(new MapSettings());
       container.addSingletons(indexDefinitions);
       container.addSingleton(client);
+      container.addSingleton(indexRebuilds);
       container.addSingleton(IndexDefinitions.class);
       container.addSingleton(IndexCreator.class);
       container.startComponents();
@@ -178,6 +181,10 @@ public class EsTester extends ExternalResource {
     return client;
   }
 
+  public IndexRebuilds indexRebuilds() {
+    return indexRebuilds;
+  }
+
   private enum SearchHitToId implements Function<SearchHit, String> {
     INSTANCE;
 
@@ -36,13 +36,15 @@ public class IndexCreatorTest {
   @Rule
   public EsTester es = new EsTester();
 
+  private MapSettings settings = new MapSettings();
+
   @Test
   public void create_index() throws Exception {
     assertThat(mappings()).isEmpty();
 
     IndexDefinitions registry = new IndexDefinitions(new IndexDefinition[] {new FakeIndexDefinition()}, new MapSettings());
     registry.start();
-    IndexCreator creator = new IndexCreator(es.client(), registry);
+    IndexCreator creator = new IndexCreator(es.client(), es.indexRebuilds(), registry, settings);
     creator.start();
 
     // check that index is created with related mapping
@@ -67,7 +69,7 @@ public class IndexCreatorTest {
     // v1
     IndexDefinitions registry = new IndexDefinitions(new IndexDefinition[] {new FakeIndexDefinition()}, new MapSettings());
     registry.start();
-    IndexCreator creator = new IndexCreator(es.client(), registry);
+    IndexCreator creator = new IndexCreator(es.client(), es.indexRebuilds(), registry, settings);
     creator.start();
     creator.stop();
     String hashV1 = setting("fakes", "index.sonar_hash");
@@ -76,7 +78,7 @@ public class IndexCreatorTest {
     // v2
     registry = new IndexDefinitions(new IndexDefinition[] {new FakeIndexDefinitionV2()}, new MapSettings());
     registry.start();
-    creator = new IndexCreator(es.client(), registry);
+    creator = new IndexCreator(es.client(), es.indexRebuilds(), registry, settings);
     creator.start();
     ImmutableOpenMap<String, ImmutableOpenMap<String, MappingMetaData>> mappings = mappings();
     MappingMetaData mapping = mappings.get("fakes").get("fake");
@@ -88,6 +90,59 @@ public class IndexCreatorTest {
     creator.stop();
   }
 
+  @Test
+  public void create_versioned_index_with_alias() throws Exception {
+    settings.setProperty(IndexCreator.PROPERTY_VERSIONED_INDICES, "true");
+
+    IndexDefinitions registry = new IndexDefinitions(new IndexDefinition[] {new FakeIndexDefinition()}, new MapSettings());
+    registry.start();
+    new IndexCreator(es.client(), es.indexRebuilds(), registry, settings).start();
+
+    String physicalIndex = es.client().resolveIndex("fakes");
+    assertThat(physicalIndex).startsWith("fakes_").isNotEqualTo("fakes");
+    assertThat(mappings().get(physicalIndex).get("fake")).isNotNull();
+    assertThat(es.client().getIndexSetting("fakes", "index.sonar_hash")).startsWith(physicalIndex.substring("fakes_".length()));
+    assertThat(es.indexRebuilds().isEmpty()).isTrue();
+  }
+
+  @Test
+  public void keep_previous_versioned_index_on_definition_changes() throws Exception {
+    settings.setProperty(IndexCreator.PROPERTY_VERSIONED_INDICES, "true");
+
+    // v1
+    IndexDefinitions registry = new IndexDefinitions(new IndexDefinition[] {new FakeIndexDefinition()}, new MapSettings());
+    registry.start();
+    new IndexCreator(es.client(), es.indexRebuilds(), registry, settings).start();
+    String indexV1 = es.client().resolveIndex("fakes");
+
+    // v2
+    registry = new IndexDefinitions(new IndexDefinition[] {new FakeIndexDefinitionV2()}, new MapSettings());
+    registry.start();
+    new IndexCreator(es.client(), es.indexRebuilds(), registry, settings).start();
+
+    // alias still targets v1 until v2 is populated
+    assertThat(es.client().resolveIndex("fakes")).isEqualTo(indexV1);
+    IndexRebuilds.Rebuild rebuild = es.indexRebuilds().get("fakes").get();
+    assertThat(rebuild.getOldIndex()).isEqualTo(indexV1);
+    assertThat(rebuild.getNewIndex()).startsWith("fakes_").isNotEqualTo(indexV1);
+    assertThat(countMappingFields(mappings().get(rebuild.getNewIndex()).get("fake"))).isEqualTo(3);
+    assertThat(es.indexRebuilds().getTarget(indexV1)).contains(rebuild.getNewIndex());
+  }
+
+  @Test
+  public void do_not_rebuild_versioned_index_if_definition_does_not_change() throws Exception {
+    settings.setProperty(IndexCreator.PROPERTY_VERSIONED_INDICES, "true");
+    IndexDefinitions registry = new IndexDefinitions(new IndexDefinition[] {new FakeIndexDefinition()}, new MapSettings());
+    registry.start();
+    new IndexCreator(es.client(), es.indexRebuilds(), registry, settings).start();
+    String index = es.client().resolveIndex("fakes");
+
+    new IndexCreator(es.client(), es.indexRebuilds(), registry, settings).start();
+
+    assertThat(es.client().resolveIndex("fakes")).isEqualTo(index);
+    assertThat(es.indexRebuilds().isEmpty()).isTrue();
+  }
+
   private String setting(String indexName, String settingKey) {
     GetSettingsResponse indexSettings = es.client().nativeClient().admin().indices().prepareGetSettings(indexName).get();
     return indexSettings.getSetting(indexName, settingKey);
@@ -0,0 +1,156 @@
+/*
+ * SonarQube
+ * Copyright (C) 2009-2017 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.server.es;
+
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicReference;
+import org.elasticsearch.action.ActionRequest;
+import org.elasticsearch.action.delete.DeleteRequest;
+import org.elasticsearch.action.index.IndexRequest;
+import org.elasticsearch.action.update.UpdateRequest;
+import org.elasticsearch.index.VersionType;
+import org.junit.Test;
+import org.sonar.api.utils.internal.TestSystem2;
+
+import static com.google.common.collect.ImmutableMap.of;
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class IndexRebuildsTest {
+
+  private TestSystem2 system2 = new TestSystem2().setNow(1_000L);
+  private IndexRebuilds underTest = new IndexRebuilds(system2);
+
+  @Test
+  public void get_rebuild_by_alias_or_by_old_index() {
+    underTest.register("issues", "issues_1", "issues_2");
+
+    assertThat(underTest.getTarget("issues")).contains("issues_2");
+    assertThat(underTest.getTarget("issues_1")).contains("issues_2");
+    assertThat(underTest.getTarget("rules")).isEmpty();
+    assertThat(underTest.getAll()).extracting(IndexRebuilds.Rebuild::getAlias).containsExactly("issues");
+
+    underTest.unregister("issues");
+
+    assertThat(underTest.getTarget("issues")).isEmpty();
+    assertThat(underTest.isEmpty()).isTrue();
+  }
+
+  @Test
+  public void no_copy_if_index_is_not_rebuilt() {
+    underTest.register("issues", "issues_1", "issues_2");
+
+    assertThat(underTest.copyForRebuild(new IndexRequest("rules", "rule", "R1").source(of("key", "R1")))).isEmpty();
+  }
+
+  @Test
+  public void copy_index_request() {
+    underTest.register("issues", "issues_1", "issues_2");
+
+    Optional<ActionRequest<?>> copy = underTest.copyForRebuild(new IndexRequest("issues", "issue", "I1").routing("P1").source(of("key", "I1")));
+
+    IndexRequest request = (IndexRequest) copy.get();
+    assertThat(request.index()).isEqualTo("issues_2");
+    assertThat(request.type()).isEqualTo("issue");
+    assertThat(request.id()).isEqualTo("I1");
+    assertThat(request.routing()).isEqualTo("P1");
+    assertThat(request.sourceAsMap()).containsEntry("key", "I1");
+    assertThat(request.versionType()).isEqualTo(VersionType.EXTERNAL_GTE);
+  }
+
+  @Test
+  public void documents_loaded_from_db_have_lower_version_than_documents_written_concurrently() {
+    underTest.register("issues", "issues_1", "issues_2");
+    system2.setNow(5_000L);
+
+    IndexRequest concurrentWrite = (IndexRequest) underTest.copyForRebuild(new IndexRequest("issues", "issue", "I1").source(of("key", "I1"))).get();
+    AtomicReference<ActionRequest<?>> copy = new AtomicReference<>();
+    underTest.runPopulating(() -> copy.set(underTest.copyForRebuild(new IndexRequest("issues", "issue", "I1").source(of("key", "I1"))).get()));
+
+    IndexRequest populatingWrite = (IndexRequest) copy.get();
+    assertThat(populatingWrite.version()).isEqualTo(1_000L);
+    assertThat(populatingWrite.versionType()).isEqualTo(VersionType.EXTERNAL_GTE);
+    assertThat(concurrentWrite.version()).isEqualTo(5_000L);
+  }
+
+  @Test
+  public void concurrent_write_has_greater_version_than_populating_even_if_clock_did_not_change() {
+    underTest.register("issues", "issues_1", "issues_2");
+
+    IndexRequest concurrentWrite = (IndexRequest) underTest.copyForRebuild(new IndexRequest("issues", "issue", "I1").source(of("key", "I1"))).get();
+
+    assertThat(concurrentWrite.version()).isEqualTo(1_001L);
+  }
+
+  @Test
+  public void update_request_with_upsert_is_copied_as_versioned_index_request_when_populating() {
+    underTest.register("tests", "tests_1", "tests_2");
+
+    AtomicReference<ActionRequest<?>> copy = new AtomicReference<>();
+    underTest.runPopulating(() -> copy.set(underTest.copyForRebuild(new UpdateRequest("tests", "test", "T1")
+      .routing("F1")
+      .doc(of("name", "T1"))
+      .upsert(of("name", "T1"))).get()));
+
+    IndexRequest request = (IndexRequest) copy.get();
+    assertThat(request.index()).isEqualTo("tests_2");
+    assertThat(request.routing()).isEqualTo("F1");
+    assertThat(request.sourceAsMap()).containsEntry("name", "T1");
+    assertThat(request.version()).isEqualTo(1_000L);
+    assertThat(request.versionType()).isEqualTo(VersionType.EXTERNAL_GTE);
+  }
+
+  @Test
+  public void copy_delete_request_of_old_index() {
+    underTest.register("issues", "issues_1", "issues_2");
+
+    Optional<ActionRequest<?>> copy = underTest.copyForRebuild(new DeleteRequest("issues_1", "issue", "I1").routing("P1"));
+
+    DeleteRequest request = (DeleteRequest) copy.get();
+    assertThat(request.index()).isEqualTo("issues_2");
+    assertThat(request.id()).isEqualTo("I1");
+    assertThat(request.routing()).isEqualTo("P1");
+    assertThat(request.versionType()).isEqualTo(VersionType.EXTERNAL_GTE);
+  }
+
+  @Test
+  public void copy_update_request() {
+    underTest.register("tests", "tests_1", "tests_2");
+
+    Optional<ActionRequest<?>> copy = underTest.copyForRebuild(new UpdateRequest("tests", "test", "T1")
+      .routing("F1")
+      .doc(of("name", "T1"))
+      .upsert(of("name", "T1")));
+
+    UpdateRequest request = (UpdateRequest) copy.get();
+    assertThat(request.index()).isEqualTo("tests_2");
+    assertThat(request.routing()).isEqualTo("F1");
+    assertThat(request.doc().sourceAsMap()).containsEntry("name", "T1");
+    assertThat(request.upsertRequest().sourceAsMap()).containsEntry("name", "T1");
+  }
+
+  @Test
+  public void populating_mode_is_limited_to_the_runnable() {
+    assertThat(underTest.isPopulating()).isFalse();
+
+    underTest.runPopulating(() -> assertThat(underTest.isPopulating()).isTrue());
+
+    assertThat(underTest.isPopulating()).isFalse();
+  }
+}
@@ -20,14 +20,21 @@
 package org.sonar.server.es;
 
 import com.google.common.collect.ImmutableSet;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
 import org.junit.Rule;
 import org.junit.Test;
+import org.junit.rules.ExpectedException;
 import org.mockito.Mockito;
 import org.sonar.api.config.MapSettings;
 import org.sonar.api.utils.System2;
 import org.sonar.db.DbTester;
+import org.sonar.server.platform.platformlevel.PlatformLevel;
 
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.verifyNoMoreInteractions;
@@ -37,10 +44,15 @@ public class IndexerStartupTaskTest {
 
   private System2 system2 = System2.INSTANCE;
   private MapSettings settings = new MapSettings();
+  private StartupIndexingStatus status = new StartupIndexingStatus(system2);
+  private StartupIndexingExecutor executor = new StartupIndexingExecutor();
 
   @Rule
   public DbTester db = DbTester.create(system2);
 
+  @Rule
+  public ExpectedException expectedException = ExpectedException.none();
+
   @Rule
   public EsTester es = new EsTester(new FakeIndexDefinition());
 
@@ -76,6 +88,100 @@ public class IndexerStartupTaskTest {
     verifyNoMoreInteractions(indexer);
   }
 
+  @Test
+  public void status_is_DONE_when_types_are_indexed() throws Exception {
+    insertDocumentIntoIndex();
+
+    StartupIndexer indexer = createIndexer();
+    emulateStartup(indexer);
+
+    assertThat(status.getAll()).containsOnlyKeys(INDEX_TYPE_FAKE);
+    assertThat(status.getAll().get(INDEX_TYPE_FAKE).getState()).isEqualTo(StartupIndexingStatus.State.DONE);
+    assertThat(status.hasUnfinishedTypes()).isFalse();
+  }
+
+  @Test
+  public void index_in_background() throws Exception {
+    settings.setProperty(IndexerStartupTask.PROPERTY_BACKGROUND, "true");
+    settings.setProperty(IndexerStartupTask.PROPERTY_WORKERS, "4");
+    insertDocumentIntoIndex();
+
+    StartupIndexer indexer = createIndexer();
+    emulateStartupAndWaitForIndexing(indexer);
+
+    verify(indexer).indexOnStartup(Mockito.eq(ImmutableSet.of(INDEX_TYPE_FAKE)));
+    assertThat(status.getAll().get(INDEX_TYPE_FAKE).getState()).isEqualTo(StartupIndexingStatus.State.DONE);
+  }
+
+  @Test
+  public void background_indexing_goes_on_after_the_container_of_startup_tasks_is_stopped() throws Exception {
+    settings.setProperty(IndexerStartupTask.PROPERTY_BACKGROUND, "true");
+    insertDocumentIntoIndex();
+    StartupIndexer indexer = createIndexer();
+    CountDownLatch startupTasksDone = new CountDownLatch(1);
+    // indexing lasts longer than the startup tasks. It fails if its worker is interrupted.
+    doAnswer(invocation -> {
+      startupTasksDone.await();
+      return null;
+    }).when(indexer).indexOnStartup(Mockito.anySet());
+    PlatformLevel level4 = new PlatformLevel("level4") {
+      @Override
+      protected void configureLevel() {
+        add(es.client(), es.indexRebuilds(), settings, status, executor, indexer);
+      }
+    };
+    level4.configure().start();
+
+    // same lifecycle as the container of startup tasks in Platform
+    new PlatformLevel("startup tasks", level4) {
+      @Override
+      protected void configureLevel() {
+        add(IndexerStartupTask.class);
+      }
+
+      @Override
+      public PlatformLevel start() {
+        super.start();
+        get(IndexerStartupTask.class).execute();
+        return this;
+      }
+    }.configure().start().stop().destroy();
+    assertThat(status.hasUnfinishedTypes()).isTrue();
+    startupTasksDone.countDown();
+
+    assertThat(executor.awaitTermination(1, TimeUnit.MINUTES)).isTrue();
+    verify(indexer).indexOnStartup(Mockito.eq(ImmutableSet.of(INDEX_TYPE_FAKE)));
+    assertThat(status.getAll().get(INDEX_TYPE_FAKE).getState()).isEqualTo(StartupIndexingStatus.State.DONE);
+  }
+
+  @Test
+  public void failure_of_background_indexing_is_reported_in_status() throws Exception {
+    settings.setProperty(IndexerStartupTask.PROPERTY_BACKGROUND, "true");
+    insertDocumentIntoIndex();
+
+    StartupIndexer indexer = createIndexer();
+    doThrow(new IllegalStateException("simulated")).when(indexer).indexOnStartup(Mockito.anySet());
+    emulateStartupAndWaitForIndexing(indexer);
+
+    assertThat(status.getAll().get(INDEX_TYPE_FAKE).getState()).isEqualTo(StartupIndexingStatus.State.FAILED);
+    assertThat(status.hasUnfinishedTypes()).isTrue();
+  }
+
+  @Test
+  public void failure_of_foreground_indexing_is_propagated() throws Exception {
+    settings.setProperty(IndexerStartupTask.PROPERTY_WORKERS, "2");
+    insertDocumentIntoIndex();
+
+    StartupIndexer indexer = createIndexer();
+    doThrow(new IllegalStateException("simulated")).when(indexer).indexOnStartup(Mockito.anySet());
+
+    expectedException.expect(IllegalStateException.class);
+    expectedException.expectMessage("simulated");
+
+    emulateStartup(indexer);
+  }
+
+
   private void insertDocumentIntoIndex() {
     es.putDocuments(INDEX_TYPE_FAKE, new FakeDoc());
   }
@@ -87,6 +193,12 @@ public class IndexerStartupTaskTest {
   }
 
   private void emulateStartup(StartupIndexer indexer) {
-    new IndexerStartupTask(es.client(), settings, indexer).execute();
+    new IndexerStartupTask(es.client(), es.indexRebuilds(), settings, status, executor, indexer).execute();
+  }
+
+  private void emulateStartupAndWaitForIndexing(StartupIndexer indexer) throws InterruptedException {
+    IndexerStartupTask task = new IndexerStartupTask(es.client(), es.indexRebuilds(), settings, status, executor, indexer);
+    task.execute();
+    assertThat(task.awaitIndexing(1, TimeUnit.MINUTES)).isTrue();
   }
 }
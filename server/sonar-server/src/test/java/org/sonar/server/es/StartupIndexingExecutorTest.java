@@ -0,0 +1,80 @@
+/*
+ * SonarQube
+ * Copyright (C) 2009-2017 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.server.es;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+import org.junit.After;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class StartupIndexingExecutorTest {
+
+  @Rule
+  public ExpectedException expectedException = ExpectedException.none();
+
+  private StartupIndexingExecutor underTest = new StartupIndexingExecutor();
+
+  @After
+  public void tearDown() {
+    underTest.stop();
+  }
+
+  @Test
+  public void awaitTermination_returns_immediately_if_no_workers() throws Exception {
+    assertThat(underTest.awaitTermination(1, TimeUnit.MILLISECONDS)).isTrue();
+  }
+
+  @Test
+  public void stop_interrupts_workers() throws Exception {
+    CountDownLatch interrupted = new CountDownLatch(1);
+    ExecutorService executorService = underTest.create(1);
+    executorService.submit(() -> {
+      try {
+        new CountDownLatch(1).await();
+      } catch (InterruptedException e) {
+        interrupted.countDown();
+      }
+    });
+    executorService.shutdown();
+
+    underTest.stop();
+
+    assertThat(interrupted.await(1, TimeUnit.MINUTES)).isTrue();
+    assertThat(underTest.awaitTermination(1, TimeUnit.MINUTES)).isTrue();
+  }
+
+  @Test
+  public void fail_to_create_workers_if_previous_ones_are_running() {
+    underTest.create(1).submit(() -> {
+      new CountDownLatch(1).await();
+      return null;
+    });
+
+    expectedException.expect(IllegalStateException.class);
+    expectedException.expectMessage("Startup indexing is already in progress");
+
+    underTest.create(1);
+  }
+}
@@ -0,0 +1,80 @@
+/*
+ * SonarQube
+ * Copyright (C) 2009-2017 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.server.es;
+
+import org.junit.Test;
+import org.sonar.api.utils.internal.TestSystem2;
+
+import static java.util.Arrays.asList;
+import static java.util.Collections.singletonList;
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class StartupIndexingStatusTest {
+
+  private static final IndexType ISSUES = new IndexType("issues", "issue");
+  private static final IndexType RULES = new IndexType("rules", "rule");
+
+  private TestSystem2 system2 = new TestSystem2().setNow(1_000L);
+  private StartupIndexingStatus underTest = new StartupIndexingStatus(system2);
+
+  @Test
+  public void no_types_are_indexing_by_default() {
+    assertThat(underTest.isIndexing(ISSUES)).isFalse();
+    assertThat(underTest.hasUnfinishedTypes()).isFalse();
+    assertThat(underTest.getAll()).isEmpty();
+  }
+
+  @Test
+  public void track_lifecycle_of_types() {
+    underTest.setPending(asList(RULES, ISSUES));
+    assertThat(underTest.isIndexing(ISSUES)).isTrue();
+    assertThat(underTest.getAll()).containsOnlyKeys(ISSUES, RULES);
+
+    underTest.setInProgress(singletonList(ISSUES));
+    system2.setNow(3_000L);
+    underTest.setDone(ISSUES);
+
+    StartupIndexingStatus.TypeStatus issues = underTest.getAll().get(ISSUES);
+    assertThat(issues.getState()).isEqualTo(StartupIndexingStatus.State.DONE);
+    assertThat(issues.getStartedAt()).isEqualTo(1_000L);
+    assertThat(issues.getEndedAt()).isEqualTo(3_000L);
+    assertThat(underTest.isIndexing(ISSUES)).isFalse();
+    assertThat(underTest.isIndexing(RULES)).isTrue();
+    assertThat(underTest.hasUnfinishedTypes()).isTrue();
+  }
+
+  @Test
+  public void setFailed_does_not_change_types_which_are_already_done() {
+    underTest.setInProgress(asList(ISSUES, RULES));
+    underTest.setDone(ISSUES);
+    underTest.setFailed(asList(ISSUES, RULES));
+
+    assertThat(underTest.getAll().get(ISSUES).getState()).isEqualTo(StartupIndexingStatus.State.DONE);
+    assertThat(underTest.getAll().get(RULES).getState()).isEqualTo(StartupIndexingStatus.State.FAILED);
+    assertThat(underTest.hasUnfinishedTypes()).isTrue();
+  }
+
+  @Test
+  public void getAll_is_sorted_by_index_and_type() {
+    underTest.setPending(asList(RULES, ISSUES));
+
+    assertThat(underTest.getAll().keySet()).containsExactly(ISSUES, RULES);
+  }
+}
@@ -69,6 +69,7 @@ public class ProjectMeasuresIndexTest {
   private static final String DUPLICATION = "duplicated_lines_density";
   private static final String NCLOC = "ncloc";
   private static final String LANGUAGE = "language";
+  private static final String PLUGIN_METRIC = "plugin_metric";
 
   private static final OrganizationDto ORG = OrganizationTesting.newOrganizationDto();
   private static final ComponentDto PROJECT1 = newProjectDto(ORG).setUuid("Project-1").setName("Project 1").setKey("key-1");
@@ -85,7 +86,7 @@ public class ProjectMeasuresIndexTest {
   @Rule
   public UserSessionRule userSession = UserSessionRule.standalone();
 
-  private ProjectMeasuresIndexer projectMeasureIndexer = new ProjectMeasuresIndexer(null, es.client());
+  private ProjectMeasuresIndexer projectMeasureIndexer = new ProjectMeasuresIndexer(null, es.client(), es.indexRebuilds());
   private PermissionIndexerTester authorizationIndexerTester = new PermissionIndexerTester(es, projectMeasureIndexer);
   private ProjectMeasuresIndex underTest = new ProjectMeasuresIndex(es.client(), new AuthorizationTypeSupport(userSession));
 
@@ -127,6 +128,17 @@ public class ProjectMeasuresIndexTest {
     assertResults(new ProjectMeasuresQuery().setSort("ncloc").setAsc(false), PROJECT2, PROJECT1, PROJECT3);
   }
 
+  @Test
+  public void sort_by_a_metric_which_is_not_a_core_metric() {
+    index(
+      newDoc(PROJECT1, PLUGIN_METRIC, 2d),
+      newDoc(PROJECT2, PLUGIN_METRIC, 3d),
+      newDoc(PROJECT3, PLUGIN_METRIC, 1d));
+
+    assertResults(new ProjectMeasuresQuery().setSort(PLUGIN_METRIC).setAsc(true), PROJECT3, PROJECT1, PROJECT2);
+    assertResults(new ProjectMeasuresQuery().setSort(PLUGIN_METRIC).setAsc(false), PROJECT2, PROJECT1, PROJECT3);
+  }
+
   @Test
   public void sort_by_a_metric_then_by_name_then_by_key() {
     ComponentDto windows = newProjectDto(ORG).setUuid("windows").setName("Windows").setKey("project1");
@@ -264,6 +276,19 @@ public class ProjectMeasuresIndexTest {
     assertResults(esQuery, PROJECT2);
   }
 
+  @Test
+  public void filter_on_a_core_metric_and_on_a_metric_which_is_not_a_core_metric() {
+    index(
+      newDoc(PROJECT1, COVERAGE, 81d, PLUGIN_METRIC, 5d),
+      newDoc(PROJECT2, COVERAGE, 80d, PLUGIN_METRIC, 10d),
+      newDoc(PROJECT3, COVERAGE, 79d, PLUGIN_METRIC, 10d));
+
+    ProjectMeasuresQuery esQuery = new ProjectMeasuresQuery()
+      .addMetricCriterion(new MetricCriterion(COVERAGE, Operator.GTE, 80d))
+      .addMetricCriterion(new MetricCriterion(PLUGIN_METRIC, Operator.EQ, 10d));
+    assertResults(esQuery, PROJECT2);
+  }
+
   @Test
   public void filter_on_quality_gate_status() {
     index(
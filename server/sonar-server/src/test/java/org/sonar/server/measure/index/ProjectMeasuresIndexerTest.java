@@ -61,7 +61,7 @@ public class ProjectMeasuresIndexerTest {
   public DbTester dbTester = DbTester.create(system2);
 
   private ComponentDbTester componentDbTester = new ComponentDbTester(dbTester);
-  private ProjectMeasuresIndexer underTest = new ProjectMeasuresIndexer(dbTester.getDbClient(), esTester.client());
+  private ProjectMeasuresIndexer underTest = new ProjectMeasuresIndexer(dbTester.getDbClient(), esTester.client(), esTester.indexRebuilds());
 
   @Test
   public void index_on_startup() {
@@ -23,9 +23,11 @@ import java.util.Arrays;
 import org.junit.Before;
 import org.junit.Rule;
 import org.junit.Test;
+import org.sonar.api.config.MapSettings;
 import org.sonar.api.utils.System2;
 import org.sonar.db.DbClient;
 import org.sonar.db.DbTester;
+import org.sonar.db.ReadReplicaConsistency;
 import org.sonar.db.metric.MetricDao;
 
 import static org.hamcrest.core.Is.is;
@@ -43,7 +45,7 @@ public class DefaultMetricFinderTest {
   @Before
   public void setUp() {
     dbTester.prepareDbUnit(DefaultMetricFinderTest.class, "shared.xml");
-    finder = new DefaultMetricFinder(new DbClient(dbTester.database(), dbTester.myBatis(), new MetricDao()));
+    finder = new DefaultMetricFinder(new DbClient(dbTester.database(), dbTester.myBatis(), new ReadReplicaConsistency(new MapSettings(), System2.INSTANCE), new MetricDao()));
   }
 
   @Test
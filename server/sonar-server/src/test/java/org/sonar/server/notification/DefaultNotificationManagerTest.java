@@ -24,6 +24,7 @@ import com.google.common.collect.Multimap;
 import java.io.InvalidClassException;
 import java.util.Arrays;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.List;
 import java.util.Map;
 import org.junit.Before;
@@ -41,6 +42,7 @@ import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.Matchers.any;
 import static org.mockito.Mockito.inOrder;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.only;
 import static org.mockito.Mockito.spy;
 import static org.mockito.Mockito.times;
@@ -121,6 +123,65 @@ public class DefaultNotificationManagerTest {
     verify(manager, times(1)).logDeserializationIssue();
   }
 
+  @Test
+  public void readFromQueue_returns_batch_of_notifications_without_removing_them() {
+    Notification notification1 = new Notification("test1");
+    Notification notification2 = new Notification("test2");
+    List<NotificationQueueDto> dtos = Arrays.asList(NotificationQueueDto.toNotificationQueueDto(notification1), NotificationQueueDto.toNotificationQueueDto(notification2));
+    when(notificationQueueDao.selectOldest(10)).thenReturn(dtos);
+
+    DefaultNotificationManager.QueuedNotifications queued = manager.readFromQueue(10);
+
+    assertThat(queued.getNotifications()).containsExactly(notification1, notification2);
+    assertThat(queued.size()).isEqualTo(2);
+    verify(notificationQueueDao, never()).delete(any(List.class));
+
+    manager.removeFromQueue(queued);
+
+    verify(notificationQueueDao).delete(dtos);
+  }
+
+  @Test
+  public void notifications_which_can_not_be_deserialized_are_removed_with_the_batch() throws Exception {
+    Notification notification = new Notification("test");
+    NotificationQueueDto invalidDto = mock(NotificationQueueDto.class);
+    when(invalidDto.toNotification()).thenThrow(new InvalidClassException("Pouet"));
+    List<NotificationQueueDto> dtos = Arrays.asList(invalidDto, NotificationQueueDto.toNotificationQueueDto(notification));
+    when(notificationQueueDao.selectOldest(10)).thenReturn(dtos);
+
+    DefaultNotificationManager.QueuedNotifications queued = manager.readFromQueue(10);
+    manager.removeFromQueue(queued);
+
+    assertThat(queued.getNotifications()).containsExactly(notification);
+    verify(notificationQueueDao).delete(dtos);
+  }
+
+  @Test
+  public void readFromQueue_returns_empty_batch_if_queue_is_empty() {
+    when(notificationQueueDao.selectOldest(10)).thenReturn(Collections.emptyList());
+
+    DefaultNotificationManager.QueuedNotifications queued = manager.readFromQueue(10);
+    manager.removeFromQueue(queued);
+
+    assertThat(queued.isEmpty()).isTrue();
+    assertThat(queued.getNotifications()).isEmpty();
+    verify(notificationQueueDao, never()).delete(any(List.class));
+  }
+
+  @Test
+  public void subscribers_are_loaded_once_when_cache_is_started() {
+    when(propertiesDao.selectNotificationSubscribers("NewViolations", "Email", "PROJECT")).thenReturn(Lists.newArrayList("user1"));
+
+    manager.startSubscribersCache();
+    assertThat(manager.findNotificationSubscribers(dispatcher, "PROJECT").keySet()).containsOnly("user1");
+    assertThat(manager.findNotificationSubscribers(dispatcher, "PROJECT").keySet()).containsOnly("user1");
+    verify(propertiesDao, times(1)).selectNotificationSubscribers("NewViolations", "Email", "PROJECT");
+
+    manager.stopSubscribersCache();
+    manager.findNotificationSubscribers(dispatcher, "PROJECT");
+    verify(propertiesDao, times(2)).selectNotificationSubscribers("NewViolations", "Email", "PROJECT");
+  }
+
   @Test
   public void shouldFindNoRecipient() {
     assertThat(manager.findSubscribedRecipientsForDispatcher(dispatcher, "uuid_45").asMap().entrySet()).hasSize(0);
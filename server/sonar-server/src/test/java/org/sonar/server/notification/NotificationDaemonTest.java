@@ -21,20 +21,33 @@ package org.sonar.server.notification;
 
 import com.google.common.collect.Sets;
 import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import org.junit.Rule;
 import org.junit.Test;
+import org.mockito.InOrder;
 import org.mockito.invocation.InvocationOnMock;
 import org.mockito.stubbing.Answer;
 import org.sonar.api.config.Settings;
 import org.sonar.api.config.MapSettings;
 import org.sonar.api.notifications.Notification;
 import org.sonar.api.notifications.NotificationChannel;
+import org.sonar.api.utils.log.LogTester;
+import org.sonar.api.utils.log.LoggerLevel;
 import org.sonar.db.DbClient;
+import org.sonar.db.notification.NotificationQueueDto;
 import org.sonar.db.property.PropertiesDao;
+import org.sonar.server.notification.DefaultNotificationManager.QueuedNotifications;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.Mockito.any;
+import static org.mockito.Mockito.anyInt;
+import static org.mockito.Mockito.atLeastOnce;
 import static org.mockito.Mockito.anyString;
 import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.inOrder;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.same;
@@ -44,6 +57,10 @@ import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 public class NotificationDaemonTest {
+
+  @Rule
+  public LogTester logTester = new LogTester();
+
   private static String CREATOR_SIMON = "simon";
   private static String CREATOR_EVGENY = "evgeny";
   private static String ASSIGNEE_SIMON = "simon";
@@ -68,7 +85,7 @@ public class NotificationDaemonTest {
     when(commentOnIssueCreatedByMe.getType()).thenReturn("issue-changes");
     when(qualityGateChange.getKey()).thenReturn("QGateChange");
     when(qualityGateChange.getType()).thenReturn("qgate-changes");
-    when(manager.getFromQueue()).thenReturn(notification).thenReturn(null);
+    when(manager.readFromQueue(anyInt())).thenReturn(queued(notification)).thenReturn(queued());
 
     Settings settings = new MapSettings().setProperty("sonar.notifications.delay", 1L);
 
@@ -174,7 +191,7 @@ public class NotificationDaemonTest {
   @Test
   public void shouldNotStopWhenException() {
     setUpMocks();
-    when(manager.getFromQueue()).thenThrow(new RuntimeException("Unexpected exception")).thenReturn(notification).thenReturn(null);
+    when(manager.readFromQueue(anyInt())).thenThrow(new RuntimeException("Unexpected exception")).thenReturn(queued(notification)).thenReturn(queued());
     doAnswer(addUser(ASSIGNEE_SIMON, emailChannel)).when(commentOnIssueAssignedToMe).dispatch(same(notification), any(NotificationDispatcher.Context.class));
     doAnswer(addUser(CREATOR_SIMON, emailChannel)).when(commentOnIssueCreatedByMe).dispatch(same(notification), any(NotificationDispatcher.Context.class));
 
@@ -185,6 +202,79 @@ public class NotificationDaemonTest {
     verify(gtalkChannel, never()).deliver(notification, ASSIGNEE_SIMON);
   }
 
+  @Test
+  public void deliver_notifications_by_batches() {
+    setUpMocks();
+    Notification otherNotification = mock(Notification.class);
+    when(manager.readFromQueue(anyInt())).thenReturn(queued(notification, otherNotification)).thenReturn(queued());
+    doAnswer(addUser(ASSIGNEE_SIMON, emailChannel)).when(commentOnIssueAssignedToMe).dispatch(any(Notification.class), any(NotificationDispatcher.Context.class));
+    doAnswer(addUser(CREATOR_EVGENY, gtalkChannel)).when(commentOnIssueCreatedByMe).dispatch(any(Notification.class), any(NotificationDispatcher.Context.class));
+
+    underTest.start();
+    verify(emailChannel, timeout(2000)).deliver(notification, ASSIGNEE_SIMON);
+    verify(emailChannel, timeout(2000)).deliver(otherNotification, ASSIGNEE_SIMON);
+    verify(gtalkChannel, timeout(2000)).deliver(notification, CREATOR_EVGENY);
+    verify(gtalkChannel, timeout(2000)).deliver(otherNotification, CREATOR_EVGENY);
+    verify(manager, timeout(2000)).stopSubscribersCache();
+    underTest.stop();
+
+    verify(manager, atLeastOnce()).readFromQueue(100);
+    verify(manager).startSubscribersCache();
+    assertThat(underTest.getSentCount()).isEqualTo(2);
+  }
+
+  @Test
+  public void notifications_are_removed_from_queue_once_delivered() {
+    setUpMocks();
+    QueuedNotifications queued = queued(notification);
+    when(manager.readFromQueue(anyInt())).thenReturn(queued).thenReturn(queued());
+    doAnswer(addUser(ASSIGNEE_SIMON, emailChannel)).when(commentOnIssueAssignedToMe).dispatch(same(notification), any(NotificationDispatcher.Context.class));
+
+    underTest.start();
+    verify(manager, timeout(2000)).removeFromQueue(queued);
+    underTest.stop();
+
+    InOrder inOrder = inOrder(emailChannel, manager);
+    inOrder.verify(emailChannel).deliver(notification, ASSIGNEE_SIMON);
+    inOrder.verify(manager).removeFromQueue(queued);
+    assertThat(logTester.logs(LoggerLevel.WARN)).isEmpty();
+  }
+
+  @Test
+  public void notifications_stay_in_queue_if_delivery_is_interrupted_by_stop() throws Exception {
+    setUpMocks();
+    CountDownLatch deliveryStarted = new CountDownLatch(1);
+    CountDownLatch endOfDelivery = new CountDownLatch(1);
+    doAnswer(addUser(ASSIGNEE_SIMON, emailChannel)).when(commentOnIssueAssignedToMe).dispatch(same(notification), any(NotificationDispatcher.Context.class));
+    doAnswer(invocation -> {
+      deliveryStarted.countDown();
+      endOfDelivery.await();
+      return true;
+    }).when(emailChannel).deliver(notification, ASSIGNEE_SIMON);
+    underTest.stopTimeoutInMs = 100L;
+
+    underTest.start();
+    assertThat(deliveryStarted.await(2, TimeUnit.SECONDS)).isTrue();
+    underTest.stop();
+    endOfDelivery.countDown();
+
+    verify(manager, never()).removeFromQueue(any(QueuedNotifications.class));
+    assertThat(underTest.getSentCount()).isEqualTo(0);
+    assertThat(logTester.logs(LoggerLevel.WARN)).contains("Delivery of 1 notifications is interrupted. They will be delivered again at next startup.");
+  }
+
+  @Test
+  public void batch_size_and_delivery_threads_are_configurable() {
+    Settings settings = new MapSettings()
+      .setProperty("sonar.notifications.batchSize", 20)
+      .setProperty("sonar.notifications.deliveryThreads", 2);
+
+    underTest = new NotificationDaemon(settings, manager, service);
+
+    assertThat(underTest.getBatchSize()).isEqualTo(20);
+    assertThat(underTest.getDeliveryThreads()).isEqualTo(2);
+  }
+
   @Test
   public void shouldNotAddNullAsUser() {
     setUpMocks();
@@ -216,7 +306,7 @@ public class NotificationDaemonTest {
   public void shouldLogEvery10Minutes() {
     setUpMocks();
     // Emulate 2 notifications in DB
-    when(manager.getFromQueue()).thenReturn(notification).thenReturn(notification).thenReturn(null);
+    when(manager.readFromQueue(anyInt())).thenReturn(queued(notification)).thenReturn(queued(notification)).thenReturn(queued());
     when(manager.count()).thenReturn(1L).thenReturn(0L);
     underTest = spy(underTest);
     // Emulate processing of each notification take 10 min to have a log each time
@@ -243,6 +333,11 @@ public class NotificationDaemonTest {
     assertThat(service.hasProjectSubscribersForTypes("PROJECT_UUID", Sets.newHashSet("issue-changes"))).isTrue();
   }
 
+  private static QueuedNotifications queued(Notification... notifications) {
+    List<NotificationQueueDto> dtos = Arrays.stream(notifications).map(n -> mock(NotificationQueueDto.class)).collect(Collectors.toList());
+    return new QueuedNotifications(dtos, Arrays.asList(notifications));
+  }
+
   private static Answer<Object> addUser(final String user, final NotificationChannel channel) {
     return addUser(user, new NotificationChannel[]{channel});
   }
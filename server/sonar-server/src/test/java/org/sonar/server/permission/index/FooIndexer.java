@@ -23,6 +23,7 @@ import com.google.common.collect.ImmutableMap;
 import org.sonar.server.component.index.ComponentIndexDefinition;
 import org.sonar.server.es.BulkIndexer;
 import org.sonar.server.es.EsClient;
+import org.sonar.server.es.IndexRebuilds;
 import org.sonar.server.es.ProjectIndexer;
 
 import static org.elasticsearch.index.query.QueryBuilders.boolQuery;
@@ -36,9 +37,11 @@ public class FooIndexer implements ProjectIndexer, NeedAuthorizationIndexer {
   private static final AuthorizationScope AUTHORIZATION_SCOPE = new AuthorizationScope(INDEX_TYPE_FOO, p -> true);
 
   private final EsClient esClient;
+  private final IndexRebuilds rebuilds;
 
-  public FooIndexer(EsClient esClient) {
+  public FooIndexer(EsClient esClient, IndexRebuilds rebuilds) {
     this.esClient = esClient;
+    this.rebuilds = rebuilds;
   }
 
   @Override
@@ -64,7 +67,7 @@ public class FooIndexer implements ProjectIndexer, NeedAuthorizationIndexer {
 
   @Override
   public void deleteProject(String projectUuid) {
-    BulkIndexer.delete(esClient, FOO_INDEX, esClient.prepareSearch(FOO_INDEX)
+    BulkIndexer.delete(esClient, rebuilds, FOO_INDEX, esClient.prepareSearch(FOO_INDEX)
       .setTypes(FOO_TYPE)
       .setQuery(boolQuery()
         .filter(
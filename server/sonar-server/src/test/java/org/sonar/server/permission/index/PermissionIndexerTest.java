@@ -58,9 +58,9 @@ public class PermissionIndexerTest {
   private ComponentDbTester componentDbTester = new ComponentDbTester(dbTester);
   private UserDbTester userDbTester = new UserDbTester(dbTester);
   private FooIndex fooIndex = new FooIndex(esTester.client(), new AuthorizationTypeSupport(userSession));
-  private FooIndexer fooIndexer = new FooIndexer(esTester.client());
+  private FooIndexer fooIndexer = new FooIndexer(esTester.client(), esTester.indexRebuilds());
   private PermissionIndexer underTest = new PermissionIndexer(
-    dbTester.getDbClient(), esTester.client(), fooIndexer);
+    dbTester.getDbClient(), esTester.client(), esTester.indexRebuilds(), fooIndexer);
 
   @Test
   public void initializeOnStartup_grants_access_to_user() {
@@ -58,7 +58,7 @@ public class BackendCleanupTest {
   @Rule
   public DbTester dbTester = DbTester.create(System2.INSTANCE);
 
-  private BackendCleanup underTest = new BackendCleanup(esTester.client(), dbTester.getDbClient());
+  private BackendCleanup underTest = new BackendCleanup(esTester.client(), esTester.indexRebuilds(), dbTester.getDbClient());
   private OrganizationDto organization;
 
   @Before
@@ -63,4 +63,10 @@ public class DatabaseMonitorTest {
     Map<String, Object> attributes = underTest.attributes();
     assertThat((int) attributes.get("Pool Max Connections")).isGreaterThan(0);
   }
+
+  @Test
+  public void no_read_replica_pool_info_when_read_replica_is_not_configured() {
+    Map<String, Object> attributes = underTest.attributes();
+    assertThat(attributes).doesNotContainKey("Read Replica Pool Max Connections");
+  }
 }
@@ -0,0 +1,58 @@
+/*
+ * SonarQube
+ * Copyright (C) 2009-2017 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.server.platform.monitoring;
+
+import java.util.Map;
+import org.junit.Test;
+import org.sonar.server.notification.DefaultNotificationManager;
+import org.sonar.server.notification.NotificationDaemon;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class NotificationQueueMonitorTest {
+
+  private DefaultNotificationManager manager = mock(DefaultNotificationManager.class);
+  private NotificationDaemon daemon = mock(NotificationDaemon.class);
+  private NotificationQueueMonitor underTest = new NotificationQueueMonitor(manager, daemon);
+
+  @Test
+  public void name_is_not_empty() {
+    assertThat(underTest.name()).isNotEmpty();
+  }
+
+  @Test
+  public void queue_activity() {
+    when(manager.count()).thenReturn(12L);
+    when(daemon.getSentCount()).thenReturn(150L);
+    when(daemon.getLastBatchDurationInMs()).thenReturn(2_000L);
+    when(daemon.getBatchSize()).thenReturn(100);
+    when(daemon.getDeliveryThreads()).thenReturn(4);
+
+    Map<String, Object> attributes = underTest.attributes();
+
+    assertThat(attributes).containsEntry("Pending Notifications", 12L);
+    assertThat(attributes).containsEntry("Sent Notifications", 150L);
+    assertThat(attributes).containsEntry("Last Batch Duration (ms)", 2_000L);
+    assertThat(attributes).containsEntry("Batch Size", 100);
+    assertThat(attributes).containsEntry("Delivery Threads", 4);
+  }
+}
@@ -27,11 +27,14 @@ import org.junit.Test;
 import org.sonar.api.platform.Server;
 import org.sonar.api.server.ws.Request;
 import org.sonar.api.server.ws.WebService;
+import org.sonar.api.utils.internal.TestSystem2;
 import org.sonar.db.DbClient;
 import org.sonar.db.DbSession;
 import org.sonar.db.IsAliveMapper;
 import org.sonar.server.app.RestartFlagHolder;
 import org.sonar.server.app.RestartFlagHolderImpl;
+import org.sonar.server.es.IndexType;
+import org.sonar.server.es.StartupIndexingStatus;
 import org.sonar.server.platform.Platform;
 import org.sonar.server.platform.db.migration.DatabaseMigrationState;
 import org.sonar.server.ws.WsTester;
@@ -41,6 +44,7 @@ import static com.google.common.base.Predicates.not;
 import static com.google.common.collect.ImmutableSet.of;
 import static com.google.common.collect.Iterables.filter;
 import static java.util.Arrays.asList;
+import static java.util.Collections.singletonList;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.Matchers.anyBoolean;
 import static org.mockito.Mockito.mock;
@@ -69,7 +73,9 @@ public class StatusActionTest {
   private DbSession dbSession = mock(DbSession.class);
   private IsAliveMapper isAliveMapper = mock(IsAliveMapper.class);
   private RestartFlagHolder restartFlagHolder = new RestartFlagHolderImpl();
-  private StatusAction underTest = new StatusAction(server, migrationState, platform, dbClient, restartFlagHolder);
+  private TestSystem2 system2 = new TestSystem2().setNow(1_500_000_000_000L);
+  private StartupIndexingStatus startupIndexingStatus = new StartupIndexingStatus(system2);
+  private StatusAction underTest = new StatusAction(server, migrationState, platform, dbClient, restartFlagHolder, startupIndexingStatus);
 
   private Request request = mock(Request.class);
 
@@ -173,6 +179,41 @@ public class StatusActionTest {
     verifyStatus(Platform.Status.STARTING, DatabaseMigrationState.Status.FAILED, STATUS_DOWN);
   }
 
+  @Test
+  public void indexing_progress_is_returned_if_startup_indexing_is_not_finished() throws Exception {
+    IndexType issues = new IndexType("issues", "issue");
+    IndexType rules = new IndexType("rules", "rule");
+    startupIndexingStatus.setPending(asList(issues, rules));
+    startupIndexingStatus.setInProgress(singletonList(rules));
+    when(isAliveMapper.isAlive()).thenReturn(IsAliveMapper.IS_ALIVE_RETURNED_VALUE);
+    when(platform.status()).thenReturn(Platform.Status.UP);
+
+    WsTester.TestResponse response = new WsTester.TestResponse();
+    underTest.handle(request, response);
+
+    assertJson(response.outputAsString()).isSimilarTo("{" +
+      "  \"status\": \"UP\"," +
+      "  \"indexing\": [" +
+      "    {\"index\": \"issues\", \"type\": \"issue\", \"status\": \"PENDING\"}," +
+      "    {\"index\": \"rules\", \"type\": \"rule\", \"status\": \"IN_PROGRESS\"}" +
+      "  ]" +
+      "}");
+  }
+
+  @Test
+  public void indexing_progress_is_not_returned_once_startup_indexing_is_finished() throws Exception {
+    IndexType issues = new IndexType("issues", "issue");
+    startupIndexingStatus.setInProgress(singletonList(issues));
+    startupIndexingStatus.setDone(issues);
+    when(isAliveMapper.isAlive()).thenReturn(IsAliveMapper.IS_ALIVE_RETURNED_VALUE);
+    when(platform.status()).thenReturn(Platform.Status.UP);
+
+    WsTester.TestResponse response = new WsTester.TestResponse();
+    underTest.handle(request, response);
+
+    assertThat(response.outputAsString()).doesNotContain("indexing");
+  }
+
   @Test
   public void status_is_DOWN_if_any_error_occurs_when_checking_DB() throws Exception {
     when(isAliveMapper.isAlive()).thenThrow(new RuntimeException("simulated runtime exception when querying DB"));
@@ -0,0 +1,142 @@
+/*
+ * SonarQube
+ * Copyright (C) 2009-2017 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.server.plugins;
+
+import java.io.File;
+import java.util.Optional;
+import org.apache.commons.io.FileUtils;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.sonar.core.platform.ExplodedPlugin;
+import org.sonar.core.platform.PluginInfo;
+import org.sonar.server.platform.ServerFileSystem;
+
+import static java.util.Arrays.asList;
+import static java.util.Collections.singletonList;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class ExplodedPluginCacheTest {
+
+  @Rule
+  public TemporaryFolder temp = new TemporaryFolder();
+
+  private ServerFileSystem fs = mock(ServerFileSystem.class);
+  private ExplodedPluginCache underTest = new ExplodedPluginCache(fs);
+  private File dataDir;
+
+  @Before
+  public void setUp() throws Exception {
+    dataDir = temp.newFolder();
+    when(fs.getDataDir()).thenReturn(dataDir);
+  }
+
+  @Test
+  public void get_explodes_plugin_in_cache() throws Exception {
+    PluginInfo info = PluginInfo.create(TestProjectUtils.jarOf("test-libs-plugin"));
+
+    ExplodedPlugin exploded = underTest.get(info).get();
+
+    File cacheDir = new File(dataDir, "plugins-cache");
+    assertThat(exploded.getKey()).isEqualTo("testlibs");
+    assertThat(exploded.getMain()).isFile().hasName(info.getNonNullJarFile().getName());
+    assertThat(exploded.getMain().getCanonicalPath()).startsWith(cacheDir.getCanonicalPath());
+    assertThat(exploded.getLibs()).extracting("name").containsOnly("commons-daemon-1.0.15.jar", "commons-email-20030310.165926.jar");
+    File entryDir = exploded.getMain().getParentFile().getParentFile();
+    assertThat(new File(entryDir, "complete")).isFile();
+  }
+
+  @Test
+  public void get_reuses_complete_entry() throws Exception {
+    PluginInfo info = PluginInfo.create(TestProjectUtils.jarOf("test-libs-plugin"));
+    ExplodedPlugin exploded1 = underTest.get(info).get();
+    File lib = exploded1.getLibs().iterator().next();
+    FileUtils.forceDelete(lib);
+
+    ExplodedPlugin exploded2 = new ExplodedPluginCache(fs).get(info).get();
+
+    // entry is not populated again
+    assertThat(exploded2.getMain()).isEqualTo(exploded1.getMain());
+    assertThat(lib).doesNotExist();
+    assertThat(exploded2.getLibs()).hasSize(1);
+  }
+
+  @Test
+  public void get_populates_again_entry_which_is_not_complete() throws Exception {
+    PluginInfo info = PluginInfo.create(TestProjectUtils.jarOf("test-libs-plugin"));
+    ExplodedPlugin exploded1 = underTest.get(info).get();
+    File entryDir = exploded1.getMain().getParentFile().getParentFile();
+    FileUtils.forceDelete(new File(entryDir, "complete"));
+    FileUtils.forceDelete(exploded1.getLibs().iterator().next());
+
+    ExplodedPlugin exploded2 = underTest.get(info).get();
+
+    assertThat(exploded2.getLibs()).hasSize(2);
+    assertThat(new File(entryDir, "complete")).isFile();
+  }
+
+  @Test
+  public void get_returns_empty_if_data_dir_is_not_defined() {
+    when(fs.getDataDir()).thenReturn(null);
+
+    assertThat(underTest.get(PluginInfo.create(TestProjectUtils.jarOf("test-libs-plugin")))).isEmpty();
+  }
+
+  @Test
+  public void get_returns_empty_if_cache_can_not_be_written() throws Exception {
+    File notADirectory = temp.newFile();
+    when(fs.getDataDir()).thenReturn(notADirectory);
+
+    Optional<ExplodedPlugin> exploded = underTest.get(PluginInfo.create(TestProjectUtils.jarOf("test-libs-plugin")));
+
+    assertThat(exploded).isEmpty();
+  }
+
+  @Test
+  public void populate_explodes_all_plugins() throws Exception {
+    PluginInfo info1 = PluginInfo.create(TestProjectUtils.jarOf("test-libs-plugin"));
+    PluginInfo info2 = PluginInfo.create(TestProjectUtils.jarOf("test-base-plugin"));
+
+    underTest.populate(asList(info1, info2));
+
+    File[] entries = new File(dataDir, "plugins-cache").listFiles(File::isDirectory);
+    assertThat(entries).hasSize(2);
+    for (File entry : entries) {
+      assertThat(new File(entry, "complete")).isFile();
+    }
+  }
+
+  @Test
+  public void deleteUnused_deletes_entries_of_other_plugins() throws Exception {
+    PluginInfo info1 = PluginInfo.create(TestProjectUtils.jarOf("test-libs-plugin"));
+    PluginInfo info2 = PluginInfo.create(TestProjectUtils.jarOf("test-base-plugin"));
+    ExplodedPlugin exploded1 = underTest.get(info1).get();
+    ExplodedPlugin exploded2 = underTest.get(info2).get();
+
+    underTest.deleteUnused(singletonList(info1));
+
+    assertThat(exploded1.getMain()).exists();
+    assertThat(exploded2.getMain()).doesNotExist();
+    assertThat(new File(dataDir, "plugins-cache").listFiles(File::isDirectory)).hasSize(1);
+  }
+}
@@ -20,14 +20,22 @@
 package org.sonar.server.plugins;
 
 import java.io.File;
+import java.util.List;
+import java.util.Optional;
+import org.junit.Before;
 import org.junit.Rule;
 import org.junit.Test;
 import org.junit.rules.TemporaryFolder;
+import org.mockito.InOrder;
 import org.sonar.core.platform.ExplodedPlugin;
 import org.sonar.core.platform.PluginInfo;
 import org.sonar.server.platform.ServerFileSystem;
 
+import static java.util.Collections.emptyList;
+import static java.util.Collections.singletonList;
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.inOrder;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.when;
 
@@ -37,7 +45,41 @@ public class ServerPluginJarExploderTest {
   public TemporaryFolder temp = new TemporaryFolder();
 
   ServerFileSystem fs = mock(ServerFileSystem.class);
-  ServerPluginJarExploder underTest = new ServerPluginJarExploder(fs);
+  ExplodedPluginCache cache = mock(ExplodedPluginCache.class);
+  ServerPluginJarExploder underTest = new ServerPluginJarExploder(fs, cache);
+
+  @Before
+  public void setUp() {
+    when(cache.get(any(PluginInfo.class))).thenReturn(Optional.empty());
+  }
+
+  @Test
+  public void prepare_deletes_unused_entries_then_populates_cache() {
+    List<PluginInfo> infos = singletonList(PluginInfo.create(TestProjectUtils.jarOf("test-libs-plugin")));
+
+    underTest.prepare(infos);
+
+    InOrder inOrder = inOrder(cache);
+    inOrder.verify(cache).deleteUnused(infos);
+    inOrder.verify(cache).populate(infos);
+  }
+
+  @Test
+  public void load_plugin_from_cache_but_publish_jar_in_deploy_directory() throws Exception {
+    File deployDir = temp.newFolder();
+    when(fs.getDeployedPluginsDir()).thenReturn(deployDir);
+    File jar = TestProjectUtils.jarOf("test-libs-plugin");
+    PluginInfo info = PluginInfo.create(jar);
+    ExplodedPlugin cached = new ExplodedPlugin("testlibs", jar, emptyList());
+    when(cache.get(info)).thenReturn(Optional.of(cached));
+
+    ExplodedPlugin exploded = underTest.explode(info);
+
+    assertThat(exploded).isSameAs(cached);
+    File pluginDeployDir = new File(deployDir, "testlibs");
+    assertThat(new File(pluginDeployDir, jar.getName())).isFile();
+    assertThat(new File(pluginDeployDir, "META-INF")).doesNotExist();
+  }
 
   @Test
   public void copy_all_classloader_files_to_dedicated_directory() throws Exception {
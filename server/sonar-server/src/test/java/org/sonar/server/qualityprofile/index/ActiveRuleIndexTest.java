@@ -68,8 +68,8 @@ public class ActiveRuleIndexTest {
 
   @Before
   public void setUp() {
-    activeRuleIndexer = new ActiveRuleIndexer(system2, null, tester.client());
-    ruleIndexer = new RuleIndexer(system2, null, tester.client());
+    activeRuleIndexer = new ActiveRuleIndexer(system2, null, tester.client(), tester.indexRebuilds());
+    ruleIndexer = new RuleIndexer(system2, null, tester.client(), tester.indexRebuilds());
     index = new ActiveRuleIndex(tester.client());
   }
 
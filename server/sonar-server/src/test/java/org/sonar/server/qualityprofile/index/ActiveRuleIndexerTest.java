@@ -63,7 +63,7 @@ public class ActiveRuleIndexerTest {
   @Rule
   public DbTester dbTester = DbTester.create(System2.INSTANCE);
 
-  private ActiveRuleIndexer indexer = new ActiveRuleIndexer(system2, dbTester.getDbClient(), esTester.client());
+  private ActiveRuleIndexer indexer = new ActiveRuleIndexer(system2, dbTester.getDbClient(), esTester.client(), esTester.indexRebuilds());
 
   private OrganizationDto organization = OrganizationTesting.newOrganizationDto();
 
@@ -83,9 +83,9 @@ public class RegisterRulesTest {
   @Before
   public void before() {
     when(system.now()).thenReturn(DATE1.getTime());
-    ruleIndexer = new RuleIndexer(system, dbClient, esTester.client());
+    ruleIndexer = new RuleIndexer(system, dbClient, esTester.client(), esTester.indexRebuilds());
     ruleIndex = new RuleIndex(esTester.client());
-    activeRuleIndexer = new ActiveRuleIndexer(system, dbClient, esTester.client());
+    activeRuleIndexer = new ActiveRuleIndexer(system, dbClient, esTester.client(), esTester.indexRebuilds());
   }
 
   @Test
@@ -85,8 +85,8 @@ public class RuleIndexTest {
 
   @Before
   public void setUp() {
-    ruleIndexer = new RuleIndexer(system2, null, tester.client());
-    activeRuleIndexer = new ActiveRuleIndexer(system2, null, tester.client());
+    ruleIndexer = new RuleIndexer(system2, null, tester.client(), tester.indexRebuilds());
+    activeRuleIndexer = new ActiveRuleIndexer(system2, null, tester.client(), tester.indexRebuilds());
     index = new RuleIndex(tester.client());
   }
 
@@ -102,7 +102,7 @@ public class RuleIndexerTest {
   }
 
   private RuleIndexer createIndexer() {
-    return new RuleIndexer(system2, dbTester.getDbClient(), esTester.client());
+    return new RuleIndexer(system2, dbTester.getDbClient(), esTester.client(), esTester.indexRebuilds());
   }
 
 }
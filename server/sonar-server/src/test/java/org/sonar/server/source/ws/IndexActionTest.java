@@ -41,6 +41,7 @@ import org.sonar.server.tester.UserSessionRule;
 import org.sonar.server.ws.WsTester;
 
 import static com.google.common.collect.Lists.newArrayList;
+import static org.mockito.Matchers.anyString;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
@@ -70,7 +71,7 @@ public class IndexActionTest {
   @Before
   public void setUp() {
     when(dbClient.componentDao()).thenReturn(componentDao);
-    when(dbClient.openSession(false)).thenReturn(session);
+    when(dbClient.openReadOnlySession(anyString())).thenReturn(session);
     tester = new WsTester(new SourcesWs(new IndexAction(dbClient, sourceService, userSessionRule, new ComponentFinder(dbClient))));
   }
 
@@ -41,6 +41,7 @@ import org.sonar.server.ws.WsTester;
 
 import static com.google.common.collect.Lists.newArrayList;
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Matchers.anyString;
 import static org.mockito.Mockito.when;
 
 @RunWith(MockitoJUnitRunner.class)
@@ -69,7 +70,7 @@ public class RawActionTest {
   @Before
   public void setUp() {
     when(dbClient.componentDao()).thenReturn(componentDao);
-    when(dbClient.openSession(false)).thenReturn(session);
+    when(dbClient.openReadOnlySession(anyString())).thenReturn(session);
     tester = new WsTester(new SourcesWs(new RawAction(dbClient, sourceService, userSessionRule, new ComponentFinder(dbClient))));
   }
 
@@ -62,7 +62,7 @@ public class ClearRulesOverloadedDebtTest {
   private DbClient dbClient = tester.getDbClient();
   private DbSession dbSession = tester.getSession();
   private RuleDao ruleDao = new RuleDao();
-  private RuleIndexer ruleIndexer = new RuleIndexer(system2, dbClient, esTester.client());
+  private RuleIndexer ruleIndexer = new RuleIndexer(system2, dbClient, esTester.client(), esTester.indexRebuilds());
 
   private ClearRulesOverloadedDebt underTest = new ClearRulesOverloadedDebt(system2, dbClient, ruleIndexer);
 
@@ -27,6 +27,7 @@ import java.util.ArrayList;
 import java.util.List;
 import org.apache.commons.lang.RandomStringUtils;
 import org.apache.commons.lang.math.RandomUtils;
+import org.sonar.core.util.LineRanges;
 import org.sonar.core.util.Uuids;
 import org.sonar.db.DbSession;
 import org.sonar.db.component.ComponentDto;
@@ -90,7 +91,7 @@ public class TestTesting {
     test.addCoveredFile(
       DbFileSources.Test.CoveredFile.newBuilder()
         .setFileUuid(mainFile.uuid())
-        .addAllCoveredLine(asList(coveredLines)));
+        .addAllCoveredLineRange(LineRanges.encode(asList(coveredLines))));
     return test;
   }
 }
@@ -67,7 +67,7 @@ public class TestIndexerTest {
   @Rule
   public DbTester db = DbTester.create(system2);
 
-  private TestIndexer underTest = new TestIndexer(db.getDbClient(), es.client());
+  private TestIndexer underTest = new TestIndexer(db.getDbClient(), es.client(), es.indexRebuilds());
 
   @Test
   public void index_on_startup() {
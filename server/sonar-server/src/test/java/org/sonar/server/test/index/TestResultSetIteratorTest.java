@@ -38,6 +38,9 @@ import org.sonar.server.test.db.TestTesting;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.data.MapEntry.entry;
 import static org.sonar.server.test.index.TestIndexDefinition.FIELD_COVERED_FILES;
+import static org.sonar.server.test.index.TestIndexDefinition.FIELD_COVERED_FILE_LINES;
+import static org.sonar.server.test.index.TestIndexDefinition.FIELD_COVERED_FILE_LINE_RANGES;
+import static org.sonar.server.test.index.TestIndexDefinition.FIELD_COVERED_FILE_UUID;
 import static org.sonar.server.test.index.TestIndexDefinition.FIELD_DURATION_IN_MS;
 import static org.sonar.server.test.index.TestIndexDefinition.FIELD_FILE_UUID;
 import static org.sonar.server.test.index.TestIndexDefinition.FIELD_MESSAGE;
@@ -148,6 +151,37 @@ public class TestResultSetIteratorTest {
       FIELD_COVERED_FILES);
   }
 
+  @Test
+  public void index_covered_lines_persisted_as_ranges_or_as_lines() throws Exception {
+    dbTester.prepareDbUnit(getClass(), "shared.xml");
+    List<DbFileSources.Test> tests = Arrays.asList(
+      DbFileSources.Test.newBuilder()
+        .setUuid("U1")
+        .setName("N1")
+        .addCoveredFile(DbFileSources.Test.CoveredFile.newBuilder()
+          .setFileUuid("MAIN_FILE_UUID_1")
+          .addAllCoveredLineRange(Arrays.asList(3, 3, 4, 2)))
+        .addCoveredFile(DbFileSources.Test.CoveredFile.newBuilder()
+          .setFileUuid("MAIN_FILE_UUID_2")
+          .addAllCoveredLine(Arrays.asList(7, 8, 1)))
+        .build());
+    TestTesting.updateDataColumn(dbTester.getSession(), "F1", tests);
+    underTest = TestResultSetIterator.create(dbTester.getDbClient(), dbTester.getSession(), null);
+
+    Map<String, Object> doc = underTest.next().getUpdateRequests().get(0).doc().sourceAsMap();
+
+    List<Map<String, Object>> coveredFiles = (List<Map<String, Object>>) doc.get(FIELD_COVERED_FILES);
+    assertThat(coveredFiles).hasSize(2);
+    assertThat(coveredFiles.get(0)).contains(
+      entry(FIELD_COVERED_FILE_UUID, "MAIN_FILE_UUID_1"),
+      entry(FIELD_COVERED_FILE_LINES, Arrays.asList(3, 4, 5, 9, 10)),
+      entry(FIELD_COVERED_FILE_LINE_RANGES, Arrays.asList(3, 3, 4, 2)));
+    assertThat(coveredFiles.get(1)).contains(
+      entry(FIELD_COVERED_FILE_UUID, "MAIN_FILE_UUID_2"),
+      entry(FIELD_COVERED_FILE_LINES, Arrays.asList(1, 7, 8)),
+      entry(FIELD_COVERED_FILE_LINE_RANGES, Arrays.asList(1, 1, 6, 2)));
+  }
+
   @Test
   public void filter_by_project() throws Exception {
     dbTester.prepareDbUnit(getClass(), "filter_by_project.xml");
@@ -75,7 +75,7 @@ public class ListActionTest {
   private DbClient dbClient = db.getDbClient();
 
   private TestIndex testIndex = new TestIndex(es.client());
-  private TestIndexer testIndexer = new TestIndexer(db.getDbClient(), es.client());
+  private TestIndexer testIndexer = new TestIndexer(db.getDbClient(), es.client(), es.indexRebuilds());
 
   private ComponentDto project;
   private ComponentDto mainFile;
@@ -56,4 +56,12 @@ public class MacroInterpreterTest {
     assertThat(result).isEqualTo("See <a href='" + path + "/coding_rules#rule_key=Some_Repo-Key.1%3ASome_Rule-Key.1'>Some_Rule-Key.1</a> for detail.");
   }
 
+  @Test
+  public void should_return_cached_result_of_same_text() {
+    String origin = "See {rule:squid:S1} for detail.";
+    String result = interpreter.interpret(origin);
+
+    assertThat(interpreter.interpret(new String(origin))).isSameAs(result);
+  }
+
 }
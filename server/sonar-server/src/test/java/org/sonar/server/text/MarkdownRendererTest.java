@@ -0,0 +1,44 @@
+/*
+ * SonarQube
+ * Copyright (C) 2009-2017 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.server.text;
+
+import org.junit.Test;
+import org.sonar.markdown.Markdown;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class MarkdownRendererTest {
+
+  private MarkdownRenderer underTest = new MarkdownRenderer();
+
+  @Test
+  public void toHtml_converts_markdown_to_html() {
+    String markdown = "*bold* and ``code``";
+
+    assertThat(underTest.toHtml(markdown)).isEqualTo(Markdown.convertToHtml(markdown));
+  }
+
+  @Test
+  public void toHtml_returns_cached_html_of_same_markdown() {
+    String html = underTest.toHtml("*bold*");
+
+    assertThat(underTest.toHtml(new String("*bold*"))).isSameAs(html);
+  }
+}
@@ -0,0 +1,60 @@
+/*
+ * SonarQube
+ * Copyright (C) 2009-2017 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.server.text;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class RenderedTextCacheTest {
+
+  private AtomicInteger renderingCount = new AtomicInteger();
+
+  @Test
+  public void get_renders_each_source_text_only_once() {
+    RenderedTextCache underTest = new RenderedTextCache(1_000, this::render);
+
+    assertThat(underTest.get("foo")).isEqualTo("<foo>");
+    assertThat(underTest.get("foo")).isEqualTo("<foo>");
+    assertThat(underTest.get("bar")).isEqualTo("<bar>");
+
+    assertThat(renderingCount.get()).isEqualTo(2);
+    assertThat(underTest.size()).isEqualTo(2);
+  }
+
+  @Test
+  public void get_evicts_entries_when_max_number_of_chars_is_reached() {
+    // each entry weighs 3 + 5 = 8 chars
+    RenderedTextCache underTest = new RenderedTextCache(20, this::render);
+
+    underTest.get("foo");
+    underTest.get("bar");
+    underTest.get("baz");
+
+    assertThat(renderingCount.get()).isEqualTo(3);
+    assertThat(underTest.size()).isLessThanOrEqualTo(2);
+  }
+
+  private String render(String source) {
+    renderingCount.incrementAndGet();
+    return "<" + source + ">";
+  }
+}
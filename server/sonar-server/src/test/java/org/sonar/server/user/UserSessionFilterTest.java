@@ -29,6 +29,10 @@ import org.junit.Before;
 import org.junit.Test;
 import org.mockito.InOrder;
 import org.mockito.Mockito;
+import org.sonar.api.config.MapSettings;
+import org.sonar.api.utils.internal.TestSystem2;
+import org.sonar.db.DbClient;
+import org.sonar.db.ReadReplicaConsistency;
 import org.sonar.server.authentication.UserSessionInitializer;
 import org.sonar.server.organization.DefaultOrganizationCache;
 import org.sonar.server.platform.Platform;
@@ -36,6 +40,7 @@ import org.sonar.server.setting.ThreadLocalSettings;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.fail;
+import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.inOrder;
 import static org.mockito.Mockito.mock;
@@ -71,6 +76,74 @@ public class UserSessionFilterTest {
     verify(userSessionInitializer).initUserSession(request, response);
   }
 
+  @Test
+  public void record_write_of_logged_in_user_on_POST_request() throws Exception {
+    mockUserSessionInitializer(true);
+    ReadReplicaConsistency readReplicaConsistency = mockLoggedInUser("john");
+    when(request.getMethod()).thenReturn("POST");
+
+    underTest.doFilter(request, response, chain);
+
+    InOrder inOrder = inOrder(readReplicaConsistency, chain);
+    inOrder.verify(readReplicaConsistency).recordWrite("john");
+    inOrder.verify(chain).doFilter(request, response);
+    inOrder.verify(readReplicaConsistency).recordWrite("john");
+  }
+
+  @Test
+  public void read_following_POST_request_is_done_on_primary_database_even_before_end_of_request() throws Exception {
+    mockUserSessionInitializer(true);
+    TestSystem2 system2 = new TestSystem2().setNow(1_000L);
+    ReadReplicaConsistency readReplicaConsistency = new ReadReplicaConsistency(new MapSettings(), system2);
+    mockLoggedInUser("john", readReplicaConsistency);
+    when(request.getMethod()).thenReturn("POST");
+    // the response is flushed by the chain, the client may send its next request before the end of this one
+    boolean[] followUpReadOnReplica = {true};
+    doAnswer(invocation -> {
+      followUpReadOnReplica[0] = readReplicaConsistency.canReadFromReplica("john");
+      return null;
+    }).when(chain).doFilter(request, response);
+
+    underTest.doFilter(request, response, chain);
+
+    assertThat(followUpReadOnReplica[0]).isFalse();
+    assertThat(readReplicaConsistency.canReadFromReplica("john")).isFalse();
+  }
+
+  @Test
+  public void record_write_of_logged_in_user_even_if_POST_request_fails() throws Exception {
+    mockUserSessionInitializer(true);
+    TestSystem2 system2 = new TestSystem2().setNow(1_000L);
+    ReadReplicaConsistency readReplicaConsistency = new ReadReplicaConsistency(new MapSettings(), system2);
+    mockLoggedInUser("john", readReplicaConsistency);
+    when(request.getMethod()).thenReturn("POST");
+    RuntimeException thrown = new RuntimeException("Faking chain.doFilter failing");
+    // the request lasts longer than the consistency window
+    doAnswer(invocation -> {
+      system2.setNow(60_000L);
+      throw thrown;
+    }).when(chain).doFilter(request, response);
+
+    try {
+      underTest.doFilter(request, response, chain);
+      fail("A RuntimeException should have been thrown");
+    } catch (RuntimeException e) {
+      assertThat(e).isSameAs(thrown);
+      assertThat(readReplicaConsistency.canReadFromReplica("john")).isFalse();
+    }
+  }
+
+  @Test
+  public void do_not_record_write_of_logged_in_user_after_GET_request() throws Exception {
+    mockUserSessionInitializer(true);
+    ReadReplicaConsistency readReplicaConsistency = mockLoggedInUser("john");
+    when(request.getMethod()).thenReturn("GET");
+
+    underTest.doFilter(request, response, chain);
+
+    verifyZeroInteractions(readReplicaConsistency);
+  }
+
   @Test
   public void stop_when_user_session_return_false() throws Exception {
     mockUserSessionInitializer(false);
@@ -211,6 +284,22 @@ public class UserSessionFilterTest {
     // do not fail
   }
 
+  private ReadReplicaConsistency mockLoggedInUser(String login) {
+    return mockLoggedInUser(login, mock(ReadReplicaConsistency.class));
+  }
+
+  private ReadReplicaConsistency mockLoggedInUser(String login, ReadReplicaConsistency readReplicaConsistency) {
+    ThreadLocalUserSession userSession = mock(ThreadLocalUserSession.class);
+    when(userSession.hasSession()).thenReturn(true);
+    when(userSession.isLoggedIn()).thenReturn(true);
+    when(userSession.getLogin()).thenReturn(login);
+    when(platform.getContainer().getComponentByType(ThreadLocalUserSession.class)).thenReturn(userSession);
+    DbClient dbClient = mock(DbClient.class);
+    when(dbClient.getReadReplicaConsistency()).thenReturn(readReplicaConsistency);
+    when(platform.getContainer().getComponentByType(DbClient.class)).thenReturn(dbClient);
+    return readReplicaConsistency;
+  }
+
   private void mockNoUserSessionInitializer() {
     when(platform.getContainer().getComponentByType(UserSessionInitializer.class)).thenReturn(null);
   }
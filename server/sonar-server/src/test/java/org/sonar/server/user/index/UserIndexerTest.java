@@ -79,6 +79,6 @@ public class UserIndexerTest {
   }
 
   private UserIndexer createIndexer() {
-    return new UserIndexer(dbTester.getDbClient(), esTester.client());
+    return new UserIndexer(dbTester.getDbClient(), esTester.client(), esTester.indexRebuilds());
   }
 }
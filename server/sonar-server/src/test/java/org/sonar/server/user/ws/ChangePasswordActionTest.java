@@ -57,7 +57,7 @@ public class ChangePasswordActionTest {
   public UserSessionRule userSessionRule = UserSessionRule.standalone().logIn();
 
   private UserUpdater userUpdater = new UserUpdater(mock(NewUserNotifier.class), new MapSettings(), db.getDbClient(),
-    new UserIndexer(db.getDbClient(), esTester.client()),
+    new UserIndexer(db.getDbClient(), esTester.client(), esTester.indexRebuilds()),
     System2.INSTANCE,
     TestDefaultOrganizationProvider.from(db),
     mock(OrganizationCreation.class));
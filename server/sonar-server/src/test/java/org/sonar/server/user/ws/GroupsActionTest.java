@@ -23,12 +23,14 @@ import org.junit.After;
 import org.junit.Before;
 import org.junit.Rule;
 import org.junit.Test;
+import org.sonar.api.config.MapSettings;
 import org.sonar.api.server.ws.WebService.Param;
 import org.sonar.api.server.ws.WebService.SelectionMode;
 import org.sonar.api.utils.System2;
 import org.sonar.db.DbClient;
 import org.sonar.db.DbSession;
 import org.sonar.db.DbTester;
+import org.sonar.db.ReadReplicaConsistency;
 import org.sonar.db.user.GroupDao;
 import org.sonar.db.user.GroupDto;
 import org.sonar.db.user.GroupMembershipDao;
@@ -63,7 +65,7 @@ public class GroupsActionTest {
     UserGroupDao userGroupDao = new UserGroupDao();
     GroupMembershipDao groupMembershipDao = new GroupMembershipDao();
 
-    dbClient = new DbClient(dbTester.database(), dbTester.myBatis(), userDao, groupDao, userGroupDao, groupMembershipDao);
+    dbClient = new DbClient(dbTester.database(), dbTester.myBatis(), new ReadReplicaConsistency(new MapSettings(), System2.INSTANCE), userDao, groupDao, userGroupDao, groupMembershipDao);
     session = dbClient.openSession(false);
     session.commit();
 
@@ -0,0 +1,111 @@
+/*
+ * SonarQube
+ * Copyright (C) 2009-2017 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.server.util.cache;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Arrays;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class SpillableCacheTest {
+
+  @Rule
+  public TemporaryFolder temp = new TemporaryFolder();
+
+  @Test
+  public void keep_values_in_memory_until_budget_is_reached() throws Exception {
+    SpillableCache<String> underTest = new SpillableCache<>(temp.newFile(), 10);
+
+    underTest.put("A", "foo", 4).put("B", "bar", 6).put("C", "baz", 1);
+
+    assertThat(underTest.sizeInMemory()).isEqualTo(2);
+    assertThat(underTest.sizeOnDisk()).isEqualTo(1);
+    assertThat(underTest.take("A")).contains("foo");
+    assertThat(underTest.take("B")).contains("bar");
+    assertThat(underTest.take("C")).contains("baz");
+  }
+
+  @Test
+  public void values_can_be_taken_only_once() throws Exception {
+    SpillableCache<String> underTest = new SpillableCache<>(temp.newFile(), 1);
+    underTest.put("A", "foo", 1).put("B", "bar", 1);
+
+    assertThat(underTest.contains("A")).isTrue();
+    assertThat(underTest.take("A")).contains("foo");
+    assertThat(underTest.take("A")).isEmpty();
+    assertThat(underTest.contains("A")).isFalse();
+    assertThat(underTest.take("B")).contains("bar");
+    assertThat(underTest.take("B")).isEmpty();
+    assertThat(underTest.take("unknown")).isEmpty();
+  }
+
+  @Test
+  public void memory_is_released_when_value_is_taken() throws Exception {
+    SpillableCache<String> underTest = new SpillableCache<>(temp.newFile(), 5);
+    underTest.put("A", "foo", 5);
+    underTest.take("A");
+
+    underTest.put("B", "bar", 5);
+
+    assertThat(underTest.sizeInMemory()).isEqualTo(1);
+    assertThat(underTest.sizeOnDisk()).isEqualTo(0);
+  }
+
+  @Test
+  public void read_values_from_disk_in_any_order() throws Exception {
+    SpillableCache<ArrayList<String>> underTest = new SpillableCache<>(temp.newFile(), 0);
+    underTest.put("A", new ArrayList<>(Arrays.asList("a1", "a2")), 2);
+    underTest.put("B", new ArrayList<>(Arrays.asList("b1")), 1);
+    underTest.put("C", new ArrayList<>(), 0);
+
+    assertThat(underTest.sizeOnDisk()).isEqualTo(2);
+    assertThat(underTest.take("B").get()).containsExactly("b1");
+    assertThat(underTest.take("C").get()).isEmpty();
+    assertThat(underTest.take("A").get()).containsExactly("a1", "a2");
+  }
+
+  @Test
+  public void replace_existing_value() throws Exception {
+    SpillableCache<String> underTest = new SpillableCache<>(temp.newFile(), 1);
+    underTest.put("A", "foo", 1);
+    underTest.put("A", "bar", 1);
+
+    assertThat(underTest.sizeInMemory()).isEqualTo(1);
+    assertThat(underTest.sizeOnDisk()).isEqualTo(0);
+    assertThat(underTest.take("A")).contains("bar");
+  }
+
+  @Test
+  public void close_deletes_file() throws Exception {
+    File file = temp.newFile();
+    SpillableCache<String> underTest = new SpillableCache<>(file, 0);
+    underTest.put("A", "foo", 1);
+    assertThat(file.length()).isGreaterThan(0L);
+
+    underTest.close();
+
+    assertThat(file).doesNotExist();
+    assertThat(underTest.take("A")).isEmpty();
+  }
+}
@@ -35,7 +35,7 @@ public class ViewIndexTest {
   @Rule
   public EsTester esTester = new EsTester(new ViewIndexDefinition(new MapSettings()));
 
-  ViewIndex index = new ViewIndex(esTester.client());
+  ViewIndex index = new ViewIndex(esTester.client(), esTester.indexRebuilds());
 
   @Test
   public void find_all_view_uuids() throws Exception {
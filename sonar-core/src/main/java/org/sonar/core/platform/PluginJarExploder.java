@@ -29,10 +29,18 @@ import static org.apache.commons.io.FileUtils.listFiles;
 
 public abstract class PluginJarExploder {
 
-  protected static final String LIB_RELATIVE_PATH_IN_JAR = "META-INF/lib";
+  public static final String LIB_RELATIVE_PATH_IN_JAR = "META-INF/lib";
 
   public abstract ExplodedPlugin explode(PluginInfo info);
 
+  /**
+   * Called by {@link PluginLoader} before plugins are exploded one by one with {@link #explode(PluginInfo)},
+   * for example to explode them in parallel. Does nothing by default.
+   */
+  public void prepare(Collection<PluginInfo> infos) {
+    // nothing to do by default
+  }
+
   protected Predicate<ZipEntry> newLibFilter() {
     return ze -> ze.getName().startsWith(LIB_RELATIVE_PATH_IN_JAR);
   }
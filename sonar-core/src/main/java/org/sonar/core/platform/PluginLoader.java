@@ -81,6 +81,7 @@ public class PluginLoader {
   Collection<PluginClassLoaderDef> defineClassloaders(Map<String, PluginInfo> infoByKeys) {
     Map<String, PluginClassLoaderDef> classloadersByBasePlugin = new HashMap<>();
 
+    jarExploder.prepare(infoByKeys.values());
     for (PluginInfo info : infoByKeys.values()) {
       String baseKey = basePluginKey(info, infoByKeys);
       PluginClassLoaderDef def = classloadersByBasePlugin.get(baseKey);
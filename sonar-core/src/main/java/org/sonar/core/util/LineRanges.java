@@ -0,0 +1,107 @@
+/*
+ * SonarQube
+ * Copyright (C) 2009-2017 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.core.util;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+/**
+ * Compact encoding of a set of line numbers, as a run-length encoded bitmap.
+ * <p>
+ * Each range of consecutive lines is encoded as two integers: the distance between its first line and the last line
+ * of the previous range (line {@code 0} for the first range), then the number of lines in the range. For example
+ * lines {@code 3, 4, 5, 9, 10} are encoded as {@code 3, 3, 4, 2}. As covered lines are mostly consecutive, this
+ * is much smaller than the list of lines, especially once serialized as packed varints by protobuf.
+ * </p>
+ */
+public final class LineRanges {
+
+  private LineRanges() {
+    // only static stuff
+  }
+
+  /**
+   * @throws IllegalArgumentException if a line is negative
+   */
+  public static List<Integer> encode(Iterable<Integer> lines) {
+    BitSet bitSet = new BitSet();
+    for (Integer line : lines) {
+      checkArgument(line >= 0, "Line must not be negative: %s", line);
+      bitSet.set(line);
+    }
+    return encode(bitSet);
+  }
+
+  public static List<Integer> encode(BitSet lines) {
+    List<Integer> ranges = new ArrayList<>();
+    int previousEnd = 0;
+    int start = lines.nextSetBit(0);
+    while (start >= 0) {
+      int end = lines.nextClearBit(start) - 1;
+      ranges.add(start - previousEnd);
+      ranges.add(end - start + 1);
+      previousEnd = end;
+      start = lines.nextSetBit(end + 1);
+    }
+    return ranges;
+  }
+
+  public static BitSet decodeToBitSet(List<Integer> ranges) {
+    checkRanges(ranges);
+    BitSet lines = new BitSet();
+    int previousEnd = 0;
+    for (int i = 0; i < ranges.size(); i += 2) {
+      int start = previousEnd + ranges.get(i);
+      int end = start + ranges.get(i + 1) - 1;
+      lines.set(start, end + 1);
+      previousEnd = end;
+    }
+    return lines;
+  }
+
+  /**
+   * Expands the encoded ranges to the sorted list of lines.
+   */
+  public static List<Integer> decode(List<Integer> ranges) {
+    BitSet bitSet = decodeToBitSet(ranges);
+    List<Integer> lines = new ArrayList<>(bitSet.cardinality());
+    bitSet.stream().forEach(lines::add);
+    return lines;
+  }
+
+  /**
+   * Number of lines in the encoded ranges, without expanding them.
+   */
+  public static int countLines(List<Integer> ranges) {
+    checkRanges(ranges);
+    int count = 0;
+    for (int i = 1; i < ranges.size(); i += 2) {
+      count += ranges.get(i);
+    }
+    return count;
+  }
+
+  private static void checkRanges(List<Integer> ranges) {
+    checkArgument(ranges.size() % 2 == 0, "Line ranges must contain an even number of elements: %s", ranges);
+  }
+}
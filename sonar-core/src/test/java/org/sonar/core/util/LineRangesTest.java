@@ -0,0 +1,98 @@
+/*
+ * SonarQube
+ * Copyright (C) 2009-2017 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.core.util;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.List;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class LineRangesTest {
+
+  @Rule
+  public ExpectedException expectedException = ExpectedException.none();
+
+  @Test
+  public void encode_consecutive_lines_as_ranges() {
+    assertThat(LineRanges.encode(Arrays.asList(3, 4, 5, 9, 10))).containsExactly(3, 3, 4, 2);
+    assertThat(LineRanges.encode(Arrays.asList(1))).containsExactly(1, 1);
+    assertThat(LineRanges.encode(Arrays.asList(1, 3, 5))).containsExactly(1, 1, 2, 1, 2, 1);
+  }
+
+  @Test
+  public void encode_ignores_order_and_duplicates() {
+    assertThat(LineRanges.encode(Arrays.asList(10, 4, 3, 9, 5, 4))).containsExactly(3, 3, 4, 2);
+  }
+
+  @Test
+  public void encode_empty_lines() {
+    assertThat(LineRanges.encode(Collections.<Integer>emptyList())).isEmpty();
+    assertThat(LineRanges.decode(Collections.<Integer>emptyList())).isEmpty();
+    assertThat(LineRanges.countLines(Collections.<Integer>emptyList())).isZero();
+  }
+
+  @Test
+  public void encode_fails_on_negative_line() {
+    expectedException.expect(IllegalArgumentException.class);
+    expectedException.expectMessage("Line must not be negative: -1");
+
+    LineRanges.encode(Arrays.asList(1, -1));
+  }
+
+  @Test
+  public void decode_expands_ranges() {
+    assertThat(LineRanges.decode(Arrays.asList(3, 3, 4, 2))).containsExactly(3, 4, 5, 9, 10);
+  }
+
+  @Test
+  public void decode_to_bitset() {
+    BitSet lines = LineRanges.decodeToBitSet(Arrays.asList(3, 3, 4, 2));
+
+    assertThat(lines.cardinality()).isEqualTo(5);
+    assertThat(lines.get(5)).isTrue();
+    assertThat(lines.get(6)).isFalse();
+    assertThat(LineRanges.encode(lines)).containsExactly(3, 3, 4, 2);
+  }
+
+  @Test
+  public void count_lines_without_expanding() {
+    assertThat(LineRanges.countLines(Arrays.asList(3, 3, 4, 2))).isEqualTo(5);
+  }
+
+  @Test
+  public void encoding_is_reversible() {
+    List<Integer> lines = Arrays.asList(0, 1, 2, 100, 102, 103, 104, 1_000_000);
+
+    assertThat(LineRanges.decode(LineRanges.encode(lines))).isEqualTo(lines);
+  }
+
+  @Test
+  public void fail_to_decode_odd_number_of_elements() {
+    expectedException.expect(IllegalArgumentException.class);
+    expectedException.expectMessage("Line ranges must contain an even number of elements: [3, 3, 6]");
+
+    LineRanges.decode(Arrays.asList(3, 3, 6));
+  }
+}
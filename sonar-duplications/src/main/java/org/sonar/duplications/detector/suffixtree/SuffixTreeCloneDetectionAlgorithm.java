@@ -98,18 +98,16 @@ public final class SuffixTreeCloneDetectionAlgorithm {
   private static Map<String, List<Block>> retrieveFromIndex(CloneIndex index, String originResourceId, Set<ByteArray> hashes) {
     Map<String, List<Block>> collection = new HashMap<>();
     for (ByteArray hash : hashes) {
-      Collection<Block> blocks = index.getBySequenceHash(hash);
+      // Godin: skip blocks for this file if they come from index
+      Collection<Block> blocks = index.getBySequenceHash(hash, originResourceId);
       for (Block blockFromIndex : blocks) {
-        // Godin: skip blocks for this file if they come from index
         String resourceId = blockFromIndex.getResourceId();
-        if (!originResourceId.equals(resourceId)) {
-          List<Block> list = collection.get(resourceId);
-          if (list == null) {
-            list = new ArrayList<>();
-            collection.put(resourceId, list);
-          }
-          list.add(blockFromIndex);
+        List<Block> list = collection.get(resourceId);
+        if (list == null) {
+          list = new ArrayList<>();
+          collection.put(resourceId, list);
         }
+        list.add(blockFromIndex);
       }
     }
     return collection;
@@ -19,8 +19,11 @@
  */
 package org.sonar.duplications.index;
 
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Iterator;
+import java.util.List;
+import javax.annotation.Nullable;
 
 import org.sonar.duplications.block.Block;
 import org.sonar.duplications.block.ByteArray;
@@ -42,6 +45,27 @@ public interface CloneIndex {
    */
   Collection<Block> getBySequenceHash(ByteArray hash);
 
+  /**
+   * Performs search of blocks for specified hash value, ignoring the blocks of the specified resource.
+   * Implementations can override it in order to not create the ignored blocks.
+   *
+   * @return collection of blocks from index with specified hash and empty collection if nothing found
+   * @since 6.4
+   */
+  default Collection<Block> getBySequenceHash(ByteArray hash, @Nullable String excludedResourceId) {
+    Collection<Block> blocks = getBySequenceHash(hash);
+    if (excludedResourceId == null) {
+      return blocks;
+    }
+    List<Block> result = new ArrayList<>(blocks.size());
+    for (Block block : blocks) {
+      if (!excludedResourceId.equals(block.getResourceId())) {
+        result.add(block);
+      }
+    }
+    return result;
+  }
+
   /**
    * Adds specified block into index.
    */
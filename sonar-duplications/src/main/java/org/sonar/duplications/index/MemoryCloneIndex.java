@@ -25,8 +25,11 @@ import org.sonar.duplications.block.Block;
 import org.sonar.duplications.block.ByteArray;
 import org.sonar.duplications.index.PackedMemoryCloneIndex.ResourceBlocks;
 
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Iterator;
+import java.util.List;
+import javax.annotation.Nullable;
 
 public class MemoryCloneIndex implements CloneIndex {
 
@@ -43,6 +46,20 @@ public class MemoryCloneIndex implements CloneIndex {
     return byHash.get(sequenceHash);
   }
 
+  @Override
+  public Collection<Block> getBySequenceHash(ByteArray sequenceHash, @Nullable String excludedResourceId) {
+    if (excludedResourceId == null) {
+      return byHash.get(sequenceHash);
+    }
+    List<Block> result = new ArrayList<>();
+    for (Block block : byHash.get(sequenceHash)) {
+      if (!excludedResourceId.equals(block.getResourceId())) {
+        result.add(block);
+      }
+    }
+    return result;
+  }
+
   @Override
   public void insert(Block block) {
     byResource.put(block.getResourceId(), block);
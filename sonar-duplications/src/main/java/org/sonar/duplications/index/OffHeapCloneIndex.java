@@ -0,0 +1,409 @@
+/*
+ * SonarQube
+ * Copyright (C) 2009-2017 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.duplications.index;
+
+import java.io.Closeable;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import javax.annotation.CheckForNull;
+import javax.annotation.Nullable;
+import org.sonar.duplications.block.Block;
+import org.sonar.duplications.block.ByteArray;
+import org.sonar.duplications.index.PackedMemoryCloneIndex.ResourceBlocks;
+import org.sonar.duplications.utils.FastStringComparator;
+
+/**
+ * Index with the same behavior as {@link PackedMemoryCloneIndex}, but which stores blocks outside of the Java heap,
+ * so that its size is not limited by the heap of the JVM. It's intended for very large projects.
+ * <ul>
+ *   <li>blocks are stored as fixed-size records of ints in {@link OffHeapIntArray}, in memory-mapped
+ *   files if a directory is provided, else in direct buffers</li>
+ *   <li>resource ids are interned, so a record references its resource by an int</li>
+ *   <li>records are sorted by hash with a radix sort on a permutation of their positions. Records are never moved.</li>
+ *   <li>{@link Block} objects are only created for the results of queries. Blocks of the resource excluded
+ *   from {@link #getBySequenceHash(ByteArray, String)} are not created at all.</li>
+ * </ul>
+ * <p>
+ * The index must be closed to release the files. It does not support deletion.
+ * </p>
+ */
+public class OffHeapCloneIndex extends AbstractCloneIndex implements Closeable {
+
+  private static final int RESOURCE_OFFSET = 0;
+  private static final int INDEX_IN_FILE_OFFSET = 1;
+  private static final int START_LINE_OFFSET = 2;
+  private static final int END_LINE_OFFSET = 3;
+  private static final int START_UNIT_OFFSET = 4;
+  private static final int END_UNIT_OFFSET = 5;
+  private static final int BLOCK_INTS = 6;
+
+  private static final int RADIX_BITS = 16;
+  private static final int RADIX_MASK = (1 << RADIX_BITS) - 1;
+
+  @CheckForNull
+  private final Path directory;
+  private final int hashInts;
+  private final int recordInts;
+  private final OffHeapIntArray records;
+
+  private final Map<String, Integer> resourceIdsByKey = new HashMap<>();
+  private final List<String> resourceKeys = new ArrayList<>();
+
+  /**
+   * Current number of blocks in index.
+   */
+  private int size = 0;
+
+  /**
+   * Indicates that index requires sorting to perform queries.
+   */
+  private boolean sorted = false;
+
+  /**
+   * Positions of records, sorted by hash
+   */
+  private OffHeapIntArray byHash;
+
+  /**
+   * Positions of records, grouped by resource in the order of {@link #resourcesByRank}
+   */
+  private OffHeapIntArray byResource;
+  private int[] resourcesByRank;
+  private int[] rankByResource;
+  private int[] resourceStarts;
+
+  /**
+   * Index with 8-bytes hashes stored in direct buffers
+   */
+  public OffHeapCloneIndex() {
+    this(8, null);
+  }
+
+  /**
+   * @param hashBytes size of hash in bytes
+   * @param directory directory of the memory-mapped files. If null, then blocks are stored in direct buffers.
+   */
+  public OffHeapCloneIndex(int hashBytes, @Nullable Path directory) {
+    this.directory = directory;
+    this.hashInts = hashBytes / 4;
+    this.recordInts = hashInts + BLOCK_INTS;
+    this.records = new OffHeapIntArray(directory);
+  }
+
+  @Override
+  public void insert(Block block) {
+    int[] hash = block.getBlockHash().toIntArray();
+    checkHashSize(hash);
+    sorted = false;
+
+    long offset = (long) size * recordInts;
+    records.ensureCapacity(offset + recordInts);
+    for (int i = 0; i < hashInts; i++) {
+      records.set(offset + i, hash[i]);
+    }
+    offset += hashInts;
+    records.set(offset + RESOURCE_OFFSET, internResourceId(block.getResourceId()));
+    records.set(offset + INDEX_IN_FILE_OFFSET, block.getIndexInFile());
+    records.set(offset + START_LINE_OFFSET, block.getStartLine());
+    records.set(offset + END_LINE_OFFSET, block.getEndLine());
+    records.set(offset + START_UNIT_OFFSET, block.getStartUnit());
+    records.set(offset + END_UNIT_OFFSET, block.getEndUnit());
+    size++;
+  }
+
+  private int internResourceId(String resourceId) {
+    return resourceIdsByKey.computeIfAbsent(resourceId, k -> {
+      resourceKeys.add(k);
+      return resourceKeys.size() - 1;
+    });
+  }
+
+  private void checkHashSize(int[] hash) {
+    if (hash.length != hashInts) {
+      throw new IllegalArgumentException("Expected " + hashInts + " ints in hash, but got " + hash.length);
+    }
+  }
+
+  /**
+   * {@inheritDoc}
+   * <p>
+   * Blocks are returned in order of insertion.
+   * </p>
+   */
+  @Override
+  public Collection<Block> getByResourceId(String resourceId) {
+    ensureSorted();
+    Integer id = resourceIdsByKey.get(resourceId);
+    if (id == null) {
+      return Collections.emptyList();
+    }
+    return getByRank(rankByResource[id]);
+  }
+
+  private List<Block> getByRank(int rank) {
+    String resourceKey = resourceKeys.get(resourcesByRank[rank]);
+    int start = resourceStarts[rank];
+    int end = resourceStarts[rank + 1];
+    List<Block> result = new ArrayList<>(end - start);
+    Block.Builder builder = Block.builder();
+    for (int i = start; i < end; i++) {
+      int position = byResource.get(i);
+      result.add(createBlock(builder, position, resourceKey, new ByteArray(readHash(position))));
+    }
+    return result;
+  }
+
+  @Override
+  public Collection<Block> getBySequenceHash(ByteArray hash) {
+    return getBySequenceHash(hash, null);
+  }
+
+  /**
+   * {@inheritDoc}
+   * <p>
+   * Returned blocks share the instance {@code hash}.
+   * </p>
+   */
+  @Override
+  public Collection<Block> getBySequenceHash(ByteArray hash, @Nullable String excludedResourceId) {
+    int[] ints = hash.toIntArray();
+    checkHashSize(ints);
+    ensureSorted();
+
+    Integer excludedId = excludedResourceId == null ? null : resourceIdsByKey.get(excludedResourceId);
+    List<Block> result = null;
+    Block.Builder builder = null;
+    for (int i = lowerBound(ints); i < size; i++) {
+      int position = byHash.get(i);
+      if (compareHash(position, ints) != 0) {
+        break;
+      }
+      int resourceId = records.get(resourceOffset(position));
+      if (excludedId == null || resourceId != excludedId) {
+        if (result == null) {
+          result = new ArrayList<>();
+          builder = Block.builder();
+        }
+        result.add(createBlock(builder, position, resourceKeys.get(resourceId), hash));
+      }
+    }
+    return result == null ? Collections.emptyList() : result;
+  }
+
+  private int lowerBound(int[] hash) {
+    int lower = 0;
+    int upper = size;
+    while (lower < upper) {
+      int mid = (lower + upper) >>> 1;
+      if (compareHash(byHash.get(mid), hash) < 0) {
+        lower = mid + 1;
+      } else {
+        upper = mid;
+      }
+    }
+    return lower;
+  }
+
+  /**
+   * Unsigned comparison of the hash of the record at the given position with {@code hash}
+   */
+  private int compareHash(int position, int[] hash) {
+    long offset = (long) position * recordInts;
+    for (int i = 0; i < hashInts; i++) {
+      int cmp = Integer.compareUnsigned(records.get(offset + i), hash[i]);
+      if (cmp != 0) {
+        return cmp;
+      }
+    }
+    return 0;
+  }
+
+  private int[] readHash(int position) {
+    long offset = (long) position * recordInts;
+    int[] hash = new int[hashInts];
+    for (int i = 0; i < hashInts; i++) {
+      hash[i] = records.get(offset + i);
+    }
+    return hash;
+  }
+
+  private long resourceOffset(int position) {
+    return (long) position * recordInts + hashInts + RESOURCE_OFFSET;
+  }
+
+  private Block createBlock(Block.Builder builder, int position, String resourceKey, ByteArray hash) {
+    long offset = (long) position * recordInts + hashInts;
+    return builder
+      .setResourceId(resourceKey)
+      .setBlockHash(hash)
+      .setIndexInFile(records.get(offset + INDEX_IN_FILE_OFFSET))
+      .setLines(records.get(offset + START_LINE_OFFSET), records.get(offset + END_LINE_OFFSET))
+      .setUnit(records.get(offset + START_UNIT_OFFSET), records.get(offset + END_UNIT_OFFSET))
+      .build();
+  }
+
+  @Override
+  public Iterator<ResourceBlocks> iterator() {
+    ensureSorted();
+    return new ResourceIterator();
+  }
+
+  private class ResourceIterator implements Iterator<ResourceBlocks> {
+    private int rank = 0;
+
+    @Override
+    public boolean hasNext() {
+      return rank < resourcesByRank.length;
+    }
+
+    @Override
+    public ResourceBlocks next() {
+      if (!hasNext()) {
+        throw new NoSuchElementException();
+      }
+      String resourceKey = resourceKeys.get(resourcesByRank[rank]);
+      List<Block> blocks = getByRank(rank);
+      rank++;
+      return new ResourceBlocks(resourceKey, blocks);
+    }
+  }
+
+  @Override
+  public int noResources() {
+    return resourceKeys.size();
+  }
+
+  private void ensureSorted() {
+    if (sorted) {
+      return;
+    }
+    closeSortedArrays();
+    byHash = sortByHash();
+    sortByResource();
+    sorted = true;
+  }
+
+  /**
+   * LSD radix sort of the positions of records, by unsigned hash, {@value #RADIX_BITS} bits per pass.
+   */
+  private OffHeapIntArray sortByHash() {
+    OffHeapIntArray source = new OffHeapIntArray(directory);
+    OffHeapIntArray target = new OffHeapIntArray(directory);
+    source.ensureCapacity(size);
+    target.ensureCapacity(size);
+    for (int i = 0; i < size; i++) {
+      source.set(i, i);
+    }
+    int[] counts = new int[RADIX_MASK + 2];
+    for (int hashInt = hashInts - 1; hashInt >= 0; hashInt--) {
+      for (int shift = 0; shift < Integer.SIZE; shift += RADIX_BITS) {
+        if (radixPass(source, target, counts, hashInt, shift)) {
+          OffHeapIntArray tmp = source;
+          source = target;
+          target = tmp;
+        }
+      }
+    }
+    target.close();
+    return source;
+  }
+
+  /**
+   * @return false if all the records have the same digit, so that the pass is skipped
+   */
+  private boolean radixPass(OffHeapIntArray source, OffHeapIntArray target, int[] counts, int hashInt, int shift) {
+    Arrays.fill(counts, 0);
+    for (int i = 0; i < size; i++) {
+      counts[digit(source.get(i), hashInt, shift) + 1]++;
+    }
+    for (int d = 0; d <= RADIX_MASK; d++) {
+      if (counts[d + 1] == size) {
+        return false;
+      }
+      counts[d + 1] += counts[d];
+    }
+    for (int i = 0; i < size; i++) {
+      int position = source.get(i);
+      target.set(counts[digit(position, hashInt, shift)]++, position);
+    }
+    return true;
+  }
+
+  private int digit(int position, int hashInt, int shift) {
+    return (records.get((long) position * recordInts + hashInt) >>> shift) & RADIX_MASK;
+  }
+
+  /**
+   * Counting sort of the positions of records by rank of resource. Order of insertion is kept within a resource.
+   */
+  private void sortByResource() {
+    int resources = resourceKeys.size();
+    Integer[] ids = new Integer[resources];
+    for (int i = 0; i < resources; i++) {
+      ids[i] = i;
+    }
+    Arrays.sort(ids, (a, b) -> FastStringComparator.INSTANCE.compare(resourceKeys.get(a), resourceKeys.get(b)));
+    resourcesByRank = new int[resources];
+    rankByResource = new int[resources];
+    for (int rank = 0; rank < resources; rank++) {
+      resourcesByRank[rank] = ids[rank];
+      rankByResource[ids[rank]] = rank;
+    }
+
+    resourceStarts = new int[resources + 1];
+    for (int position = 0; position < size; position++) {
+      resourceStarts[rankByResource[records.get(resourceOffset(position))] + 1]++;
+    }
+    for (int rank = 0; rank < resources; rank++) {
+      resourceStarts[rank + 1] += resourceStarts[rank];
+    }
+    int[] next = Arrays.copyOf(resourceStarts, resources);
+    byResource = new OffHeapIntArray(directory);
+    byResource.ensureCapacity(size);
+    for (int position = 0; position < size; position++) {
+      byResource.set(next[rankByResource[records.get(resourceOffset(position))]]++, position);
+    }
+  }
+
+  private void closeSortedArrays() {
+    if (byHash != null) {
+      byHash.close();
+      byHash = null;
+    }
+    if (byResource != null) {
+      byResource.close();
+      byResource = null;
+    }
+  }
+
+  @Override
+  public void close() {
+    closeSortedArrays();
+    records.close();
+  }
+}
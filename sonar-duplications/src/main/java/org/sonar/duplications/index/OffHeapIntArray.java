@@ -0,0 +1,116 @@
+/*
+ * SonarQube
+ * Copyright (C) 2009-2017 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.duplications.index;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import javax.annotation.CheckForNull;
+import javax.annotation.Nullable;
+
+/**
+ * Growable array of ints stored outside of the Java heap, in segments of {@value #SEGMENT_INTS} ints. Segments
+ * are either direct buffers or, if a directory is provided, memory-mapped regions of a temporary file, so that
+ * the operating system can page them out.
+ */
+final class OffHeapIntArray implements Closeable {
+
+  private static final int SEGMENT_SHIFT = 20;
+  static final int SEGMENT_INTS = 1 << SEGMENT_SHIFT;
+  private static final int SEGMENT_MASK = SEGMENT_INTS - 1;
+  private static final long SEGMENT_BYTES = SEGMENT_INTS * 4L;
+
+  @CheckForNull
+  private final Path file;
+  @CheckForNull
+  private final FileChannel channel;
+  private final List<IntBuffer> segments = new ArrayList<>();
+
+  OffHeapIntArray(@Nullable Path directory) {
+    try {
+      if (directory == null) {
+        this.file = null;
+        this.channel = null;
+      } else {
+        this.file = Files.createTempFile(directory, "clone-index", ".dat");
+        this.channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE);
+      }
+    } catch (IOException e) {
+      throw new UncheckedIOException("Fail to create file of clone index in " + directory, e);
+    }
+  }
+
+  long capacity() {
+    return (long) segments.size() * SEGMENT_INTS;
+  }
+
+  void ensureCapacity(long minCapacity) {
+    while (capacity() < minCapacity) {
+      segments.add(newSegment(segments.size()));
+    }
+  }
+
+  private IntBuffer newSegment(int index) {
+    ByteBuffer buffer;
+    if (channel == null) {
+      buffer = ByteBuffer.allocateDirect((int) SEGMENT_BYTES);
+    } else {
+      try {
+        buffer = channel.map(FileChannel.MapMode.READ_WRITE, index * SEGMENT_BYTES, SEGMENT_BYTES);
+      } catch (IOException e) {
+        throw new UncheckedIOException("Fail to map file of clone index " + file, e);
+      }
+    }
+    return buffer.order(ByteOrder.nativeOrder()).asIntBuffer();
+  }
+
+  int get(long index) {
+    return segments.get((int) (index >>> SEGMENT_SHIFT)).get((int) (index & SEGMENT_MASK));
+  }
+
+  void set(long index, int value) {
+    segments.get((int) (index >>> SEGMENT_SHIFT)).put((int) (index & SEGMENT_MASK), value);
+  }
+
+  /**
+   * Releases the segments. Memory of direct buffers and mappings is reclaimed when they are garbage collected.
+   */
+  @Override
+  public void close() {
+    segments.clear();
+    if (channel != null) {
+      try {
+        channel.close();
+        Files.deleteIfExists(file);
+      } catch (IOException e) {
+        // the file may still be mapped on some operating systems. It's located in a temporary directory anyway.
+      }
+    }
+  }
+}
@@ -33,6 +33,9 @@ import java.util.List;
 import static org.hamcrest.Matchers.sameInstance;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertThat;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoMoreInteractions;
 import static org.sonar.duplications.detector.CloneGroupMatcher.hasCloneGroup;
 
 public class SuffixTreeCloneDetectionAlgorithmTest extends DetectorTestCase {
@@ -192,6 +195,22 @@ public class SuffixTreeCloneDetectionAlgorithmTest extends DetectorTestCase {
         newClonePart("c", 0, 1)));
   }
 
+  /**
+   * Given: file with repeated hashes
+   * Expected: only one query of index for each unique hash, which excludes blocks of the file
+   */
+  @Test
+  @Override
+  public void only_one_query_of_index_for_each_unique_hash() {
+    CloneIndex index = spy(createIndex());
+    Block[] fileBlocks = newBlocks("a", "1 2 1 2");
+    detect(index, fileBlocks);
+
+    verify(index).getBySequenceHash(new ByteArray("01"), "a");
+    verify(index).getBySequenceHash(new ByteArray("02"), "a");
+    verifyNoMoreInteractions(index);
+  }
+
   @Override
   protected List<CloneGroup> detect(CloneIndex index, Block[] fileBlocks) {
     return SuffixTreeCloneDetectionAlgorithm.detect(index, Arrays.asList(fileBlocks));
@@ -0,0 +1,112 @@
+/*
+ * SonarQube
+ * Copyright (C) 2009-2017 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.duplications.index;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Random;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.sonar.duplications.block.Block;
+import org.sonar.duplications.block.ByteArray;
+import org.sonar.duplications.detector.suffixtree.SuffixTreeCloneDetectionAlgorithm;
+import org.sonar.duplications.index.PackedMemoryCloneIndex.ResourceBlocks;
+
+/**
+ * Compares {@link PackedMemoryCloneIndex} and {@link OffHeapCloneIndex} on a scenario similar to the analysis
+ * of the JDK sources: about 7'000 files and 1.5 million blocks, part of them being duplicated.
+ * Not executed by the build, run it manually with: {@code java -Xmx2g ... CloneIndexBenchmark [nbFiles] [blocksPerFile]}
+ */
+public class CloneIndexBenchmark {
+
+  private static final Logger LOG = LoggerFactory.getLogger(CloneIndexBenchmark.class);
+  private static final double DUPLICATION_RATIO = 0.05;
+
+  private final int nbFiles;
+  private final int blocksPerFile;
+
+  private CloneIndexBenchmark(int nbFiles, int blocksPerFile) {
+    this.nbFiles = nbFiles;
+    this.blocksPerFile = blocksPerFile;
+  }
+
+  public static void main(String[] args) {
+    int nbFiles = args.length > 0 ? Integer.parseInt(args[0]) : 7_000;
+    int blocksPerFile = args.length > 1 ? Integer.parseInt(args[1]) : 215;
+    CloneIndexBenchmark benchmark = new CloneIndexBenchmark(nbFiles, blocksPerFile);
+
+    benchmark.run("packed memory", new PackedMemoryCloneIndex());
+    try (OffHeapCloneIndex index = new OffHeapCloneIndex()) {
+      benchmark.run("off-heap", index);
+    }
+  }
+
+  private void run(String name, CloneIndex index) {
+    long heapBefore = usedHeap();
+    long start = System.currentTimeMillis();
+    Random random = new Random(42L);
+    for (int file = 0; file < nbFiles; file++) {
+      for (Block block : newBlocks(random, file)) {
+        index.insert(block);
+      }
+    }
+    long insertTime = System.currentTimeMillis() - start;
+    long heapAfterInsert = usedHeap() - heapBefore;
+
+    start = System.currentTimeMillis();
+    int nbGroups = 0;
+    Iterator<ResourceBlocks> it = index.iterator();
+    while (it.hasNext()) {
+      ResourceBlocks resourceBlocks = it.next();
+      nbGroups += SuffixTreeCloneDetectionAlgorithm.detect(index, resourceBlocks.blocks()).size();
+    }
+    long detectionTime = System.currentTimeMillis() - start;
+
+    LOG.info("{}: {} blocks inserted in {} ms ({} MB of heap), {} clone groups detected in {} ms",
+      name, (long) nbFiles * blocksPerFile, insertTime, heapAfterInsert / 1024 / 1024, nbGroups, detectionTime);
+  }
+
+  private List<Block> newBlocks(Random random, int file) {
+    String resourceId = "org/example/File" + file + ".java";
+    List<Block> blocks = new ArrayList<>(blocksPerFile);
+    for (int i = 0; i < blocksPerFile; i++) {
+      // duplicated blocks share a small range of hashes
+      long hash = random.nextDouble() < DUPLICATION_RATIO ? random.nextInt(10_000) : random.nextLong();
+      blocks.add(Block.builder()
+        .setResourceId(resourceId)
+        .setBlockHash(new ByteArray(hash))
+        .setIndexInFile(i)
+        .setLines(i * 2 + 1, i * 2 + 10)
+        .setUnit(i * 10, i * 10 + 100)
+        .build());
+    }
+    return blocks;
+  }
+
+  private static long usedHeap() {
+    Runtime runtime = Runtime.getRuntime();
+    for (int i = 0; i < 3; i++) {
+      runtime.gc();
+    }
+    return runtime.totalMemory() - runtime.freeMemory();
+  }
+
+}
@@ -0,0 +1,207 @@
+/*
+ * SonarQube
+ * Copyright (C) 2009-2017 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.duplications.index;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.sonar.duplications.block.Block;
+import org.sonar.duplications.block.ByteArray;
+import org.sonar.duplications.index.PackedMemoryCloneIndex.ResourceBlocks;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+
+public class OffHeapCloneIndexTest {
+
+  @Rule
+  public TemporaryFolder temp = new TemporaryFolder();
+
+  private OffHeapCloneIndex index;
+
+  @Before
+  public void setUp() {
+    index = new OffHeapCloneIndex();
+  }
+
+  @After
+  public void tearDown() {
+    index.close();
+  }
+
+  @Test
+  public void test() {
+    index.insert(newBlock("a", 1));
+    index.insert(newBlock("a", 2));
+    index.insert(newBlock("b", 1));
+    index.insert(newBlock("c", 1));
+    index.insert(newBlock("d", 1));
+    index.insert(newBlock("e", 1));
+    index.insert(newBlock("e", 2));
+    index.insert(newBlock("e", 3));
+
+    assertThat(index.noResources()).isEqualTo(5);
+    assertThat(index.getBySequenceHash(new ByteArray(1L))).hasSize(5);
+    assertThat(index.getBySequenceHash(new ByteArray(2L))).hasSize(2);
+    assertThat(index.getBySequenceHash(new ByteArray(3L))).hasSize(1);
+    assertThat(index.getBySequenceHash(new ByteArray(4L))).isEmpty();
+    assertThat(index.getByResourceId("a")).hasSize(2);
+    assertThat(index.getByResourceId("b")).hasSize(1);
+    assertThat(index.getByResourceId("e")).hasSize(3);
+    assertThat(index.getByResourceId("does not exist")).isEmpty();
+  }
+
+  @Test
+  public void should_exclude_blocks_of_resource() {
+    index.insert(newBlock("a", 1));
+    index.insert(newBlock("a", 1));
+    index.insert(newBlock("b", 1));
+    index.insert(newBlock("c", 2));
+
+    assertThat(index.getBySequenceHash(new ByteArray(1L), "a")).extracting(Block::getResourceId).containsExactly("b");
+    assertThat(index.getBySequenceHash(new ByteArray(1L), "does not exist")).hasSize(3);
+    assertThat(index.getBySequenceHash(new ByteArray(2L), "c")).isEmpty();
+  }
+
+  /**
+   * When: query by a hash value.
+   * Expected: all blocks should have same hash, which presented in the form of the same object.
+   */
+  @Test
+  public void should_construct_blocks_with_normalized_hash() {
+    index.insert(newBlock("a", 1));
+    index.insert(newBlock("b", 1));
+    index.insert(newBlock("c", 1));
+    ByteArray requestedHash = new ByteArray(1L);
+    Collection<Block> blocks = index.getBySequenceHash(requestedHash);
+    assertThat(blocks).hasSize(3);
+    for (Block block : blocks) {
+      assertThat(block.getBlockHash()).isSameAs(requestedHash);
+    }
+  }
+
+  @Test
+  public void should_keep_block_fields() {
+    index.insert(Block.builder()
+      .setResourceId("a")
+      .setBlockHash(new ByteArray(1L))
+      .setIndexInFile(3)
+      .setLines(10, 12)
+      .setUnit(20, 25)
+      .build());
+
+    assertThat(index.getByResourceId("a"))
+      .extracting(Block::getResourceId, Block::getBlockHash, Block::getIndexInFile, Block::getStartLine, Block::getEndLine, Block::getStartUnit, Block::getEndUnit)
+      .containsExactly(tuple("a", new ByteArray(1L), 3, 10, 12, 20, 25));
+  }
+
+  @Test
+  public void should_sort_hashes_as_unsigned() {
+    index.insert(newBlock("a", -1L));
+    index.insert(newBlock("b", 1L));
+    index.insert(newBlock("c", Long.MIN_VALUE));
+    index.insert(newBlock("d", -1L));
+
+    assertThat(index.getBySequenceHash(new ByteArray(-1L))).extracting(Block::getResourceId).containsOnly("a", "d");
+    assertThat(index.getBySequenceHash(new ByteArray(1L))).extracting(Block::getResourceId).containsOnly("b");
+    assertThat(index.getBySequenceHash(new ByteArray(Long.MIN_VALUE))).extracting(Block::getResourceId).containsOnly("c");
+  }
+
+  @Test
+  public void iterate() {
+    index.insert(newBlock("a", 1));
+    index.insert(newBlock("c", 1));
+    index.insert(newBlock("b", 1));
+    index.insert(newBlock("c", 2));
+    index.insert(newBlock("a", 2));
+
+    Iterator<ResourceBlocks> it = index.iterator();
+    List<ResourceBlocks> resourcesBlocks = new ArrayList<>();
+    while (it.hasNext()) {
+      resourcesBlocks.add(it.next());
+    }
+
+    assertThat(resourcesBlocks).extracting(ResourceBlocks::resourceId).containsExactly("a", "b", "c");
+    assertThat(resourcesBlocks.get(0).blocks()).hasSize(2);
+    assertThat(resourcesBlocks.get(1).blocks()).hasSize(1);
+    assertThat(resourcesBlocks.get(2).blocks()).hasSize(2);
+  }
+
+  @Test
+  public void should_accept_insertion_after_query() {
+    index.insert(newBlock("a", 1));
+    assertThat(index.getBySequenceHash(new ByteArray(1L))).hasSize(1);
+
+    index.insert(newBlock("b", 1));
+    assertThat(index.getBySequenceHash(new ByteArray(1L))).hasSize(2);
+  }
+
+  @Test
+  public void should_store_blocks_in_memory_mapped_files() throws Exception {
+    index.close();
+    index = new OffHeapCloneIndex(8, temp.newFolder().toPath());
+    int nbBlocks = OffHeapIntArray.SEGMENT_INTS / 4;
+    for (int i = 0; i < nbBlocks; i++) {
+      index.insert(newBlock("file" + (i % 100), i % 1000));
+    }
+
+    assertThat(index.noResources()).isEqualTo(100);
+    assertThat(index.getBySequenceHash(new ByteArray(42L))).hasSize(nbBlocks / 1000 + 1);
+    assertThat(index.getByResourceId("file7")).hasSize(nbBlocks / 100 + 1);
+  }
+
+  /**
+   * Given: index, which accepts blocks with 4-byte hash.
+   * Expected: exception during insertion of block with 8-byte hash.
+   */
+  @Test(expected = IllegalArgumentException.class)
+  public void attempt_to_insert_hash_of_incorrect_size() {
+    index.close();
+    index = new OffHeapCloneIndex(4, null);
+    index.insert(newBlock("a", 1));
+  }
+
+  /**
+   * Given: index, which accepts blocks with 4-byte hash.
+   * Expected: exception during search by 8-byte hash.
+   */
+  @Test(expected = IllegalArgumentException.class)
+  public void attempt_to_find_hash_of_incorrect_size() {
+    index.close();
+    index = new OffHeapCloneIndex(4, null);
+    index.getBySequenceHash(new ByteArray(1L));
+  }
+
+  private static Block newBlock(String resourceId, long hash) {
+    return Block.builder()
+      .setResourceId(resourceId)
+      .setBlockHash(new ByteArray(hash))
+      .setIndexInFile(1)
+      .setLines(1, 2)
+      .build();
+  }
+
+}
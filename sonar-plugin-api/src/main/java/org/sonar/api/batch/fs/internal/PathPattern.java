@@ -19,6 +19,8 @@
  */
 package org.sonar.api.batch.fs.internal;
 
+import javax.annotation.CheckForNull;
+import javax.annotation.Nullable;
 import org.apache.commons.io.FilenameUtils;
 import org.apache.commons.lang.StringUtils;
 import org.sonar.api.batch.fs.IndexedFile;
@@ -34,7 +36,21 @@ public abstract class PathPattern {
 
   public abstract boolean match(IndexedFile inputFile);
 
-  public abstract boolean match(IndexedFile inputFile, boolean caseSensitiveFileExtension);
+  public boolean match(IndexedFile inputFile, boolean caseSensitiveFileExtension) {
+    String path = path(inputFile, caseSensitiveFileExtension);
+    return path != null && pattern.match(path);
+  }
+
+  /**
+   * The path to be matched by the pattern
+   */
+  @CheckForNull
+  abstract String path(IndexedFile inputFile, boolean caseSensitiveFileExtension);
+
+  /**
+   * Whether the pattern applies to the path relative to module basedir
+   */
+  abstract boolean isRelative();
 
   public static PathPattern create(String s) {
     String trimmed = StringUtils.trim(s);
@@ -63,16 +79,13 @@ public abstract class PathPattern {
     }
 
     @Override
-    public boolean match(IndexedFile inputFile, boolean caseSensitiveFileExtension) {
-      String path = inputFile.absolutePath();
-      if (!caseSensitiveFileExtension) {
-        String extension = sanitizeExtension(FilenameUtils.getExtension(inputFile.file().getName()));
-        if (StringUtils.isNotBlank(extension)) {
-          path = StringUtils.removeEndIgnoreCase(path, extension);
-          path = path + extension;
-        }
-      }
-      return pattern.match(path);
+    String path(IndexedFile inputFile, boolean caseSensitiveFileExtension) {
+      return absolutePath(inputFile, caseSensitiveFileExtension);
+    }
+
+    @Override
+    boolean isRelative() {
+      return false;
     }
 
     @Override
@@ -95,16 +108,13 @@ public abstract class PathPattern {
     }
 
     @Override
-    public boolean match(IndexedFile inputFile, boolean caseSensitiveFileExtension) {
-      String path = inputFile.relativePath();
-      if (!caseSensitiveFileExtension) {
-        String extension = sanitizeExtension(FilenameUtils.getExtension(inputFile.file().getName()));
-        if (StringUtils.isNotBlank(extension)) {
-          path = StringUtils.removeEndIgnoreCase(path, extension);
-          path = path + extension;
-        }
-      }
-      return path != null && pattern.match(path);
+    String path(IndexedFile inputFile, boolean caseSensitiveFileExtension) {
+      return relativePath(inputFile, caseSensitiveFileExtension);
+    }
+
+    @Override
+    boolean isRelative() {
+      return true;
     }
 
     @Override
@@ -113,6 +123,29 @@ public abstract class PathPattern {
     }
   }
 
+  static String absolutePath(IndexedFile inputFile, boolean caseSensitiveFileExtension) {
+    return caseSensitiveFileExtension ? inputFile.absolutePath() : withSanitizedExtension(inputFile, inputFile.absolutePath());
+  }
+
+  @CheckForNull
+  static String relativePath(IndexedFile inputFile, boolean caseSensitiveFileExtension) {
+    return caseSensitiveFileExtension ? inputFile.relativePath() : withSanitizedExtension(inputFile, inputFile.relativePath());
+  }
+
+  @CheckForNull
+  private static String withSanitizedExtension(IndexedFile inputFile, @Nullable String path) {
+    if (path == null) {
+      return null;
+    }
+    String result = path;
+    String extension = sanitizeExtension(FilenameUtils.getExtension(inputFile.file().getName()));
+    if (StringUtils.isNotBlank(extension)) {
+      result = StringUtils.removeEndIgnoreCase(result, extension);
+      result = result + extension;
+    }
+    return result;
+  }
+
   static String sanitizeExtension(String suffix) {
     return StringUtils.lowerCase(StringUtils.removeStart(suffix, "."));
   }
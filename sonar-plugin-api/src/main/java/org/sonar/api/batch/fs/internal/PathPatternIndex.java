@@ -0,0 +1,287 @@
+/*
+ * SonarQube
+ * Copyright (C) 2009-2017 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.api.batch.fs.internal;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import javax.annotation.CheckForNull;
+import javax.annotation.Nullable;
+import org.apache.commons.lang.StringUtils;
+import org.sonar.api.batch.fs.IndexedFile;
+
+/**
+ * Path patterns associated to values, for example the patterns of languages, compiled so that a file is matched
+ * against all of them without evaluating each regular expression in turn:
+ * <ul>
+ *   <li>patterns like <code>**&#47;*.java</code>, which are the most common, are indexed by the extension
+ *   of files and do not require any regular expression</li>
+ *   <li>other patterns are evaluated only if the path starts and ends with the literal parts of the pattern</li>
+ * </ul>
+ * Matching is the same as {@link PathPattern#match(IndexedFile, boolean)}.
+ *
+ * @since 6.4
+ */
+public class PathPatternIndex<T> {
+
+  private final List<T> values = new ArrayList<>();
+  private final Map<String, List<SuffixEntry>> suffixEntriesByExtension = new HashMap<>();
+  private final List<SuffixEntry> suffixEntriesWithoutExtension = new ArrayList<>();
+  private final List<Entry> relativeEntries = new ArrayList<>();
+  private final List<Entry> absoluteEntries = new ArrayList<>();
+
+  /**
+   * @param patternsByValue values are returned by {@link #matching(IndexedFile, boolean)} in the iteration order of this map
+   */
+  public PathPatternIndex(Map<T, PathPattern[]> patternsByValue) {
+    for (Map.Entry<T, PathPattern[]> entry : patternsByValue.entrySet()) {
+      int valueIndex = values.size();
+      values.add(entry.getKey());
+      for (PathPattern pattern : entry.getValue()) {
+        add(valueIndex, pattern);
+      }
+    }
+  }
+
+  /**
+   * Index in which each pattern is associated to itself
+   */
+  public static PathPatternIndex<PathPattern> of(PathPattern... patterns) {
+    Map<PathPattern, PathPattern[]> patternsByValue = new LinkedHashMap<>();
+    for (PathPattern pattern : patterns) {
+      patternsByValue.put(pattern, new PathPattern[] {pattern});
+    }
+    return new PathPatternIndex<>(patternsByValue);
+  }
+
+  private void add(int valueIndex, PathPattern pattern) {
+    String stringPattern = pattern.pattern.toString();
+    if (stringPattern.length() > 0 && isSlash(stringPattern.charAt(0))) {
+      // ignored by WildcardPattern
+      stringPattern = stringPattern.substring(1);
+    }
+    String suffix = anyFileSuffix(stringPattern);
+    if (pattern.isRelative() && suffix != null) {
+      SuffixEntry suffixEntry = new SuffixEntry(valueIndex, suffix);
+      String extension = extension(suffix);
+      if (extension == null) {
+        suffixEntriesWithoutExtension.add(suffixEntry);
+      } else {
+        suffixEntriesByExtension.computeIfAbsent(extension, k -> new ArrayList<>()).add(suffixEntry);
+      }
+    } else {
+      Entry entry = new Entry(valueIndex, pattern, stringPattern);
+      if (pattern.isRelative()) {
+        relativeEntries.add(entry);
+      } else {
+        absoluteEntries.add(entry);
+      }
+    }
+  }
+
+  public boolean isEmpty() {
+    return suffixEntriesByExtension.isEmpty() && suffixEntriesWithoutExtension.isEmpty() && relativeEntries.isEmpty() && absoluteEntries.isEmpty();
+  }
+
+  /**
+   * Whether at least one pattern matches the file
+   */
+  public boolean matchesAny(IndexedFile inputFile, boolean caseSensitiveFileExtension) {
+    return match(inputFile, caseSensitiveFileExtension, null);
+  }
+
+  /**
+   * The values having at least one pattern matching the file
+   */
+  public List<T> matching(IndexedFile inputFile, boolean caseSensitiveFileExtension) {
+    BitSet matched = new BitSet(values.size());
+    match(inputFile, caseSensitiveFileExtension, matched);
+    if (matched.isEmpty()) {
+      return Collections.emptyList();
+    }
+    List<T> result = new ArrayList<>(matched.cardinality());
+    for (int i = matched.nextSetBit(0); i >= 0; i = matched.nextSetBit(i + 1)) {
+      result.add(values.get(i));
+    }
+    return result;
+  }
+
+  /**
+   * @param matched indexes of the matching values. If {@code null}, stops at first match.
+   * @return whether at least one pattern matches
+   */
+  private boolean match(IndexedFile inputFile, boolean caseSensitiveFileExtension, @Nullable BitSet matched) {
+    boolean found = false;
+    String relativePath = PathPattern.relativePath(inputFile, caseSensitiveFileExtension);
+    if (relativePath != null) {
+      String path = normalize(relativePath);
+      found |= matchSuffixes(path, matched);
+      if (found && matched == null) {
+        return true;
+      }
+      found |= matchEntries(relativeEntries, relativePath, path, matched);
+      if (found && matched == null) {
+        return true;
+      }
+    }
+    if (!absoluteEntries.isEmpty()) {
+      String absolutePath = PathPattern.absolutePath(inputFile, caseSensitiveFileExtension);
+      found |= matchEntries(absoluteEntries, absolutePath, normalize(absolutePath), matched);
+    }
+    return found;
+  }
+
+  private boolean matchSuffixes(String path, @Nullable BitSet matched) {
+    boolean found = matchSuffixes(suffixEntriesWithoutExtension, path, matched);
+    if (found && matched == null) {
+      return true;
+    }
+    String extension = extension(path.substring(path.lastIndexOf('/') + 1));
+    if (extension != null) {
+      List<SuffixEntry> entries = suffixEntriesByExtension.get(extension);
+      if (entries != null) {
+        found |= matchSuffixes(entries, path, matched);
+      }
+    }
+    return found;
+  }
+
+  private static boolean matchSuffixes(List<SuffixEntry> entries, String path, @Nullable BitSet matched) {
+    boolean found = false;
+    for (SuffixEntry entry : entries) {
+      if (path.endsWith(entry.suffix)) {
+        if (matched == null) {
+          return true;
+        }
+        found = true;
+        matched.set(entry.valueIndex);
+      }
+    }
+    return found;
+  }
+
+  private static boolean matchEntries(List<Entry> entries, String path, String normalizedPath, @Nullable BitSet matched) {
+    boolean found = false;
+    for (Entry entry : entries) {
+      if ((matched == null || !matched.get(entry.valueIndex)) && entry.match(path, normalizedPath)) {
+        if (matched == null) {
+          return true;
+        }
+        found = true;
+        matched.set(entry.valueIndex);
+      }
+    }
+    return found;
+  }
+
+  /**
+   * Same as {@link org.sonar.api.utils.WildcardPattern#match(String)}
+   */
+  private static String normalize(String path) {
+    return StringUtils.removeEnd(StringUtils.removeStart(path, "/"), "/");
+  }
+
+  /**
+   * @return the suffix of files matched by the pattern if it's like <code>**&#47;*.java</code>, else {@code null}
+   */
+  @CheckForNull
+  static String anyFileSuffix(String pattern) {
+    if (pattern.length() < 4 || pattern.charAt(0) != '*' || pattern.charAt(1) != '*' || !isSlash(pattern.charAt(2)) || pattern.charAt(3) != '*') {
+      return null;
+    }
+    String suffix = pattern.substring(4);
+    if (StringUtils.containsAny(suffix, "*?/\\")) {
+      return null;
+    }
+    return suffix;
+  }
+
+  @CheckForNull
+  private static String extension(String fileNameOrSuffix) {
+    int dot = fileNameOrSuffix.lastIndexOf('.');
+    return dot < 0 ? null : fileNameOrSuffix.substring(dot + 1);
+  }
+
+  private static boolean isSlash(char ch) {
+    return ch == '/' || ch == '\\';
+  }
+
+  private static class SuffixEntry {
+    private final int valueIndex;
+    private final String suffix;
+
+    SuffixEntry(int valueIndex, String suffix) {
+      this.valueIndex = valueIndex;
+      this.suffix = suffix;
+    }
+  }
+
+  private static class Entry {
+    private final int valueIndex;
+    private final PathPattern pattern;
+    // literal parts of the pattern, before the first wildcard and after the last one
+    private final String prefix;
+    private final String suffix;
+    private final boolean hasWildcard;
+
+    Entry(int valueIndex, PathPattern pattern, String stringPattern) {
+      this.valueIndex = valueIndex;
+      this.pattern = pattern;
+      // same parsing as WildcardPattern, except that only literal characters are kept
+      StringBuilder literal = new StringBuilder();
+      String literalPrefix = null;
+      int i = 0;
+      while (i < stringPattern.length()) {
+        char ch = stringPattern.charAt(i);
+        if (ch == '*' || ch == '?') {
+          if (literalPrefix == null) {
+            literalPrefix = literal.toString();
+          }
+          literal.setLength(0);
+          if (ch == '*' && i + 1 < stringPattern.length() && stringPattern.charAt(i + 1) == '*') {
+            // directory separator following double asterisk is optional
+            i += i + 2 < stringPattern.length() && isSlash(stringPattern.charAt(i + 2)) ? 2 : 1;
+          }
+        } else {
+          literal.append(isSlash(ch) ? '/' : ch);
+        }
+        i++;
+      }
+      this.hasWildcard = literalPrefix != null;
+      this.prefix = hasWildcard ? literalPrefix : literal.toString();
+      this.suffix = literal.toString();
+    }
+
+    boolean match(String path, String normalizedPath) {
+      if (hasWildcard) {
+        if (normalizedPath.length() < prefix.length() + suffix.length() || !normalizedPath.startsWith(prefix) || !normalizedPath.endsWith(suffix)) {
+          return false;
+        }
+      } else if (!normalizedPath.equals(prefix)) {
+        return false;
+      }
+      return pattern.pattern.match(path);
+    }
+  }
+}
@@ -318,4 +318,43 @@ public class FileMetadataTest {
       "glyphicons-halflings-regular.woff at line 1 for encoding UTF-8. Please fix file content or configure the encoding to be used using property 'sonar.sourceEncoding'.");
   }
 
+  @Test
+  public void give_content_to_additional_handlers() throws Exception {
+    File tempFile = temp.newFile();
+    FileUtils.write(tempFile, "foo\r\nbar\rbaz\n", StandardCharsets.UTF_8, true);
+
+    StringBuilder content = new StringBuilder();
+    FileMetadata.CharHandler handler = new FileMetadata.CharHandler() {
+      @Override
+      protected void handleIgnoreEoL(char c) {
+        content.append(c);
+      }
+
+      @Override
+      protected void newLine() {
+        content.append('|');
+      }
+    };
+    Metadata metadata = new FileMetadata().readMetadata(tempFile, StandardCharsets.UTF_8, handler);
+
+    assertThat(metadata.lines()).isEqualTo(4);
+    assertThat(metadata.hash()).isEqualTo(md5Hex("foo\nbar\nbaz\n"));
+    assertThat(content.toString()).isEqualTo("foo|bar|baz|");
+  }
+
+  @Test
+  public void read_file_bigger_than_buffer() throws Exception {
+    File tempFile = temp.newFile();
+    StringBuilder content = new StringBuilder();
+    for (int i = 0; i < 10_000; i++) {
+      content.append("line ").append(i).append("\r\n");
+    }
+    FileUtils.write(tempFile, content, StandardCharsets.UTF_8, true);
+
+    Metadata metadata = new FileMetadata().readMetadata(tempFile, StandardCharsets.UTF_8);
+    assertThat(metadata.lines()).isEqualTo(10_001);
+    assertThat(metadata.nonBlankLines()).isEqualTo(10_000);
+    assertThat(metadata.hash()).isEqualTo(md5Hex(content.toString().replaceAll("\r\n", "\n")));
+  }
+
 }
@@ -0,0 +1,142 @@
+/*
+ * SonarQube
+ * Copyright (C) 2009-2017 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.api.batch.fs.internal;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.function.Function;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.sonar.api.batch.fs.IndexedFile;
+import org.sonar.api.utils.log.Logger;
+import org.sonar.api.utils.log.Loggers;
+
+import static java.util.Arrays.asList;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.Assume.assumeTrue;
+
+/**
+ * Compares {@link PathPatternIndex#matching(IndexedFile, boolean)} with the evaluation of each {@link PathPattern}
+ * in turn, on a few hundreds of patterns similar to the ones of languages, inclusions and exclusions. Durations are
+ * relative to each other, so that the test does not depend on the speed of the machine. Still, they are compared
+ * only when benchmark assertions are enabled, with the Maven profile "runBenchmarks".
+ */
+public class PathPatternIndexBenchmarkTest {
+
+  private static final Logger LOG = Loggers.get(PathPatternIndexBenchmarkTest.class);
+  private static final int ROUNDS = 5;
+  private static final String ENABLE_BENCHMARK_ASSERTIONS = "enableBenchmarkAssertions";
+  private static final String[] EXTENSIONS = {"java", "js", "ts", "xml", "php", "py", "cs", "c", "cpp", "h", "html", "css", "sql", "cbl", "abap"};
+
+  @Rule
+  public TemporaryFolder temp = new TemporaryFolder();
+
+  private Path moduleBasePath;
+  private PathPattern[] patterns;
+  private List<IndexedFile> files;
+  private PathPatternIndex<PathPattern> index;
+
+  @Before
+  public void setUp() throws IOException {
+    moduleBasePath = temp.newFolder().toPath();
+    patterns = PathPattern.create(stringPatterns());
+    files = files(20_000);
+    index = PathPatternIndex.of(patterns);
+  }
+
+  @Test
+  public void index_matches_the_same_patterns_as_evaluating_each_pattern() {
+    for (IndexedFile file : files) {
+      assertThat(indexed(file)).as(file.relativePath()).isEqualTo(loop(file));
+    }
+  }
+
+  @Test
+  public void index_is_faster_than_evaluating_each_pattern() {
+    assumeTrue("Benchmark assertions are disabled", Boolean.getBoolean(ENABLE_BENCHMARK_ASSERTIONS));
+
+    long loopDuration = bestDuration(this::loop);
+    long indexDuration = bestDuration(this::indexed);
+    LOG.info("{} files matched against {} patterns: {} ms with PathPattern loop, {} ms with PathPatternIndex",
+      files.size(), patterns.length, loopDuration / 1_000_000, indexDuration / 1_000_000);
+
+    assertThat(indexDuration).isLessThan(loopDuration);
+  }
+
+  private List<PathPattern> loop(IndexedFile file) {
+    List<PathPattern> result = new ArrayList<>();
+    for (PathPattern pattern : patterns) {
+      if (pattern.match(file, false)) {
+        result.add(pattern);
+      }
+    }
+    return result;
+  }
+
+  private List<PathPattern> indexed(IndexedFile file) {
+    return index.matching(file, false);
+  }
+
+  private long bestDuration(Function<IndexedFile, List<PathPattern>> matcher) {
+    long best = Long.MAX_VALUE;
+    int matches = 0;
+    for (int round = 0; round < ROUNDS; round++) {
+      long start = System.nanoTime();
+      for (IndexedFile file : files) {
+        matches += matcher.apply(file).size();
+      }
+      best = Math.min(best, System.nanoTime() - start);
+    }
+    assertThat(matches).isPositive();
+    return best;
+  }
+
+  private static String[] stringPatterns() {
+    List<String> result = new ArrayList<>();
+    // patterns of languages
+    for (String extension : EXTENSIONS) {
+      result.addAll(asList("**/*." + extension, "**/*." + extension.toUpperCase(), "**/*." + extension + "x"));
+    }
+    // inclusions and exclusions
+    for (int i = 0; i < 50; i++) {
+      result.add("**/generated" + i + "/**");
+      result.add("src/module" + i + "/**/*Test.java");
+      result.add("**/*Dto" + i + ".java");
+      result.add("file:**/target" + i + "/**");
+    }
+    return result.toArray(new String[0]);
+  }
+
+  private List<IndexedFile> files(int count) {
+    Random random = new Random(42L);
+    List<IndexedFile> result = new ArrayList<>(count);
+    for (int i = 0; i < count; i++) {
+      String path = "src/module" + random.nextInt(60) + "/" + (random.nextInt(10) == 0 ? "generated" + random.nextInt(60) + "/" : "") +
+        "org/pkg" + random.nextInt(100) + "/File" + i + (random.nextInt(5) == 0 ? "Test" : "") + "." + EXTENSIONS[random.nextInt(EXTENSIONS.length)];
+      result.add(new DefaultIndexedFile("ABCDE", moduleBasePath, path));
+    }
+    return result;
+  }
+}
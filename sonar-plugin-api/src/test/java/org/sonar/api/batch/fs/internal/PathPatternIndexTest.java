@@ -0,0 +1,126 @@
+/*
+ * SonarQube
+ * Copyright (C) 2009-2017 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.api.batch.fs.internal;
+
+import com.google.common.collect.ImmutableMap;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.sonar.api.batch.fs.IndexedFile;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class PathPatternIndexTest {
+  @Rule
+  public TemporaryFolder temp = new TemporaryFolder();
+  private Path moduleBasePath;
+
+  @Before
+  public void setUp() throws IOException {
+    moduleBasePath = temp.newFolder().toPath();
+  }
+
+  @Test
+  public void match_by_extension() {
+    PathPatternIndex<String> index = new PathPatternIndex<>(ImmutableMap.of(
+      "java", PathPattern.create(new String[] {"**/*.java", "**/*.jav"}),
+      "js", PathPattern.create(new String[] {"**/*.js"}),
+      "ts", PathPattern.create(new String[] {"**/*.d.ts", "**/*.ts"})));
+
+    assertThat(index.matching(file("src/main/java/org/Foo.java"), true)).containsExactly("java");
+    assertThat(index.matching(file("src/main/java/org/Foo.jav"), true)).containsExactly("java");
+    assertThat(index.matching(file("Foo.js"), true)).containsExactly("js");
+    assertThat(index.matching(file("src/foo.d.ts"), true)).containsExactly("ts");
+    assertThat(index.matching(file("src/foo.json"), true)).isEmpty();
+    assertThat(index.matching(file("src/Makefile"), true)).isEmpty();
+    assertThat(index.matching(file("src/Foo.JAVA"), true)).isEmpty();
+    assertThat(index.matching(file("src/Foo.JAVA"), false)).containsExactly("java");
+  }
+
+  @Test
+  public void return_all_matching_values_in_order() {
+    Map<String, PathPattern[]> patterns = new LinkedHashMap<>();
+    patterns.put("first", PathPattern.create(new String[] {"src/**/*.xml"}));
+    patterns.put("second", PathPattern.create(new String[] {"**/*.xml", "**/*.java"}));
+    patterns.put("third", PathPattern.create(new String[] {"**/pom.xml"}));
+    PathPatternIndex<String> index = new PathPatternIndex<>(patterns);
+
+    assertThat(index.matching(file("src/main/pom.xml"), true)).containsExactly("first", "second", "third");
+    assertThat(index.matching(file("pom.xml"), true)).containsExactly("second", "third");
+    assertThat(index.matching(file("Foo.java"), true)).containsExactly("second");
+    assertThat(index.matchesAny(file("Foo.java"), true)).isTrue();
+    assertThat(index.matchesAny(file("Foo.php"), true)).isFalse();
+  }
+
+  @Test
+  public void match_any_kind_of_pattern() {
+    PathPatternIndex<PathPattern> index = PathPatternIndex.of(PathPattern.create(new String[] {
+      "src/main/java/org/Foo.java", "/lib/**", "**/generated/**/*.java", "src/?oo/*", "file:**/resources/**"}));
+
+    assertThat(index.isEmpty()).isFalse();
+    assertThat(index.matchesAny(file("src/main/java/org/Foo.java"), true)).isTrue();
+    assertThat(index.matchesAny(file("src/main/java/org/Bar.java"), true)).isFalse();
+    assertThat(index.matchesAny(file("lib/foo/bar.js"), true)).isTrue();
+    assertThat(index.matchesAny(file("src/lib/bar.js"), true)).isFalse();
+    assertThat(index.matchesAny(file("src/generated/Foo.java"), true)).isTrue();
+    assertThat(index.matchesAny(file("generated/org/Foo.java"), true)).isTrue();
+    assertThat(index.matchesAny(file("generated/org/Foo.js"), true)).isFalse();
+    assertThat(index.matchesAny(file("src/foo/Foo.js"), true)).isTrue();
+    assertThat(index.matchesAny(file("src/foo/bar/Foo.js"), true)).isFalse();
+    assertThat(index.matchesAny(file("src/test/resources/Foo.js"), true)).isTrue();
+  }
+
+  @Test
+  public void same_result_as_path_patterns() {
+    String[] stringPatterns = {"**/*.java", "**/*Test.java", "**\\*.xml", "src/**", "**/foo/**", "**/*", "*.js", "src/main/*/Foo.*",
+      "/src/**/bar/*.php", "**/Foo?.java", "**/*.JAVA", "file:**/src/**/*.js", "src/main/java/Foo.java", "**/*Foo", "**/*.d.ts"};
+    String[] paths = {"src/main/java/Foo.java", "src/test/java/FooTest.java", "Foo.JAVA", "pom.xml", "src/main/resources/foo/bar.xml",
+      "foo/Foo.js", "Foo.js", "src/main/web/Foo.php", "src/bar/Foo.php", "src/a/bar/b.php", "Foo1.java", "lib/foo.d.ts", "lib/Foo", "Makefile"};
+    PathPattern[] patterns = PathPattern.create(stringPatterns);
+    PathPatternIndex<PathPattern> index = PathPatternIndex.of(patterns);
+
+    for (String path : paths) {
+      for (boolean caseSensitive : new boolean[] {true, false}) {
+        IndexedFile file = file(path);
+        assertThat(index.matching(file, caseSensitive)).as(path)
+          .containsExactly(Arrays.stream(patterns).filter(p -> p.match(file, caseSensitive)).toArray(PathPattern[]::new));
+      }
+    }
+  }
+
+  @Test
+  public void empty_index() {
+    PathPatternIndex<PathPattern> index = PathPatternIndex.of();
+
+    assertThat(index.isEmpty()).isTrue();
+    assertThat(index.matchesAny(file("Foo.java"), true)).isFalse();
+    assertThat(index.matching(file("Foo.java"), true)).isEmpty();
+  }
+
+  private IndexedFile file(String relativePath) {
+    return new DefaultIndexedFile("ABCDE", moduleBasePath, relativePath);
+  }
+}
@@ -19,37 +19,71 @@
  */
 package org.sonar.scanner.cpd.index;
 
+import java.io.Closeable;
+import java.io.IOException;
 import java.util.Collection;
 import java.util.HashSet;
 import java.util.Iterator;
 import java.util.Set;
 import java.util.stream.Collectors;
+import javax.annotation.Nullable;
 import org.apache.commons.lang.StringUtils;
+import org.picocontainer.Startable;
 import org.sonar.api.CoreProperties;
 import org.sonar.api.batch.fs.InputFile;
 import org.sonar.api.batch.fs.internal.DefaultInputFile;
 import org.sonar.api.config.Settings;
+import org.sonar.api.utils.TempFolder;
+import org.sonar.api.utils.log.Loggers;
 import org.sonar.duplications.block.Block;
 import org.sonar.duplications.block.ByteArray;
 import org.sonar.duplications.index.AbstractCloneIndex;
 import org.sonar.duplications.index.CloneIndex;
+import org.sonar.duplications.index.OffHeapCloneIndex;
 import org.sonar.duplications.index.PackedMemoryCloneIndex;
 import org.sonar.duplications.index.PackedMemoryCloneIndex.ResourceBlocks;
 import org.sonar.scanner.protocol.output.FileStructure;
 import org.sonar.scanner.protocol.output.ScannerReport;
 import org.sonar.scanner.report.ReportPublisher;
 
-public class SonarCpdBlockIndex extends AbstractCloneIndex {
+public class SonarCpdBlockIndex extends AbstractCloneIndex implements Startable {
 
-  private final CloneIndex mem = new PackedMemoryCloneIndex();
+  /**
+   * When enabled, blocks are stored in memory-mapped files of the analysis temp folder rather than
+   * on the Java heap. Intended for very large projects.
+   */
+  public static final String OFF_HEAP_INDEX_PROPERTY = "sonar.cpd.offHeapIndex";
+
+  private final CloneIndex mem;
   private final ReportPublisher publisher;
   private final Settings settings;
   // Files already tokenized
   private final Set<InputFile> indexedFiles = new HashSet<>();
 
-  public SonarCpdBlockIndex(ReportPublisher publisher, Settings settings) {
+  public SonarCpdBlockIndex(ReportPublisher publisher, Settings settings, TempFolder tempFolder) {
     this.publisher = publisher;
     this.settings = settings;
+    if (settings.getBoolean(OFF_HEAP_INDEX_PROPERTY)) {
+      this.mem = new OffHeapCloneIndex(8, tempFolder.newDir("cpd").toPath());
+    } else {
+      this.mem = new PackedMemoryCloneIndex();
+    }
+  }
+
+  @Override
+  public void start() {
+    // nothing to do
+  }
+
+  @Override
+  public void stop() {
+    if (mem instanceof Closeable) {
+      try {
+        ((Closeable) mem).close();
+      } catch (IOException e) {
+        Loggers.get(SonarCpdBlockIndex.class).warn("Fail to release CPD index", e);
+      }
+    }
   }
 
   public void insert(InputFile inputFile, Collection<Block> blocks) {
@@ -94,6 +128,11 @@ public class SonarCpdBlockIndex extends AbstractCloneIndex {
     return mem.getBySequenceHash(hash);
   }
 
+  @Override
+  public Collection<Block> getBySequenceHash(ByteArray hash, @Nullable String excludedResourceId) {
+    return mem.getBySequenceHash(hash, excludedResourceId);
+  }
+
   @Override
   public Collection<Block> getByResourceId(String resourceId) {
     throw new UnsupportedOperationException();
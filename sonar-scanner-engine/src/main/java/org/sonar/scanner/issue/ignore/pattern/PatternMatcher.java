@@ -23,6 +23,7 @@ import org.sonar.api.scan.issue.filter.FilterableIssue;
 
 import com.google.common.collect.LinkedHashMultimap;
 import com.google.common.collect.Multimap;
+import com.google.common.collect.Multimaps;
 
 import java.util.Collection;
 import java.util.Iterator;
@@ -30,7 +31,8 @@ import java.util.Set;
 
 public class PatternMatcher {
 
-  private Multimap<String, IssuePattern> patternByComponent = LinkedHashMultimap.create();
+  // patterns are added concurrently when file contents are scanned during indexing
+  private Multimap<String, IssuePattern> patternByComponent = Multimaps.synchronizedSetMultimap(LinkedHashMultimap.create());
 
   public IssuePattern getMatchingPattern(FilterableIssue issue) {
     IssuePattern matchingPattern = null;
@@ -19,6 +19,7 @@
  */
 package org.sonar.scanner.issue.ignore.scanner;
 
+import java.io.IOException;
 import java.nio.charset.Charset;
 import org.sonar.api.batch.fs.FileSystem;
 import org.sonar.api.batch.fs.InputFile;
@@ -61,7 +62,7 @@ public final class IssueExclusionsLoader {
           inclusionPatternInitializer.initializePatternsForPath(path, componentEffectiveKey);
           exclusionPatternInitializer.initializePatternsForPath(path, componentEffectiveKey);
           if (exclusionPatternInitializer.hasFileContentPattern()) {
-            regexpScanner.scan(componentEffectiveKey, inputFile.file(), sourcesEncoding);
+            scan((DefaultInputFile) inputFile, componentEffectiveKey, sourcesEncoding);
           }
         }
       } catch (Exception e) {
@@ -71,6 +72,14 @@ public final class IssueExclusionsLoader {
     }
   }
 
+  private void scan(DefaultInputFile inputFile, String componentEffectiveKey, Charset sourcesEncoding) throws IOException {
+    // content is usually scanned when metadata are generated, see MetadataGenerator
+    inputFile.checkMetadata();
+    if (!regexpScanner.isScanned(componentEffectiveKey)) {
+      regexpScanner.scan(componentEffectiveKey, inputFile.file(), sourcesEncoding);
+    }
+  }
+
   @Override
   public String toString() {
     return "Issues Exclusions - Source Scanner";
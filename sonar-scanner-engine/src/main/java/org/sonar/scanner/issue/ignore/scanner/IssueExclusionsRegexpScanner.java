@@ -23,37 +23,33 @@ import org.apache.commons.lang.StringUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.sonar.api.batch.ScannerSide;
+import org.sonar.api.batch.fs.internal.FileMetadata;
+import org.sonar.api.batch.fs.internal.FileMetadata.CharHandler;
 import org.sonar.scanner.issue.ignore.pattern.IssueExclusionPatternInitializer;
 import org.sonar.scanner.issue.ignore.pattern.IssuePattern;
 import org.sonar.scanner.issue.ignore.pattern.LineRange;
 import java.io.File;
 import java.io.IOException;
 import java.nio.charset.Charset;
-import java.nio.file.Files;
 import java.util.ArrayList;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
 @ScannerSide
 public class IssueExclusionsRegexpScanner {
 
   private static final Logger LOG = LoggerFactory.getLogger(IssueExclusionsRegexpScanner.class);
 
-  private IssueExclusionPatternInitializer exclusionPatternInitializer;
-  private List<java.util.regex.Pattern> allFilePatterns;
-  private List<DoubleRegexpMatcher> blockMatchers;
-
-  // fields to be reset at every new scan
-  private DoubleRegexpMatcher currentMatcher;
-  private int fileLength;
-  private List<LineExclusion> lineExclusions;
-  private LineExclusion currentLineExclusion;
+  private final IssueExclusionPatternInitializer exclusionPatternInitializer;
+  private final List<java.util.regex.Pattern> allFilePatterns;
+  private final List<DoubleRegexpMatcher> blockMatchers;
+  private final Set<String> scannedResources = ConcurrentHashMap.newKeySet();
 
   public IssueExclusionsRegexpScanner(IssueExclusionPatternInitializer patternsInitializer) {
     this.exclusionPatternInitializer = patternsInitializer;
 
-    lineExclusions = new ArrayList<>();
     allFilePatterns = new ArrayList<>();
     blockMatchers = new ArrayList<>();
 
@@ -65,93 +61,144 @@ public class IssueExclusionsRegexpScanner {
         java.util.regex.Pattern.compile(pattern.getBeginBlockRegexp()),
         java.util.regex.Pattern.compile(pattern.getEndBlockRegexp())));
     }
-
-    init();
   }
 
-  private void init() {
-    currentMatcher = null;
-    fileLength = 0;
-    lineExclusions.clear();
-    currentLineExclusion = null;
+  public void scan(String resource, File file, Charset sourcesEncoding) throws IOException {
+    FileMetadata.readFile(file, sourcesEncoding, newCharHandler(resource));
   }
 
-  public void scan(String resource, File file, Charset sourcesEncoding) throws IOException {
+  /**
+   * Handler searching for exclusion patterns in the content of the given resource. It is meant to be
+   * given to {@link FileMetadata} so that the file is scanned while its metadata are computed.
+   * A new handler must be created for each file, handlers of different files can be used concurrently.
+   */
+  public CharHandler newCharHandler(String resource) {
     LOG.debug("Scanning {}", resource);
-    init();
+    return new FileScanner(resource);
+  }
+
+  /**
+   * Whether the content of the resource has been fully scanned, either by {@link #scan(String, File, Charset)} or
+   * by a handler returned by {@link #newCharHandler(String)}.
+   */
+  public boolean isScanned(String resource) {
+    return scannedResources.contains(resource);
+  }
+
+  private class FileScanner extends CharHandler {
+    private final String resource;
+    private final StringBuilder line = new StringBuilder();
+    private final List<LineExclusion> lineExclusions = new ArrayList<>();
+    private int lineIndex = 0;
+    private boolean fileExcluded = false;
+    private DoubleRegexpMatcher currentMatcher;
+    private LineExclusion currentLineExclusion;
+
+    FileScanner(String resource) {
+      this.resource = resource;
+    }
+
+    @Override
+    protected void handleIgnoreEoL(char c) {
+      if (!fileExcluded) {
+        line.append(c);
+      }
+    }
 
-    List<String> lines = Files.readAllLines(file.toPath(), sourcesEncoding);
-    int lineIndex = 0;
-    for (String line : lines) {
+    @Override
+    protected void newLine() {
+      processLine();
+    }
+
+    @Override
+    protected void eof() {
+      // same as Files#readAllLines(): there is no additional empty line when the file ends with a line break
+      if (line.length() > 0) {
+        processLine();
+      }
+      if (!fileExcluded) {
+        addLineExclusions();
+      }
+      scannedResources.add(resource);
+    }
+
+    private void processLine() {
       lineIndex++;
-      if (line.trim().length() == 0) {
-        continue;
+      if (fileExcluded) {
+        return;
+      }
+      String currentLine = line.toString();
+      line.setLength(0);
+      if (currentLine.trim().length() == 0) {
+        return;
       }
 
       // first check the single regexp patterns that can be used to totally exclude a file
       for (java.util.regex.Pattern pattern : allFilePatterns) {
-        if (pattern.matcher(line).find()) {
+        if (pattern.matcher(currentLine).find()) {
           exclusionPatternInitializer.getPatternMatcher().addPatternToExcludeResource(resource);
           // nothing more to do on this file
           LOG.debug("- Exclusion pattern '{}': every violation in this file will be ignored.", pattern);
+          fileExcluded = true;
           return;
         }
       }
 
       // then check the double regexps if we're still here
-      checkDoubleRegexps(line, lineIndex);
+      checkDoubleRegexps(currentLine);
     }
 
-    if (currentMatcher != null && !currentMatcher.hasSecondPattern()) {
-      // this will happen when there is a start block regexp but no end block regexp
-      endExclusion(lineIndex + 1);
-    }
+    private void addLineExclusions() {
+      if (currentMatcher != null && !currentMatcher.hasSecondPattern()) {
+        // this will happen when there is a start block regexp but no end block regexp
+        endExclusion(lineIndex + 1);
+      }
 
-    // now create the new line-based pattern for this file if there are exclusions
-    fileLength = lineIndex;
-    if (!lineExclusions.isEmpty()) {
-      Set<LineRange> lineRanges = convertLineExclusionsToLineRanges();
-      LOG.debug("- Line exclusions found: {}", lineRanges);
-      exclusionPatternInitializer.getPatternMatcher().addPatternToExcludeLines(resource, lineRanges);
+      // now create the new line-based pattern for this file if there are exclusions
+      if (!lineExclusions.isEmpty()) {
+        Set<LineRange> lineRanges = convertLineExclusionsToLineRanges(lineIndex);
+        LOG.debug("- Line exclusions found: {}", lineRanges);
+        exclusionPatternInitializer.getPatternMatcher().addPatternToExcludeLines(resource, lineRanges);
+      }
     }
-  }
 
-  private Set<LineRange> convertLineExclusionsToLineRanges() {
-    Set<LineRange> lineRanges = new HashSet<>(lineExclusions.size());
-    for (LineExclusion lineExclusion : lineExclusions) {
-      lineRanges.add(lineExclusion.toLineRange());
+    private Set<LineRange> convertLineExclusionsToLineRanges(int fileLength) {
+      Set<LineRange> lineRanges = new HashSet<>(lineExclusions.size());
+      for (LineExclusion lineExclusion : lineExclusions) {
+        lineRanges.add(lineExclusion.toLineRange(fileLength));
+      }
+      return lineRanges;
     }
-    return lineRanges;
-  }
 
-  private void checkDoubleRegexps(String line, int lineIndex) {
-    if (currentMatcher == null) {
-      for (DoubleRegexpMatcher matcher : blockMatchers) {
-        if (matcher.matchesFirstPattern(line)) {
-          startExclusion(lineIndex);
-          currentMatcher = matcher;
-          break;
+    private void checkDoubleRegexps(String currentLine) {
+      if (currentMatcher == null) {
+        for (DoubleRegexpMatcher matcher : blockMatchers) {
+          if (matcher.matchesFirstPattern(currentLine)) {
+            startExclusion(lineIndex);
+            currentMatcher = matcher;
+            break;
+          }
+        }
+      } else {
+        if (currentMatcher.matchesSecondPattern(currentLine)) {
+          endExclusion(lineIndex);
+          currentMatcher = null;
         }
-      }
-    } else {
-      if (currentMatcher.matchesSecondPattern(line)) {
-        endExclusion(lineIndex);
-        currentMatcher = null;
       }
     }
-  }
 
-  private void startExclusion(int lineIndex) {
-    currentLineExclusion = new LineExclusion(lineIndex);
-    lineExclusions.add(currentLineExclusion);
-  }
+    private void startExclusion(int lineIndex) {
+      currentLineExclusion = new LineExclusion(lineIndex);
+      lineExclusions.add(currentLineExclusion);
+    }
 
-  private void endExclusion(int lineIndex) {
-    currentLineExclusion.setEnd(lineIndex);
-    currentLineExclusion = null;
+    private void endExclusion(int lineIndex) {
+      currentLineExclusion.setEnd(lineIndex);
+      currentLineExclusion = null;
+    }
   }
 
-  private class LineExclusion {
+  private static class LineExclusion {
 
     private int start;
     private int end;
@@ -165,7 +212,7 @@ public class IssueExclusionsRegexpScanner {
       this.end = end;
     }
 
-    public LineRange toLineRange() {
+    public LineRange toLineRange(int fileLength) {
       return new LineRange(start, end == -1 ? fileLength : end);
     }
 
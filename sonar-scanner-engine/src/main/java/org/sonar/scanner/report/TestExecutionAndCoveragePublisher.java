@@ -30,6 +30,7 @@ import org.sonar.api.test.CoverageBlock;
 import org.sonar.api.test.MutableTestCase;
 import org.sonar.api.test.MutableTestPlan;
 import org.sonar.api.test.TestCase;
+import org.sonar.core.util.LineRanges;
 import org.sonar.scanner.deprecated.test.DefaultTestable;
 import org.sonar.scanner.deprecated.test.TestPlanBuilder;
 import org.sonar.scanner.protocol.output.ScannerReport;
@@ -86,9 +87,7 @@ public class TestExecutionAndCoveragePublisher implements ReportPublisherStep {
       coveredBuilder.clear();
       DefaultInputComponent c = (DefaultInputComponent) componentStore.getByKey(((DefaultTestable) block.testable()).inputFile().key());
       coveredBuilder.setFileRef(c.batchId());
-      for (int line : block.lines()) {
-        coveredBuilder.addCoveredLine(line);
-      }
+      coveredBuilder.addAllCoveredLineRange(LineRanges.encode(block.lines()));
       builder.addCoveredFile(coveredBuilder.build());
     }
     return builder.build();
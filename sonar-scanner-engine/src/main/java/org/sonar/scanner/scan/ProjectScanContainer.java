@@ -88,6 +88,7 @@ import org.sonar.scanner.rule.DefaultRulesLoader;
 import org.sonar.scanner.rule.RulesLoader;
 import org.sonar.scanner.rule.RulesProvider;
 import org.sonar.scanner.scan.filesystem.BatchIdGenerator;
+import org.sonar.scanner.scan.filesystem.FileMetadataCache;
 import org.sonar.scanner.scan.filesystem.InputComponentStore;
 import org.sonar.scanner.scan.measure.DefaultMetricFinder;
 import org.sonar.scanner.scan.measure.DeprecatedMetricFinder;
@@ -154,6 +155,7 @@ public class ProjectScanContainer extends ComponentContainer {
       DefaultInputModuleHierarchy.class,
       DefaultComponentTree.class,
       BatchIdGenerator.class,
+      FileMetadataCache.class,
 
       // rules
       new ActiveRulesProvider(),
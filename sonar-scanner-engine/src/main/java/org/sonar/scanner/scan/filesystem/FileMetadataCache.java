@@ -0,0 +1,224 @@
+/*
+ * SonarQube
+ * Copyright (C) 2009-2017 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.scanner.scan.filesystem;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import javax.annotation.CheckForNull;
+import org.picocontainer.Startable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.sonar.api.batch.ScannerSide;
+import org.sonar.api.batch.bootstrap.ProjectReactor;
+import org.sonar.api.batch.fs.internal.Metadata;
+import org.sonar.api.config.Settings;
+import org.sonar.api.utils.System2;
+
+/**
+ * Metadata of the files indexed during previous analysis, stored in the working directory of the project.
+ * It avoids reading the files that were not modified since then, which are identified by their size and
+ * last modification date. Disabled by default, see {@link #ENABLED_PROPERTY}.
+ */
+@ScannerSide
+public class FileMetadataCache implements Startable {
+
+  public static final String ENABLED_PROPERTY = "sonar.cacheFileMetadata";
+  public static final String FILENAME = "file-metadata.cache";
+
+  private static final Logger LOG = LoggerFactory.getLogger(FileMetadataCache.class);
+  // to be incremented each time the format of the file or the computation of metadata change
+  private static final int VERSION = 1;
+  // files modified just before the analysis may be modified again without change of their timestamp,
+  // depending on the precision of the file system
+  private static final long RACY_MODIFICATION_DELAY_MS = 2_000L;
+
+  private final Path cacheFile;
+  private final boolean enabled;
+  private final System2 system2;
+  private final Map<String, CachedMetadata> previous = new HashMap<>();
+  private final Map<String, CachedMetadata> current = new ConcurrentHashMap<>();
+  private long startedAt;
+
+  public FileMetadataCache(ProjectReactor projectReactor, Settings settings, System2 system2) {
+    this.cacheFile = projectReactor.getRoot().getWorkDir().toPath().resolve(FILENAME);
+    this.enabled = settings.getBoolean(ENABLED_PROPERTY);
+    this.system2 = system2;
+  }
+
+  @Override
+  public void start() {
+    startedAt = system2.now();
+    if (!enabled || !Files.exists(cacheFile)) {
+      return;
+    }
+    try {
+      load();
+      LOG.debug("Metadata of {} files loaded from {}", previous.size(), cacheFile);
+    } catch (IOException | RuntimeException e) {
+      LOG.warn("Fail to load file metadata cache, all files will be read: {}", e.getMessage());
+      previous.clear();
+    }
+  }
+
+  @Override
+  public void stop() {
+    if (!enabled) {
+      return;
+    }
+    try {
+      save();
+    } catch (IOException e) {
+      LOG.warn("Fail to save file metadata cache to " + cacheFile, e);
+    }
+  }
+
+  public boolean isEnabled() {
+    return enabled;
+  }
+
+  /**
+   * @return the metadata computed during previous analysis, or {@code null} if the file has been modified since then
+   * or if it was read with another default encoding.
+   */
+  @CheckForNull
+  public CachedMetadata get(Path file, Charset defaultEncoding, BasicFileAttributes attributes) {
+    String key = file.toAbsolutePath().toString();
+    CachedMetadata cached = previous.get(key);
+    if (cached == null || !cached.matches(defaultEncoding, attributes)) {
+      return null;
+    }
+    current.put(key, cached);
+    return cached;
+  }
+
+  /**
+   * @param attributes the attributes of the file read before its content, so that a modification done while
+   *                   computing metadata is detected by next analysis.
+   */
+  public void put(Path file, Charset defaultEncoding, BasicFileAttributes attributes, Charset charset, Metadata metadata) {
+    long lastModified = attributes.lastModifiedTime().toMillis();
+    if (!enabled || lastModified >= startedAt - RACY_MODIFICATION_DELAY_MS) {
+      return;
+    }
+    current.put(file.toAbsolutePath().toString(), new CachedMetadata(attributes.size(), lastModified, defaultEncoding.name(), charset.name(), metadata));
+  }
+
+  private void load() throws IOException {
+    try (DataInputStream input = new DataInputStream(new BufferedInputStream(Files.newInputStream(cacheFile)))) {
+      if (input.readInt() != VERSION) {
+        LOG.debug("File metadata cache ignored as it has been created by another version");
+        return;
+      }
+      int count = input.readInt();
+      for (int i = 0; i < count; i++) {
+        String path = input.readUTF();
+        previous.put(path, CachedMetadata.read(input));
+      }
+    }
+  }
+
+  private void save() throws IOException {
+    Path tmpFile = cacheFile.resolveSibling(FILENAME + ".tmp");
+    Files.createDirectories(cacheFile.getParent());
+    try (DataOutputStream output = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tmpFile)))) {
+      output.writeInt(VERSION);
+      output.writeInt(current.size());
+      for (Map.Entry<String, CachedMetadata> entry : current.entrySet()) {
+        output.writeUTF(entry.getKey());
+        entry.getValue().write(output);
+      }
+    }
+    Files.move(tmpFile, cacheFile, StandardCopyOption.REPLACE_EXISTING);
+    LOG.debug("Metadata of {} files saved to {}", current.size(), cacheFile);
+  }
+
+  public static final class CachedMetadata {
+    private final long size;
+    private final long lastModified;
+    private final String defaultEncoding;
+    private final String charset;
+    private final Metadata metadata;
+
+    CachedMetadata(long size, long lastModified, String defaultEncoding, String charset, Metadata metadata) {
+      this.size = size;
+      this.lastModified = lastModified;
+      this.defaultEncoding = defaultEncoding;
+      this.charset = charset;
+      this.metadata = metadata;
+    }
+
+    public Charset charset() {
+      return Charset.forName(charset);
+    }
+
+    public Metadata metadata() {
+      return metadata;
+    }
+
+    private boolean matches(Charset defaultEncoding, BasicFileAttributes attributes) {
+      return size == attributes.size()
+        && lastModified == attributes.lastModifiedTime().toMillis()
+        && this.defaultEncoding.equals(defaultEncoding.name());
+    }
+
+    private void write(DataOutputStream output) throws IOException {
+      output.writeLong(size);
+      output.writeLong(lastModified);
+      output.writeUTF(defaultEncoding);
+      output.writeUTF(charset);
+      output.writeInt(metadata.lines());
+      output.writeInt(metadata.nonBlankLines());
+      output.writeUTF(metadata.hash());
+      int[] offsets = metadata.originalLineOffsets();
+      output.writeInt(offsets.length);
+      for (int offset : offsets) {
+        output.writeInt(offset);
+      }
+      output.writeInt(metadata.lastValidOffset());
+    }
+
+    private static CachedMetadata read(DataInputStream input) throws IOException {
+      long size = input.readLong();
+      long lastModified = input.readLong();
+      String defaultEncoding = input.readUTF();
+      String charset = input.readUTF();
+      int lines = input.readInt();
+      int nonBlankLines = input.readInt();
+      String hash = input.readUTF();
+      int[] offsets = new int[input.readInt()];
+      for (int i = 0; i < offsets.length; i++) {
+        offsets[i] = input.readInt();
+      }
+      int lastValidOffset = input.readInt();
+      return new CachedMetadata(size, lastModified, defaultEncoding, charset, new Metadata(lines, nonBlankLines, hash, offsets, lastValidOffset));
+    }
+  }
+}
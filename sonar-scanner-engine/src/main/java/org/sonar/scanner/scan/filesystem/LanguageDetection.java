@@ -33,6 +33,7 @@ import org.sonar.api.CoreProperties;
 import org.sonar.api.batch.ScannerSide;
 import org.sonar.api.batch.fs.internal.DefaultIndexedFile;
 import org.sonar.api.batch.fs.internal.PathPattern;
+import org.sonar.api.batch.fs.internal.PathPatternIndex;
 import org.sonar.api.config.Settings;
 import org.sonar.api.utils.MessageException;
 import org.sonar.scanner.repository.language.Language;
@@ -51,6 +52,7 @@ public class LanguageDetection {
    */
   private final Map<String, PathPattern[]> patternsByLanguage = new LinkedHashMap<>();
   private final List<String> languagesToConsider = new ArrayList<>();
+  private final PathPatternIndex<String> patternsToConsider;
   private final String forcedLanguage;
 
   public LanguageDetection(Settings settings, LanguagesRepository languages) {
@@ -84,6 +86,9 @@ public class LanguageDetection {
     } else {
       languagesToConsider.addAll(patternsByLanguage.keySet());
     }
+    Map<String, PathPattern[]> patternsByLanguageToConsider = new LinkedHashMap<>();
+    languagesToConsider.forEach(l -> patternsByLanguageToConsider.put(l, patternsByLanguage.get(l)));
+    patternsToConsider = new PathPatternIndex<>(patternsByLanguageToConsider);
   }
 
   public String forcedLanguage() {
@@ -96,20 +101,14 @@ public class LanguageDetection {
 
   @CheckForNull
   String language(DefaultIndexedFile inputFile) {
-    String detectedLanguage = null;
-    for (String languageKey : languagesToConsider) {
-      if (isCandidateForLanguage(inputFile, languageKey)) {
-        if (detectedLanguage == null) {
-          detectedLanguage = languageKey;
-        } else {
-          // Language was already forced by another pattern
-          throw MessageException.of(MessageFormat.format("Language of file ''{0}'' can not be decided as the file matches patterns of both {1} and {2}",
-            inputFile.relativePath(), getDetails(detectedLanguage), getDetails(languageKey)));
-        }
-      }
+    List<String> detectedLanguages = patternsToConsider.matching(inputFile, false);
+    if (detectedLanguages.size() > 1) {
+      // Language was already forced by another pattern
+      throw MessageException.of(MessageFormat.format("Language of file ''{0}'' can not be decided as the file matches patterns of both {1} and {2}",
+        inputFile.relativePath(), getDetails(detectedLanguages.get(0)), getDetails(detectedLanguages.get(1))));
     }
-    if (detectedLanguage != null) {
-      return detectedLanguage;
+    if (!detectedLanguages.isEmpty()) {
+      return detectedLanguages.get(0);
     }
 
     // Check if deprecated sonar.language is used and we are on a language without declared extensions.
@@ -120,18 +119,6 @@ public class LanguageDetection {
     return null;
   }
 
-  private boolean isCandidateForLanguage(DefaultIndexedFile inputFile, String languageKey) {
-    PathPattern[] patterns = patternsByLanguage.get(languageKey);
-    if (patterns != null) {
-      for (PathPattern pathPattern : patterns) {
-        if (pathPattern.match(inputFile, false)) {
-          return true;
-        }
-      }
-    }
-    return false;
-  }
-
   private static String getFileLangPatternPropKey(String languageKey) {
     return "sonar.lang.patterns." + languageKey;
   }
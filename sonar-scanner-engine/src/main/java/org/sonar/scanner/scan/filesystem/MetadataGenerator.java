@@ -27,6 +27,7 @@ import java.nio.charset.Charset;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -34,7 +35,11 @@ import org.sonar.api.batch.fs.InputFile.Type;
 import org.sonar.api.batch.fs.internal.DefaultInputFile;
 import org.sonar.api.batch.fs.internal.DefaultInputModule;
 import org.sonar.api.batch.fs.internal.FileMetadata;
+import org.sonar.api.batch.fs.internal.FileMetadata.CharHandler;
 import org.sonar.api.batch.fs.internal.Metadata;
+import org.sonar.scanner.issue.ignore.pattern.IssueExclusionPatternInitializer;
+import org.sonar.scanner.issue.ignore.scanner.IssueExclusionsRegexpScanner;
+import org.sonar.scanner.scan.filesystem.FileMetadataCache.CachedMetadata;
 
 class MetadataGenerator {
   private static final Logger LOG = LoggerFactory.getLogger(MetadataGenerator.class);
@@ -47,22 +52,46 @@ class MetadataGenerator {
   private final StatusDetection statusDetection;
   private final FileMetadata fileMetadata;
   private final DefaultInputModule inputModule;
+  private final IssueExclusionPatternInitializer exclusionPatternInitializer;
+  private final IssueExclusionsRegexpScanner exclusionsScanner;
+  private final FileMetadataCache metadataCache;
 
-  MetadataGenerator(DefaultInputModule inputModule, StatusDetection statusDetection, FileMetadata fileMetadata) {
+  MetadataGenerator(DefaultInputModule inputModule, StatusDetection statusDetection, FileMetadata fileMetadata,
+    IssueExclusionPatternInitializer exclusionPatternInitializer, IssueExclusionsRegexpScanner exclusionsScanner, FileMetadataCache metadataCache) {
     this.inputModule = inputModule;
     this.statusDetection = statusDetection;
     this.fileMetadata = fileMetadata;
+    this.exclusionPatternInitializer = exclusionPatternInitializer;
+    this.exclusionsScanner = exclusionsScanner;
+    this.metadataCache = metadataCache;
   }
 
   /**
    * Sets all metadata in the file, including charset and status.
-   * It is an expensive computation, reading the entire file.
+   * It is an expensive computation, reading the entire file, unless the file was not modified since
+   * the previous analysis and {@link FileMetadataCache} is enabled.
    */
   public void setMetadata(final DefaultInputFile inputFile, Charset defaultEncoding) {
     try {
-      Charset charset = detectCharset(inputFile.path(), defaultEncoding);
+      BasicFileAttributes attributes = null;
+      CachedMetadata cached = null;
+      if (metadataCache.isEnabled()) {
+        attributes = Files.readAttributes(inputFile.path(), BasicFileAttributes.class);
+        cached = metadataCache.get(inputFile.path(), defaultEncoding, attributes);
+      }
+      Charset charset;
+      Metadata metadata;
+      if (cached != null) {
+        charset = cached.charset();
+        metadata = cached.metadata();
+      } else {
+        charset = detectCharset(inputFile.path(), defaultEncoding);
+        metadata = fileMetadata.readMetadata(inputFile.file(), charset, contentHandlers(inputFile));
+        if (attributes != null) {
+          metadataCache.put(inputFile.path(), defaultEncoding, attributes, charset, metadata);
+        }
+      }
       inputFile.setCharset(charset);
-      Metadata metadata = fileMetadata.readMetadata(inputFile.file(), charset);
       inputFile.setMetadata(metadata);
       inputFile.setStatus(statusDetection.status(inputModule.definition().getKeyWithBranch(), inputFile.relativePath(), metadata.hash()));
       LOG.debug("'{}' generated metadata {} with charset '{}'",
@@ -72,6 +101,17 @@ class MetadataGenerator {
     }
   }
 
+  /**
+   * Issue exclusions based on file content are searched while reading the file for metadata, so that
+   * the file is not read a second time by {@link org.sonar.scanner.issue.ignore.scanner.IssueExclusionsLoader}.
+   */
+  private CharHandler[] contentHandlers(DefaultInputFile inputFile) {
+    if (exclusionPatternInitializer.hasFileContentPattern()) {
+      return new CharHandler[] {exclusionsScanner.newCharHandler(inputFile.key())};
+    }
+    return new CharHandler[0];
+  }
+
   /**
    * @return charset detected from BOM in given file or given defaultCharset
    * @throws IllegalStateException if an I/O error occurs
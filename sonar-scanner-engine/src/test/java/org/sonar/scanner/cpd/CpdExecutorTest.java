@@ -36,6 +36,7 @@ import org.sonar.api.batch.fs.internal.TestInputFileBuilder;
 import org.sonar.api.config.MapSettings;
 import org.sonar.api.config.Settings;
 import org.sonar.api.scan.filesystem.PathResolver;
+import org.sonar.api.utils.TempFolder;
 import org.sonar.api.utils.log.LogTester;
 import org.sonar.api.utils.log.LoggerLevel;
 import org.sonar.core.util.CloseableIterator;
@@ -56,6 +57,8 @@ import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.when;
 
 public class CpdExecutorTest {
+  private static final long TIMEOUT_IN_MS = 10_000L;
+
   private CpdExecutor executor;
   private Settings settings;
   private SonarCpdBlockIndex index;
@@ -85,7 +88,7 @@ public class CpdExecutorTest {
     settings = new MapSettings();
     publisher = mock(ReportPublisher.class);
     when(publisher.getWriter()).thenReturn(new ScannerReportWriter(outputDir));
-    index = new SonarCpdBlockIndex(publisher, settings);
+    index = new SonarCpdBlockIndex(publisher, settings, mock(TempFolder.class));
     componentStore = new InputComponentStore(new PathResolver());
     executor = new CpdExecutor(settings, index, publisher, componentStore);
     reader = new ScannerReportReader(outputDir);
@@ -239,6 +242,51 @@ public class CpdExecutorTest {
         "Timeout during detection of duplications for .*Foo2.php");
   }
 
+  @Test
+  public void detect_duplications_with_off_heap_index() throws IOException {
+    settings.setProperty(SonarCpdBlockIndex.OFF_HEAP_INDEX_PROPERTY, true);
+    TempFolder tempFolder = mock(TempFolder.class);
+    when(tempFolder.newDir("cpd")).thenReturn(temp.newFolder());
+    index = new SonarCpdBlockIndex(publisher, settings, tempFolder);
+    executor = new CpdExecutor(settings, index, publisher, componentStore);
+
+    DefaultInputFile file1 = createJavaComponent("src/Foo.java");
+    DefaultInputFile file2 = createJavaComponent("src/Bar.java");
+    index.insert(file1, newBlocks(file1, 1, 2, 3));
+    index.insert(file2, newBlocks(file2, 4, 1, 2, 3));
+    executor.execute(TIMEOUT_IN_MS);
+    index.stop();
+
+    try (CloseableIterator<Duplication> it = reader.readComponentDuplications(file1.batchId())) {
+      assertDuplication(it.next(), 1, 3, file2.batchId(), 2, 4);
+      assertThat(it.hasNext()).isFalse();
+    }
+  }
+
+  private DefaultInputFile createJavaComponent(String relativePath) {
+    DefaultInputFile file = new TestInputFileBuilder("foo", relativePath)
+      .setModuleBaseDir(baseDir.toPath())
+      .setLanguage("java")
+      .setLines(5)
+      .build();
+    componentStore.put(file);
+    return file;
+  }
+
+  private static List<Block> newBlocks(DefaultInputFile file, long... hashes) {
+    List<Block> blocks = new ArrayList<>();
+    for (int i = 0; i < hashes.length; i++) {
+      blocks.add(Block.builder()
+        .setResourceId(file.key())
+        .setIndexInFile(i)
+        .setLines(i + 1, i + 1)
+        .setUnit(i, i)
+        .setBlockHash(new ByteArray(hashes[i]))
+        .build());
+    }
+    return blocks;
+  }
+
   private Duplication[] readDuplications(int expected) {
     assertThat(reader.readComponentDuplications(batchComponent1.batchId())).hasSize(expected);
     Duplication[] duplications = new Duplication[expected];
@@ -21,6 +21,7 @@ package org.sonar.scanner.issue.ignore.scanner;
 
 import java.io.File;
 import java.io.IOException;
+import java.nio.charset.Charset;
 import org.junit.Before;
 import org.junit.Rule;
 import org.junit.Test;
@@ -37,7 +38,10 @@ import org.sonar.scanner.issue.ignore.pattern.PatternMatcher;
 
 import static java.nio.charset.StandardCharsets.UTF_8;
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyString;
 import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.verifyZeroInteractions;
 import static org.mockito.Mockito.when;
@@ -124,6 +128,22 @@ public class IssueExclusionsLoaderTest {
     verify(regexpScanner).scan("polop:src/test/java/FooTest.java", javaTestFile1, UTF_8);
   }
 
+  @Test
+  public void shouldNotScanFilesAlreadyScannedWithMetadata() throws IOException {
+    fs.add(new TestInputFileBuilder("polop", "src/main/java/Foo.java")
+      .setModuleBaseDir(baseDir.toPath())
+      .setType(InputFile.Type.MAIN)
+      .build());
+
+    when(exclusionPatternInitializer.hasFileContentPattern()).thenReturn(true);
+    when(regexpScanner.isScanned("polop:src/main/java/Foo.java")).thenReturn(true);
+
+    scanner.execute();
+
+    verify(exclusionPatternInitializer).initializePatternsForPath("src/main/java/Foo.java", "polop:src/main/java/Foo.java");
+    verify(regexpScanner, never()).scan(anyString(), any(File.class), any(Charset.class));
+  }
+
   @Test
   public void shouldAnalyseFilesOnlyWhenRegexConfigured() {
     fs.add(new TestInputFileBuilder("polop", "src/main/java/Foo.java")
@@ -31,6 +31,7 @@ import org.junit.Before;
 import org.junit.Test;
 import org.junit.rules.TemporaryFolder;
 import org.sonar.api.batch.fs.InputFile;
+import org.sonar.core.util.LineRanges;
 import org.sonar.scanner.mediumtest.ScannerMediumTester;
 import org.sonar.scanner.mediumtest.TaskResult;
 import org.sonar.xoo.XooPlugin;
@@ -110,14 +111,14 @@ public class CoveragePerTestMediumTest {
     org.sonar.scanner.protocol.output.ScannerReport.CoverageDetail someTest = result.coveragePerTestFor(file, "some test");
     assertThat(someTest.getCoveredFileList()).hasSize(2);
     assertThat(someTest.getCoveredFile(0).getFileRef()).isGreaterThan(0);
-    assertThat(someTest.getCoveredFile(0).getCoveredLineList()).containsExactly(10, 11);
+    assertThat(LineRanges.decode(someTest.getCoveredFile(0).getCoveredLineRangeList())).containsExactly(10, 11);
     assertThat(someTest.getCoveredFile(1).getFileRef()).isGreaterThan(0);
-    assertThat(someTest.getCoveredFile(1).getCoveredLineList()).containsExactly(1, 2);
+    assertThat(LineRanges.decode(someTest.getCoveredFile(1).getCoveredLineRangeList())).containsExactly(1, 2);
 
     org.sonar.scanner.protocol.output.ScannerReport.CoverageDetail anotherTest = result.coveragePerTestFor(file, "another test");
     assertThat(anotherTest.getCoveredFileList()).hasSize(1);
     assertThat(anotherTest.getCoveredFile(0).getFileRef()).isGreaterThan(0);
-    assertThat(anotherTest.getCoveredFile(0).getCoveredLineList()).containsExactly(10, 20);
+    assertThat(LineRanges.decode(anotherTest.getCoveredFile(0).getCoveredLineRangeList())).containsExactly(10, 20);
   }
 
   private TaskResult runTask(File baseDir) {
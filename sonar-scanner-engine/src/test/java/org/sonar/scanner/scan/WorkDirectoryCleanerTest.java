@@ -27,6 +27,7 @@ import org.sonar.api.batch.bootstrap.ProjectDefinition;
 import org.sonar.api.batch.bootstrap.ProjectReactor;
 import org.sonar.home.cache.DirectoryLock;
 import org.sonar.scanner.scan.WorkDirectoryCleaner;
+import org.sonar.scanner.scan.filesystem.FileMetadataCache;
 import java.io.File;
 import java.io.IOException;
 
@@ -76,4 +77,14 @@ public class WorkDirectoryCleanerTest {
     assertThat(temp.getRoot().list()).containsOnly(DirectoryLock.LOCK_FILE_NAME);
   }
 
+  @Test
+  public void keep_file_metadata_cache() throws IOException {
+    File cache = new File(temp.getRoot(), FileMetadataCache.FILENAME);
+    cache.createNewFile();
+
+    cleaner.execute();
+
+    assertThat(temp.getRoot().list()).containsOnly(DirectoryLock.LOCK_FILE_NAME, FileMetadataCache.FILENAME);
+  }
+
 }
@@ -125,6 +125,30 @@ public class ExclusionFiltersTest {
     assertThat(filter.accept(indexedFile, InputFile.Type.MAIN)).isFalse();
   }
 
+  @Test
+  public void match_inclusions_and_exclusions_of_several_kinds() throws IOException {
+    File excludedDir = new File(moduleBaseDir.toString(), "src/main/java/org/legacy");
+
+    Settings settings = new MapSettings();
+    settings.setProperty(CoreProperties.PROJECT_INCLUSIONS_PROPERTY, "**/*.java,src/main/resources/**/*.xml,src/?ain/web/*");
+    settings.setProperty(CoreProperties.PROJECT_EXCLUSIONS_PROPERTY, "**/*Dto.java,**/generated/**,file:" + excludedDir.getAbsolutePath() + "/**");
+    ExclusionFilters filter = new ExclusionFilters(new FileExclusions(settings));
+
+    filter.prepare();
+
+    assertThat(filter.accept(new DefaultIndexedFile("foo", moduleBaseDir, "src/main/java/org/bar/Foo.java"), InputFile.Type.MAIN)).isTrue();
+    assertThat(filter.accept(new DefaultIndexedFile("foo", moduleBaseDir, "src/main/resources/org/bar/foo.xml"), InputFile.Type.MAIN)).isTrue();
+    assertThat(filter.accept(new DefaultIndexedFile("foo", moduleBaseDir, "src/main/web/index.html"), InputFile.Type.MAIN)).isTrue();
+    assertThat(filter.accept(new DefaultIndexedFile("foo", moduleBaseDir, "src/main/web/js/index.js"), InputFile.Type.MAIN)).isFalse();
+    assertThat(filter.accept(new DefaultIndexedFile("foo", moduleBaseDir, "pom.xml"), InputFile.Type.MAIN)).isFalse();
+
+    // matching several exclusions
+    assertThat(filter.accept(new DefaultIndexedFile("foo", moduleBaseDir, "src/main/java/org/bar/FooDto.java"), InputFile.Type.MAIN)).isFalse();
+    assertThat(filter.accept(new DefaultIndexedFile("foo", moduleBaseDir, "src/main/java/generated/FooDto.java"), InputFile.Type.MAIN)).isFalse();
+    assertThat(filter.accept(new DefaultIndexedFile("foo", moduleBaseDir, "src/main/java/org/legacy/generated/FooDto.java"), InputFile.Type.MAIN)).isFalse();
+    assertThat(filter.accept(new DefaultIndexedFile("foo", moduleBaseDir, "src/main/java/org/legacy/Foo.java"), InputFile.Type.MAIN)).isFalse();
+  }
+
   @Test
   public void trim_pattern() {
     Settings settings = new MapSettings();
@@ -0,0 +1,160 @@
+/*
+ * SonarQube
+ * Copyright (C) 2009-2017 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.scanner.scan.filesystem;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileTime;
+import org.apache.commons.io.FileUtils;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.sonar.api.batch.bootstrap.ProjectDefinition;
+import org.sonar.api.batch.bootstrap.ProjectReactor;
+import org.sonar.api.batch.fs.internal.Metadata;
+import org.sonar.api.config.MapSettings;
+import org.sonar.api.config.Settings;
+import org.sonar.api.utils.System2;
+import org.sonar.scanner.scan.filesystem.FileMetadataCache.CachedMetadata;
+
+import static java.nio.charset.StandardCharsets.ISO_8859_1;
+import static java.nio.charset.StandardCharsets.UTF_16BE;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class FileMetadataCacheTest {
+
+  private static final long NOW = 1_500_000_000_000L;
+
+  @Rule
+  public TemporaryFolder temp = new TemporaryFolder();
+
+  private System2 system2 = mock(System2.class);
+  private Settings settings = new MapSettings();
+  private ProjectReactor projectReactor;
+  private File workDir;
+  private Path file;
+
+  @Before
+  public void setUp() throws Exception {
+    workDir = temp.newFolder();
+    projectReactor = new ProjectReactor(ProjectDefinition.create().setWorkDir(workDir));
+    file = temp.newFile("Foo.java").toPath();
+    FileUtils.write(file.toFile(), "foo\nbar", UTF_8);
+    Files.setLastModifiedTime(file, FileTime.fromMillis(NOW - 60_000L));
+    when(system2.now()).thenReturn(NOW);
+    settings.setProperty(FileMetadataCache.ENABLED_PROPERTY, true);
+  }
+
+  @Test
+  public void reuse_metadata_of_previous_analysis() throws Exception {
+    FileMetadataCache cache = startCache();
+    assertThat(cache.get(file, UTF_8, attributes())).isNull();
+    cache.put(file, UTF_8, attributes(), UTF_16BE, new Metadata(2, 2, "hash", new int[] {0, 4}, 7));
+    cache.stop();
+
+    cache = startCache();
+    CachedMetadata cached = cache.get(file, UTF_8, attributes());
+
+    assertThat(cached.charset()).isEqualTo(UTF_16BE);
+    assertThat(cached.metadata().lines()).isEqualTo(2);
+    assertThat(cached.metadata().nonBlankLines()).isEqualTo(2);
+    assertThat(cached.metadata().hash()).isEqualTo("hash");
+    assertThat(cached.metadata().originalLineOffsets()).containsExactly(0, 4);
+    assertThat(cached.metadata().lastValidOffset()).isEqualTo(7);
+  }
+
+  @Test
+  public void keep_only_files_of_last_analysis() throws Exception {
+    FileMetadataCache cache = startCache();
+    cache.put(file, UTF_8, attributes(), UTF_8, new Metadata(2, 2, "hash", new int[] {0, 4}, 7));
+    cache.stop();
+
+    // file is not requested during second analysis
+    startCache().stop();
+
+    assertThat(startCache().get(file, UTF_8, attributes())).isNull();
+  }
+
+  @Test
+  public void ignore_modified_file() throws Exception {
+    FileMetadataCache cache = startCache();
+    cache.put(file, UTF_8, attributes(), UTF_8, new Metadata(2, 2, "hash", new int[] {0, 4}, 7));
+    cache.stop();
+
+    Files.setLastModifiedTime(file, FileTime.fromMillis(NOW - 30_000L));
+
+    assertThat(startCache().get(file, UTF_8, attributes())).isNull();
+  }
+
+  @Test
+  public void ignore_file_read_with_other_encoding() throws Exception {
+    FileMetadataCache cache = startCache();
+    cache.put(file, UTF_8, attributes(), UTF_8, new Metadata(2, 2, "hash", new int[] {0, 4}, 7));
+    cache.stop();
+
+    assertThat(startCache().get(file, ISO_8859_1, attributes())).isNull();
+  }
+
+  @Test
+  public void do_not_cache_file_modified_just_before_analysis() throws Exception {
+    Files.setLastModifiedTime(file, FileTime.fromMillis(NOW - 500L));
+    FileMetadataCache cache = startCache();
+    cache.put(file, UTF_8, attributes(), UTF_8, new Metadata(2, 2, "hash", new int[] {0, 4}, 7));
+    cache.stop();
+
+    assertThat(startCache().get(file, UTF_8, attributes())).isNull();
+  }
+
+  @Test
+  public void ignore_corrupted_cache() throws Exception {
+    FileUtils.write(new File(workDir, FileMetadataCache.FILENAME), "corrupted", UTF_8);
+
+    FileMetadataCache cache = startCache();
+
+    assertThat(cache.get(file, UTF_8, attributes())).isNull();
+  }
+
+  @Test
+  public void do_nothing_when_disabled() throws Exception {
+    settings.setProperty(FileMetadataCache.ENABLED_PROPERTY, false);
+    FileMetadataCache cache = startCache();
+    cache.put(file, UTF_8, attributes(), UTF_8, new Metadata(2, 2, "hash", new int[] {0, 4}, 7));
+    cache.stop();
+
+    assertThat(cache.isEnabled()).isFalse();
+    assertThat(new File(workDir, FileMetadataCache.FILENAME)).doesNotExist();
+  }
+
+  private FileMetadataCache startCache() {
+    FileMetadataCache cache = new FileMetadataCache(projectReactor, settings, system2);
+    cache.start();
+    return cache;
+  }
+
+  private BasicFileAttributes attributes() throws Exception {
+    return Files.readAttributes(file, BasicFileAttributes.class);
+  }
+}
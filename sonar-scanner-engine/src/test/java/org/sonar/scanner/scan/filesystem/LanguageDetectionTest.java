@@ -180,6 +180,62 @@ public class LanguageDetectionTest {
     }
   }
 
+  @Test
+  public void fail_if_file_matches_extension_of_a_language_and_pattern_of_another() throws Exception {
+    LanguagesRepository languages = new DefaultLanguagesRepository(new Languages(new MockLanguage("java", "java"), new MockLanguage("jsp", "jsp")));
+    Settings settings = new MapSettings();
+    settings.setProperty("sonar.lang.patterns.jsp", "**/*.jsp,src/**/generated/*.java");
+
+    LanguageDetection detection = new LanguageDetection(settings, languages);
+
+    assertThat(detection.language(newIndexedFile("src/main/Foo.java"))).isEqualTo("java");
+    assertThat(detection.language(newIndexedFile("src/main/foo.jsp"))).isEqualTo("jsp");
+    try {
+      detection.language(newIndexedFile("src/main/generated/Foo.java"));
+      fail();
+    } catch (MessageException e) {
+      assertThat(e.getMessage())
+        .contains("Language of file 'src/main/generated/Foo.java' can not be decided as the file matches patterns of both ")
+        .contains("sonar.lang.patterns.java : **/*.java")
+        .contains("sonar.lang.patterns.jsp : **/*.jsp,src/**/generated/*.java");
+    }
+  }
+
+  @Test
+  public void fail_if_file_matches_absolute_pattern_of_a_language_and_extension_of_another() throws Exception {
+    LanguagesRepository languages = new DefaultLanguagesRepository(new Languages(new MockLanguage("abap", "abap"), new MockLanguage("cobol", "txt")));
+    Settings settings = new MapSettings();
+    settings.setProperty("sonar.lang.patterns.abap", "**/*.abap,file:**/abap/**");
+
+    LanguageDetection detection = new LanguageDetection(settings, languages);
+
+    assertThat(detection.language(newIndexedFile("cobol/foo.txt"))).isEqualTo("cobol");
+    try {
+      detection.language(newIndexedFile("abap/foo.txt"));
+      fail();
+    } catch (MessageException e) {
+      assertThat(e.getMessage())
+        .contains("Language of file 'abap/foo.txt' can not be decided as the file matches patterns of both ")
+        .contains("sonar.lang.patterns.abap : **/*.abap,file:**/abap/**")
+        .contains("sonar.lang.patterns.cobol : **/*.txt");
+    }
+  }
+
+  @Test
+  public void fail_if_conflicting_language_suffix_whatever_the_case_of_extension() throws Exception {
+    LanguagesRepository languages = new DefaultLanguagesRepository(new Languages(new MockLanguage("xml", "xhtml"), new MockLanguage("web", "XHTML")));
+    LanguageDetection detection = new LanguageDetection(new MapSettings(), languages);
+    try {
+      detection.language(newIndexedFile("abc.XHTML"));
+      fail();
+    } catch (MessageException e) {
+      assertThat(e.getMessage())
+        .contains("Language of file 'abc.XHTML' can not be decided as the file matches patterns of both ")
+        .contains("sonar.lang.patterns.web : **/*.xhtml")
+        .contains("sonar.lang.patterns.xml : **/*.xhtml");
+    }
+  }
+
   private DefaultIndexedFile newIndexedFile(String path) throws IOException {
     File basedir = temp.newFolder();
     return new DefaultIndexedFile("foo", basedir.toPath(), path);
@@ -20,11 +20,18 @@
 package org.sonar.scanner.scan.filesystem;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyZeroInteractions;
 import static org.mockito.Mockito.when;
 
+import java.nio.charset.Charset;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.nio.file.attribute.BasicFileAttributes;
 
 import org.apache.commons.io.FileUtils;
 import org.junit.Assert;
@@ -38,8 +45,11 @@ import org.sonar.api.batch.fs.InputFile;
 import org.sonar.api.batch.fs.internal.DefaultInputFile;
 import org.sonar.api.batch.fs.internal.DefaultInputModule;
 import org.sonar.api.batch.fs.internal.FileMetadata;
+import org.sonar.api.batch.fs.internal.Metadata;
 import org.sonar.api.batch.fs.internal.TestInputFileBuilder;
 import org.sonar.api.utils.PathUtils;
+import org.sonar.scanner.issue.ignore.pattern.IssueExclusionPatternInitializer;
+import org.sonar.scanner.issue.ignore.scanner.IssueExclusionsRegexpScanner;
 
 public class MetadataGeneratorTest {
   @Rule
@@ -49,6 +59,12 @@ public class MetadataGeneratorTest {
   private StatusDetection statusDetection;
   @Mock
   private DefaultModuleFileSystem fs;
+  @Mock
+  private IssueExclusionPatternInitializer exclusionPatternInitializer;
+  @Mock
+  private IssueExclusionsRegexpScanner exclusionsScanner;
+  @Mock
+  private FileMetadataCache metadataCache;
 
   private FileMetadata metadata;
   private MetadataGenerator generator;
@@ -57,7 +73,8 @@ public class MetadataGeneratorTest {
   public void setUp() {
     MockitoAnnotations.initMocks(this);
     metadata = new FileMetadata();
-    generator = new MetadataGenerator(new DefaultInputModule("module"), statusDetection, metadata);
+    generator = new MetadataGenerator(new DefaultInputModule("module"), statusDetection, metadata, exclusionPatternInitializer, exclusionsScanner,
+      metadataCache);
   }
 
   @Test
@@ -115,4 +132,60 @@ public class MetadataGeneratorTest {
     assertThat(inputFile.relativePath()).isEqualTo("src/main/java/foo/Bar.java");
     assertThat(inputFile.lines()).isEqualTo(1);
   }
+
+  @Test
+  public void scan_content_for_issue_exclusions_when_reading_metadata() throws Exception {
+    Path baseDir = temp.newFolder().toPath();
+    Path srcFile = baseDir.resolve("src/main/java/foo/Bar.java");
+    FileUtils.write(srcFile.toFile(), "single line");
+    when(exclusionPatternInitializer.hasFileContentPattern()).thenReturn(true);
+    when(exclusionsScanner.newCharHandler("struts:src/main/java/foo/Bar.java")).thenReturn(new FileMetadata.CharHandler() {
+    });
+
+    createInputFileWithMetadata(generator, baseDir, "src/main/java/foo/Bar.java");
+
+    verify(exclusionsScanner).newCharHandler("struts:src/main/java/foo/Bar.java");
+  }
+
+  @Test
+  public void do_not_scan_content_when_no_issue_exclusions_on_content() throws Exception {
+    Path baseDir = temp.newFolder().toPath();
+    Path srcFile = baseDir.resolve("src/main/java/foo/Bar.java");
+    FileUtils.write(srcFile.toFile(), "single line");
+    when(exclusionPatternInitializer.hasFileContentPattern()).thenReturn(false);
+
+    createInputFileWithMetadata(generator, baseDir, "src/main/java/foo/Bar.java");
+
+    verifyZeroInteractions(exclusionsScanner);
+  }
+
+  @Test
+  public void use_cached_metadata_of_unmodified_file() throws Exception {
+    Path baseDir = temp.newFolder().toPath();
+    Path srcFile = baseDir.resolve("src/main/java/foo/Bar.java");
+    FileUtils.write(srcFile.toFile(), "single line");
+    FileMetadataCache.CachedMetadata cached = new FileMetadataCache.CachedMetadata(11L, 0L, "US-ASCII", "UTF-16BE",
+      new Metadata(3, 2, "cachedhash", new int[] {0, 5, 10}, 15));
+    when(metadataCache.isEnabled()).thenReturn(true);
+    when(metadataCache.get(eq(srcFile), eq(StandardCharsets.US_ASCII), any(BasicFileAttributes.class))).thenReturn(cached);
+
+    InputFile inputFile = createInputFileWithMetadata(generator, baseDir, "src/main/java/foo/Bar.java");
+
+    assertThat(inputFile.charset()).isEqualTo(StandardCharsets.UTF_16BE);
+    assertThat(inputFile.lines()).isEqualTo(3);
+    verify(statusDetection).status("module", "src/main/java/foo/Bar.java", "cachedhash");
+    verify(metadataCache, never()).put(any(Path.class), any(Charset.class), any(BasicFileAttributes.class), any(Charset.class), any(Metadata.class));
+  }
+
+  @Test
+  public void put_metadata_in_cache() throws Exception {
+    Path baseDir = temp.newFolder().toPath();
+    Path srcFile = baseDir.resolve("src/main/java/foo/Bar.java");
+    FileUtils.write(srcFile.toFile(), "single line");
+    when(metadataCache.isEnabled()).thenReturn(true);
+
+    createInputFileWithMetadata(generator, baseDir, "src/main/java/foo/Bar.java");
+
+    verify(metadataCache).put(eq(srcFile), eq(StandardCharsets.US_ASCII), any(BasicFileAttributes.class), eq(StandardCharsets.US_ASCII), any(Metadata.class));
+  }
 }